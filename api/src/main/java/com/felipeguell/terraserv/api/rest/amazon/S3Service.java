@@ -3,8 +3,14 @@ package com.felipeguell.terraserv.api.rest.amazon;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.model.*;
 import com.felipeguell.terraserv.api.rest.util.AmazonWebServicesUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -13,8 +19,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.util.IOUtils;
+import com.felipeguell.terraserv.api.rest.cache.CacheUrlsFirmadas;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.AssetNotFoundException;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -24,6 +32,23 @@ public class S3Service{
 	// Cliente de Amazon S3 para interactuar con el servicio.
 	private final AmazonS3 s3Client;
 
+	// URLs firmadas reutilizables por clave del objeto.
+	private final CacheUrlsFirmadas cacheUrlsFirmadas;
+
+	// Cantidad máxima de claves que acepta una solicitud de eliminación múltiple de Amazon S3.
+	public static final int MAXIMO_CLAVES_POR_ELIMINACION = 1000;
+
+	// Cantidad máxima de verificaciones de existencia simultáneas al firmar varias URLs que no están en la caché.
+	private static final int MAXIMO_VERIFICACIONES_SIMULTANEAS = 8;
+
+	// Hilos propios para las verificaciones, que son solicitudes HEAD bloqueantes; en el pool común de Java
+	// bloquearían a las demás tareas paralelas de la aplicación.
+	private final ExecutorService ejecutorVerificaciones = Executors.newFixedThreadPool(MAXIMO_VERIFICACIONES_SIMULTANEAS, tarea -> {
+		Thread hilo = new Thread(tarea, "s3-firma-urls");
+		hilo.setDaemon(true);
+		return hilo;
+	});
+
 	/**
 	 * Este método se utiliza para subir un archivo a Amazon S3.
 	 * @param multipartFile El archivo que se va a subir.
@@ -109,32 +134,22 @@ public class S3Service{
 	 * Genera una URL firmada para un objeto específico almacenado en Amazon S3.
 	 * Esta URL permite el acceso seguro y temporal al objeto para los usuarios autorizados.
 	 *
+	 * La URL se reutiliza desde la caché de URLs firmadas mientras le quede suficiente vigencia (ver CacheUrlsFirmadas),
+	 * por lo que la existencia del objeto solo se verifica al firmar una clave que no está en la caché.
+	 *
 	 * @param key La clave única que identifica el objeto en el bucket de Amazon S3.
 	 * @return Una cadena que representa la URL firmada que permite el acceso al objeto.
 	 * @throws AssetNotFoundException Si el objeto con la clave especificada no existe en el bucket.
 	 */
 	public String getObjectUrl(String key) throws AssetNotFoundException {
-		// Verifica si el objeto existe en el bucket.
-		if (!s3Client.doesObjectExist(AmazonWebServicesUtils.BUCKET, key)) {
-			// Si el objeto no existe, lanza una excepción.
-			throw new AssetNotFoundException("El objeto con la clave " + key + " no se encuentra en el bucket " + AmazonWebServicesUtils.BUCKET);
-		}
-
-		// Crea una solicitud para generar una URL firmada con una duración específica.
-		GeneratePresignedUrlRequest generatePresignedUrlRequest = new GeneratePresignedUrlRequest(AmazonWebServicesUtils.BUCKET, key)
-				.withMethod(HttpMethod.GET) // Método HTTP para acceder al objeto.
-				.withExpiration(new Date(System.currentTimeMillis() + 3600000)); // Establece la expiración de la URL en 1 hora.
-
-		// Genera la URL firmada.
-		URL signedUrl = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
-
-		// Devuelve la URL firmada como una cadena.
-		return signedUrl.toString();
+		return cacheUrlsFirmadas.obtener(key, this::verificarExistencia, this::firmarUrl);
 	}
 
 	/**
 	 * Genera URLs firmadas para una lista de objetos almacenados en Amazon S3.
 	 * Cada URL firmada proporciona un acceso seguro y temporal a un objeto específico para los usuarios autorizados.
+	 * Las URLs vigentes en la caché se obtienen directamente; las claves que no están se verifican y firman en
+	 * paralelo, con hasta {@link #MAXIMO_VERIFICACIONES_SIMULTANEAS} verificaciones a la vez.
 	 *
 	 * @param keys Una lista de claves únicas que identifican los objetos en el bucket de Amazon S3.
 	 * @return Un mapa que asocia cada clave con su URL firmada correspondiente.
@@ -142,21 +157,30 @@ public class S3Service{
 	 * @throws AssetNotFoundException Si alguno de los objetos con las claves especificadas no existe en el bucket.
 	 */
 	public Map<String, String> getObjectsUrl(List<String> keys) throws AssetNotFoundException {
-		Map<String, String> presignedUrlMap = new HashMap<>();
-
+		Map<String, String> urls = new HashMap<>();
+		Map<String, CompletableFuture<String>> pendientes = new HashMap<>();
 		for (String key : keys) {
-			if (!s3Client.doesObjectExist(AmazonWebServicesUtils.BUCKET, key)) {
-				// Si el objeto no existe, lanza una excepción.
-				throw new AssetNotFoundException("El objeto con la clave " + key + " no se encuentra en el bucket " + AmazonWebServicesUtils.BUCKET);
+			if (urls.containsKey(key) || pendientes.containsKey(key)) {
+				continue;
+			}
+			String url = cacheUrlsFirmadas.obtenerVigente(key);
+			if (url != null) {
+				urls.put(key, url);
+			} else {
+				pendientes.put(key, CompletableFuture.supplyAsync(() -> getObjectUrl(key), ejecutorVerificaciones));
 			}
-
-			// Genera una URL firmada para el objeto y la agrega al mapa.
-			String presignedUrl = generatePresignedUrl(key);
-			presignedUrlMap.put(key, presignedUrl);
 		}
 
-		// Devuelve el mapa de URLs firmadas.
-		return presignedUrlMap;
+		try {
+			pendientes.forEach((key, url) -> urls.put(key, url.join()));
+		} catch (CompletionException ex) {
+			// Propaga la excepción original, por ejemplo AssetNotFoundException
+			if (ex.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			throw ex;
+		}
+		return urls;
 	}
 
 	/**
@@ -171,28 +195,95 @@ public class S3Service{
 	public void deleteObject(String key){
 		if (s3Client.doesObjectExist(AmazonWebServicesUtils.BUCKET, key)) {
 			s3Client.deleteObject(AmazonWebServicesUtils.BUCKET, key); // Elimina el objeto si existe.
+			cacheUrlsFirmadas.invalidar(List.of(key));
 		} else {
 			throw new AssetNotFoundException(key); // Lanza una excepción si el objeto no se encuentra.
 		}
 	}
 
 	/**
-	 * Este método genera una URL firmada para un objeto específico en Amazon S3.
-	 * @param key La clave única del objeto en Amazon S3.
-	 * @return La URL firmada del objeto.
+	 * Elimina varios objetos de Amazon S3 con la API de eliminación múltiple, en solicitudes de hasta
+	 * {@link #MAXIMO_CLAVES_POR_ELIMINACION} claves, en lugar de una solicitud por objeto.
+	 * Las claves que no existen en el BUCKET se consideran eliminadas. Una solicitud fallida no detiene las siguientes.
+	 *
+	 * @param keys Las claves únicas de los objetos que se desean eliminar.
+	 * @return Las claves que no se pudieron eliminar.
 	 */
-	public String generatePresignedUrl(String key) {
-		// Crea una solicitud para generar una URL firmada.
-		GeneratePresignedUrlRequest generatePresignedUrlRequest =
-				new GeneratePresignedUrlRequest(AmazonWebServicesUtils.BUCKET, key);
+	public List<String> deleteObjects(List<String> keys) {
+		List<String> clavesFallidas = new ArrayList<>();
+		cacheUrlsFirmadas.invalidar(keys);
+
+		for (int desde = 0; desde < keys.size(); desde += MAXIMO_CLAVES_POR_ELIMINACION) {
+			List<String> tramo = keys.subList(desde, Math.min(desde + MAXIMO_CLAVES_POR_ELIMINACION, keys.size()));
+			// En modo silencioso la respuesta solo informa las claves que no se pudieron eliminar
+			DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(AmazonWebServicesUtils.BUCKET)
+					.withKeys(tramo.toArray(new String[0]))
+					.withQuiet(true);
+			try {
+				s3Client.deleteObjects(deleteObjectsRequest);
+			} catch (MultiObjectDeleteException ex) {
+				ex.getErrors().forEach(error -> clavesFallidas.add(error.getKey()));
+			} catch (SdkClientException ex) {
+				clavesFallidas.addAll(tramo);
+			}
+		}
 
-		// Establece la fecha de vencimiento de la URL firmada.
-		generatePresignedUrlRequest.setExpiration(new Date(System.currentTimeMillis() + 3600000));  // La URL expirará en 1 hora.
+		return clavesFallidas;
+	}
 
-		// Genera la URL firmada.
-		URL url = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
+	/**
+	 * Recorre los objetos del BUCKET de a una página de hasta {@link #MAXIMO_CLAVES_POR_ELIMINACION} objetos, en
+	 * orden de clave, sin mantener en memoria más de una página a la vez.
+	 *
+	 * @param consumidorPagina Recibe la clave y la fecha de última modificación de los objetos de cada página.
+	 */
+	public void recorrerObjetos(Consumer<List<S3ObjectSummary>> consumidorPagina) {
+		ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request()
+				.withBucketName(AmazonWebServicesUtils.BUCKET)
+				.withMaxKeys(MAXIMO_CLAVES_POR_ELIMINACION);
+		ListObjectsV2Result pagina;
+		do {
+			pagina = s3Client.listObjectsV2(listObjectsRequest);
+			if (!pagina.getObjectSummaries().isEmpty()) {
+				consumidorPagina.accept(pagina.getObjectSummaries());
+			}
+			listObjectsRequest.setContinuationToken(pagina.getNextContinuationToken());
+		} while (pagina.isTruncated());
+	}
 
-		// Devuelve la URL firmada como una cadena.
+	/**
+	 * Detiene los hilos de verificación al cerrar la aplicación.
+	 */
+	@PreDestroy
+	public void detener() {
+		ejecutorVerificaciones.shutdownNow();
+	}
+
+	/**
+	 * Verifica que el objeto existe en el BUCKET antes de firmar su URL.
+	 *
+	 * @throws AssetNotFoundException Si el objeto con la clave especificada no existe en el bucket.
+	 */
+	private void verificarExistencia(String key) {
+		if (!s3Client.doesObjectExist(AmazonWebServicesUtils.BUCKET, key)) {
+			throw new AssetNotFoundException("El objeto con la clave " + key + " no se encuentra en el bucket " + AmazonWebServicesUtils.BUCKET);
+		}
+	}
+
+	/**
+	 * Firma la URL de descarga de un objeto. La firma se calcula localmente; el cliente de Amazon S3 mantiene en
+	 * caché la clave de firma derivada de las credenciales, que cambia una vez al día.
+	 *
+	 * @param key        La clave única del objeto en Amazon S3.
+	 * @param expiracion Fecha de vencimiento de la URL firmada.
+	 * @return La URL firmada del objeto.
+	 */
+	private String firmarUrl(String key, Date expiracion) {
+		GeneratePresignedUrlRequest generatePresignedUrlRequest = new GeneratePresignedUrlRequest(AmazonWebServicesUtils.BUCKET, key)
+				.withMethod(HttpMethod.GET)
+				.withExpiration(expiracion);
+
+		URL url = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
 		return url.toString();
 	}
 
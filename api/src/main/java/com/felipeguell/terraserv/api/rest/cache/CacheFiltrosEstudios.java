@@ -0,0 +1,149 @@
+package com.felipeguell.terraserv.api.rest.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCache;
+
+/**
+ * Caché en memoria de los IDs que resultan de cada combinación de criterios de filtrado.
+ *
+ * Es una caché LRU acotada por cantidad de entradas y por tiempo de vida. Al guardar un estudio solo se invalidan
+ * las entradas cuyo resultado cambia: aquellas en las que el estudio estaba y ya no cumple el filtro, o en las
+ * que no estaba y ahora lo cumple. Al eliminar un estudio se invalidan las entradas que lo contenían.
+ *
+ * Un resultado calculado mientras ocurría un guardado o una eliminación no se almacena, porque pudo leer datos
+ * anteriores al cambio. Los listeners se ejecutan después de los de los índices en memoria, de modo que un
+ * resultado calculado tras la invalidación ya usa los índices actualizados.
+ */
+@Component
+public class CacheFiltrosEstudios {
+
+	private final int maximoEntradas;
+	private final long ttlMillis;
+
+	private final LinkedHashMap<FiltroNormalizado, Entrada> entradas;
+	// Cambia con cada guardado o eliminación; permite descartar resultados calculados durante un cambio
+	private long version;
+
+	private long aciertos;
+	private long fallos;
+	private long desalojos;
+	private long expiraciones;
+	private long invalidaciones;
+
+	public CacheFiltrosEstudios(@Value("${estudios.cache-filtros.maximo-entradas:256}") int maximoEntradas,
+								@Value("${estudios.cache-filtros.ttl-segundos:300}") long ttlSegundos) {
+		this.maximoEntradas = maximoEntradas;
+		this.ttlMillis = ttlSegundos * 1000;
+		this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<FiltroNormalizado, Entrada> eldest) {
+				if (size() > CacheFiltrosEstudios.this.maximoEntradas) {
+					desalojos++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Obtiene los IDs del filtro desde la caché o, si no están o expiraron, los calcula y los almacena.
+	 *
+	 * @param filtro  El filtro normalizado.
+	 * @param calculo Calcula los IDs del filtro, en orden ascendente.
+	 * @return Los IDs que cumplen el filtro, en orden ascendente.
+	 */
+	public List<Long> obtener(FiltroNormalizado filtro, Supplier<List<Long>> calculo) {
+		long versionInicial;
+		synchronized (this) {
+			Entrada entrada = entradas.get(filtro);
+			if (entrada != null && entrada.expiraEn > System.currentTimeMillis()) {
+				aciertos++;
+				return entrada.comoLista();
+			}
+			if (entrada != null) {
+				entradas.remove(filtro);
+				expiraciones++;
+			}
+			fallos++;
+			versionInicial = version;
+		}
+
+		List<Long> ids = calculo.get();
+		long[] idsOrdenados = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+
+		synchronized (this) {
+			if (version == versionInicial) {
+				entradas.put(filtro, new Entrada(idsOrdenados, System.currentTimeMillis() + ttlMillis));
+			}
+		}
+		return ids;
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public synchronized void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		version++;
+		Iterator<Map.Entry<FiltroNormalizado, Entrada>> iterador = entradas.entrySet().iterator();
+		while (iterador.hasNext()) {
+			Map.Entry<FiltroNormalizado, Entrada> entrada = iterador.next();
+			if (entrada.getValue().contiene(event.getId()) != entrada.getKey().coincide(event)) {
+				iterador.remove();
+				invalidaciones++;
+			}
+		}
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public synchronized void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		version++;
+		Iterator<Entrada> iterador = entradas.values().iterator();
+		while (iterador.hasNext()) {
+			if (iterador.next().contiene(event.getId())) {
+				iterador.remove();
+				invalidaciones++;
+			}
+		}
+	}
+
+	/**
+	 * @return Los contadores de aciertos, fallos, desalojos, expiraciones e invalidaciones.
+	 */
+	public synchronized EstadisticasCache estadisticas() {
+		return new EstadisticasCache(aciertos, fallos, desalojos, expiraciones, invalidaciones,
+				entradas.size(), maximoEntradas, ttlMillis / 1000);
+	}
+
+	private static final class Entrada {
+		private final long[] ids;
+		private final long expiraEn;
+
+		Entrada(long[] ids, long expiraEn) {
+			this.ids = ids;
+			this.expiraEn = expiraEn;
+		}
+
+		boolean contiene(Long id) {
+			return Arrays.binarySearch(ids, id) >= 0;
+		}
+
+		List<Long> comoLista() {
+			return Arrays.stream(ids).boxed().toList();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.felipeguell.terraserv.api.rest.cache;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCacheUrls;
+
+/**
+ * Caché en memoria de las URLs firmadas de los objetos de Amazon S3, por clave del objeto.
+ *
+ * Una URL se reutiliza mientras le quede más vigencia que el margen de renovación, de modo que el cliente
+ * siempre recibe una URL válida por al menos ese margen. Al entrar en el margen se vuelve a firmar antes de
+ * que venza (renovación anticipada), sin verificar de nuevo que el objeto existe, ya que se verificó al firmarla
+ * por primera vez y los objetos se quitan de la caché al eliminarlos. Firmar es un cálculo local; la verificación
+ * es una solicitud HEAD a Amazon S3, que solo se hace cuando la clave no está o su URL ya venció.
+ *
+ * Las lecturas no se bloquean entre sí. Si dos solicitudes firman la misma clave a la vez, se conserva la última.
+ */
+@Component
+public class CacheUrlsFirmadas {
+
+	private final long duracionMillis;
+	private final long margenRenovacionMillis;
+	private final int maximoEntradas;
+
+	private final Map<String, UrlFirmada> entradas = new ConcurrentHashMap<>();
+
+	private final LongAdder aciertos = new LongAdder();
+	private final LongAdder fallos = new LongAdder();
+	private final LongAdder renovaciones = new LongAdder();
+	private final LongAdder tiempoFirmaNanos = new LongAdder();
+
+	public CacheUrlsFirmadas(@Value("${estudios.cache-urls-s3.duracion-segundos:3600}") long duracionSegundos,
+							 @Value("${estudios.cache-urls-s3.margen-renovacion-segundos:900}") long margenRenovacionSegundos,
+							 @Value("${estudios.cache-urls-s3.maximo-entradas:100000}") int maximoEntradas) {
+		if (margenRenovacionSegundos >= duracionSegundos) {
+			throw new IllegalArgumentException("El margen de renovación de las URLs firmadas debe ser menor que su duración.");
+		}
+		this.duracionMillis = duracionSegundos * 1000;
+		this.margenRenovacionMillis = margenRenovacionSegundos * 1000;
+		this.maximoEntradas = maximoEntradas;
+	}
+
+	/**
+	 * Obtiene la URL firmada de un objeto desde la caché o, si no está o está por vencer, la firma y la almacena.
+	 *
+	 * @param clave              La clave del objeto en Amazon S3.
+	 * @param verificarExistencia Verifica que el objeto existe antes de firmar una clave que no está en la caché
+	 *                            o cuya URL ya venció; lanza una excepción si no existe.
+	 * @param firmar             Firma la URL del objeto con la fecha de expiración recibida.
+	 * @return La URL firmada, vigente por al menos el margen de renovación.
+	 */
+	public String obtener(String clave, Consumer<String> verificarExistencia, BiFunction<String, Date, String> firmar) {
+		String vigente = obtenerVigente(clave);
+		if (vigente != null) {
+			return vigente;
+		}
+
+		long ahora = System.currentTimeMillis();
+		UrlFirmada actual = entradas.get(clave);
+		if (actual != null && actual.expiraEn > ahora) {
+			renovaciones.increment();
+		} else {
+			fallos.increment();
+			verificarExistencia.accept(clave);
+		}
+
+		long expiraEn = ahora + duracionMillis;
+		long inicio = System.nanoTime();
+		String url = firmar.apply(clave, new Date(expiraEn));
+		tiempoFirmaNanos.add(System.nanoTime() - inicio);
+
+		if (entradas.size() >= maximoEntradas && !entradas.containsKey(clave)) {
+			liberarEspacio(ahora);
+		}
+		entradas.put(clave, new UrlFirmada(url, expiraEn));
+		return url;
+	}
+
+	/**
+	 * Obtiene la URL firmada de un objeto solo si está en la caché y le queda más vigencia que el margen de
+	 * renovación, sin verificar ni firmar.
+	 *
+	 * @param clave La clave del objeto en Amazon S3.
+	 * @return La URL firmada, o null si hay que firmarla con obtener.
+	 */
+	public String obtenerVigente(String clave) {
+		UrlFirmada actual = entradas.get(clave);
+		if (actual != null && actual.expiraEn - System.currentTimeMillis() > margenRenovacionMillis) {
+			aciertos.increment();
+			return actual.url;
+		}
+		return null;
+	}
+
+	/**
+	 * Quita de la caché las URLs de los objetos eliminados, para que no se entreguen URLs de objetos que no existen.
+	 *
+	 * @param claves Las claves de los objetos eliminados.
+	 */
+	public void invalidar(Collection<String> claves) {
+		claves.forEach(entradas::remove);
+	}
+
+	/**
+	 * @return Los contadores de aciertos, fallos, renovaciones y tiempo de firma.
+	 */
+	public EstadisticasCacheUrls estadisticas() {
+		long totalAciertos = aciertos.sum();
+		long totalFallos = fallos.sum();
+		long totalRenovaciones = renovaciones.sum();
+		long consultas = totalAciertos + totalFallos + totalRenovaciones;
+		long firmas = totalFallos + totalRenovaciones;
+		return new EstadisticasCacheUrls(totalAciertos, totalFallos, totalRenovaciones,
+				consultas == 0 ? 0 : (double) totalAciertos / consultas, firmas,
+				firmas == 0 ? 0 : tiempoFirmaNanos.sum() / 1_000_000.0 / firmas,
+				entradas.size(), maximoEntradas, duracionMillis / 1000, margenRenovacionMillis / 1000);
+	}
+
+	/**
+	 * Quita las URLs vencidas o por vencer y, si la caché sigue llena, cualquier otra hasta dejar espacio.
+	 * No se mantiene un orden LRU, que obligaría a sincronizar las lecturas.
+	 */
+	private void liberarEspacio(long ahora) {
+		entradas.values().removeIf(url -> url.expiraEn - ahora <= margenRenovacionMillis);
+		Iterator<String> iterador = entradas.keySet().iterator();
+		while (entradas.size() >= maximoEntradas && iterador.hasNext()) {
+			iterador.next();
+			iterador.remove();
+		}
+	}
+
+	private static final class UrlFirmada {
+		private final String url;
+		private final long expiraEn;
+
+		UrlFirmada(String url, long expiraEn) {
+			this.url = url;
+			this.expiraEn = expiraEn;
+		}
+	}
+}
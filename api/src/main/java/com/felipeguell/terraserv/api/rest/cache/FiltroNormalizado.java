@@ -0,0 +1,119 @@
+package com.felipeguell.terraserv.api.rest.cache;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.util.CoordenadaUtils;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Criterios de FiltroEstudioGeofisico ya validados y normalizados: textos sin tildes ni mayúsculas, fechas parseadas
+ * y tipos y áreas convertidos a máscaras. Dos filtros que producen el mismo resultado generan la misma instancia
+ * (según equals), por lo que sirve como clave de CacheFiltrosEstudios.
+ *
+ * Además permite evaluar en memoria si un estudio recién guardado cumple el filtro, con la misma semántica
+ * que la consulta JPQL y los índices en memoria.
+ */
+@Value
+@Builder
+public class FiltroNormalizado {
+
+	String consulta;
+	// Solo se informan si vienen ambas, igual que en la consulta
+	LocalDate fechaInicio;
+	LocalDate fechaFin;
+	Integer mascaraTipos;
+	Integer minimoTipos;
+	Integer mascaraAreas;
+	Integer minimoAreas;
+	Double latitudMin;
+	Double latitudMax;
+	Double longitudMin;
+	Double longitudMax;
+	Double latitudCentro;
+	Double longitudCentro;
+	Double radioKm;
+
+	/**
+	 * Evalúa si el estudio cumple con todos los criterios del filtro.
+	 *
+	 * @param estudio Copia del estudio geofísico guardado.
+	 * @return true si el estudio forma parte del resultado del filtro.
+	 */
+	public boolean coincide(EstudioGeofisicoGuardadoEvent estudio) {
+		return coincideTexto(estudio)
+				&& coincideFecha(estudio.getFechaRealizado())
+				&& coincideMascara(mascaraTipos, minimoTipos, MascaraBitsUtils.aMascara(estudio.getTiposEstudio()))
+				&& coincideMascara(mascaraAreas, minimoAreas, MascaraBitsUtils.aMascara(estudio.getAreasEstudio()))
+				&& coincideRectangulo(estudio.getCoordenadas())
+				&& coincideRadio(estudio.getCoordenadas());
+	}
+
+	/**
+	 * @return La fecha como día del calendario en la zona horaria de la aplicación, o null si es null.
+	 */
+	public static LocalDate aDia(Date fecha) {
+		return fecha == null ? null : Instant.ofEpochMilli(fecha.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	private boolean coincideTexto(EstudioGeofisicoGuardadoEvent estudio) {
+		if (consulta == null) {
+			return true;
+		}
+		return IndiceTextoEstudios.normalizar(estudio.getNombreEstudio()).contains(consulta)
+				|| IndiceTextoEstudios.normalizar(estudio.getNombreCliente()).contains(consulta)
+				|| IndiceTextoEstudios.normalizar(estudio.getUbicacionEstudio()).contains(consulta);
+	}
+
+	private boolean coincideFecha(Date fechaRealizado) {
+		if (fechaInicio == null || fechaFin == null) {
+			return true;
+		}
+		LocalDate dia = aDia(fechaRealizado);
+		return dia != null && !dia.isBefore(fechaInicio) && !dia.isAfter(fechaFin);
+	}
+
+	private static boolean coincideMascara(Integer mascaraFiltro, Integer minimo, int mascaraEstudio) {
+		return mascaraFiltro == null || (mascaraEstudio & mascaraFiltro) >= minimo;
+	}
+
+	private boolean coincideRectangulo(List<Coordenada> coordenadas) {
+		if (latitudMin == null) {
+			return true;
+		}
+		for (Coordenada coordenada : coordenadas) {
+			double latitud = coordenada.getLatitudDecimal();
+			double longitud = coordenada.getLongitudDecimal();
+			// Si longitudMin es mayor que longitudMax el rectángulo cruza el antimeridiano
+			boolean enLongitud = longitudMin <= longitudMax
+					? longitud >= longitudMin && longitud <= longitudMax
+					: longitud >= longitudMin || longitud <= longitudMax;
+			if (latitud >= latitudMin && latitud <= latitudMax && enLongitud) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean coincideRadio(List<Coordenada> coordenadas) {
+		if (radioKm == null) {
+			return true;
+		}
+		for (Coordenada coordenada : coordenadas) {
+			if (CoordenadaUtils.distanciaKm(latitudCentro, longitudCentro,
+					coordenada.getLatitudDecimal(), coordenada.getLongitudDecimal()) <= radioKm) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,37 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Configuración de la caché de segundo nivel de Hibernate.
+ *
+ * Usa Ehcache como proveedor local (JCache) con las regiones definidas en ehcache.xml. Las entidades y
+ * colecciones marcadas con @Cache usan la estrategia READ_WRITE, que bloquea la entrada mientras la
+ * transacción que la modifica no termina, de modo que ninguna lectura concurrente obtiene datos antiguos.
+ * Las estadísticas de Hibernate quedan activas para poder consultar el uso de cada región.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+	@Bean
+	HibernatePropertiesCustomizer cacheSegundoNivelCustomizer() throws IOException {
+		// Hibernate no resuelve el prefijo classpath: con el cargador de clases de Spring; se entrega la URI completa
+		String configuracion = new ClassPathResource("ehcache.xml").getURI().toString();
+
+		return (Map<String, Object> propiedades) -> {
+			propiedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			propiedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			propiedades.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+			propiedades.put("hibernate.javax.cache.uri", configuracion);
+			propiedades.put("hibernate.javax.cache.missing_cache_strategy", "create-warn");
+			propiedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+		};
+	}
+}
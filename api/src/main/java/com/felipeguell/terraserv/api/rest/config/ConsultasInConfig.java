@@ -0,0 +1,25 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las consultas con listas de parámetros (IN :ids).
+ *
+ * Hibernate completa cada lista hasta la siguiente potencia de dos repitiendo el último valor, de modo que las
+ * consultas con distinta cantidad de IDs candidatos comparten unas pocas sentencias SQL en lugar de generar una
+ * por cada cantidad, y la base de datos puede reutilizar sus planes. Las listas más largas que
+ * ConsultaFiltroEstudios.MAXIMO_IDS_POR_CONSULTA se consultan por tramos o desde la tabla de IdCandidatoConsulta.
+ */
+@Configuration
+public class ConsultasInConfig {
+
+	@Bean
+	HibernatePropertiesCustomizer consultasInCustomizer() {
+		return (Map<String, Object> propiedades) -> propiedades.put(AvailableSettings.IN_CLAUSE_PARAMETER_PADDING, true);
+	}
+}
@@ -23,10 +23,12 @@ public class CorsConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 // Permite las solicitudes de origen desde http://localhost:4200.
                 .allowedOrigins("http://localhost:4200")
-                // Permite los métodos de solicitud GET, POST, PUT, OPTIONS y DELETE.
-                .allowedMethods("GET", "POST", "PUT", "OPTIONS", "DELETE")
+                // Permite los métodos de solicitud GET, POST, PUT, PATCH, OPTIONS y DELETE.
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "OPTIONS", "DELETE")
                 // Permite todos los encabezados de solicitud.
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                // Expone el ETag, que el cliente reenvía en If-Match al modificar un estudio.
+                .exposedHeaders("ETag");
     }
 }
 
@@ -0,0 +1,26 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Clase de configuración para calcular el centroide y el rectángulo de las coordenadas de los estudios
+ * que se guardaron antes de que existieran las columnas latitud_centro, longitud_centro, latitud_min,
+ * latitud_max, longitud_min y longitud_max
+ */
+@Configuration
+public class InitExtensionEstudiosConfig {
+
+    @Autowired
+    private IEstudioGeofisicoService estudioGeofisicoService;
+
+    @Bean
+    @Order(1)
+    public CommandLineRunner initExtensionEstudios() {
+        return args -> estudioGeofisicoService.completarExtensionEstudios();
+    }
+}
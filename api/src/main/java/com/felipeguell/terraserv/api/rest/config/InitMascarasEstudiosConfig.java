@@ -0,0 +1,25 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Clase de configuración para calcular las máscaras de bits de tipos y áreas de los estudios
+ * que se guardaron antes de que existieran las columnas tipos_estudio_mask y areas_estudio_mask
+ */
+@Configuration
+public class InitMascarasEstudiosConfig {
+
+    @Autowired
+    private IEstudioGeofisicoService estudioGeofisicoService;
+
+    @Bean
+    @Order(1)
+    public CommandLineRunner initMascarasEstudios() {
+        return args -> estudioGeofisicoService.completarMascarasEstudio();
+    }
+}
@@ -0,0 +1,25 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Clase de configuración para completar la tabla registros_estudios con los estudios que no tienen fila
+ * en el listado de registros. Se ejecuta después de calcular las máscaras, que se copian en cada fila.
+ */
+@Configuration
+public class InitRegistrosEstudiosConfig {
+
+    @Autowired
+    private IEstudioGeofisicoService estudioGeofisicoService;
+
+    @Bean
+    @Order(2)
+    public CommandLineRunner initRegistrosEstudios() {
+        return args -> estudioGeofisicoService.completarRegistrosEstudio();
+    }
+}
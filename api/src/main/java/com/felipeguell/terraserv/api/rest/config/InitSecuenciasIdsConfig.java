@@ -0,0 +1,25 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clase de configuración para adelantar las secuencias de IDs de los estudios, coordenadas, imágenes y archivos
+ * adjuntos más allá de los IDs que se generaron con IDENTITY.
+ *
+ * Se ejecuta al terminar de crear los beans y antes de que el servidor web comience a aceptar solicitudes,
+ * de modo que ningún guardado ni tarea de inicio puede generar IDs con las secuencias sin alinear.
+ */
+@Configuration
+public class InitSecuenciasIdsConfig implements SmartInitializingSingleton {
+
+    @Autowired
+    private IEstudioGeofisicoService estudioGeofisicoService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        estudioGeofisicoService.alinearSecuenciasIds();
+    }
+}
@@ -0,0 +1,35 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
+
+/**
+ * Configuración de los lotes JDBC de Hibernate.
+ *
+ * Los INSERT y UPDATE de una misma tabla se envían en lotes de hasta {@link SecuenciasIdsUtils#TAMANO_BLOQUE}
+ * sentencias, ordenados por entidad para que los lotes no se corten al intercalar estudios con sus colecciones.
+ * Con MySQL conviene además agregar rewriteBatchedStatements=true a la URL de conexión, para que el driver
+ * envíe cada lote como un único INSERT de varias filas.
+ *
+ * Las colecciones perezosas se inicializan de a {@link SecuenciasIdsUtils#TAMANO_BLOQUE} dueños por consulta, de
+ * modo que recorrer un lote de estudios (por ejemplo, para eliminarlos) no ejecuta una consulta por estudio.
+ */
+@Configuration
+public class LotesJdbcConfig {
+
+	@Bean
+	HibernatePropertiesCustomizer lotesJdbcCustomizer() {
+		return (Map<String, Object> propiedades) -> {
+			propiedades.put(AvailableSettings.STATEMENT_BATCH_SIZE, SecuenciasIdsUtils.TAMANO_BLOQUE);
+			propiedades.put(AvailableSettings.ORDER_INSERTS, true);
+			propiedades.put(AvailableSettings.ORDER_UPDATES, true);
+			propiedades.put(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE, SecuenciasIdsUtils.TAMANO_BLOQUE);
+		};
+	}
+}
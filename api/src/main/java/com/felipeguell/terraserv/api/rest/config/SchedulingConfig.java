@@ -0,0 +1,13 @@
+package com.felipeguell.terraserv.api.rest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas, como la eliminación en segundo plano de los objetos de Amazon S3
+ * pendientes (ver IEliminacionObjetosS3Service).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,35 +1,58 @@
 package com.felipeguell.terraserv.api.rest.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.BadRequestException;
+import com.felipeguell.terraserv.api.rest.models.entity.ClusterEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioCercano;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisicoPageable;
+import com.felipeguell.terraserv.api.rest.models.entity.PaginaCursor;
+import com.felipeguell.terraserv.api.rest.models.entity.ResultadoImportacion;
+import com.felipeguell.terraserv.api.rest.models.entity.SolicitudEliminacionEstudios;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumFormatoImportacion;
+import com.felipeguell.terraserv.api.rest.services.IEliminacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.services.IExportacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.services.IImportacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.models.entity.SugerenciaEstudio;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.CollectionUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.EstudioNotFoundException;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.ValidationException;
 import com.felipeguell.terraserv.api.rest.amazon.S3Service;
 import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
 import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.FacetasEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import com.felipeguell.terraserv.api.rest.util.ETagUtils;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 
@@ -40,7 +63,16 @@ import lombok.RequiredArgsConstructor;
 public class EstudioGeofisicoController {
 	
 	private final IEstudioGeofisicoService estudioGeofisicoService;
+	private final IImportacionEstudiosService importacionEstudiosService;
+	private final IExportacionEstudiosService exportacionEstudiosService;
+	private final IEliminacionEstudiosService eliminacionEstudiosService;
 	private final S3Service s3Service;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+
+	// Campos que se pueden modificar con PATCH /{id}
+	private static final Set<String> CAMPOS_PATCH = Set.of("nombreEstudio", "nombreCliente", "descripcion", "fechaRealizado",
+			"ubicacionEstudio", "coordenadas", "tiposEstudio", "areasEstudio", "imagenes", "archivosAdjuntos");
 
 
 	/**
@@ -67,6 +99,24 @@ public class EstudioGeofisicoController {
 	}
 
 
+	/**
+	 * Variante en streaming de getAllEstudios, seleccionada con el encabezado Accept: application/x-ndjson.
+	 * Recorre los estudios geofísicos por lotes y escribe un objeto JSON por línea a medida que se leen,
+	 * por lo que la memoria usada no depende de la cantidad total de estudios.
+	 *
+	 * @return ResponseEntity con el cuerpo NDJSON. Si no existen estudios geofísicos, el cuerpo queda vacío.
+	 */
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllEstudios() {
+		StreamingResponseBody cuerpo = salida -> estudioGeofisicoService.recorrerEstudios(lote -> {
+			// Actualiza las URLs de los estudios geofísicos del lote antes de escribirlos.
+			updateUrls(lote);
+			escribirNdjson(salida, lote);
+		});
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+	}
+
 	/**
 	 * Controlador para manejar solicitudes POST y obtener estudios geofísicos filtrados por campos específicos.
 	 *
@@ -75,6 +125,9 @@ public class EstudioGeofisicoController {
 	 *               - Fecha de inicio y fin: Trae todos los estudios geofísicos realizados en un período de tiempo específico.
 	 *               - Tipo de estudio: Trae los estudios que coinciden con un tipo específico de estudio.
 	 *               - Área de estudio: Trae los estudios que coinciden con un área específica de estudio.
+	 *               - Tipos y áreas de estudio: Listas tiposEstudio/areasEstudio combinadas con modoTiposEstudio/modoAreasEstudio ("any" o "all").
+	 *               - Rectángulo geográfico: Trae los estudios con alguna coordenada dentro de latitudMin/latitudMax/longitudMin/longitudMax.
+	 *               - Radio: Trae los estudios con alguna coordenada a menos de radioKm del punto latitudCentro/longitudCentro.
 	 * @return ResponseEntity con un conjunto de proyecciones de estudios geofísicos y el código de estado HTTP.
 	 *         Si no existen estudios geofísicos que coincidan con los criterios de filtrado, se retorna una respuesta HTTP con estado 204 NO CONTENT.
 	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
@@ -97,6 +150,184 @@ public class EstudioGeofisicoController {
 		}
 	}
 
+	/**
+	 * Controlador para obtener los estudios geofísicos cuya huella intersecta un área dibujada, por ejemplo el
+	 * límite de una concesión. La huella de un estudio es el punto, segmento o polígono que forman sus coordenadas.
+	 *
+	 * @param geoJson Documento GeoJSON con el área: un Polygon, MultiPolygon, Feature o FeatureCollection,
+	 *                con posiciones [longitud, latitud]. Un área que cruza el antimeridiano debe venir dividida.
+	 * @return ResponseEntity con un conjunto de proyecciones de estudios geofísicos y el código de estado HTTP.
+	 *         Si ningún estudio intersecta el área, se retorna una respuesta HTTP con estado 204 NO CONTENT.
+	 */
+	@PostMapping("/interseccion")
+	public ResponseEntity<Set<EstudioGeofisicoProjection>> filterEstudiosPorPoligono(@RequestBody JsonNode geoJson) {
+		Set<EstudioGeofisicoProjection> estudios = estudioGeofisicoService.filterEstudiosPorPoligono(geoJson);
+
+		if (CollectionUtils.isEmpty(estudios)) {
+			return ResponseEntity.noContent().build();
+		}
+		return ResponseEntity.ok(estudios);
+	}
+
+	/**
+	 * Variante en streaming de filterEstudios, seleccionada con el encabezado Accept: application/x-ndjson.
+	 * Los criterios de filtrado se validan antes de empezar a escribir la respuesta; luego las proyecciones
+	 * se escriben por lotes, un objeto JSON por línea.
+	 *
+	 * @param filtro Objeto que contiene los mismos parámetros de filtrado que filterEstudios.
+	 * @return ResponseEntity con el cuerpo NDJSON. Si no hay coincidencias, el cuerpo queda vacío.
+	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
+	 */
+	@PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamFilterEstudios(@RequestBody FiltroEstudioGeofisico filtro) {
+		try {
+			estudioGeofisicoService.validarFiltro(filtro);
+		} catch (ParseException e) {
+			throw new BadRequestException("Error en la conversión de datos: " + e.getMessage());
+		}
+
+		StreamingResponseBody cuerpo = salida -> {
+			try {
+				estudioGeofisicoService.recorrerEstudiosFiltrados(filtro, lote -> escribirNdjson(salida, lote));
+			} catch (ParseException e) {
+				// No ocurre: el filtro ya fue validado antes de iniciar la respuesta
+				throw new IllegalStateException(e);
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+	}
+
+	/**
+	 * Exporta en CSV los estudios geofísicos que cumplen con el filtro, para abrirlos en una planilla de cálculo.
+	 * Los criterios se validan antes de empezar a escribir la respuesta; luego cada estudio se escribe apenas se
+	 * lee de la base de datos, por lo que la memoria usada no depende de la cantidad de estudios.
+	 *
+	 * @param filtro Objeto opcional con los mismos parámetros de filtrado que filterEstudios. Sin filtro se exportan todos.
+	 * @return ResponseEntity con el archivo estudios.csv, con una fila por estudio y las mismas columnas que acepta /importar.
+	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
+	 */
+	@PostMapping(value = "/exportar", produces = "text/csv")
+	public ResponseEntity<StreamingResponseBody> exportarCsv(@RequestBody(required = false) FiltroEstudioGeofisico filtro) {
+		FiltroEstudioGeofisico criterios = validarFiltroExportacion(filtro);
+		return respuestaExportacion("estudios.csv", new MediaType("text", "csv", StandardCharsets.UTF_8),
+				salida -> exportacionEstudiosService.exportarCsv(criterios, salida));
+	}
+
+	/**
+	 * Exporta como FeatureCollection GeoJSON los estudios geofísicos que cumplen con el filtro, para abrirlos en un
+	 * sistema de información geográfica. La geometría de cada estudio se arma con sus coordenadas.
+	 *
+	 * @param filtro Objeto opcional con los mismos parámetros de filtrado que filterEstudios. Sin filtro se exportan todos.
+	 * @return ResponseEntity con el archivo estudios.geojson.
+	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
+	 */
+	@PostMapping(value = "/exportar", produces = "application/geo+json")
+	public ResponseEntity<StreamingResponseBody> exportarGeoJson(@RequestBody(required = false) FiltroEstudioGeofisico filtro) {
+		FiltroEstudioGeofisico criterios = validarFiltroExportacion(filtro);
+		return respuestaExportacion("estudios.geojson", new MediaType("application", "geo+json"),
+				salida -> exportacionEstudiosService.exportarGeoJson(criterios, salida));
+	}
+
+	/**
+	 * Obtiene la cantidad de estudios geofísicos por tipo de estudio, por área de aplicación y por año de fechaRealizado.
+	 *
+	 * @param filtro Objeto opcional con los mismos parámetros de filtrado que filterEstudios. Sin filtro, las cantidades
+	 *               se obtienen de contadores en memoria que se actualizan al guardar y eliminar estudios.
+	 * @return ResponseEntity con las cantidades (total, tiposEstudio, areasEstudio y anios) y el código de estado HTTP.
+	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
+	 */
+	@PostMapping("/facets")
+	public ResponseEntity<FacetasEstudioGeofisico> obtenerFacetas(@RequestBody(required = false) FiltroEstudioGeofisico filtro) {
+		try {
+			return ResponseEntity.ok(estudioGeofisicoService.obtenerFacetas(filtro));
+		} catch (ParseException e) {
+			throw new BadRequestException("Error en la conversión de datos: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Obtiene la cantidad de estudios geofísicos por tipo de estudio, por área de aplicación y por año de fechaRealizado,
+	 * sin aplicar filtros.
+	 *
+	 * @return ResponseEntity con las cantidades y el código de estado HTTP.
+	 */
+	@GetMapping("/facets")
+	public ResponseEntity<FacetasEstudioGeofisico> obtenerFacetasSinFiltro() {
+		return obtenerFacetas(null);
+	}
+
+	/**
+	 * Sugiere valores de nombreCliente, nombreEstudio y ubicacionEstudio que comienzan con el texto escrito en el
+	 * buscador. Se responde desde un índice en memoria, sin ejecutar la búsqueda completa de estudios.
+	 *
+	 * @param q      Texto escrito por el usuario; no se distinguen tildes ni mayúsculas.
+	 * @param campo  Opcional. NOMBRE_CLIENTE, NOMBRE_ESTUDIO o UBICACION_ESTUDIO para sugerir solo valores de ese campo.
+	 * @param limite Opcional. Cantidad máxima de sugerencias (predeterminado: 10, máximo: 50).
+	 * @return ResponseEntity con las sugerencias, de la más usada a la menos usada, y el código de estado HTTP.
+	 */
+	@GetMapping("/suggest")
+	public ResponseEntity<List<SugerenciaEstudio>> sugerir(@RequestParam(required = false) String q,
+															@RequestParam(required = false) String campo,
+															@RequestParam(required = false) Integer limite) {
+		return ResponseEntity.ok(estudioGeofisicoService.sugerir(q, campo, limite));
+	}
+
+	/**
+	 * Busca los estudios geofísicos más cercanos a un punto, por ejemplo para revisar trabajos anteriores al cotizar
+	 * un estudio nuevo. La distancia es la de círculo máximo hasta la más cercana de las coordenadas de cada estudio.
+	 *
+	 * @param latitud          Latitud del punto.
+	 * @param longitud         Longitud del punto.
+	 * @param cantidad         Opcional. Cantidad de estudios (predeterminado: 10, máximo: 100).
+	 * @param tiposEstudio     Opcional. Tipos de estudio que deben tener los estudios.
+	 * @param modoTiposEstudio Opcional. "any" (alguno de los tipos, predeterminado) o "all" (todos).
+	 * @return ResponseEntity con los estudios y su distancia en kilómetros, del más cercano al más lejano, y el código de estado HTTP.
+	 */
+	@GetMapping("/cercanos")
+	public ResponseEntity<List<EstudioCercano>> buscarCercanos(@RequestParam(required = false) Double latitud,
+															   @RequestParam(required = false) Double longitud,
+															   @RequestParam(required = false) Integer cantidad,
+															   @RequestParam(required = false) List<String> tiposEstudio,
+															   @RequestParam(required = false) String modoTiposEstudio) {
+		return ResponseEntity.ok(estudioGeofisicoService.buscarCercanos(latitud, longitud, cantidad, tiposEstudio, modoTiposEstudio));
+	}
+
+	/**
+	 * Obtiene las agrupaciones de estudios geofísicos visibles en el mapa para un nivel de zoom, de modo que el
+	 * cliente no necesita descargar todos los estudios para agruparlos.
+	 *
+	 * @param latitudMin  Latitud del borde sur del área visible.
+	 * @param latitudMax  Latitud del borde norte del área visible.
+	 * @param longitudMin Longitud del borde oeste; si es mayor que longitudMax, el área cruza el antimeridiano.
+	 * @param longitudMax Longitud del borde este.
+	 * @param zoom        Nivel de zoom del mapa (0 a 22).
+	 * @return ResponseEntity con las agrupaciones (cantidad, centroide e IDs representativos) y el código de estado HTTP.
+	 */
+	@GetMapping("/clusters")
+	public ResponseEntity<List<ClusterEstudios>> obtenerClusters(@RequestParam(required = false) Double latitudMin,
+																 @RequestParam(required = false) Double latitudMax,
+																 @RequestParam(required = false) Double longitudMin,
+																 @RequestParam(required = false) Double longitudMax,
+																 @RequestParam(required = false) Integer zoom) {
+		return ResponseEntity.ok(estudioGeofisicoService.obtenerClusters(latitudMin, latitudMax, longitudMin, longitudMax, zoom));
+	}
+
+	/**
+	 * Obtiene una tesela vectorial (Mapbox Vector Tile) con las ubicaciones de los estudios geofísicos, para que el
+	 * mapa dibuje los estudios sin descargarlos en JSON. Cada estudio es un punto o un polígono formado por sus
+	 * coordenadas, con los atributos id, nombre y tipos (máscara de bits de los tipos de estudio).
+	 *
+	 * @param z Nivel de zoom (0 a 22).
+	 * @param x Columna de la tesela.
+	 * @param y Fila de la tesela, desde el norte.
+	 * @return ResponseEntity con la tesela codificada (vacía si no tiene estudios) y el código de estado HTTP.
+	 */
+	@GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = "application/vnd.mapbox-vector-tile")
+	public ResponseEntity<byte[]> obtenerTesela(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+		return ResponseEntity.ok(estudioGeofisicoService.obtenerTesela(z, x, y));
+	}
+
 	/**
 	 * Obtiene registros de estudios geofísicos con paginación y ordenamiento según los criterios especificados en el filtro.
 	 *
@@ -110,6 +341,9 @@ public class EstudioGeofisicoController {
 	 *               - fechaFin: Fecha de fin del rango de fechas en el que se realizó el estudio geofísico.
 	 *               - tipoEstudio: Enumerador del tipo de estudio geofísico.
 	 *               - areaEstudio: Enumerador del área de aplicación del estudio geofísico.
+	 *               - tiposEstudio, modoTiposEstudio, areasEstudio, modoAreasEstudio: Varios tipos o áreas con semántica "any" o "all".
+	 *               - latitudMin, latitudMax, longitudMin, longitudMax: Rectángulo geográfico.
+	 *               - latitudCentro, longitudCentro, radioKm: Búsqueda por radio alrededor de un punto.
 	 *
 	 * @return ResponseEntity que contiene un objeto Page con los registros de estudios geofísicos y el estado HTTP.
 	 *
@@ -126,6 +360,49 @@ public class EstudioGeofisicoController {
 		}
 	}
 
+	/**
+	 * Obtiene registros de estudios geofísicos con paginación por cursor (keyset).
+	 * Cada respuesta incluye un cursor opaco (nextCursor) que se debe enviar en el campo cursor de la siguiente solicitud.
+	 * A diferencia de /registros, el costo de cada página no aumenta con su posición y no se calcula el total de registros.
+	 *
+	 * @param filtro Objeto con los mismos parámetros de filtrado y ordenamiento que /registros, además del cursor.
+	 *               El campo sort debe ser id, nombreEstudio, nombreCliente, fechaRealizado, ubicacionEstudio,
+	 *               fechaHoraCreacion o fechaModificacion.
+	 *
+	 * @return ResponseEntity que contiene un objeto PaginaCursor con los registros de estudios geofísicos y el estado HTTP.
+	 *
+	 * @throws IllegalArgumentException Si los parámetros proporcionados o el cursor no son válidos.
+	 */
+	@PostMapping("/registros/cursor")
+	public ResponseEntity<?> obtenerRegistrosEstudioCursor(@RequestBody FiltroEstudioGeofisicoPageable filtro){
+		try {
+			PaginaCursor<EstudioGeofisicoProjection> registros = estudioGeofisicoService.obtenerRegistrosEstudioCursor(filtro);
+			return new ResponseEntity<>(registros, HttpStatus.OK);
+		} catch (IllegalArgumentException | ParseException ex) {
+			throw new IllegalArgumentException("Error los parámetros para obtener los registros: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Obtiene registros de estudios geofísicos como un Slice, sin el total de registros ni de páginas.
+	 * Está pensado para clientes con scroll infinito: evita la consulta COUNT de /registros.
+	 *
+	 * @param filtro Objeto con los mismos parámetros de filtrado, paginación y ordenamiento que /registros.
+	 *
+	 * @return ResponseEntity que contiene un objeto Slice con los registros de estudios geofísicos y el estado HTTP.
+	 *
+	 * @throws IllegalArgumentException Si los parámetros proporcionados no son válidos.
+	 */
+	@PostMapping("/registros/slice")
+	public ResponseEntity<?> obtenerRegistrosEstudioSlice(@RequestBody FiltroEstudioGeofisicoPageable filtro){
+		try {
+			Slice<EstudioGeofisicoProjection> registros = estudioGeofisicoService.obtenerRegistrosEstudioSlice(filtro);
+			return new ResponseEntity<>(registros, HttpStatus.OK);
+		} catch (IllegalArgumentException | ParseException ex) {
+			throw new IllegalArgumentException("Error los parámetros para obtener los registros: " + ex.getMessage());
+		}
+	}
+
 
 	/**
 	 * Controlador para manejar solicitudes GET y obtener un estudio geofísico por su ID.
@@ -145,12 +422,14 @@ public class EstudioGeofisicoController {
 		EstudioGeofisico estudioGeofisico = estudioGeofisicoOptional.get();
 		updateUrls(Collections.singletonList(estudioGeofisico));
 
-		return ResponseEntity.ok(estudioGeofisico);
+		return ResponseEntity.ok().eTag(ETagUtils.aETag(estudioGeofisico.getVersion())).body(estudioGeofisico);
 	}
 
 
 	/**
 	 * Controlador para manejar solicitudes DELETE y eliminar un estudio geofísico por su ID.
+	 * Los objetos de Amazon S3 de sus imágenes y archivos adjuntos quedan pendientes de eliminación en la misma
+	 * transacción y se eliminan en segundo plano, por lo que la respuesta no espera a Amazon S3.
 	 *
 	 * @param id El ID del estudio geofísico.
 	 * @return ResponseEntity con el código de estado HTTP.
@@ -158,18 +437,55 @@ public class EstudioGeofisicoController {
 	 */
 	@DeleteMapping("/{id}")
 	public ResponseEntity<?> delete(@PathVariable Long id) {
-		Optional<EstudioGeofisico> estudioGeofisicoOptional = estudioGeofisicoService.findById(id);
-
-		if (!estudioGeofisicoOptional.isPresent()) {
+		if (!estudioGeofisicoService.deleteById(id)) {
 			throw new EstudioNotFoundException(id);
 		}
 
-		estudioGeofisicoService.deleteById(id);
-		deleteResourcesAsync(estudioGeofisicoOptional.get());
-
 		return ResponseEntity.noContent().build();
 	}
 
+	/**
+	 * Controlador para eliminar de forma masiva estudios geofísicos, por ejemplo todos los de un cliente.
+	 * Los estudios se eliminan por lotes, cada uno en su propia transacción, y los objetos de Amazon S3 de sus
+	 * imágenes y archivos adjuntos quedan pendientes de eliminación y se eliminan en segundo plano.
+	 *
+	 * La solicitud se valida antes de empezar a escribir la respuesta; luego se escribe una línea JSON con el
+	 * avance después de cada lote y una final con terminado en true. Si el cliente se desconecta, la eliminación
+	 * continúa hasta el final.
+	 *
+	 * @param solicitud Objeto con la lista de ids o el filtro (mismos parámetros que filterEstudios) de los
+	 *                  estudios a eliminar. El filtro debe tener al menos un criterio.
+	 * @return ResponseEntity con el avance en NDJSON: cantidades de estudios solicitados, procesados, eliminados y
+	 *         no encontrados, y de objetos de Amazon S3 pendientes de eliminación.
+	 * @throws BadRequestException si ocurre un error en la conversión de datos de las fechas, tipoEstudio y areaEstudio.
+	 */
+	@PostMapping(value = "/eliminar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> eliminarEstudios(@RequestBody SolicitudEliminacionEstudios solicitud) {
+		List<Long> ids;
+		try {
+			ids = eliminacionEstudiosService.resolverIds(solicitud);
+		} catch (ParseException e) {
+			throw new BadRequestException("Error en la conversión de datos: " + e.getMessage());
+		}
+
+		StreamingResponseBody cuerpo = salida -> {
+			boolean[] conectado = {true};
+			eliminacionEstudiosService.eliminar(ids, progreso -> {
+				if (!conectado[0]) {
+					return;
+				}
+				try {
+					escribirNdjson(salida, List.of(progreso));
+				} catch (UncheckedIOException e) {
+					// El cliente se desconectó: se deja de informar el avance, pero no se interrumpe la eliminación
+					conectado[0] = false;
+				}
+			});
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+	}
+
 
 	/**
 	 * Controlador para manejar solicitudes POST y guardar un estudio geofísico en la base de datos.
@@ -202,18 +518,43 @@ public class EstudioGeofisicoController {
 
 
 
+	/**
+	 * Controlador para importar de forma masiva estudios geofísicos, por ejemplo al migrar estudios históricos.
+	 * El contenido se lee registro a registro y los estudios válidos se insertan por lotes; los inválidos no
+	 * detienen la importación y se informan en el resultado.
+	 *
+	 * @param tipoContenido El encabezado Content-Type: application/x-ndjson, text/csv o application/geo+json,
+	 *                      opcionalmente con charset (por defecto UTF-8).
+	 * @param contenido     Los estudios a importar, en el formato indicado por tipoContenido.
+	 * @return ResponseEntity con las cantidades de registros leídos, importados y rechazados, los errores de
+	 *         cada registro rechazado y el rendimiento de la importación.
+	 * @throws IOException si falla la lectura del contenido.
+	 */
+	@PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv", "application/geo+json"})
+	public ResponseEntity<ResultadoImportacion> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido,
+														 InputStream contenido) throws IOException {
+		MediaType mediaType = MediaType.parseMediaType(tipoContenido);
+		EnumFormatoImportacion formato = EnumFormatoImportacion.desdeTipoContenido(mediaType);
+		return ResponseEntity.ok(importacionEstudiosService.importar(contenido, formato,
+				Optional.ofNullable(mediaType.getCharset()).orElse(StandardCharsets.UTF_8)));
+	}
+
 	/**
 	 * Controlador para manejar solicitudes PUT y actualizar un estudio geofísico en la base de datos.
+	 * Con el encabezado If-Match (el ETag de GET /{id}) el cambio se aplica solo si el estudio no fue modificado
+	 * desde esa lectura, como en PATCH.
 	 *
 	 * @param estudioGeofisico El estudio geofísico actualizado.
 	 * @param id El ID del estudio geofísico a actualizar.
 	 * @param result Objeto que contiene los resultados de la validación del estudio geofísico.
-	 * @return ResponseEntity con el estudio geofísico actualizado y el código de estado HTTP.
+	 * @param ifMatch ETag de la versión sobre la que se hicieron los cambios (opcional).
+	 * @return ResponseEntity con el estudio geofísico actualizado, el ETag de su versión y el código de estado HTTP.
 	 * @throws ValidationException si no pasan las validaciones de alguno de los campos del estudio geofísico.
 	 * @throws EstudioNotFoundException si no se encuentra el estudio geofísico con el ID proporcionado.
 	 */
 	@PutMapping("/form/{id}")
-	public ResponseEntity<?> update(@Valid @RequestBody EstudioGeofisico estudioGeofisico, @PathVariable Long id, BindingResult result) {
+	public ResponseEntity<?> update(@Valid @RequestBody EstudioGeofisico estudioGeofisico, @PathVariable Long id, BindingResult result,
+									@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		if (result.hasErrors()) {
 			List<String> errors = result.getFieldErrors().stream()
 					.map(err -> "El campo '" + err.getField() + "' :  " + err.getDefaultMessage())
@@ -222,45 +563,70 @@ public class EstudioGeofisicoController {
 			throw new ValidationException("Error en la validación del estudio recibido", errors);
 		}
 
-		Optional<EstudioGeofisico> estudioGeofisicoOptional = estudioGeofisicoService.findById(id);
-
-		if (!estudioGeofisicoOptional.isPresent()) {
-			throw new EstudioNotFoundException(id);
-		}
-
-		EstudioGeofisico estudioGeofisicoActual = estudioGeofisicoOptional.get();
-
-
-		// Actualiza los atributos del estudio geofísico con los valores proporcionados
-		estudioGeofisicoActual.setNombreEstudio(estudioGeofisico.getNombreEstudio());
-		estudioGeofisicoActual.setFechaRealizado(estudioGeofisico.getFechaRealizado());
-		estudioGeofisicoActual.setDescripcion(estudioGeofisico.getDescripcion());
-		estudioGeofisicoActual.setNombreCliente(estudioGeofisico.getNombreCliente());
-		estudioGeofisicoActual.clearAreasEstudio();
-		estudioGeofisicoActual.addAreasEstudio(estudioGeofisico.getAreasEstudio());
-		estudioGeofisicoActual.clearTiposEstudio();
-		estudioGeofisicoActual.addTiposEstudio(estudioGeofisico.getTiposEstudio());
-		estudioGeofisicoActual.clearCoordenadas();
-		estudioGeofisicoActual.addCoordenadas(estudioGeofisico.getCoordenadas());
-		estudioGeofisicoActual.clearImagenes();
-		estudioGeofisicoActual.addImagenes(estudioGeofisico.getImagenes());
-		estudioGeofisicoActual.clearArchivosAdjuntos();
-		estudioGeofisicoActual.addArchivosAdjuntos(estudioGeofisico.getArchivosAdjuntos());
-
-		// Actualiza los campos de auditoría
-		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-		String currentPrincipalName = authentication.getName();
-		estudioGeofisicoActual.setUltimaActualizacionPor(currentPrincipalName);
-		estudioGeofisicoActual.setFechaModificacion(new Date());
-
-		EstudioGeofisico estudioGeofisicoUpdate = estudioGeofisicoService.save(estudioGeofisicoActual);
+		// Solo se envían las sentencias de los campos y elementos de las colecciones que cambiaron
+		EstudioGeofisico estudioGeofisicoUpdate = estudioGeofisicoService.update(id, estudioGeofisico, ETagUtils.versionesAceptadas(ifMatch))
+				.orElseThrow(() -> new EstudioNotFoundException(id));
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("status", HttpStatus.OK.value());
 		response.put("message", "El estudio geofísico ha sido actualizado con éxito!");
 		response.put("result", estudioGeofisicoUpdate);
 
-		return ResponseEntity.ok().body(response);
+		return ResponseEntity.ok().eTag(ETagUtils.aETag(estudioGeofisicoUpdate.getVersion())).body(response);
+	}
+
+	/**
+	 * Controlador para modificar solo algunos campos de un estudio geofísico con JSON Merge Patch (RFC 7396),
+	 * sin reenviar el documento completo. Los campos presentes reemplazan a los actuales (las listas se reemplazan
+	 * completas) y un campo en null se elimina, lo que solo es válido si el campo es opcional.
+	 * Las colecciones que no aparecen en el parche no se cargan ni se reescriben.
+	 *
+	 * Con el encabezado If-Match (el ETag de GET /{id}) el cambio se aplica solo si el estudio no fue modificado
+	 * desde esa lectura; la versión se compara antes de cargar el estudio o sus colecciones.
+	 *
+	 * @param id      El ID del estudio geofísico a modificar.
+	 * @param parche  Objeto JSON con los campos a modificar: nombreEstudio, nombreCliente, descripcion,
+	 *                fechaRealizado, ubicacionEstudio, coordenadas, tiposEstudio, areasEstudio, imagenes y archivosAdjuntos.
+	 * @param ifMatch ETag de la versión sobre la que se hicieron los cambios (opcional).
+	 * @return ResponseEntity sin cuerpo, con el ETag de la nueva versión y el código de estado HTTP 204 NO CONTENT.
+	 * @throws EstudioNotFoundException si no se encuentra el estudio geofísico con el ID proporcionado.
+	 * @throws ValidationException si no pasan las validaciones de alguno de los campos modificados.
+	 * @throws BadRequestException si el parche no es un objeto JSON o incluye campos que no se pueden modificar.
+	 */
+	@PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+	public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody JsonNode parche,
+									  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		if (!parche.isObject()) {
+			throw new BadRequestException("El parche debe ser un objeto JSON.");
+		}
+
+		Set<String> campos = new LinkedHashSet<>();
+		parche.fieldNames().forEachRemaining(campos::add);
+		campos.stream().filter(campo -> !CAMPOS_PATCH.contains(campo)).findFirst().ifPresent(campo -> {
+			throw new BadRequestException("El campo '" + campo + "' no se puede modificar.");
+		});
+
+		EstudioGeofisico valores;
+		try {
+			valores = objectMapper.treeToValue(parche, EstudioGeofisico.class);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("Error en la conversión de datos: " + e.getOriginalMessage());
+		}
+
+		// Solo se validan los campos presentes; el resto del estudio ya es válido
+		List<String> errors = campos.stream()
+				.flatMap(campo -> validator.validateProperty(valores, campo).stream())
+				.map(violacion -> "El campo '" + violacion.getPropertyPath() + "' " + violacion.getMessage())
+				.collect(Collectors.toList());
+		if (!errors.isEmpty()) {
+			throw new ValidationException("Error en la validación del estudio recibido", errors);
+		}
+
+		EstudioGeofisico estudioGeofisicoPatch = estudioGeofisicoService
+				.patch(id, valores, campos, ETagUtils.versionesAceptadas(ifMatch))
+				.orElseThrow(() -> new EstudioNotFoundException(id));
+
+		return ResponseEntity.noContent().eTag(ETagUtils.aETag(estudioGeofisicoPatch.getVersion())).build();
 	}
 
 
@@ -303,39 +669,72 @@ public class EstudioGeofisicoController {
 		});
 	}
 
-
-
 	/**
-	 * Método privado para eliminar los recursos de Amazon S3 asociados a un estudio geofísico.
+	 * Escribe cada elemento del lote como una línea JSON y vacía el buffer de salida.
 	 *
-	 * @param estudio El estudio geofísico cuyos recursos se van a eliminar.
+	 * @param salida Flujo de salida de la respuesta.
+	 * @param lote   Elementos a escribir.
 	 */
-	private void deleteResourcesAmazonS3(EstudioGeofisico estudio) {
-		Optional.ofNullable(estudio.getImagenes()).orElse(Collections.emptyList()).forEach(imagen -> {
-			Optional.ofNullable(imagen.getImagenKey()).ifPresent(s3Service::deleteObject);
-		});
-
-		Optional.ofNullable(estudio.getArchivosAdjuntos()).orElse(Collections.emptyList()).forEach(archivo -> {
-			Optional.ofNullable(archivo.getArchivoKey()).ifPresent(s3Service::deleteObject);
-		});
+	private void escribirNdjson(OutputStream salida, List<?> lote) {
+		try {
+			for (Object elemento : lote) {
+				salida.write(objectMapper.writeValueAsBytes(elemento));
+				salida.write('\n');
+			}
+			salida.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
+	/**
+	 * Valida el filtro de una exportación antes de iniciar la respuesta, para que un filtro inválido
+	 * responda con un código 400 en lugar de cortar una descarga ya iniciada.
+	 *
+	 * @param filtro Los criterios de filtrado, o null para exportar todos los estudios.
+	 * @return Los criterios validados.
+	 */
+	private FiltroEstudioGeofisico validarFiltroExportacion(FiltroEstudioGeofisico filtro) {
+		FiltroEstudioGeofisico criterios = Optional.ofNullable(filtro).orElseGet(FiltroEstudioGeofisico::new);
+		try {
+			estudioGeofisicoService.validarFiltro(criterios);
+		} catch (ParseException e) {
+			throw new BadRequestException("Error en la conversión de datos: " + e.getMessage());
+		}
+		return criterios;
+	}
 
 	/**
-	 * Método asíncrono privado para eliminar los recursos de Amazon S3 asociados a un estudio geofísico.
+	 * Arma la respuesta de una exportación como archivo adjunto, cuyo contenido se escribe a medida que se genera.
 	 *
-	 * @param estudio El estudio geofísico cuyos recursos se van a eliminar.
+	 * @param nombreArchivo Nombre del archivo descargado.
+	 * @param tipoContenido Tipo de contenido de la respuesta.
+	 * @param exportacion   Escritura del contenido en el flujo de salida.
+	 * @return ResponseEntity con el cuerpo de la exportación.
 	 */
-	@Async
-	void deleteResourcesAsync(EstudioGeofisico estudio) {
-		Optional.ofNullable(estudio.getImagenes()).orElse(Collections.emptyList()).forEach(imagen -> {
-			Optional.ofNullable(imagen.getImagenKey()).ifPresent(s3Service::deleteObject);
-		});
+	private ResponseEntity<StreamingResponseBody> respuestaExportacion(String nombreArchivo, MediaType tipoContenido,
+																	   ExportacionEstudios exportacion) {
+		StreamingResponseBody cuerpo = salida -> {
+			try {
+				exportacion.exportar(salida);
+			} catch (ParseException e) {
+				// No ocurre: el filtro ya fue validado antes de iniciar la respuesta
+				throw new IllegalStateException(e);
+			}
+		};
 
-		Optional.ofNullable(estudio.getArchivosAdjuntos()).orElse(Collections.emptyList()).forEach(archivo -> {
-			Optional.ofNullable(archivo.getArchivoKey()).ifPresent(s3Service::deleteObject);
-		});
+		return ResponseEntity.ok()
+				.contentType(tipoContenido)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+				.body(cuerpo);
 	}
 
+	/**
+	 * Escritura del contenido de una exportación en el flujo de salida de la respuesta.
+	 */
+	@FunctionalInterface
+	private interface ExportacionEstudios {
+		void exportar(OutputStream salida) throws ParseException, IOException;
+	}
 	
 }
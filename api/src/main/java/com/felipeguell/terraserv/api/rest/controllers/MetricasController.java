@@ -0,0 +1,66 @@
+package com.felipeguell.terraserv.api.rest.controllers;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCache;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCacheUrls;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasRegionCache;
+import com.felipeguell.terraserv.api.rest.services.IMetricasService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/metricas")
+public class MetricasController {
+
+	private final IMetricasService metricasService;
+
+	/**
+	 * Controlador para manejar solicitudes GET y obtener los contadores de la caché de filtros de estudios geofísicos.
+	 *
+	 * @return ResponseEntity con los aciertos, fallos, desalojos, expiraciones, invalidaciones y tamaño de la caché.
+	 */
+	@GetMapping("/cache-filtros")
+	public ResponseEntity<EstadisticasCache> getEstadisticasCacheFiltros() {
+		return ResponseEntity.ok(metricasService.obtenerEstadisticasCacheFiltros());
+	}
+
+	/**
+	 * Controlador para manejar solicitudes GET y obtener los contadores de cada región de la caché de segundo nivel.
+	 *
+	 * @return ResponseEntity con los aciertos, fallos, escrituras y elementos en memoria de cada región.
+	 */
+	@GetMapping("/cache-segundo-nivel")
+	public ResponseEntity<List<EstadisticasRegionCache>> getEstadisticasCacheSegundoNivel() {
+		return ResponseEntity.ok(metricasService.obtenerEstadisticasCacheSegundoNivel());
+	}
+
+	/**
+	 * Controlador para manejar solicitudes GET y obtener los contadores de la reconciliación de objetos huérfanos
+	 * de Amazon S3.
+	 *
+	 * @return ResponseEntity con los objetos revisados, recientes, referenciados, pendientes y huérfanos.
+	 */
+	@GetMapping("/reconciliacion-s3")
+	public ResponseEntity<EstadisticasReconciliacionS3> getEstadisticasReconciliacionS3() {
+		return ResponseEntity.ok(metricasService.obtenerEstadisticasReconciliacionS3());
+	}
+
+	/**
+	 * Controlador para manejar solicitudes GET y obtener los contadores de la caché de URLs firmadas de Amazon S3.
+	 *
+	 * @return ResponseEntity con los aciertos, fallos, renovaciones, tasa de aciertos y tiempo promedio de firma.
+	 */
+	@GetMapping("/cache-urls-s3")
+	public ResponseEntity<EstadisticasCacheUrls> getEstadisticasCacheUrls() {
+		return ResponseEntity.ok(metricasService.obtenerEstadisticasCacheUrls());
+	}
+
+}
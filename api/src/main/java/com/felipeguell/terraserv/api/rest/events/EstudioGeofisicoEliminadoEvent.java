@@ -0,0 +1,13 @@
+package com.felipeguell.terraserv.api.rest.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado cada vez que se elimina un estudio geofísico.
+ */
+@Getter
+@AllArgsConstructor
+public class EstudioGeofisicoEliminadoEvent {
+	private final Long id;
+}
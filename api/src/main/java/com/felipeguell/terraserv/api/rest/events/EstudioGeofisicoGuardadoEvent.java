@@ -0,0 +1,57 @@
+package com.felipeguell.terraserv.api.rest.events;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+
+import lombok.Getter;
+
+/**
+ * Evento publicado cada vez que se crea o actualiza un estudio geofísico.
+ *
+ * Contiene una copia de los datos del estudio tomada dentro de la transacción, de modo que los
+ * listeners que se ejecutan después del commit no dependen de la sesión de Hibernate ni de
+ * colecciones lazy.
+ */
+@Getter
+public class EstudioGeofisicoGuardadoEvent {
+
+	private final Long id;
+	private final String nombreEstudio;
+	private final String nombreCliente;
+	private final String ubicacionEstudio;
+	private final Date fechaRealizado;
+	private final List<Coordenada> coordenadas;
+	private final Double latitudCentro;
+	private final Double longitudCentro;
+	private final Set<EnumTipoEstudioGeofisico> tiposEstudio;
+	private final Set<EnumAreaAplicacionEstudioGeofisico> areasEstudio;
+
+	public EstudioGeofisicoGuardadoEvent(EstudioGeofisico estudio) {
+		this.id = estudio.getId();
+		this.nombreEstudio = estudio.getNombreEstudio();
+		this.nombreCliente = estudio.getNombreCliente();
+		this.ubicacionEstudio = estudio.getUbicacionEstudio();
+		this.fechaRealizado = estudio.getFechaRealizado();
+		this.coordenadas = Optional.ofNullable(estudio.getCoordenadas()).orElse(Collections.emptyList()).stream()
+				.map(c -> new Coordenada(c.getId(), c.getLatitudDecimal(), c.getLongitudDecimal()))
+				.collect(Collectors.toUnmodifiableList());
+		this.latitudCentro = estudio.getLatitudCentro();
+		this.longitudCentro = estudio.getLongitudCentro();
+		this.tiposEstudio = Collections.unmodifiableSet(copiar(estudio.getTiposEstudio(), EnumTipoEstudioGeofisico.class));
+		this.areasEstudio = Collections.unmodifiableSet(copiar(estudio.getAreasEstudio(), EnumAreaAplicacionEstudioGeofisico.class));
+	}
+
+	private static <E extends Enum<E>> Set<E> copiar(Set<E> origen, Class<E> tipo) {
+		return origen == null || origen.isEmpty() ? EnumSet.noneOf(tipo) : EnumSet.copyOf(origen);
+	}
+}
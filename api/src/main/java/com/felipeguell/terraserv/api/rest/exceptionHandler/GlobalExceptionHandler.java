@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 import com.felipeguell.terraserv.api.rest.auth.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -28,9 +29,12 @@ import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.Arch
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.AssetNotFoundException;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.BadRequestException;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.EstudioNotFoundException;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.EstudioPreconditionFailedException;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.IndiceNoDisponibleException;
 import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.ValidationException;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.persistence.OptimisticLockException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 
@@ -134,11 +138,30 @@ public class GlobalExceptionHandler {
 		}
 		
 
+		// Maneja excepciones del tipo IndiceNoDisponibleException. Responde con un código de
+		// estado 503(Service Unavailable) mientras los índices en memoria se cargan al iniciar
+		if(ex instanceof IndiceNoDisponibleException) {
+			errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(503), ex.getMessage());
+		}
+
 		// Maneja excepciones de tipo DataAccessException. Responde con un código de
 		// estado 500 (Internal Server Error) y el mensaje de la excepción.
 		if(ex instanceof DataAccessException) {
 			errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(500), ex.getMessage());
 		}
+
+		// Maneja los conflictos de bloqueo optimista de dos escrituras concurrentes. Responde con un código de
+		// estado 409 (Conflict); va después de DataAccessException, que los incluye.
+		if(ex instanceof OptimisticLockingFailureException || ex instanceof OptimisticLockException) {
+			errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(409),
+					"El estudio geofísico fue modificado por otra solicitud. Vuelva a obtenerlo y reintente los cambios.");
+		}
+
+		// Maneja excepciones del tipo EstudioPreconditionFailedException (If-Match con una versión anterior).
+		// Responde con un código de estado 412 (Precondition Failed) y el mensaje de la excepción
+		if(ex instanceof EstudioPreconditionFailedException) {
+			errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(412), ex.getMessage());
+		}
 		
 		return errorDetail;
 	}
@@ -0,0 +1,9 @@
+package com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions;
+
+public class EstudioPreconditionFailedException extends RuntimeException{
+
+
+	public EstudioPreconditionFailedException(Long id) {
+        super("El estudio geofísico con ID: " + id + " fue modificado desde la versión indicada en If-Match. Vuelva a obtenerlo y reintente los cambios.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions;
+
+public class IndiceNoDisponibleException extends RuntimeException{
+
+	public IndiceNoDisponibleException(String indice) {
+        super("El índice de " + indice + " todavía se está cargando. Reintente en unos segundos.");
+    }
+}
@@ -0,0 +1,256 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codifica una capa de una tesela vectorial en el formato Mapbox Vector Tile 2.1, con los atributos
+ * id, nombre y tipos de cada estudio geofísico.
+ *
+ * El formato es un mensaje Protocol Buffers con una única capa; las geometrías se escriben como comandos
+ * MoveTo, LineTo y ClosePath sobre una grilla de {@link #EXTENSION} x {@link #EXTENSION} unidades por tesela,
+ * con desplazamientos relativos codificados en zigzag.
+ */
+final class CapaMvt {
+
+	static final int EXTENSION = 4096;
+
+	private static final int GEOMETRIA_PUNTO = 1;
+	private static final int GEOMETRIA_LINEA = 2;
+	private static final int GEOMETRIA_POLIGONO = 3;
+
+	private static final int COMANDO_MOVER = 1;
+	private static final int COMANDO_LINEA = 2;
+	private static final int COMANDO_CERRAR = 7;
+
+	private static final String[] CLAVES = {"id", "nombre", "tipos"};
+	private static final int CLAVE_ID = 0;
+	private static final int CLAVE_NOMBRE = 1;
+	private static final int CLAVE_TIPOS = 2;
+
+	private final String nombre;
+	private final Protobuf features = new Protobuf();
+	// Los valores de los atributos se escriben una sola vez y las features los referencian por posición
+	private final Map<Object, Integer> posicionesValores = new HashMap<>();
+	private final Protobuf valores = new Protobuf();
+	private int cantidadFeatures;
+
+	CapaMvt(String nombre) {
+		this.nombre = nombre;
+	}
+
+	/**
+	 * Agrega un estudio a la capa. Con un solo punto distinto se escribe un punto, con dos una línea y con
+	 * tres o más un polígono, cuyo anillo se orienta en sentido horario como exige el formato.
+	 *
+	 * @param id     El ID del estudio.
+	 * @param nombre El nombre del estudio, o null.
+	 * @param tipos  La máscara de bits de los tipos de estudio.
+	 * @param xs     Las coordenadas x de los vértices, en unidades de la tesela.
+	 * @param ys     Las coordenadas y de los vértices, en unidades de la tesela.
+	 */
+	void agregar(long id, String nombre, int tipos, int[] xs, int[] ys) {
+		int cantidad = quitarRepetidos(xs, ys);
+		long area = cantidad < 3 ? 0 : areaDoble(xs, ys, cantidad);
+
+		Protobuf geometria = new Protobuf();
+		int tipoGeometria;
+		if (cantidad == 1) {
+			tipoGeometria = GEOMETRIA_PUNTO;
+			geometria.varint(comando(COMANDO_MOVER, 1));
+			geometria.varint(zigzag(xs[0]));
+			geometria.varint(zigzag(ys[0]));
+		} else {
+			if (area < 0) {
+				invertir(xs, cantidad);
+				invertir(ys, cantidad);
+			}
+			tipoGeometria = area == 0 ? GEOMETRIA_LINEA : GEOMETRIA_POLIGONO;
+			geometria.varint(comando(COMANDO_MOVER, 1));
+			geometria.varint(zigzag(xs[0]));
+			geometria.varint(zigzag(ys[0]));
+			geometria.varint(comando(COMANDO_LINEA, cantidad - 1));
+			for (int i = 1; i < cantidad; i++) {
+				geometria.varint(zigzag(xs[i] - xs[i - 1]));
+				geometria.varint(zigzag(ys[i] - ys[i - 1]));
+			}
+			if (tipoGeometria == GEOMETRIA_POLIGONO) {
+				geometria.varint(comando(COMANDO_CERRAR, 1));
+			}
+		}
+
+		Protobuf etiquetas = new Protobuf();
+		etiquetas.varint(CLAVE_ID);
+		etiquetas.varint(posicionValor(id));
+		if (nombre != null) {
+			etiquetas.varint(CLAVE_NOMBRE);
+			etiquetas.varint(posicionValor(nombre));
+		}
+		etiquetas.varint(CLAVE_TIPOS);
+		etiquetas.varint(posicionValor((long) tipos));
+
+		Protobuf feature = new Protobuf();
+		feature.uint(1, id);
+		feature.mensaje(2, etiquetas);
+		feature.uint(3, tipoGeometria);
+		feature.mensaje(4, geometria);
+		features.mensaje(2, feature);
+		cantidadFeatures++;
+	}
+
+	/**
+	 * @return La tesela con la capa codificada, o un arreglo vacío si la capa no tiene features.
+	 */
+	byte[] codificar() {
+		if (cantidadFeatures == 0) {
+			return new byte[0];
+		}
+
+		Protobuf capa = new Protobuf();
+		capa.uint(15, 2);
+		capa.texto(1, nombre);
+		capa.agregar(features);
+		for (String clave : CLAVES) {
+			capa.texto(3, clave);
+		}
+		capa.agregar(valores);
+		capa.uint(5, EXTENSION);
+
+		Protobuf tesela = new Protobuf();
+		tesela.mensaje(3, capa);
+		return tesela.aBytes();
+	}
+
+	private int posicionValor(Object valor) {
+		Integer posicion = posicionesValores.get(valor);
+		if (posicion == null) {
+			posicion = posicionesValores.size();
+			posicionesValores.put(valor, posicion);
+			Protobuf mensaje = new Protobuf();
+			if (valor instanceof String texto) {
+				mensaje.texto(1, texto);
+			} else {
+				mensaje.uint(5, (Long) valor);
+			}
+			valores.mensaje(4, mensaje);
+		}
+		return posicion;
+	}
+
+	/**
+	 * Quita los vértices consecutivos que caen en la misma posición de la tesela, incluido el último si repite
+	 * al primero.
+	 *
+	 * @return La cantidad de vértices que quedan al comienzo de los arreglos.
+	 */
+	private static int quitarRepetidos(int[] xs, int[] ys) {
+		int cantidad = 1;
+		for (int i = 1; i < xs.length; i++) {
+			if (xs[i] != xs[cantidad - 1] || ys[i] != ys[cantidad - 1]) {
+				xs[cantidad] = xs[i];
+				ys[cantidad] = ys[i];
+				cantidad++;
+			}
+		}
+		while (cantidad > 1 && xs[cantidad - 1] == xs[0] && ys[cantidad - 1] == ys[0]) {
+			cantidad--;
+		}
+		return cantidad;
+	}
+
+	/**
+	 * Doble del área del anillo según la fórmula del agrimensor; en coordenadas de tesela (y hacia abajo)
+	 * es positiva para los anillos en sentido horario.
+	 */
+	private static long areaDoble(int[] xs, int[] ys, int cantidad) {
+		long area = 0;
+		for (int i = 0; i < cantidad; i++) {
+			int j = (i + 1) % cantidad;
+			area += (long) xs[i] * ys[j] - (long) xs[j] * ys[i];
+		}
+		return area;
+	}
+
+	private static void invertir(int[] valores, int cantidad) {
+		for (int i = 0, j = cantidad - 1; i < j; i++, j--) {
+			int temporal = valores[i];
+			valores[i] = valores[j];
+			valores[j] = temporal;
+		}
+	}
+
+	private static int comando(int id, int cantidad) {
+		return (id & 0x7) | (cantidad << 3);
+	}
+
+	private static int zigzag(int valor) {
+		return (valor << 1) ^ (valor >> 31);
+	}
+
+	/**
+	 * Escritura mínima de mensajes Protocol Buffers: enteros varint y campos delimitados por longitud.
+	 */
+	private static final class Protobuf {
+		private byte[] datos = new byte[64];
+		private int largo;
+
+		void varint(long valor) {
+			while ((valor & ~0x7FL) != 0) {
+				escribir((int) ((valor & 0x7F) | 0x80));
+				valor >>>= 7;
+			}
+			escribir((int) valor);
+		}
+
+		void varint(int valor) {
+			varint(valor & 0xFFFFFFFFL);
+		}
+
+		void uint(int campo, long valor) {
+			varint((long) campo << 3);
+			varint(valor);
+		}
+
+		void texto(int campo, String texto) {
+			byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+			delimitado(campo, bytes, bytes.length);
+		}
+
+		void mensaje(int campo, Protobuf mensaje) {
+			delimitado(campo, mensaje.datos, mensaje.largo);
+		}
+
+		void agregar(Protobuf otro) {
+			escribir(otro.datos, otro.largo);
+		}
+
+		byte[] aBytes() {
+			return Arrays.copyOf(datos, largo);
+		}
+
+		private void delimitado(int campo, byte[] bytes, int cantidad) {
+			varint(((long) campo << 3) | 2);
+			varint((long) cantidad);
+			escribir(bytes, cantidad);
+		}
+
+		private void escribir(int valor) {
+			asegurar(1);
+			datos[largo++] = (byte) valor;
+		}
+
+		private void escribir(byte[] bytes, int cantidad) {
+			asegurar(cantidad);
+			System.arraycopy(bytes, 0, datos, largo, cantidad);
+			largo += cantidad;
+		}
+
+		private void asegurar(int adicional) {
+			if (largo + adicional > datos.length) {
+				datos = Arrays.copyOf(datos, Math.max(datos.length * 2, largo + adicional));
+			}
+		}
+	}
+}
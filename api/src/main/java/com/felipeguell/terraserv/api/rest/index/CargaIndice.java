@@ -0,0 +1,92 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.IndiceNoDisponibleException;
+
+/**
+ * Carga inicial de un índice en memoria, coordinada con los eventos de guardado y eliminación.
+ *
+ * La consulta de la carga se ejecuta sin el lock del índice, por lo que un evento confirmado mientras corre puede
+ * no estar incluido en su resultado. Los eventos que llegan durante la carga se aplican al índice y se registran,
+ * y se vuelven a aplicar después de reconstruirlo. Cada evento reemplaza o quita por completo la entrada de un
+ * estudio, de modo que aplicarlo de nuevo sobre datos que ya lo incluían no cambia el resultado.
+ *
+ * Hasta que termina la primera carga, las búsquedas del índice lanzan IndiceNoDisponibleException, en lugar de
+ * devolver resultados vacíos.
+ */
+final class CargaIndice {
+
+	private final String nombre;
+	private final ReentrantReadWriteLock lock;
+
+	private volatile boolean cargado;
+	// Eventos recibidos durante la carga en curso; null si no hay una carga en curso
+	private List<Runnable> eventosDuranteCarga;
+
+	CargaIndice(String nombre, ReentrantReadWriteLock lock) {
+		this.nombre = nombre;
+		this.lock = lock;
+	}
+
+	/**
+	 * Carga el índice con el resultado de la consulta y vuelve a aplicar los eventos recibidos mientras se ejecutaba.
+	 *
+	 * @param consulta     Obtiene los datos de la base de datos; se ejecuta sin el lock del índice.
+	 * @param reconstruir  Vacía el índice y lo reconstruye con los datos; se ejecuta con el write lock tomado.
+	 */
+	<T> void cargar(Supplier<T> consulta, Consumer<T> reconstruir) {
+		lock.writeLock().lock();
+		try {
+			eventosDuranteCarga = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		T datos = null;
+		try {
+			datos = consulta.get();
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (datos != null) {
+					reconstruir.accept(datos);
+					eventosDuranteCarga.forEach(Runnable::run);
+					cargado = true;
+				}
+				eventosDuranteCarga = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Aplica un evento al índice con el write lock tomado y, si hay una carga en curso, lo registra para
+	 * aplicarlo de nuevo después de reconstruir el índice.
+	 */
+	void aplicar(Runnable evento) {
+		lock.writeLock().lock();
+		try {
+			evento.run();
+			if (eventosDuranteCarga != null) {
+				eventosDuranteCarga.add(evento);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @throws IndiceNoDisponibleException Si el índice todavía no terminó su primera carga.
+	 */
+	void verificarCargado() {
+		if (!cargado) {
+			throw new IndiceNoDisponibleException(nombre);
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.entity.ClusterEstudios;
+import com.felipeguell.terraserv.api.rest.util.CoordenadaUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Agrupaciones (clusters) de estudios geofísicos para el mapa, precalculadas por nivel de zoom.
+ *
+ * Cada estudio se representa por el centroide de sus coordenadas que se guarda en EstudioGeofisico. Para cada zoom
+ * entre 0 y {@link #ZOOM_MAXIMO} se mantiene una grilla sobre la proyección Web Mercator con {@link #CELDAS_POR_TESELA}
+ * x {@link #CELDAS_POR_TESELA} celdas por tesela del mapa; cada celda del zoom z contiene exactamente a las cuatro celdas del zoom z + 1 que la
+ * cubren. Las celdas guardan la cantidad de estudios, la suma de sus centroides y los IDs representativos (los
+ * menores), de modo que una consulta solo recorre las celdas del rectángulo visible en el zoom pedido.
+ *
+ * Se carga completo al iniciar la aplicación y se mantiene al día con los eventos de guardado y eliminación
+ * que publica el servicio de estudios geofísicos, una vez confirmada la transacción.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClustersMapaEstudios {
+
+	public static final int ZOOM_MAXIMO = 14;
+	public static final int MAXIMO_REPRESENTANTES = 5;
+	private static final int CELDAS_POR_TESELA = 4;
+	// Latitud límite de la proyección Web Mercator; más allá los puntos se ubican en el borde del mapa
+	private static final double LATITUD_MAXIMA_MERCATOR = 85.05112878;
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	private final Map<Long, Centroide> centroides = new HashMap<>();
+	private final List<Map<Long, Celda>> niveles = crearNiveles();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("agrupaciones del mapa", lock);
+
+	/**
+	 * Construye las agrupaciones a partir de los centroides almacenados en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(estudioGeofisicoDao::findAllCentrosEstudio, filas -> {
+			centroides.clear();
+			niveles.forEach(Map::clear);
+			filas.forEach(fila -> insertar(fila.getIdEstudio(), fila.getLatitudDecimal(), fila.getLongitudDecimal()));
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		actualizar(event.getId(), event.getLatitudCentro(), event.getLongitudCentro());
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		eliminar(event.getId());
+	}
+
+	/**
+	 * Reemplaza la posición de un estudio en las agrupaciones.
+	 *
+	 * @param id       El ID del estudio geofísico.
+	 * @param latitud  La latitud del centroide del estudio, o null si no tiene coordenadas.
+	 * @param longitud La longitud del centroide del estudio, o null si no tiene coordenadas.
+	 */
+	public void actualizar(Long id, Double latitud, Double longitud) {
+		carga.aplicar(() -> {
+			quitar(id);
+			insertar(id, latitud, longitud);
+		});
+	}
+
+	/**
+	 * Quita un estudio de las agrupaciones.
+	 *
+	 * @param id El ID del estudio geofísico.
+	 */
+	public void eliminar(Long id) {
+		carga.aplicar(() -> quitar(id));
+	}
+
+	/**
+	 * Obtiene las agrupaciones de estudios visibles en el rectángulo indicado. Por encima de {@link #ZOOM_MAXIMO}
+	 * cada estudio se devuelve por separado, como una agrupación de un solo estudio.
+	 * Si longitudMin es mayor que longitudMax se entiende que el rectángulo cruza el antimeridiano.
+	 *
+	 * @return Las agrupaciones de las celdas que intersecan el rectángulo; el centroide de una agrupación puede
+	 * quedar levemente fuera de él.
+	 */
+	public List<ClusterEstudios> agrupar(double latitudMin, double latitudMax, double longitudMin, double longitudMax, int zoom) {
+		carga.verificarCargado();
+		List<ClusterEstudios> resultado = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			if (longitudMin > longitudMax) {
+				agruparEnRango(latitudMin, latitudMax, longitudMin, CoordenadaUtils.MAX_LONGITUD, zoom, resultado);
+				agruparEnRango(latitudMin, latitudMax, CoordenadaUtils.MIN_LONGITUD, longitudMax, zoom, resultado);
+			} else {
+				agruparEnRango(latitudMin, latitudMax, longitudMin, longitudMax, zoom, resultado);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return resultado;
+	}
+
+	/**
+	 * @return La cantidad de estudios agrupados.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return centroides.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void agruparEnRango(double latitudMin, double latitudMax, double longitudMin, double longitudMax,
+								int zoom, List<ClusterEstudios> resultado) {
+		int nivel = Math.min(zoom, ZOOM_MAXIMO);
+		Map<Long, Celda> celdas = niveles.get(nivel);
+		int columnaMin = columna(longitudMin, nivel);
+		int columnaMax = columna(longitudMax, nivel);
+		// En Web Mercator las filas crecen hacia el sur
+		int filaMin = fila(latitudMax, nivel);
+		int filaMax = fila(latitudMin, nivel);
+		long celdasEnRango = (long) (filaMax - filaMin + 1) * (columnaMax - columnaMin + 1);
+
+		// Con rectángulos muy grandes es más barato recorrer solo las celdas ocupadas
+		if (celdasEnRango > celdas.size()) {
+			long lado = lado(nivel);
+			celdas.forEach((clave, celda) -> {
+				int filaCelda = (int) (clave / lado);
+				int columnaCelda = (int) (clave % lado);
+				if (filaCelda >= filaMin && filaCelda <= filaMax && columnaCelda >= columnaMin && columnaCelda <= columnaMax) {
+					agregar(celda, zoom, resultado);
+				}
+			});
+			return;
+		}
+
+		for (int f = filaMin; f <= filaMax; f++) {
+			for (int c = columnaMin; c <= columnaMax; c++) {
+				Celda celda = celdas.get(clave(f, c, nivel));
+				if (celda != null) {
+					agregar(celda, zoom, resultado);
+				}
+			}
+		}
+	}
+
+	private void agregar(Celda celda, int zoom, List<ClusterEstudios> resultado) {
+		if (zoom <= ZOOM_MAXIMO) {
+			resultado.add(celda.cluster());
+			return;
+		}
+		// En el último nivel la celda conoce todos sus estudios
+		for (int i = 0; i < celda.cantidadIds; i++) {
+			long id = celda.ids[i];
+			Centroide centroide = centroides.get(id);
+			resultado.add(new ClusterEstudios(1, centroide.latitud, centroide.longitud, List.of(id)));
+		}
+	}
+
+	private void insertar(Long id, Double latitud, Double longitud) {
+		if (id == null || latitud == null || longitud == null) {
+			return;
+		}
+
+		Centroide centroide = new Centroide(latitud, longitud);
+		centroides.put(id, centroide);
+		int columna = columna(centroide.longitud, ZOOM_MAXIMO);
+		int fila = fila(centroide.latitud, ZOOM_MAXIMO);
+		for (int nivel = ZOOM_MAXIMO; nivel >= 0; nivel--) {
+			niveles.get(nivel).computeIfAbsent(clave(fila, columna, nivel), k -> new Celda())
+					.sumar(id, centroide, nivel == ZOOM_MAXIMO);
+			fila >>= 1;
+			columna >>= 1;
+		}
+	}
+
+	private void quitar(Long id) {
+		Centroide centroide = centroides.remove(id);
+		if (centroide == null) {
+			return;
+		}
+
+		// Se recorre desde el último nivel para que, al recalcular los representantes de una celda,
+		// las cuatro celdas que contiene ya estén actualizadas
+		int columna = columna(centroide.longitud, ZOOM_MAXIMO);
+		int fila = fila(centroide.latitud, ZOOM_MAXIMO);
+		for (int nivel = ZOOM_MAXIMO; nivel >= 0; nivel--) {
+			Map<Long, Celda> celdas = niveles.get(nivel);
+			long clave = clave(fila, columna, nivel);
+			Celda celda = celdas.get(clave);
+			if (celda != null && celda.restar(id, centroide)) {
+				if (celda.cantidad == 0) {
+					celdas.remove(clave);
+				} else if (nivel < ZOOM_MAXIMO) {
+					celda.recalcularRepresentantes(representantesDeHijas(fila, columna, nivel + 1));
+				}
+			}
+			fila >>= 1;
+			columna >>= 1;
+		}
+	}
+
+	/**
+	 * Obtiene los menores IDs de las cuatro celdas del nivel indicado contenidas en la celda (fila, columna) del
+	 * nivel anterior. Los representantes de una celda están siempre entre los de sus hijas.
+	 */
+	private long[] representantesDeHijas(int fila, int columna, int nivel) {
+		long[] candidatos = new long[4 * MAXIMO_REPRESENTANTES];
+		int cantidad = 0;
+		for (int f = fila << 1; f <= (fila << 1) + 1; f++) {
+			for (int c = columna << 1; c <= (columna << 1) + 1; c++) {
+				Celda hija = niveles.get(nivel).get(clave(f, c, nivel));
+				if (hija != null) {
+					int copiar = Math.min(hija.cantidadIds, MAXIMO_REPRESENTANTES);
+					System.arraycopy(hija.ids, 0, candidatos, cantidad, copiar);
+					cantidad += copiar;
+				}
+			}
+		}
+		long[] ordenados = Arrays.copyOf(candidatos, cantidad);
+		Arrays.sort(ordenados);
+		return ordenados;
+	}
+
+	private static List<Map<Long, Celda>> crearNiveles() {
+		List<Map<Long, Celda>> niveles = new ArrayList<>(ZOOM_MAXIMO + 1);
+		for (int nivel = 0; nivel <= ZOOM_MAXIMO; nivel++) {
+			niveles.add(new HashMap<>());
+		}
+		return niveles;
+	}
+
+	private static long lado(int nivel) {
+		return (long) CELDAS_POR_TESELA << nivel;
+	}
+
+	private static int columna(double longitud, int nivel) {
+		double x = (longitud - CoordenadaUtils.MIN_LONGITUD) / (CoordenadaUtils.MAX_LONGITUD - CoordenadaUtils.MIN_LONGITUD);
+		return limitar(x, nivel);
+	}
+
+	private static int fila(double latitud, int nivel) {
+		double radianes = Math.toRadians(Math.max(-LATITUD_MAXIMA_MERCATOR, Math.min(LATITUD_MAXIMA_MERCATOR, latitud)));
+		double y = (1 - Math.log(Math.tan(radianes) + 1 / Math.cos(radianes)) / Math.PI) / 2;
+		return limitar(y, nivel);
+	}
+
+	private static int limitar(double posicion, int nivel) {
+		long lado = lado(nivel);
+		return (int) Math.min(lado - 1, Math.max(0, (long) Math.floor(posicion * lado)));
+	}
+
+	private static long clave(int fila, int columna, int nivel) {
+		return fila * lado(nivel) + columna;
+	}
+
+	/**
+	 * Centroide de las coordenadas de un estudio.
+	 */
+	private static final class Centroide {
+		private final double latitud;
+		private final double longitud;
+
+		Centroide(double latitud, double longitud) {
+			this.latitud = latitud;
+			this.longitud = longitud;
+		}
+	}
+
+	/**
+	 * Celda de la grilla de un nivel. En el último nivel guarda todos los IDs de sus estudios, ordenados;
+	 * en los demás, solo los {@link #MAXIMO_REPRESENTANTES} menores.
+	 */
+	private static final class Celda {
+		private int cantidad;
+		private double sumaLatitud;
+		private double sumaLongitud;
+		private long[] ids = new long[1];
+		private int cantidadIds;
+
+		void sumar(long id, Centroide centroide, boolean todos) {
+			cantidad++;
+			sumaLatitud += centroide.latitud;
+			sumaLongitud += centroide.longitud;
+
+			int posicion = Arrays.binarySearch(ids, 0, cantidadIds, id);
+			if (posicion >= 0) {
+				return;
+			}
+			posicion = -posicion - 1;
+			if (!todos && posicion >= MAXIMO_REPRESENTANTES) {
+				return;
+			}
+			if (cantidadIds == ids.length) {
+				ids = Arrays.copyOf(ids, todos ? ids.length * 2 : MAXIMO_REPRESENTANTES + 1);
+			}
+			System.arraycopy(ids, posicion, ids, posicion + 1, cantidadIds - posicion);
+			ids[posicion] = id;
+			cantidadIds++;
+			if (!todos && cantidadIds > MAXIMO_REPRESENTANTES) {
+				cantidadIds = MAXIMO_REPRESENTANTES;
+			}
+		}
+
+		/**
+		 * @return true si el ID estaba entre los guardados y los representantes deben recalcularse.
+		 */
+		boolean restar(long id, Centroide centroide) {
+			cantidad--;
+			sumaLatitud -= centroide.latitud;
+			sumaLongitud -= centroide.longitud;
+
+			int posicion = Arrays.binarySearch(ids, 0, cantidadIds, id);
+			if (posicion < 0) {
+				return cantidad == 0;
+			}
+			System.arraycopy(ids, posicion + 1, ids, posicion, cantidadIds - posicion - 1);
+			cantidadIds--;
+			return true;
+		}
+
+		void recalcularRepresentantes(long[] candidatos) {
+			int cantidadCandidatos = Math.min(candidatos.length, MAXIMO_REPRESENTANTES);
+			if (ids.length < cantidadCandidatos) {
+				ids = new long[MAXIMO_REPRESENTANTES + 1];
+			}
+			System.arraycopy(candidatos, 0, ids, 0, cantidadCandidatos);
+			cantidadIds = cantidadCandidatos;
+		}
+
+		ClusterEstudios cluster() {
+			List<Long> representantes = new ArrayList<>(Math.min(cantidadIds, MAXIMO_REPRESENTANTES));
+			for (int i = 0; i < cantidadIds && i < MAXIMO_REPRESENTANTES; i++) {
+				representantes.add(ids[i]);
+			}
+			return new ClusterEstudios(cantidad, sumaLatitud / cantidad, sumaLongitud / cantidad, representantes);
+		}
+	}
+}
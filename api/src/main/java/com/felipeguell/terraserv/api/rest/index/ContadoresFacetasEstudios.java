@@ -0,0 +1,120 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.entity.FacetasEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Contadores en memoria de estudios geofísicos por tipo de estudio, área de aplicación y año de fechaRealizado.
+ *
+ * Se inicializan con una sola consulta al iniciar la aplicación y luego se ajustan con los eventos de guardado
+ * y eliminación. Para cada estudio se recuerdan las máscaras y el año con que fue contado, de modo que una
+ * actualización descuenta los valores anteriores antes de sumar los nuevos.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContadoresFacetasEstudios {
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	private final Map<Long, EntradaFaceta> entradas = new HashMap<>();
+	private FacetasEstudioGeofisico facetas = new FacetasEstudioGeofisico();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("facetas", lock);
+
+	/**
+	 * Inicializa los contadores a partir de todos los estudios almacenados en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(estudioGeofisicoDao::findAllFacetasEstudio, filas -> {
+			entradas.clear();
+			facetas = new FacetasEstudioGeofisico();
+			filas.forEach(fila -> agregar(fila.getId(), new EntradaFaceta(fila.getTiposEstudioMask(), fila.getAreasEstudioMask(), fila.getAnio())));
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		EntradaFaceta entrada = new EntradaFaceta(
+				MascaraBitsUtils.aMascara(event.getTiposEstudio()),
+				MascaraBitsUtils.aMascara(event.getAreasEstudio()),
+				anio(event.getFechaRealizado()));
+
+		carga.aplicar(() -> {
+			quitar(event.getId());
+			agregar(event.getId(), entrada);
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		carga.aplicar(() -> quitar(event.getId()));
+	}
+
+	/**
+	 * @return Una copia de los contadores actuales, que el llamador puede modificar o serializar libremente.
+	 */
+	public FacetasEstudioGeofisico obtener() {
+		carga.verificarCargado();
+		lock.readLock().lock();
+		try {
+			return facetas.copiar();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void agregar(Long id, EntradaFaceta entrada) {
+		entradas.put(id, entrada);
+		facetas.sumar(entrada.mascaraTipos, entrada.mascaraAreas, entrada.anio, 1);
+	}
+
+	private void quitar(Long id) {
+		EntradaFaceta anterior = entradas.remove(id);
+		if (anterior != null) {
+			facetas.sumar(anterior.mascaraTipos, anterior.mascaraAreas, anterior.anio, -1);
+		}
+	}
+
+	private static Integer anio(Date fecha) {
+		if (fecha == null) {
+			return null;
+		}
+		Calendar calendario = Calendar.getInstance();
+		calendario.setTime(fecha);
+		return calendario.get(Calendar.YEAR);
+	}
+
+	private static final class EntradaFaceta {
+		private final Integer mascaraTipos;
+		private final Integer mascaraAreas;
+		private final Integer anio;
+
+		EntradaFaceta(Integer mascaraTipos, Integer mascaraAreas, Integer anio) {
+			this.mascaraTipos = mascaraTipos;
+			this.mascaraAreas = mascaraAreas;
+			this.anio = anio;
+		}
+	}
+}
@@ -0,0 +1,504 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.CoordenadaTiposEstudioProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.util.CoordenadaUtils;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Índice espacial en memoria sobre las coordenadas de los estudios geofísicos.
+ *
+ * Divide la superficie en una grilla regular de celdas de {@link #TAMANO_CELDA_GRADOS} grados y guarda,
+ * para cada celda, los IDs de los estudios que tienen al menos una coordenada dentro de ella. Las búsquedas
+ * por rectángulo o por radio solo visitan las celdas que cubren el área consultada y luego verifican las
+ * coordenadas exactas de los candidatos. Cada estudio guarda también su máscara de tipos, para que la búsqueda
+ * de los más cercanos filtre por tipo sin depender de otro índice.
+ *
+ * Sobre la grilla se mantiene una pirámide de niveles en la que cada nodo agrupa 2 x 2 nodos del nivel inferior,
+ * con la cantidad de celdas ocupadas que contiene. La búsqueda de los estudios más cercanos a un punto recorre la
+ * pirámide de mejor a peor (best-first) según una cota inferior de la distancia a cada nodo, de modo que solo
+ * calcula la distancia exacta a los estudios de las celdas que pueden contener alguno de los más cercanos.
+ *
+ * Se carga completo al iniciar la aplicación y se mantiene al día con los eventos de guardado y eliminación
+ * que publica el servicio de estudios geofísicos, una vez confirmada la transacción.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceEspacialEstudios {
+
+	private static final double TAMANO_CELDA_GRADOS = 0.25;
+	private static final int FILAS = (int) Math.ceil((CoordenadaUtils.MAX_LATITUD - CoordenadaUtils.MIN_LATITUD) / TAMANO_CELDA_GRADOS);
+	private static final int COLUMNAS = (int) Math.ceil((CoordenadaUtils.MAX_LONGITUD - CoordenadaUtils.MIN_LONGITUD) / TAMANO_CELDA_GRADOS);
+	// Niveles de la pirámide sobre la grilla; el último es el primero con a lo más 2 x 2 nodos (con la grilla de
+	// 720 x 1440 celdas, 1 x 2 nodos), que la búsqueda de los más cercanos usa como raíces
+	private static final int NIVELES_PIRAMIDE = 32 - Integer.numberOfLeadingZeros(Math.max(FILAS, COLUMNAS) - 1);
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	private final Map<Long, EntradaEspacial> entradas = new HashMap<>();
+	private final Map<Long, Set<Long>> celdas = new HashMap<>();
+	// Cantidad de celdas ocupadas bajo cada nodo de los niveles 1 en adelante de la pirámide
+	private final List<Map<Long, Integer>> piramide = crearPiramide();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("búsqueda espacial", lock);
+
+	/**
+	 * Construye el índice a partir de todas las coordenadas almacenadas en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(() -> {
+			Map<Long, List<Coordenada>> coordenadasPorEstudio = new HashMap<>();
+			Map<Long, Integer> mascarasTipos = new HashMap<>();
+			for (CoordenadaTiposEstudioProjection fila : estudioGeofisicoDao.findAllCoordenadasEstudio()) {
+				coordenadasPorEstudio.computeIfAbsent(fila.getIdEstudio(), id -> new ArrayList<>())
+						.add(new Coordenada(null, fila.getLatitudDecimal(), fila.getLongitudDecimal()));
+				if (fila.getTiposEstudioMask() != null) {
+					mascarasTipos.put(fila.getIdEstudio(), fila.getTiposEstudioMask());
+				}
+			}
+			return Map.entry(coordenadasPorEstudio, mascarasTipos);
+		}, estudios -> {
+			entradas.clear();
+			celdas.clear();
+			piramide.forEach(Map::clear);
+			estudios.getKey().forEach((id, coordenadas) -> insertar(id, coordenadas, estudios.getValue().getOrDefault(id, 0)));
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		actualizar(event.getId(), event.getCoordenadas(), MascaraBitsUtils.aMascara(event.getTiposEstudio()));
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		eliminar(event.getId());
+	}
+
+	/**
+	 * Reemplaza las coordenadas y la máscara de tipos indexadas de un estudio.
+	 *
+	 * @param id           El ID del estudio geofísico.
+	 * @param coordenadas  Las coordenadas actuales del estudio.
+	 * @param mascaraTipos La máscara de bits de los tipos actuales del estudio.
+	 */
+	public void actualizar(Long id, List<Coordenada> coordenadas, int mascaraTipos) {
+		carga.aplicar(() -> {
+			quitar(id);
+			insertar(id, coordenadas, mascaraTipos);
+		});
+	}
+
+	/**
+	 * Quita un estudio del índice.
+	 *
+	 * @param id El ID del estudio geofísico.
+	 */
+	public void eliminar(Long id) {
+		carga.aplicar(() -> quitar(id));
+	}
+
+	/**
+	 * Busca los estudios que tienen al menos una coordenada dentro del rectángulo indicado.
+	 * Si longitudMin es mayor que longitudMax se entiende que el rectángulo cruza el antimeridiano.
+	 *
+	 * @return Los IDs de los estudios encontrados.
+	 */
+	public Set<Long> buscarEnRectangulo(double latitudMin, double latitudMax, double longitudMin, double longitudMax) {
+		carga.verificarCargado();
+		Set<Long> resultado = new HashSet<>();
+		lock.readLock().lock();
+		try {
+			if (longitudMin > longitudMax) {
+				buscarEnRango(latitudMin, latitudMax, longitudMin, CoordenadaUtils.MAX_LONGITUD, resultado);
+				buscarEnRango(latitudMin, latitudMax, CoordenadaUtils.MIN_LONGITUD, longitudMax, resultado);
+			} else {
+				buscarEnRango(latitudMin, latitudMax, longitudMin, longitudMax, resultado);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return resultado;
+	}
+
+	/**
+	 * Busca los estudios que tienen al menos una coordenada a una distancia de círculo máximo
+	 * menor o igual a radioKm del punto indicado.
+	 *
+	 * @return Los IDs de los estudios encontrados.
+	 */
+	public Set<Long> buscarEnRadio(double latitud, double longitud, double radioKm) {
+		carga.verificarCargado();
+		double deltaLatitud = radioKm / CoordenadaUtils.KM_POR_GRADO_LATITUD;
+		double latitudMin = Math.max(CoordenadaUtils.MIN_LATITUD, latitud - deltaLatitud);
+		double latitudMax = Math.min(CoordenadaUtils.MAX_LATITUD, latitud + deltaLatitud);
+
+		// La longitud cubierta por el radio crece con la latitud; se usa la latitud más alejada del ecuador
+		double latitudExtrema = Math.max(Math.abs(latitudMin), Math.abs(latitudMax));
+		double coseno = Math.cos(Math.toRadians(latitudExtrema));
+		double deltaLongitud = coseno <= 0 ? 360 : radioKm / (CoordenadaUtils.KM_POR_GRADO_LATITUD * coseno);
+
+		Set<Long> candidatos;
+		if (deltaLongitud >= 180) {
+			candidatos = buscarEnRectangulo(latitudMin, latitudMax, CoordenadaUtils.MIN_LONGITUD, CoordenadaUtils.MAX_LONGITUD);
+		} else {
+			candidatos = buscarEnRectangulo(latitudMin, latitudMax,
+					normalizarLongitud(longitud - deltaLongitud), normalizarLongitud(longitud + deltaLongitud));
+		}
+
+		Set<Long> resultado = new HashSet<>();
+		lock.readLock().lock();
+		try {
+			for (Long id : candidatos) {
+				EntradaEspacial entrada = entradas.get(id);
+				if (entrada != null && entrada.distanciaMinimaKm(latitud, longitud) <= radioKm) {
+					resultado.add(id);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return resultado;
+	}
+
+	/**
+	 * Busca los estudios más cercanos a un punto según la distancia de círculo máximo a la más cercana de sus
+	 * coordenadas. Los nodos de la pirámide y los estudios se visitan en orden de distancia: un estudio se entrega
+	 * cuando ningún nodo pendiente puede contener uno más cercano.
+	 *
+	 * @param latitud      Latitud del punto.
+	 * @param longitud     Longitud del punto.
+	 * @param cantidad     Cantidad máxima de estudios.
+	 * @param mascaraTipos Máscara de los tipos solicitados. Se entregan los estudios que cumplen
+	 *                     (mascaraTipos del estudio & mascaraTipos) >= minimoTipos, lo que se evalúa antes de calcular
+	 *                     la distancia; con ambos valores en 0 no se filtra por tipo.
+	 * @param minimoTipos  Mínimo de la comparación, según MascaraBitsUtils.minimoCoincidencia.
+	 * @return Los IDs de los estudios encontrados con su distancia en kilómetros, del más cercano al más lejano.
+	 */
+	public LinkedHashMap<Long, Double> buscarMasCercanos(double latitud, double longitud, int cantidad, int mascaraTipos, int minimoTipos) {
+		carga.verificarCargado();
+		LinkedHashMap<Long, Double> resultado = new LinkedHashMap<>();
+		PriorityQueue<Candidato> pendientes = new PriorityQueue<>();
+		Set<Long> vistos = new HashSet<>();
+
+		lock.readLock().lock();
+		try {
+			int nivelRaiz = NIVELES_PIRAMIDE - 1;
+			for (long nodo : piramide.get(nivelRaiz).keySet()) {
+				pendientes.add(nodo(latitud, longitud, nivelRaiz, (int) (nodo >>> 32), (int) nodo, 0));
+			}
+
+			while (!pendientes.isEmpty() && resultado.size() < cantidad) {
+				Candidato candidato = pendientes.poll();
+				if (candidato.nivel < 0) {
+					resultado.put(candidato.id, candidato.distanciaKm);
+				} else if (candidato.nivel == 0) {
+					for (Long id : celdas.get(celda(candidato.fila, candidato.columna))) {
+						EntradaEspacial entrada = entradas.get(id);
+						if (vistos.add(id) && (entrada.mascaraTipos & mascaraTipos) >= minimoTipos) {
+							pendientes.add(new Candidato(entrada.distanciaMinimaKm(latitud, longitud), id));
+						}
+					}
+				} else {
+					int nivelHijo = candidato.nivel - 1;
+					for (int f = candidato.fila << 1; f <= (candidato.fila << 1) + 1; f++) {
+						for (int c = candidato.columna << 1; c <= (candidato.columna << 1) + 1; c++) {
+							boolean ocupado = nivelHijo == 0
+									? f < FILAS && c < COLUMNAS && celdas.containsKey(celda(f, c))
+									: piramide.get(nivelHijo).containsKey(nodoPiramide(f, c));
+							if (ocupado) {
+								pendientes.add(nodo(latitud, longitud, nivelHijo, f, c, candidato.distanciaKm));
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return resultado;
+	}
+
+	/**
+	 * @return La cantidad de estudios indexados.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return entradas.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void buscarEnRango(double latitudMin, double latitudMax, double longitudMin, double longitudMax, Set<Long> resultado) {
+		int filaMin = fila(latitudMin);
+		int filaMax = fila(latitudMax);
+		int columnaMin = columna(longitudMin);
+		int columnaMax = columna(longitudMax);
+		long celdasEnRango = (long) (filaMax - filaMin + 1) * (columnaMax - columnaMin + 1);
+
+		// Con rectángulos muy grandes es más barato recorrer solo las celdas ocupadas
+		if (celdasEnRango > celdas.size()) {
+			celdas.forEach((celda, ids) -> {
+				int filaCelda = (int) (celda / COLUMNAS);
+				int columnaCelda = (int) (celda % COLUMNAS);
+				if (filaCelda >= filaMin && filaCelda <= filaMax && columnaCelda >= columnaMin && columnaCelda <= columnaMax) {
+					verificarCandidatos(ids, latitudMin, latitudMax, longitudMin, longitudMax, resultado);
+				}
+			});
+			return;
+		}
+
+		for (int f = filaMin; f <= filaMax; f++) {
+			for (int c = columnaMin; c <= columnaMax; c++) {
+				Set<Long> ids = celdas.get(celda(f, c));
+				if (ids != null) {
+					verificarCandidatos(ids, latitudMin, latitudMax, longitudMin, longitudMax, resultado);
+				}
+			}
+		}
+	}
+
+	private void verificarCandidatos(Set<Long> ids, double latitudMin, double latitudMax, double longitudMin, double longitudMax, Set<Long> resultado) {
+		for (Long id : ids) {
+			if (!resultado.contains(id) && entradas.get(id).tienePuntoEn(latitudMin, latitudMax, longitudMin, longitudMax)) {
+				resultado.add(id);
+			}
+		}
+	}
+
+	private void insertar(Long id, List<Coordenada> coordenadas, int mascaraTipos) {
+		if (id == null || coordenadas == null || coordenadas.isEmpty()) {
+			return;
+		}
+
+		EntradaEspacial entrada = new EntradaEspacial(coordenadas, mascaraTipos);
+		entradas.put(id, entrada);
+		for (long celda : entrada.celdas()) {
+			Set<Long> ids = celdas.get(celda);
+			if (ids == null) {
+				ids = new HashSet<>();
+				celdas.put(celda, ids);
+				actualizarPiramide(celda, 1);
+			}
+			ids.add(id);
+		}
+	}
+
+	private void quitar(Long id) {
+		EntradaEspacial entrada = entradas.remove(id);
+		if (entrada == null) {
+			return;
+		}
+
+		for (long celda : entrada.celdas()) {
+			Set<Long> ids = celdas.get(celda);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					celdas.remove(celda);
+					actualizarPiramide(celda, -1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Suma la variación de celdas ocupadas a los nodos de la pirámide que contienen la celda.
+	 */
+	private void actualizarPiramide(long celda, int variacion) {
+		int fila = (int) (celda / COLUMNAS);
+		int columna = (int) (celda % COLUMNAS);
+		for (int nivel = 1; nivel < NIVELES_PIRAMIDE; nivel++) {
+			long nodo = nodoPiramide(fila >> nivel, columna >> nivel);
+			Map<Long, Integer> conteos = piramide.get(nivel);
+			if (conteos.merge(nodo, variacion, Integer::sum) == 0) {
+				conteos.remove(nodo);
+			}
+		}
+	}
+
+	private static List<Map<Long, Integer>> crearPiramide() {
+		List<Map<Long, Integer>> piramide = new ArrayList<>(NIVELES_PIRAMIDE);
+		// El nivel 0 son las celdas de la grilla, por lo que su mapa queda vacío
+		for (int nivel = 0; nivel < NIVELES_PIRAMIDE; nivel++) {
+			piramide.add(new HashMap<>());
+		}
+		return piramide;
+	}
+
+	private static long nodoPiramide(int fila, int columna) {
+		return ((long) fila << 32) | columna;
+	}
+
+	/**
+	 * Crea el candidato de un nodo de la pirámide con una cota inferior de la distancia desde el punto a cualquier
+	 * coordenada dentro del nodo. La cota nunca es menor que la del nodo padre, para que los candidatos salgan de la
+	 * cola en orden.
+	 */
+	private static Candidato nodo(double latitud, double longitud, int nivel, int fila, int columna, double cotaPadre) {
+		double latitudMin = CoordenadaUtils.MIN_LATITUD + ((long) fila << nivel) * TAMANO_CELDA_GRADOS;
+		double latitudMax = Math.min(CoordenadaUtils.MAX_LATITUD, CoordenadaUtils.MIN_LATITUD + ((long) (fila + 1) << nivel) * TAMANO_CELDA_GRADOS);
+		double longitudMin = CoordenadaUtils.MIN_LONGITUD + ((long) columna << nivel) * TAMANO_CELDA_GRADOS;
+		double longitudMax = Math.min(CoordenadaUtils.MAX_LONGITUD, CoordenadaUtils.MIN_LONGITUD + ((long) (columna + 1) << nivel) * TAMANO_CELDA_GRADOS);
+		double cota = cotaDistanciaKm(latitud, longitud, latitudMin, latitudMax, longitudMin, longitudMax);
+		return new Candidato(Math.max(cota, cotaPadre), nivel, fila, columna);
+	}
+
+	/**
+	 * Cota inferior de la distancia de círculo máximo entre un punto y cualquier punto del rectángulo. En la fórmula
+	 * del semiverseno, hav(d) = hav(Δlat) + cos(lat1) cos(lat2) hav(Δlon); cada término se acota por abajo con la
+	 * menor diferencia de latitud y de longitud posible y con el menor coseno de latitud del rectángulo.
+	 */
+	private static double cotaDistanciaKm(double latitud, double longitud, double latitudMin, double latitudMax,
+										  double longitudMin, double longitudMax) {
+		double diferenciaLatitud = latitud < latitudMin ? latitudMin - latitud : latitud > latitudMax ? latitud - latitudMax : 0;
+		double diferenciaLongitud = longitud >= longitudMin && longitud <= longitudMax ? 0
+				: Math.min(diferenciaAngular(longitud, longitudMin), diferenciaAngular(longitud, longitudMax));
+		double cosenoMinimo = Math.max(0, Math.min(Math.cos(Math.toRadians(latitudMin)), Math.cos(Math.toRadians(latitudMax))));
+		double a = semiverseno(diferenciaLatitud) + Math.cos(Math.toRadians(latitud)) * cosenoMinimo * semiverseno(diferenciaLongitud);
+		return 2 * CoordenadaUtils.RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+	}
+
+	private static double diferenciaAngular(double longitud1, double longitud2) {
+		double diferencia = Math.abs(longitud1 - longitud2) % 360;
+		return diferencia > 180 ? 360 - diferencia : diferencia;
+	}
+
+	private static double semiverseno(double grados) {
+		double seno = Math.sin(Math.toRadians(grados) / 2);
+		return seno * seno;
+	}
+
+	private static int fila(double latitud) {
+		return Math.min(FILAS - 1, Math.max(0, (int) Math.floor((latitud - CoordenadaUtils.MIN_LATITUD) / TAMANO_CELDA_GRADOS)));
+	}
+
+	private static int columna(double longitud) {
+		return Math.min(COLUMNAS - 1, Math.max(0, (int) Math.floor((longitud - CoordenadaUtils.MIN_LONGITUD) / TAMANO_CELDA_GRADOS)));
+	}
+
+	private static long celda(int fila, int columna) {
+		return (long) fila * COLUMNAS + columna;
+	}
+
+	private static double normalizarLongitud(double longitud) {
+		if (longitud < CoordenadaUtils.MIN_LONGITUD) {
+			return longitud + 360;
+		}
+		if (longitud > CoordenadaUtils.MAX_LONGITUD) {
+			return longitud - 360;
+		}
+		return longitud;
+	}
+
+	/**
+	 * Elemento de la búsqueda de los más cercanos: un nodo de la pirámide con la cota de su distancia, o un estudio
+	 * (nivel -1) con su distancia exacta.
+	 */
+	private static final class Candidato implements Comparable<Candidato> {
+		private final double distanciaKm;
+		private final int nivel;
+		private final int fila;
+		private final int columna;
+		private final long id;
+
+		Candidato(double distanciaKm, int nivel, int fila, int columna) {
+			this.distanciaKm = distanciaKm;
+			this.nivel = nivel;
+			this.fila = fila;
+			this.columna = columna;
+			this.id = 0;
+		}
+
+		Candidato(double distanciaKm, long id) {
+			this.distanciaKm = distanciaKm;
+			this.nivel = -1;
+			this.fila = 0;
+			this.columna = 0;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(Candidato otro) {
+			int comparacion = Double.compare(distanciaKm, otro.distanciaKm);
+			// A igual distancia se entregan primero los estudios y, entre ellos, el de menor ID
+			if (comparacion == 0) {
+				comparacion = Integer.compare(nivel, otro.nivel);
+			}
+			return comparacion != 0 ? comparacion : Long.compare(id, otro.id);
+		}
+	}
+
+	/**
+	 * Coordenadas y máscara de tipos de un estudio tal como se guardan en el índice.
+	 */
+	private static final class EntradaEspacial {
+		private final double[] latitudes;
+		private final double[] longitudes;
+		private final int mascaraTipos;
+
+		EntradaEspacial(List<Coordenada> coordenadas, int mascaraTipos) {
+			this.mascaraTipos = mascaraTipos;
+			this.latitudes = new double[coordenadas.size()];
+			this.longitudes = new double[coordenadas.size()];
+			for (int i = 0; i < coordenadas.size(); i++) {
+				latitudes[i] = coordenadas.get(i).getLatitudDecimal();
+				longitudes[i] = coordenadas.get(i).getLongitudDecimal();
+			}
+		}
+
+		Set<Long> celdas() {
+			Set<Long> resultado = new HashSet<>();
+			for (int i = 0; i < latitudes.length; i++) {
+				resultado.add(celda(fila(latitudes[i]), columna(longitudes[i])));
+			}
+			return resultado;
+		}
+
+		boolean tienePuntoEn(double latitudMin, double latitudMax, double longitudMin, double longitudMax) {
+			for (int i = 0; i < latitudes.length; i++) {
+				if (latitudes[i] >= latitudMin && latitudes[i] <= latitudMax
+						&& longitudes[i] >= longitudMin && longitudes[i] <= longitudMax) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		double distanciaMinimaKm(double latitud, double longitud) {
+			double minima = Double.MAX_VALUE;
+			for (int i = 0; i < latitudes.length; i++) {
+				minima = Math.min(minima, CoordenadaUtils.distanciaKm(latitud, longitud, latitudes[i], longitudes[i]));
+			}
+			return minima;
+		}
+	}
+}
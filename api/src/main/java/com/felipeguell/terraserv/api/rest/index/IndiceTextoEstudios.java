@@ -0,0 +1,192 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Índice invertido en memoria sobre los campos nombreEstudio, nombreCliente y ubicacionEstudio.
+ *
+ * Cada campo se normaliza (minúsculas y sin tildes, igual que la collation por defecto de MySQL) y se
+ * descompone en trigramas. Para una consulta de tres o más caracteres se intersectan las listas de
+ * IDs de sus trigramas, comenzando por la más corta, y se confirma la coincidencia sobre el texto
+ * completo. Así se conserva la semántica de LIKE '%consulta%' sin recorrer la tabla.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceTextoEstudios {
+
+	private static final int LARGO_TRIGRAMA = 3;
+	private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	private final Map<Long, String[]> textos = new HashMap<>();
+	private final Map<String, Set<Long>> trigramas = new HashMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("búsqueda de texto", lock);
+
+	/**
+	 * Construye el índice a partir de todos los estudios almacenados en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(estudioGeofisicoDao::findAllTextosEstudio, filas -> {
+			textos.clear();
+			trigramas.clear();
+			filas.forEach(fila -> insertar(fila.getId(), fila.getNombreEstudio(), fila.getNombreCliente(), fila.getUbicacionEstudio()));
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		carga.aplicar(() -> {
+			quitar(event.getId());
+			insertar(event.getId(), event.getNombreEstudio(), event.getNombreCliente(), event.getUbicacionEstudio());
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		carga.aplicar(() -> quitar(event.getId()));
+	}
+
+	/**
+	 * Busca los estudios cuyo nombreEstudio, nombreCliente o ubicacionEstudio contienen la consulta.
+	 *
+	 * @param consulta El texto a buscar.
+	 * @return Los IDs de los estudios que coinciden.
+	 */
+	public Set<Long> buscar(String consulta) {
+		carga.verificarCargado();
+		String consultaNormalizada = normalizar(consulta);
+		Set<Long> resultado = new HashSet<>();
+
+		lock.readLock().lock();
+		try {
+			// Las consultas más cortas que un trigrama no se pueden resolver con el índice; se verifica cada texto
+			if (consultaNormalizada.length() < LARGO_TRIGRAMA) {
+				textos.forEach((id, campos) -> {
+					if (contiene(campos, consultaNormalizada)) {
+						resultado.add(id);
+					}
+				});
+				return resultado;
+			}
+
+			List<Set<Long>> listas = new ArrayList<>();
+			for (String trigrama : trigramas(consultaNormalizada)) {
+				Set<Long> ids = trigramas.get(trigrama);
+				if (ids == null) {
+					return resultado;
+				}
+				listas.add(ids);
+			}
+			listas.sort(Comparator.comparingInt(Set::size));
+
+			for (Long id : listas.get(0)) {
+				if (estaEnTodas(id, listas) && contiene(textos.get(id), consultaNormalizada)) {
+					resultado.add(id);
+				}
+			}
+			return resultado;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Normaliza un texto para compararlo sin distinguir mayúsculas ni tildes.
+	 *
+	 * @param texto El texto a normalizar.
+	 * @return El texto normalizado, o una cadena vacía si es null.
+	 */
+	public static String normalizar(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return sinTildes.toLowerCase(Locale.ROOT).trim();
+	}
+
+	private void insertar(Long id, String... campos) {
+		String[] camposNormalizados = new String[campos.length];
+		for (int i = 0; i < campos.length; i++) {
+			camposNormalizados[i] = normalizar(campos[i]);
+		}
+		textos.put(id, camposNormalizados);
+
+		for (String trigrama : trigramas(camposNormalizados)) {
+			trigramas.computeIfAbsent(trigrama, k -> new HashSet<>()).add(id);
+		}
+	}
+
+	private void quitar(Long id) {
+		String[] campos = textos.remove(id);
+		if (campos == null) {
+			return;
+		}
+
+		for (String trigrama : trigramas(campos)) {
+			Set<Long> ids = trigramas.get(trigrama);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					trigramas.remove(trigrama);
+				}
+			}
+		}
+	}
+
+	private static Set<String> trigramas(String... campos) {
+		Set<String> resultado = new HashSet<>();
+		for (String campo : campos) {
+			for (int i = 0; i + LARGO_TRIGRAMA <= campo.length(); i++) {
+				resultado.add(campo.substring(i, i + LARGO_TRIGRAMA));
+			}
+		}
+		return resultado;
+	}
+
+	private static boolean estaEnTodas(Long id, List<Set<Long>> listas) {
+		for (int i = 1; i < listas.size(); i++) {
+			if (!listas.get(i).contains(id)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contiene(String[] campos, String consulta) {
+		for (String campo : campos) {
+			if (campo.contains(consulta)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
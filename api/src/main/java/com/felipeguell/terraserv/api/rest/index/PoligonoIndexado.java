@@ -0,0 +1,270 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.List;
+
+/**
+ * Polígono dibujado por el usuario (un anillo exterior y sus agujeros), preparado para probar muchas veces si
+ * intersecta la huella de un estudio geofísico.
+ *
+ * Las aristas de todos los anillos se reparten en franjas horizontales de igual alto, de modo que la prueba de
+ * punto en polígono y la de cruce con un segmento solo revisan las aristas de las franjas que tocan, en lugar
+ * de todas. Así un polígono de cientos de vértices cuesta unas pocas comparaciones por estudio.
+ *
+ * Las coordenadas se tratan como planas en grados (x = longitud, y = latitud); un polígono que cruza el
+ * antimeridiano debe venir dividido en dos, como indica GeoJSON.
+ */
+public final class PoligonoIndexado {
+
+	// Aristas promedio por franja y cantidad máxima de franjas
+	private static final int ARISTAS_POR_FRANJA = 4;
+	private static final int MAXIMO_FRANJAS = 4096;
+
+	private final double[] x1;
+	private final double[] y1;
+	private final double[] x2;
+	private final double[] y2;
+
+	private final double xMin;
+	private final double xMax;
+	private final double yMin;
+	private final double yMax;
+
+	private final double altoFranja;
+	// Índices de las aristas que cruzan cada franja
+	private final int[][] franjas;
+
+	// Un vértice del anillo exterior, para detectar que la huella contiene al polígono completo
+	private final double xVertice;
+	private final double yVertice;
+
+	/**
+	 * @param anillos El anillo exterior seguido de los agujeros. Cada anillo es una lista de posiciones
+	 *                [longitud, latitud], cerrado o no; si el último vértice repite al primero se ignora.
+	 * @throws IllegalArgumentException Si no hay anillos o alguno tiene menos de tres posiciones distintas.
+	 */
+	public PoligonoIndexado(List<double[][]> anillos) {
+		if (anillos.isEmpty()) {
+			throw new IllegalArgumentException("El polígono debe tener al menos un anillo.");
+		}
+
+		int cantidadAristas = 0;
+		int[] tamanos = new int[anillos.size()];
+		for (int a = 0; a < anillos.size(); a++) {
+			tamanos[a] = verticesDistintos(anillos.get(a));
+			if (tamanos[a] < 3) {
+				throw new IllegalArgumentException("Cada anillo del polígono debe tener al menos 3 posiciones distintas.");
+			}
+			cantidadAristas += tamanos[a];
+		}
+
+		x1 = new double[cantidadAristas];
+		y1 = new double[cantidadAristas];
+		x2 = new double[cantidadAristas];
+		y2 = new double[cantidadAristas];
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		int arista = 0;
+		for (int a = 0; a < anillos.size(); a++) {
+			double[][] anillo = anillos.get(a);
+			for (int i = 0; i < tamanos[a]; i++) {
+				double[] desde = anillo[i];
+				double[] hasta = anillo[(i + 1) % tamanos[a]];
+				x1[arista] = desde[0];
+				y1[arista] = desde[1];
+				x2[arista] = hasta[0];
+				y2[arista] = hasta[1];
+				minX = Math.min(minX, desde[0]);
+				maxX = Math.max(maxX, desde[0]);
+				minY = Math.min(minY, desde[1]);
+				maxY = Math.max(maxY, desde[1]);
+				arista++;
+			}
+		}
+		xMin = minX;
+		xMax = maxX;
+		yMin = minY;
+		yMax = maxY;
+		xVertice = anillos.get(0)[0][0];
+		yVertice = anillos.get(0)[0][1];
+
+		int cantidadFranjas = Math.max(1, Math.min(MAXIMO_FRANJAS, cantidadAristas / ARISTAS_POR_FRANJA));
+		altoFranja = yMax > yMin ? (yMax - yMin) / cantidadFranjas : 1;
+		franjas = repartirEnFranjas(cantidadFranjas);
+	}
+
+	public double getLatitudMin() {
+		return yMin;
+	}
+
+	public double getLatitudMax() {
+		return yMax;
+	}
+
+	public double getLongitudMin() {
+		return xMin;
+	}
+
+	public double getLongitudMax() {
+		return xMax;
+	}
+
+	/**
+	 * Prueba exacta de intersección con la huella de un estudio: un punto con una coordenada, un segmento con dos
+	 * y un polígono con tres o más. Se intersectan si algún borde se cruza o toca, o si una figura contiene a la otra.
+	 *
+	 * @param longitudes Las longitudes de los vértices de la huella, en orden.
+	 * @param latitudes  Las latitudes de los vértices de la huella, en orden.
+	 * @return true si la huella y el polígono comparten al menos un punto.
+	 */
+	public boolean interseca(double[] longitudes, double[] latitudes) {
+		int cantidad = longitudes.length;
+		if (cantidad == 0) {
+			return false;
+		}
+		if (cantidad == 1) {
+			return contiene(longitudes[0], latitudes[0]);
+		}
+
+		int aristas = cantidad == 2 ? 1 : cantidad;
+		for (int i = 0; i < aristas; i++) {
+			int j = (i + 1) % cantidad;
+			if (cruzaSegmento(longitudes[i], latitudes[i], longitudes[j], latitudes[j])) {
+				return true;
+			}
+		}
+
+		// Sin cruces de bordes, la huella queda completa dentro o completa fuera del polígono, y viceversa
+		return contiene(longitudes[0], latitudes[0])
+				|| cantidad >= 3 && dentroDeAnillo(xVertice, yVertice, longitudes, latitudes);
+	}
+
+	/**
+	 * Prueba de punto en polígono por regla par-impar, contando solo las aristas de la franja del punto.
+	 * Los puntos sobre el borde se consideran dentro.
+	 */
+	public boolean contiene(double x, double y) {
+		if (x < xMin || x > xMax || y < yMin || y > yMax) {
+			return false;
+		}
+
+		boolean dentro = false;
+		for (int arista : franjas[franja(y)]) {
+			if (sobreSegmento(x, y, x1[arista], y1[arista], x2[arista], y2[arista])) {
+				return true;
+			}
+			if ((y1[arista] > y) != (y2[arista] > y)
+					&& x < x1[arista] + (y - y1[arista]) * (x2[arista] - x1[arista]) / (y2[arista] - y1[arista])) {
+				dentro = !dentro;
+			}
+		}
+		return dentro;
+	}
+
+	/**
+	 * @return true si el segmento cruza o toca alguna arista de los anillos del polígono.
+	 */
+	public boolean cruzaSegmento(double ax, double ay, double bx, double by) {
+		double segmentoXMin = Math.min(ax, bx), segmentoXMax = Math.max(ax, bx);
+		double segmentoYMin = Math.min(ay, by), segmentoYMax = Math.max(ay, by);
+		if (segmentoXMax < xMin || segmentoXMin > xMax || segmentoYMax < yMin || segmentoYMin > yMax) {
+			return false;
+		}
+
+		int desde = franja(Math.max(segmentoYMin, yMin));
+		int hasta = franja(Math.min(segmentoYMax, yMax));
+		for (int f = desde; f <= hasta; f++) {
+			for (int arista : franjas[f]) {
+				// Una arista que abarca varias franjas se revisa más de una vez; descartarla por rectángulo es barato
+				if (Math.max(x1[arista], x2[arista]) < segmentoXMin || Math.min(x1[arista], x2[arista]) > segmentoXMax
+						|| Math.max(y1[arista], y2[arista]) < segmentoYMin || Math.min(y1[arista], y2[arista]) > segmentoYMax) {
+					continue;
+				}
+				if (segmentosSeCruzan(ax, ay, bx, by, x1[arista], y1[arista], x2[arista], y2[arista])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private int franja(double y) {
+		return Math.max(0, Math.min(franjas.length - 1, (int) ((y - yMin) / altoFranja)));
+	}
+
+	private int[][] repartirEnFranjas(int cantidadFranjas) {
+		int[] cantidades = new int[cantidadFranjas];
+		int[] primeras = new int[x1.length];
+		int[] ultimas = new int[x1.length];
+		for (int arista = 0; arista < x1.length; arista++) {
+			primeras[arista] = franjaInicial(Math.min(y1[arista], y2[arista]), cantidadFranjas);
+			ultimas[arista] = franjaInicial(Math.max(y1[arista], y2[arista]), cantidadFranjas);
+			for (int f = primeras[arista]; f <= ultimas[arista]; f++) {
+				cantidades[f]++;
+			}
+		}
+
+		int[][] resultado = new int[cantidadFranjas][];
+		for (int f = 0; f < cantidadFranjas; f++) {
+			resultado[f] = new int[cantidades[f]];
+			cantidades[f] = 0;
+		}
+		for (int arista = 0; arista < x1.length; arista++) {
+			for (int f = primeras[arista]; f <= ultimas[arista]; f++) {
+				resultado[f][cantidades[f]++] = arista;
+			}
+		}
+		return resultado;
+	}
+
+	// Igual que franja(y), para usarla mientras las franjas aún no existen
+	private int franjaInicial(double y, int cantidadFranjas) {
+		return Math.max(0, Math.min(cantidadFranjas - 1, (int) ((y - yMin) / altoFranja)));
+	}
+
+	private static int verticesDistintos(double[][] anillo) {
+		int cantidad = anillo.length;
+		while (cantidad > 1 && anillo[cantidad - 1][0] == anillo[0][0] && anillo[cantidad - 1][1] == anillo[0][1]) {
+			cantidad--;
+		}
+		return cantidad;
+	}
+
+	private static boolean dentroDeAnillo(double x, double y, double[] xs, double[] ys) {
+		boolean dentro = false;
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+			if ((ys[i] > y) != (ys[j] > y) && x < xs[i] + (y - ys[i]) * (xs[j] - xs[i]) / (ys[j] - ys[i])) {
+				dentro = !dentro;
+			}
+		}
+		return dentro;
+	}
+
+	private static boolean segmentosSeCruzan(double ax, double ay, double bx, double by,
+											 double cx, double cy, double dx, double dy) {
+		double d1 = orientacion(cx, cy, dx, dy, ax, ay);
+		double d2 = orientacion(cx, cy, dx, dy, bx, by);
+		double d3 = orientacion(ax, ay, bx, by, cx, cy);
+		double d4 = orientacion(ax, ay, bx, by, dx, dy);
+		if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+			return true;
+		}
+		// Casos colineales o de contacto en un extremo
+		return d1 == 0 && enRectangulo(ax, ay, cx, cy, dx, dy)
+				|| d2 == 0 && enRectangulo(bx, by, cx, cy, dx, dy)
+				|| d3 == 0 && enRectangulo(cx, cy, ax, ay, bx, by)
+				|| d4 == 0 && enRectangulo(dx, dy, ax, ay, bx, by);
+	}
+
+	private static boolean sobreSegmento(double x, double y, double ax, double ay, double bx, double by) {
+		return orientacion(ax, ay, bx, by, x, y) == 0 && enRectangulo(x, y, ax, ay, bx, by);
+	}
+
+	// Producto cruz (b - a) x (p - a): positivo si p queda a la izquierda de a→b
+	private static double orientacion(double ax, double ay, double bx, double by, double px, double py) {
+		return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+	}
+
+	private static boolean enRectangulo(double x, double y, double ax, double ay, double bx, double by) {
+		return x >= Math.min(ax, bx) && x <= Math.max(ax, bx) && y >= Math.min(ay, by) && y <= Math.max(ay, by);
+	}
+}
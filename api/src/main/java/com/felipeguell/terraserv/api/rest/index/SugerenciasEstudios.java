@@ -0,0 +1,259 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioTextoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.SugerenciaEstudio;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumCampoSugerencia;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Índice en memoria de los valores distintos de nombreCliente, nombreEstudio y ubicacionEstudio, para sugerir
+ * completaciones a partir de un prefijo.
+ *
+ * Cada campo es un mapa ordenado por el valor normalizado (sin tildes ni mayúsculas), por lo que los valores que
+ * comienzan con un prefijo son un rango contiguo del mapa. Cada valor guarda la cantidad de estudios que lo usan,
+ * que define el orden de las sugerencias. Se construye con una sola consulta al iniciar la aplicación y luego
+ * se actualiza con los eventos de guardado y eliminación.
+ *
+ * Los prefijos cortos abarcan rangos grandes, y son justamente los que se consultan en cada tecla. Por eso los
+ * MAXIMO_SUGERENCIAS mejores valores de cada prefijo consultado se guardan y se mantienen al guardar o eliminar
+ * estudios: solo cambian las listas de los prefijos del valor modificado, y solo se vuelven a calcular cuando un
+ * valor de una lista completa pierde estudios, porque su reemplazo puede estar fuera de la lista.
+ */
+@Component
+@RequiredArgsConstructor
+public class SugerenciasEstudios {
+
+	// Cantidad de valores que se guardan por prefijo; es el límite máximo de sugerencias que se puede solicitar
+	public static final int MAXIMO_SUGERENCIAS = 50;
+	private static final int MAXIMO_PREFIJOS_GUARDADOS = 4096;
+
+	// Mayor cantidad de estudios primero y, a igual cantidad, en orden alfabético
+	private static final Comparator<ValorSugerido> ORDEN = Comparator.<ValorSugerido>comparingInt(valor -> valor.cantidad).reversed()
+			.thenComparing(valor -> valor.clave);
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	private final Map<EnumCampoSugerencia, TreeMap<String, ValorSugerido>> valores = mapaPorCampo(TreeMap::new);
+	// Mejores valores por campo y prefijo normalizado. Varias lecturas simultáneas pueden guardar prefijos
+	private final Map<EnumCampoSugerencia, Map<String, List<ValorSugerido>>> mejoresPorPrefijo = mapaPorCampo(ConcurrentHashMap::new);
+	// Textos con que se contó cada estudio, en el orden de EnumCampoSugerencia
+	private final Map<Long, String[]> textosPorEstudio = new HashMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("sugerencias", lock);
+
+	/**
+	 * Construye el índice a partir de todos los estudios almacenados en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(estudioGeofisicoDao::findAllTextosEstudio, textos -> {
+			valores.values().forEach(Map::clear);
+			mejoresPorPrefijo.values().forEach(Map::clear);
+			textosPorEstudio.clear();
+			for (EstudioTextoProjection texto : textos) {
+				agregar(texto.getId(), texto.getNombreCliente(), texto.getNombreEstudio(), texto.getUbicacionEstudio());
+			}
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		carga.aplicar(() -> {
+			quitar(event.getId());
+			agregar(event.getId(), event.getNombreCliente(), event.getNombreEstudio(), event.getUbicacionEstudio());
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		carga.aplicar(() -> quitar(event.getId()));
+	}
+
+	/**
+	 * Obtiene los valores que comienzan con el prefijo, ignorando tildes y mayúsculas.
+	 *
+	 * @param prefijo Texto escrito por el usuario.
+	 * @param campos  Campos en los que se buscan valores.
+	 * @param limite  Cantidad máxima de sugerencias, hasta MAXIMO_SUGERENCIAS.
+	 * @return Las sugerencias de los valores usados por más estudios primero y, a igual cantidad, en orden alfabético.
+	 */
+	public List<SugerenciaEstudio> sugerir(String prefijo, Set<EnumCampoSugerencia> campos, int limite) {
+		carga.verificarCargado();
+		String prefijoNormalizado = IndiceTextoEstudios.normalizar(prefijo);
+		List<ValorSugerido> candidatos = new ArrayList<>();
+		List<EnumCampoSugerencia> camposCandidatos = new ArrayList<>();
+
+		lock.readLock().lock();
+		try {
+			for (EnumCampoSugerencia campo : campos) {
+				Map<String, List<ValorSugerido>> guardados = mejoresPorPrefijo.get(campo);
+				// Se calcula dentro del bloqueo de lectura, por lo que ninguna escritura puede modificarlo antes de guardarlo
+				List<ValorSugerido> mejores = guardados.get(prefijoNormalizado);
+				if (mejores == null) {
+					mejores = calcularMejores(campo, prefijoNormalizado);
+					if (guardados.size() >= MAXIMO_PREFIJOS_GUARDADOS) {
+						guardados.clear();
+					}
+					guardados.put(prefijoNormalizado, mejores);
+				}
+				for (ValorSugerido valor : mejores.subList(0, Math.min(limite, mejores.size()))) {
+					candidatos.add(valor);
+					camposCandidatos.add(campo);
+				}
+			}
+
+			// Los valores son mutables, por lo que se copian antes de liberar el bloqueo
+			List<SugerenciaEstudio> sugerencias = new ArrayList<>(candidatos.size());
+			for (int i = 0; i < candidatos.size(); i++) {
+				ValorSugerido valor = candidatos.get(i);
+				sugerencias.add(new SugerenciaEstudio(camposCandidatos.get(i), valor.texto, valor.cantidad));
+			}
+			sugerencias.sort(Comparator.comparingInt(SugerenciaEstudio::getCantidad).reversed()
+					.thenComparing(SugerenciaEstudio::getValor, String.CASE_INSENSITIVE_ORDER));
+			return sugerencias.size() > limite ? new ArrayList<>(sugerencias.subList(0, limite)) : sugerencias;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Recorre el rango de valores del campo que comienzan con el prefijo y conserva los MAXIMO_SUGERENCIAS mejores.
+	 */
+	private List<ValorSugerido> calcularMejores(EnumCampoSugerencia campo, String prefijoNormalizado) {
+		// La cabeza de la cola es el peor de los mejores valores encontrados
+		PriorityQueue<ValorSugerido> mejores = new PriorityQueue<>(MAXIMO_SUGERENCIAS + 1, ORDEN.reversed());
+		for (ValorSugerido valor : valores.get(campo).tailMap(prefijoNormalizado, true).values()) {
+			if (!valor.clave.startsWith(prefijoNormalizado)) {
+				break;
+			}
+			if (mejores.size() < MAXIMO_SUGERENCIAS) {
+				mejores.add(valor);
+			} else if (ORDEN.compare(valor, mejores.peek()) < 0) {
+				mejores.poll();
+				mejores.add(valor);
+			}
+		}
+
+		List<ValorSugerido> ordenados = new ArrayList<>(mejores);
+		ordenados.sort(ORDEN);
+		return ordenados;
+	}
+
+	private void agregar(Long id, String... textos) {
+		EnumCampoSugerencia[] campos = EnumCampoSugerencia.values();
+		for (int i = 0; i < campos.length; i++) {
+			String clave = IndiceTextoEstudios.normalizar(textos[i]);
+			if (clave.isEmpty()) {
+				continue;
+			}
+			ValorSugerido valor = valores.get(campos[i]).computeIfAbsent(clave, ValorSugerido::new);
+			// Se muestra la última forma escrita del valor
+			valor.texto = textos[i].trim();
+			valor.cantidad++;
+			actualizarPrefijos(campos[i], valor, true);
+		}
+		textosPorEstudio.put(id, textos);
+	}
+
+	private void quitar(Long id) {
+		String[] anteriores = textosPorEstudio.remove(id);
+		if (anteriores == null) {
+			return;
+		}
+		EnumCampoSugerencia[] campos = EnumCampoSugerencia.values();
+		for (int i = 0; i < campos.length; i++) {
+			String clave = IndiceTextoEstudios.normalizar(anteriores[i]);
+			ValorSugerido valor = valores.get(campos[i]).get(clave);
+			if (valor == null) {
+				continue;
+			}
+			if (--valor.cantidad == 0) {
+				valores.get(campos[i]).remove(clave);
+			}
+			actualizarPrefijos(campos[i], valor, false);
+		}
+	}
+
+	/**
+	 * Ajusta los mejores valores guardados de los prefijos del valor, que son los únicos que pueden cambiar.
+	 *
+	 * @param aumento true si el valor ganó un estudio, false si lo perdió.
+	 */
+	private void actualizarPrefijos(EnumCampoSugerencia campo, ValorSugerido valor, boolean aumento) {
+		Map<String, List<ValorSugerido>> guardados = mejoresPorPrefijo.get(campo);
+		if (guardados.isEmpty()) {
+			return;
+		}
+		for (int largo = 0; largo <= valor.clave.length(); largo++) {
+			String prefijo = valor.clave.substring(0, largo);
+			List<ValorSugerido> mejores = guardados.get(prefijo);
+			if (mejores == null) {
+				continue;
+			}
+			boolean incluido = mejores.contains(valor);
+			if (aumento) {
+				if (!incluido) {
+					mejores.add(valor);
+				}
+				mejores.sort(ORDEN);
+				if (mejores.size() > MAXIMO_SUGERENCIAS) {
+					mejores.remove(mejores.size() - 1);
+				}
+			} else if (incluido) {
+				if (mejores.size() == MAXIMO_SUGERENCIAS) {
+					// Un valor fuera de la lista puede superar ahora al que perdió estudios
+					guardados.remove(prefijo);
+				} else if (valor.cantidad == 0) {
+					mejores.remove(valor);
+				} else {
+					mejores.sort(ORDEN);
+				}
+			}
+		}
+	}
+
+	private static <M extends Map<?, ?>> Map<EnumCampoSugerencia, M> mapaPorCampo(Supplier<M> nuevoMapa) {
+		Map<EnumCampoSugerencia, M> mapa = new EnumMap<>(EnumCampoSugerencia.class);
+		for (EnumCampoSugerencia campo : EnumCampoSugerencia.values()) {
+			mapa.put(campo, nuevoMapa.get());
+		}
+		return mapa;
+	}
+
+	private static final class ValorSugerido {
+		private final String clave;
+		private String texto;
+		private int cantidad;
+
+		ValorSugerido(String clave) {
+			this.clave = clave;
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.GeometriaEstudioProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+/**
+ * Teselas vectoriales (Mapbox Vector Tile) con la ubicación de los estudios geofísicos.
+ *
+ * Cada estudio se dibuja con sus coordenadas: un punto si tiene una sola, una línea si tiene dos y un polígono
+ * si tiene tres o más. Las geometrías se guardan en memoria ya proyectadas a Web Mercator, junto a una grilla de
+ * teselas del zoom {@link #ZOOM_GRILLA} que permite encontrar los estudios de una tesela sin recorrer todos.
+ *
+ * Las teselas generadas se guardan en una caché LRU. Al guardar o eliminar un estudio solo se descartan las
+ * teselas cuyo área (con su margen) interseca la extensión anterior o la nueva del estudio; las demás siguen
+ * siendo válidas. Una tesela se genera y se almacena con el bloqueo de lectura tomado, por lo que no puede
+ * quedar en la caché una tesela calculada con datos anteriores a un cambio.
+ *
+ * Se carga completo al iniciar la aplicación y se mantiene al día con los eventos de guardado y eliminación
+ * que publica el servicio de estudios geofísicos, una vez confirmada la transacción.
+ */
+@Component
+public class TeselasVectorialesEstudios {
+
+	public static final String NOMBRE_CAPA = "estudios";
+	// Margen alrededor de cada tesela, en unidades de la tesela, para que los símbolos no se corten en los bordes
+	private static final int MARGEN = 64;
+	private static final int ZOOM_GRILLA = 10;
+	private static final int LADO_GRILLA = 1 << ZOOM_GRILLA;
+	// Los estudios que cubren más celdas que esto se verifican en todas las teselas en lugar de ocupar la grilla
+	private static final int MAXIMO_CELDAS_ESTUDIO = 64;
+	// Límite de las coordenadas de tesela de los vértices muy alejados, para que no desborden un int
+	private static final int LIMITE_COORDENADA = 1 << 28;
+	private static final double LATITUD_MAXIMA_MERCATOR = 85.05112878;
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+	private final int maximoTeselas;
+
+	private final Map<Long, Geometria> geometrias = new HashMap<>();
+	private final Map<Long, Set<Long>> celdas = new HashMap<>();
+	private final Set<Long> extensos = new HashSet<>();
+	private final LinkedHashMap<Long, byte[]> teselas;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final CargaIndice carga = new CargaIndice("teselas vectoriales", lock);
+
+	public TeselasVectorialesEstudios(IEstudioGeofisicoDao estudioGeofisicoDao,
+									  @Value("${estudios.cache-teselas.maximo-entradas:2048}") int maximoTeselas) {
+		this.estudioGeofisicoDao = estudioGeofisicoDao;
+		this.maximoTeselas = maximoTeselas;
+		this.teselas = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return size() > TeselasVectorialesEstudios.this.maximoTeselas;
+			}
+		};
+	}
+
+	/**
+	 * Construye las geometrías a partir de todas las coordenadas almacenadas en la base de datos.
+	 * Los estudios guardados o eliminados mientras se ejecuta la consulta se vuelven a aplicar al terminar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void cargar() {
+		carga.cargar(() -> {
+			Map<Long, List<GeometriaEstudioProjection>> filasPorEstudio = new LinkedHashMap<>();
+			for (GeometriaEstudioProjection fila : estudioGeofisicoDao.findAllGeometriasEstudio()) {
+				filasPorEstudio.computeIfAbsent(fila.getIdEstudio(), id -> new ArrayList<>()).add(fila);
+			}
+			return filasPorEstudio;
+		}, filasPorEstudio -> {
+			geometrias.clear();
+			celdas.clear();
+			extensos.clear();
+			synchronized (teselas) {
+				teselas.clear();
+			}
+			filasPorEstudio.forEach((id, filas) -> {
+				List<Coordenada> coordenadas = new ArrayList<>(filas.size());
+				filas.forEach(fila -> coordenadas.add(new Coordenada(null, fila.getLatitudDecimal(), fila.getLongitudDecimal())));
+				GeometriaEstudioProjection primera = filas.get(0);
+				insertar(id, new Geometria(primera.getNombreEstudio(),
+						primera.getTiposEstudioMask() != null ? primera.getTiposEstudioMask() : 0, coordenadas));
+			});
+		});
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioGuardado(EstudioGeofisicoGuardadoEvent event) {
+		if (event.getCoordenadas().isEmpty()) {
+			eliminar(event.getId());
+			return;
+		}
+		actualizar(event.getId(), new Geometria(event.getNombreEstudio(),
+				MascaraBitsUtils.aMascara(event.getTiposEstudio()), event.getCoordenadas()));
+	}
+
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onEstudioEliminado(EstudioGeofisicoEliminadoEvent event) {
+		eliminar(event.getId());
+	}
+
+	/**
+	 * Obtiene una tesela desde la caché o, si no está, la genera y la almacena.
+	 *
+	 * @param z Nivel de zoom.
+	 * @param x Columna de la tesela, de 0 a 2^z - 1.
+	 * @param y Fila de la tesela, de 0 a 2^z - 1, desde el norte.
+	 * @return La tesela codificada; un arreglo vacío si no tiene estudios.
+	 */
+	public byte[] obtener(int z, int x, int y) {
+		carga.verificarCargado();
+		long clave = clave(z, x, y);
+		lock.readLock().lock();
+		try {
+			byte[] tesela;
+			synchronized (teselas) {
+				tesela = teselas.get(clave);
+			}
+			if (tesela == null) {
+				tesela = generar(z, x, y);
+				synchronized (teselas) {
+					teselas.put(clave, tesela);
+				}
+			}
+			return tesela;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return La cantidad de teselas en la caché.
+	 */
+	public int teselasEnCache() {
+		synchronized (teselas) {
+			return teselas.size();
+		}
+	}
+
+	private void actualizar(Long id, Geometria geometria) {
+		carga.aplicar(() -> {
+			Geometria anterior = quitar(id);
+			insertar(id, geometria);
+			invalidar(anterior, geometria);
+		});
+	}
+
+	private void eliminar(Long id) {
+		carga.aplicar(() -> invalidar(quitar(id), null));
+	}
+
+	private byte[] generar(int z, int x, int y) {
+		double escala = 1L << z;
+		double[] area = areaTesela(z, x, y);
+		List<Long> ids = new ArrayList<>(candidatos(area));
+		ids.sort(null);
+
+		CapaMvt capa = new CapaMvt(NOMBRE_CAPA);
+		for (Long id : ids) {
+			Geometria geometria = geometrias.get(id);
+			if (geometria.interseca(area)) {
+				int[] xs = new int[geometria.xs.length];
+				int[] ys = new int[geometria.ys.length];
+				for (int i = 0; i < xs.length; i++) {
+					xs[i] = aTesela(geometria.xs[i], escala, x);
+					ys[i] = aTesela(geometria.ys[i], escala, y);
+				}
+				capa.agregar(id, geometria.nombre, geometria.tipos, xs, ys);
+			}
+		}
+		return capa.codificar();
+	}
+
+	private Set<Long> candidatos(double[] area) {
+		int columnaMin = celdaGrilla(area[0]);
+		int columnaMax = celdaGrilla(area[1]);
+		int filaMin = celdaGrilla(area[2]);
+		int filaMax = celdaGrilla(area[3]);
+		long celdasEnRango = (long) (filaMax - filaMin + 1) * (columnaMax - columnaMin + 1);
+
+		Set<Long> resultado = new HashSet<>(extensos);
+		// En los zooms bajos es más barato recorrer solo las celdas ocupadas
+		if (celdasEnRango > celdas.size()) {
+			celdas.forEach((celda, ids) -> {
+				int fila = (int) (celda / LADO_GRILLA);
+				int columna = (int) (celda % LADO_GRILLA);
+				if (fila >= filaMin && fila <= filaMax && columna >= columnaMin && columna <= columnaMax) {
+					resultado.addAll(ids);
+				}
+			});
+			return resultado;
+		}
+
+		for (int f = filaMin; f <= filaMax; f++) {
+			for (int c = columnaMin; c <= columnaMax; c++) {
+				Set<Long> ids = celdas.get((long) f * LADO_GRILLA + c);
+				if (ids != null) {
+					resultado.addAll(ids);
+				}
+			}
+		}
+		return resultado;
+	}
+
+	private void insertar(Long id, Geometria geometria) {
+		geometrias.put(id, geometria);
+		if (geometria.cantidadCeldas() > MAXIMO_CELDAS_ESTUDIO) {
+			extensos.add(id);
+			return;
+		}
+		geometria.forEachCelda(celda -> celdas.computeIfAbsent(celda, k -> new HashSet<>()).add(id));
+	}
+
+	private Geometria quitar(Long id) {
+		Geometria geometria = geometrias.remove(id);
+		if (geometria == null || extensos.remove(id)) {
+			return geometria;
+		}
+		geometria.forEachCelda(celda -> {
+			Set<Long> ids = celdas.get(celda);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					celdas.remove(celda);
+				}
+			}
+		});
+		return geometria;
+	}
+
+	/**
+	 * Descarta de la caché las teselas que intersecan alguna de las geometrías.
+	 */
+	private void invalidar(Geometria anterior, Geometria nueva) {
+		if (anterior == null && nueva == null) {
+			return;
+		}
+		synchronized (teselas) {
+			Iterator<Long> iterador = teselas.keySet().iterator();
+			while (iterador.hasNext()) {
+				long clave = iterador.next();
+				double[] area = areaTesela((int) (clave >>> 50), (int) ((clave >>> 25) & 0x1FFFFFF), (int) (clave & 0x1FFFFFF));
+				if ((anterior != null && anterior.interseca(area)) || (nueva != null && nueva.interseca(area))) {
+					iterador.remove();
+				}
+			}
+		}
+	}
+
+	private static long clave(int z, int x, int y) {
+		return ((long) z << 50) | ((long) x << 25) | y;
+	}
+
+	/**
+	 * @return Los límites xMin, xMax, yMin e yMax de la tesela, incluido el margen, en coordenadas Web Mercator entre 0 y 1.
+	 */
+	private static double[] areaTesela(int z, int x, int y) {
+		double escala = 1L << z;
+		double margen = (double) MARGEN / CapaMvt.EXTENSION;
+		return new double[]{(x - margen) / escala, (x + 1 + margen) / escala, (y - margen) / escala, (y + 1 + margen) / escala};
+	}
+
+	private static int celdaGrilla(double posicion) {
+		return (int) Math.min(LADO_GRILLA - 1, Math.max(0, (long) Math.floor(posicion * LADO_GRILLA)));
+	}
+
+	private static int aTesela(double posicion, double escala, int tesela) {
+		double valor = Math.round((posicion * escala - tesela) * CapaMvt.EXTENSION);
+		return (int) Math.max(-LIMITE_COORDENADA, Math.min(LIMITE_COORDENADA, valor));
+	}
+
+	/**
+	 * Geometría de un estudio proyectada a Web Mercator, con x e y entre 0 y 1 (y crece hacia el sur).
+	 */
+	private static final class Geometria {
+		private final String nombre;
+		private final int tipos;
+		private final double[] xs;
+		private final double[] ys;
+		private double xMin = Double.MAX_VALUE;
+		private double xMax = -Double.MAX_VALUE;
+		private double yMin = Double.MAX_VALUE;
+		private double yMax = -Double.MAX_VALUE;
+
+		Geometria(String nombre, int tipos, List<Coordenada> coordenadas) {
+			this.nombre = nombre;
+			this.tipos = tipos;
+			this.xs = new double[coordenadas.size()];
+			this.ys = new double[coordenadas.size()];
+			for (int i = 0; i < coordenadas.size(); i++) {
+				xs[i] = (coordenadas.get(i).getLongitudDecimal() + 180) / 360;
+				double latitud = Math.max(-LATITUD_MAXIMA_MERCATOR, Math.min(LATITUD_MAXIMA_MERCATOR, coordenadas.get(i).getLatitudDecimal()));
+				double radianes = Math.toRadians(latitud);
+				ys[i] = (1 - Math.log(Math.tan(radianes) + 1 / Math.cos(radianes)) / Math.PI) / 2;
+				xMin = Math.min(xMin, xs[i]);
+				xMax = Math.max(xMax, xs[i]);
+				yMin = Math.min(yMin, ys[i]);
+				yMax = Math.max(yMax, ys[i]);
+			}
+		}
+
+		boolean interseca(double[] area) {
+			return xMin <= area[1] && xMax >= area[0] && yMin <= area[3] && yMax >= area[2];
+		}
+
+		long cantidadCeldas() {
+			return (long) (celdaGrilla(xMax) - celdaGrilla(xMin) + 1) * (celdaGrilla(yMax) - celdaGrilla(yMin) + 1);
+		}
+
+		void forEachCelda(LongConsumer accion) {
+			for (int f = celdaGrilla(yMin); f <= celdaGrilla(yMax); f++) {
+				for (int c = celdaGrilla(xMin); c <= celdaGrilla(xMax); c++) {
+					accion.accept((long) f * LADO_GRILLA + c);
+				}
+			}
+		}
+	}
+}
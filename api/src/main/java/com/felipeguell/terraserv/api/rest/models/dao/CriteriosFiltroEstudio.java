@@ -0,0 +1,82 @@
+package com.felipeguell.terraserv.api.rest.models.dao;
+
+import java.util.Collection;
+import java.util.Date;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Criterios de filtrado de estudios geofísicos que se resuelven en la base de datos. Los criterios en null
+ * no forman parte de la consulta: en lugar de predicados del tipo ":x is null or ...", las consultas de
+ * IEstudioGeofisicoDaoCustom solo incluyen los predicados informados.
+ */
+@Value
+@Builder
+public class CriteriosFiltroEstudio {
+
+	// Predicados que puede contener una consulta; la combinación presente es la forma de la consulta
+	public static final int FECHAS = 1;
+	public static final int TIPOS = 1 << 1;
+	public static final int AREAS = 1 << 2;
+	public static final int IDS = 1 << 3;
+	public static final int CANDIDATOS = 1 << 4;
+
+	// El rango de fechas solo se aplica si vienen ambas
+	Date fechaInicio;
+	Date fechaFin;
+	// Máscara de bits de los tipos de estudio y mínimo de bitand: 1 para "alguno", la máscara para "todos"
+	Integer mascaraTipos;
+	Integer minimoTipos;
+	Integer mascaraAreas;
+	Integer minimoAreas;
+	// IDs candidatos obtenidos de los índices en memoria
+	Collection<Long> ids;
+	// Consulta cuyos IDs candidatos se insertaron en la tabla de IdCandidatoConsulta, en lugar de ir en un IN
+	String consultaCandidatos;
+
+	/**
+	 * Criterios sin ningún predicado.
+	 */
+	public static CriteriosFiltroEstudio vacios() {
+		return CriteriosFiltroEstudio.builder().build();
+	}
+
+	/**
+	 * Obtiene los predicados presentes como una combinación de FECHAS, TIPOS, AREAS, IDS y CANDIDATOS.
+	 * Dos criterios con la misma forma generan la misma consulta, con distintos parámetros.
+	 */
+	public int forma() {
+		int forma = 0;
+		if (fechaInicio != null && fechaFin != null) {
+			forma |= FECHAS;
+		}
+		if (mascaraTipos != null) {
+			forma |= TIPOS;
+		}
+		if (mascaraAreas != null) {
+			forma |= AREAS;
+		}
+		if (ids != null) {
+			forma |= IDS;
+		}
+		if (consultaCandidatos != null) {
+			forma |= CANDIDATOS;
+		}
+		return forma;
+	}
+
+	/**
+	 * Devuelve una copia de los criterios con otros IDs candidatos.
+	 */
+	public CriteriosFiltroEstudio conIds(Collection<Long> ids) {
+		return new CriteriosFiltroEstudio(fechaInicio, fechaFin, mascaraTipos, minimoTipos, mascaraAreas, minimoAreas, ids, null);
+	}
+
+	/**
+	 * Devuelve una copia de los criterios cuyos IDs candidatos están en la tabla de IdCandidatoConsulta.
+	 */
+	public CriteriosFiltroEstudio conCandidatosDe(String consulta) {
+		return new CriteriosFiltroEstudio(fechaInicio, fechaFin, mascaraTipos, minimoTipos, mascaraAreas, minimoAreas, null, consulta);
+	}
+}
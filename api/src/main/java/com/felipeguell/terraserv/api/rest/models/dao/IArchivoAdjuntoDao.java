@@ -1,13 +1,20 @@
 package com.felipeguell.terraserv.api.rest.models.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
 
 public interface IArchivoAdjuntoDao extends JpaRepository<ArchivoAdjunto, Long>{
     Optional<ArchivoAdjunto> findCustomByArchivoKey(String key);
     List<ArchivoAdjunto> findByArchivoKeyIn(List<String> keys);
+
+    // Solo la columna de la clave, resuelta con su índice y sin cargar las entidades
+    @Query("SELECT a.archivoKey FROM ArchivoAdjunto a WHERE a.archivoKey IN :keys")
+    List<String> findArchivoKeysIn(@Param("keys") Collection<String> keys);
 }
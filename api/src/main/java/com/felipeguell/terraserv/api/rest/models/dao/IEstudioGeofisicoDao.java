@@ -1,84 +1,151 @@
 package com.felipeguell.terraserv.api.rest.models.dao;
 
-import java.util.Date;
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
 
-import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
-import org.springframework.data.domain.Page;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.CoordenadaEstudioProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.CoordenadaTiposEstudioProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioTextoProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.FacetaEstudioProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.GeometriaEstudioProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
-import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
-import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
 
-public interface IEstudioGeofisicoDao extends JpaRepository<EstudioGeofisico, Long> {
+public interface IEstudioGeofisicoDao extends JpaRepository<EstudioGeofisico, Long>, IEstudioGeofisicoDaoCustom {
 
     /**
-     * Consulta para filtrar los estudios geofísicos en la base de datos.
+     * Obtiene el siguiente lote de IDs de estudios geofísicos, en orden ascendente (keyset).
      *
-     * @param consultaMultiple Cadena de texto que se utiliza para buscar coincidencias en los campos nombreEstudio, nombreCliente y ubicacionEstudio.
-     * @param fechaInicio      Fecha de inicio del rango de fechas en el que se realizó el estudio geofísico.
-     * @param fechaFin         Fecha de fin del rango de fechas en el que se realizó el estudio geofísico.
-     * @param tipoEstudio      Enumerador del tipo de estudio geofísico.
-     * @param areaEstudio      Enumerador del área de aplicación del estudio geofísico.
-     * @return Un conjunto de estudios geofísicos que cumplen con los criterios de filtrado.
+     * @param ultimoId ID del último estudio del lote anterior (0 para el primer lote).
+     * @param pageable Tamaño del lote; se ignora su número de página.
+     * @return Los IDs del siguiente lote.
      */
-    @Query("SELECT e " +
+    @Query("SELECT e.id FROM EstudioGeofisico e WHERE e.id > :ultimoId ORDER BY e.id")
+    List<Long> findIdsDesde(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene la versión de bloqueo optimista de un estudio geofísico sin cargar la entidad ni sus colecciones,
+     * para rechazar una escritura condicional antes de hacer cualquier otro trabajo.
+     *
+     * @param id El ID del estudio geofísico.
+     * @return La versión del estudio, o vacío si no existe.
+     */
+    @Query("SELECT e.version FROM EstudioGeofisico e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Obtiene todas las coordenadas junto al ID y la máscara de tipos del estudio geofísico al que pertenecen.
+     * Se utiliza para construir el índice espacial en memoria al iniciar la aplicación.
+     *
+     * @return Una lista con el ID y la máscara de tipos del estudio, y la latitud y longitud de cada coordenada.
+     */
+    @Query("SELECT e.id AS idEstudio, " +
+            "e.tiposEstudioMask AS tiposEstudioMask, " +
+            "c.latitudDecimal AS latitudDecimal, " +
+            "c.longitudDecimal AS longitudDecimal " +
+            "FROM EstudioGeofisico e JOIN e.coordenadas c")
+    List<CoordenadaTiposEstudioProjection> findAllCoordenadasEstudio();
+
+    /**
+     * Obtiene las coordenadas de todos los estudios geofísicos, en el orden en que se cargaron, junto al
+     * nombre y la máscara de tipos de cada estudio.
+     * Se utiliza para construir las teselas vectoriales del mapa al iniciar la aplicación.
+     *
+     * @return Una lista con el ID, nombreEstudio y máscara de tipos del estudio, y la latitud y longitud de cada coordenada.
+     */
+    @Query("SELECT e.id AS idEstudio, " +
+            "e.nombreEstudio AS nombreEstudio, " +
+            "e.tiposEstudioMask AS tiposEstudioMask, " +
+            "c.latitudDecimal AS latitudDecimal, " +
+            "c.longitudDecimal AS longitudDecimal " +
+            "FROM EstudioGeofisico e JOIN e.coordenadas c " +
+            "ORDER BY e.id, c.id")
+    List<GeometriaEstudioProjection> findAllGeometriasEstudio();
+
+    /**
+     * Obtiene el centroide persistido de todos los estudios geofísicos, sin unir la tabla coordenadas.
+     * Se utiliza para construir las agrupaciones del mapa al iniciar la aplicación.
+     *
+     * @return Una lista con el ID, la latitud y la longitud del centroide de cada estudio.
+     */
+    @Query("SELECT e.id AS idEstudio, " +
+            "e.latitudCentro AS latitudDecimal, " +
+            "e.longitudCentro AS longitudDecimal " +
             "FROM EstudioGeofisico e " +
-            "WHERE (:consultaMultiple is null or " +
-            "       (e.nombreEstudio LIKE %:consultaMultiple% OR " +
-            "        e.nombreCliente LIKE %:consultaMultiple% OR " +
-            "        e.ubicacionEstudio LIKE %:consultaMultiple%)) " +
-            "AND (:fechaInicio is null or :fechaFin is null or " +
-            "       (e.fechaRealizado BETWEEN :fechaInicio AND :fechaFin)) " +
-            "AND (:tipoEstudio is null or :tipoEstudio MEMBER OF e.tiposEstudio) " +
-            "AND (:areaEstudio is null or :areaEstudio MEMBER OF e.areasEstudio)")
-    Set<EstudioGeofisico> filterEstudios(@Param("consultaMultiple") String consultaMultiple,
-                                         @Param("fechaInicio") Date fechaInicio,
-                                         @Param("fechaFin") Date fechaFin,
-                                         @Param("tipoEstudio") EnumTipoEstudioGeofisico tipoEstudio,
-                                         @Param("areaEstudio") EnumAreaAplicacionEstudioGeofisico areaEstudio);
+            "WHERE e.latitudCentro IS NOT NULL")
+    List<CoordenadaEstudioProjection> findAllCentrosEstudio();
 
     /**
-     * Este método se utiliza para buscar registros de estudios geofísicos.
+     * Obtiene, en el orden en que se cargaron, las coordenadas de los estudios geofísicos cuyo rectángulo
+     * envolvente persistido se superpone con el rectángulo dado. El filtro usa el índice idx_estudios_extension
+     * y sirve de descarte previo a la prueba exacta de intersección con un polígono.
      *
-     * @param pageable Es un objeto Pageable que proporciona información sobre la paginación y la clasificación.
-     *                 Contiene los detalles de la página actual, el tamaño de la página, etc.
-     * @return Retorna un objeto Page que contiene los registros de estudios geofísicos.
-     * Cada registro contiene los siguientes campos:
-     * - id: El ID del estudio geofísico.
-     * - nombreEstudio: El nombre del estudio geofísico.
-     * - creadoPor: El nombre del usuario que creó el estudio geofísico.
-     * - fechaHoraCreacion: La fecha y hora de creación del estudio geofísico.
-     * - ultimaActualizacionPor: El nombre del usuario que realizó la última actualización del estudio geofísico.
-     * - fechaModificacion: La fecha de la última modificación del estudio geofísico.
+     * @return Una lista con el ID del estudio, la latitud y la longitud de cada coordenada, ordenada por estudio.
+     */
+    @Query("SELECT e.id AS idEstudio, " +
+            "c.latitudDecimal AS latitudDecimal, " +
+            "c.longitudDecimal AS longitudDecimal " +
+            "FROM EstudioGeofisico e JOIN e.coordenadas c " +
+            "WHERE e.latitudMin <= :latitudMax AND e.latitudMax >= :latitudMin " +
+            "AND e.longitudMin <= :longitudMax AND e.longitudMax >= :longitudMin " +
+            "ORDER BY e.id, c.id")
+    List<CoordenadaEstudioProjection> findCoordenadasEnExtension(@Param("latitudMin") Double latitudMin,
+                                                                 @Param("latitudMax") Double latitudMax,
+                                                                 @Param("longitudMin") Double longitudMin,
+                                                                 @Param("longitudMax") Double longitudMax);
+
+    /**
+     * Obtiene los campos de texto buscables de todos los estudios geofísicos.
+     * Se utiliza para construir el índice de texto en memoria al iniciar la aplicación.
+     *
+     * @return Una lista con el ID, nombreEstudio, nombreCliente y ubicacionEstudio de cada estudio.
      */
     @Query("SELECT e.id AS id, " +
             "e.nombreEstudio AS nombreEstudio, " +
             "e.nombreCliente AS nombreCliente, " +
-            "e.fechaRealizado AS fechaRealizado, " +
-            "e.ubicacionEstudio AS ubicacionEstudio, " +
-            "e.creadoPor AS creadoPor, " +
-            "e.fechaHoraCreacion AS fechaHoraCreacion, " +
-            "e.ultimaActualizacionPor AS ultimaActualizacionPor, " +
-            "e.fechaModificacion AS fechaModificacion " +
-            "FROM EstudioGeofisico e " +
-            "WHERE (:consultaMultiple is null or " +
-            "       (e.nombreEstudio LIKE %:consultaMultiple% OR " +
-            "        e.nombreCliente LIKE %:consultaMultiple% OR " +
-            "        e.ubicacionEstudio LIKE %:consultaMultiple%)) " +
-            "AND (:fechaInicio is null or :fechaFin is null or " +
-            "       (e.fechaRealizado BETWEEN :fechaInicio AND :fechaFin)) " +
-            "AND (:tipoEstudio is null or :tipoEstudio MEMBER OF e.tiposEstudio) " +
-            "AND (:areaEstudio is null or :areaEstudio MEMBER OF e.areasEstudio)")
-    Page<EstudioGeofisicoProjection> findFilteredEstudios(@Param("consultaMultiple") String consultaMultiple,
-                                                          @Param("fechaInicio") Date fechaInicio,
-                                                          @Param("fechaFin") Date fechaFin,
-                                                          @Param("tipoEstudio") EnumTipoEstudioGeofisico tipoEstudio,
-                                                          @Param("areaEstudio") EnumAreaAplicacionEstudioGeofisico areaEstudio,
-                                                          Pageable pageable);
+            "e.ubicacionEstudio AS ubicacionEstudio " +
+            "FROM EstudioGeofisico e")
+    List<EstudioTextoProjection> findAllTextosEstudio();
+
+    /**
+     * Obtiene las máscaras y el año de fechaRealizado de todos los estudios geofísicos.
+     * Se utiliza para inicializar los contadores de facetas en memoria al iniciar la aplicación.
+     *
+     * @return Una lista con el ID, las máscaras de tipos y áreas y el año de cada estudio.
+     */
+    @Query("SELECT e.id AS id, " +
+            "e.tiposEstudioMask AS tiposEstudioMask, " +
+            "e.areasEstudioMask AS areasEstudioMask, " +
+            "year(e.fechaRealizado) AS anio " +
+            "FROM EstudioGeofisico e")
+    List<FacetaEstudioProjection> findAllFacetasEstudio();
+
+    /**
+     * Obtiene el siguiente lote de IDs de los estudios geofísicos a los que aún no se les calcularon las máscaras
+     * de bits (registros creados antes de que existieran las columnas), continuando después del último ID (keyset).
+     *
+     * @param ultimoId ID del último estudio del lote anterior (0 para el primer lote).
+     * @param pageable Tamaño del lote; se ignora su número de página.
+     * @return Los IDs del siguiente lote, en orden ascendente.
+     */
+    @Query("SELECT e.id FROM EstudioGeofisico e " +
+            "WHERE (e.tiposEstudioMask IS NULL OR e.areasEstudioMask IS NULL) AND e.id > :ultimoId ORDER BY e.id")
+    List<Long> findIdsSinMascarasDesde(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene el siguiente lote de IDs de los estudios geofísicos a los que aún no se les calculó el centroide
+     * ni el rectángulo de sus coordenadas, por ejemplo los guardados antes de que existieran esas columnas.
+     * Como los estudios sin coordenadas siguen sin centroide, el lote continúa después del último ID (keyset).
+     *
+     * @param ultimoId ID del último estudio del lote anterior (0 para el primer lote).
+     * @param pageable Tamaño del lote; se ignora su número de página.
+     * @return Los IDs del siguiente lote, en orden ascendente.
+     */
+    @Query("SELECT e.id FROM EstudioGeofisico e WHERE e.latitudCentro IS NULL AND e.id > :ultimoId ORDER BY e.id")
+    List<Long> findIdsSinExtensionDesde(@Param("ultimoId") Long ultimoId, Pageable pageable);
 
 }
@@ -0,0 +1,91 @@
+package com.felipeguell.terraserv.api.rest.models.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.FacetaAgrupadaProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioExportado;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+
+/**
+ * Consultas de estudios geofísicos que se construyen en tiempo de ejecución y no pueden
+ * declararse con {@code @Query}. Las consultas de filtrado incluyen solo los predicados de los criterios presentes.
+ */
+public interface IEstudioGeofisicoDaoCustom {
+
+    /**
+     * Obtiene los IDs de los estudios geofísicos que cumplen con los criterios de filtrado. La consulta solo
+     * contiene los predicados de los criterios presentes. La búsqueda por texto (consultaMultiple) y los criterios
+     * geográficos se resuelven en los índices en memoria y llegan como parte de los IDs candidatos.
+     *
+     * @param criterios Criterios de filtrado.
+     * @return Los IDs de los estudios geofísicos que cumplen con los criterios de filtrado. Las proyecciones
+     * completas se cargan luego con findProyeccionesByIds.
+     */
+    List<Long> findIdsFiltrados(CriteriosFiltroEstudio criterios);
+
+    /**
+     * Variante de findIdsFiltrados que recorre los resultados por lotes ordenados por ID (keyset),
+     * para transmitirlos sin cargar el conjunto completo en memoria.
+     *
+     * @param criterios Criterios de filtrado.
+     * @param ultimoId  ID del último estudio del lote anterior (0 para el primer lote).
+     * @param limite    Tamaño del lote.
+     * @return Los IDs del siguiente lote, en orden ascendente.
+     */
+    List<Long> findIdsFiltradosDesde(CriteriosFiltroEstudio criterios, Long ultimoId, int limite);
+
+    /**
+     * Cuenta los estudios geofísicos que cumplen con los criterios de filtrado, agrupados por máscara de tipos,
+     * máscara de áreas y año de fechaRealizado. Las cantidades por tipo, área y año se obtienen luego
+     * expandiendo los bits de cada grupo, con una sola consulta.
+     *
+     * @param criterios Criterios de filtrado.
+     * @return Un grupo por cada combinación de máscaras y año, con su cantidad de estudios.
+     */
+    List<FacetaAgrupadaProjection> contarFacetas(CriteriosFiltroEstudio criterios);
+
+    /**
+     * Carga las proyecciones de los estudios geofísicos indicados con un número fijo de consultas:
+     * una para los campos del estudio y una por cada colección (coordenadas, tipos y áreas de estudio),
+     * todas con IN sobre los IDs. Las imágenes y los archivos adjuntos no se cargan.
+     *
+     * @param ids Los IDs de los estudios geofísicos.
+     * @return Las proyecciones de los estudios geofísicos encontrados, en orden de ID.
+     */
+    List<EstudioGeofisicoProjection> findProyeccionesByIds(Collection<Long> ids);
+
+    /**
+     * Carga los estudios geofísicos indicados con todas sus colecciones inicializadas: una consulta para los
+     * estudios y una por cada colección, todas con IN sobre los IDs. Como las colecciones se cargan por separado,
+     * no se genera el producto cartesiano de un JOIN FETCH múltiple.
+     *
+     * @param ids Los IDs de los estudios geofísicos.
+     * @return Los estudios geofísicos encontrados, en orden de ID.
+     */
+    List<EstudioGeofisico> findCompletosByIds(Collection<Long> ids);
+
+    /**
+     * Recorre en orden de ID los estudios geofísicos que cumplen con los criterios de filtrado, con sus coordenadas,
+     * para exportarlos. Se lee con una sesión sin estado y un cursor de solo avance sobre columnas escalares, de modo
+     * que no se crean entidades ni se acumulan en un contexto de persistencia: la memoria usada es la de un estudio.
+     *
+     * @param criterios  Criterios de filtrado.
+     * @param consumidor Recibe cada estudio, apenas se leen todas sus coordenadas.
+     */
+    void recorrerEstudiosExportados(CriteriosFiltroEstudio criterios, Consumer<EstudioExportado> consumidor);
+
+    /**
+     * Adelanta la fila de una entidad en la tabla de secuencias de IDs para que el próximo bloque reservado
+     * empiece después del mayor ID existente, por ejemplo en las tablas cuyos IDs se generaron con IDENTITY.
+     * No hace nada si la tabla de la entidad está vacía o la secuencia ya está adelantada.
+     *
+     * @param entidad   La fila de la entidad en la tabla de secuencias.
+     * @param tabla     La tabla de la entidad.
+     * @param columnaId La columna del ID en esa tabla.
+     * @return true si la secuencia se creó o se adelantó.
+     */
+    boolean alinearSecuenciaIds(String entidad, String tabla, String columnaId);
+}
@@ -1,13 +1,20 @@
 package com.felipeguell.terraserv.api.rest.models.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
 
 public interface IImagenDao extends JpaRepository<Imagen, Long>{
 	Optional<Imagen> findCustomByImagenKey(String key);
 	List<Imagen> findByImagenKeyIn(List<String> keys);
+
+	// Solo la columna de la clave, resuelta con su índice y sin cargar las entidades
+	@Query("SELECT i.imagenKey FROM Imagen i WHERE i.imagenKey IN :keys")
+	List<String> findImagenKeysIn(@Param("keys") Collection<String> keys);
 }
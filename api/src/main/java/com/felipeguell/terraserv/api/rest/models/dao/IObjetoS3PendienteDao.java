@@ -0,0 +1,35 @@
+package com.felipeguell.terraserv.api.rest.models.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+
+public interface IObjetoS3PendienteDao extends JpaRepository<ObjetoS3Pendiente, Long> {
+
+    /**
+     * Obtiene los objetos cuyo próximo intento de eliminación ya llegó, empezando por los más atrasados.
+     */
+    List<ObjetoS3Pendiente> findByProximoIntentoLessThanEqualOrderByProximoIntentoAsc(Date fecha, Limit limit);
+
+    @Query("SELECT o.clave FROM ObjetoS3Pendiente o WHERE o.clave IN :claves")
+    List<String> findClavesIn(@Param("claves") Collection<String> claves);
+
+    /**
+     * Registra un intento fallido de eliminación de los objetos indicados y posterga el siguiente.
+     *
+     * @return La cantidad de objetos actualizados.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ObjetoS3Pendiente o SET o.intentos = o.intentos + 1, o.proximoIntento = :proximoIntento WHERE o.id IN :ids")
+    int registrarIntentoFallido(@Param("ids") Collection<Long> ids, @Param("proximoIntento") Date proximoIntento);
+}
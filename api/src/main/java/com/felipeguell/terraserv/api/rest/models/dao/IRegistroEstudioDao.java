@@ -0,0 +1,73 @@
+package com.felipeguell.terraserv.api.rest.models.dao;
+
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.felipeguell.terraserv.api.rest.models.entity.RegistroEstudio;
+
+public interface IRegistroEstudioDao extends JpaRepository<RegistroEstudio, Long>, IRegistroEstudioDaoCustom {
+
+    /**
+     * Columnas del listado de registros de estudios geofísicos. Las consultas filtradas que las usan
+     * se generan en IRegistroEstudioDaoCustom según los criterios presentes.
+     */
+    String SELECT_REGISTROS = "SELECT e.id AS id, " +
+            "e.nombreEstudio AS nombreEstudio, " +
+            "e.nombreCliente AS nombreCliente, " +
+            "e.fechaRealizado AS fechaRealizado, " +
+            "e.ubicacionEstudio AS ubicacionEstudio, " +
+            "e.creadoPor AS creadoPor, " +
+            "e.fechaHoraCreacion AS fechaHoraCreacion, " +
+            "e.ultimaActualizacionPor AS ultimaActualizacionPor, " +
+            "e.fechaModificacion AS fechaModificacion ";
+
+    /**
+     * Columnas de SELECT_REGISTROS por las que se puede ordenar el listado. El campo de ordenamiento
+     * se concatena en la consulta, por lo que no se acepta ningún otro.
+     */
+    Set<String> CAMPOS_ORDEN_REGISTROS = Set.of("id", "nombreEstudio", "nombreCliente", "fechaRealizado",
+            "ubicacionEstudio", "creadoPor", "fechaHoraCreacion", "ultimaActualizacionPor", "fechaModificacion");
+
+    /**
+     * Elimina los registros cuyo estudio geofísico ya no existe o fue modificado sin actualizar su registro.
+     *
+     * @return La cantidad de registros eliminados.
+     */
+    @Modifying
+    @Query("DELETE FROM RegistroEstudio r WHERE NOT EXISTS (SELECT 1 FROM EstudioGeofisico e " +
+            "WHERE e.id = r.id AND e.fechaModificacion IS NOT DISTINCT FROM r.fechaModificacion " +
+            "AND e.tiposEstudioMask IS NOT DISTINCT FROM r.tiposEstudioMask " +
+            "AND e.areasEstudioMask IS NOT DISTINCT FROM r.areasEstudioMask)")
+    int deleteDesactualizados();
+
+    /**
+     * Crea, con una sola sentencia, los registros de los estudios geofísicos que todavía no tienen uno.
+     *
+     * @return La cantidad de registros creados.
+     */
+    @Modifying
+    @Query("INSERT INTO RegistroEstudio (id, nombreEstudio, nombreCliente, fechaRealizado, ubicacionEstudio, " +
+            "tiposEstudioMask, areasEstudioMask, creadoPor, fechaHoraCreacion, ultimaActualizacionPor, fechaModificacion) " +
+            "SELECT e.id, e.nombreEstudio, e.nombreCliente, e.fechaRealizado, e.ubicacionEstudio, " +
+            "e.tiposEstudioMask, e.areasEstudioMask, e.creadoPor, e.fechaHoraCreacion, e.ultimaActualizacionPor, e.fechaModificacion " +
+            "FROM EstudioGeofisico e WHERE NOT EXISTS (SELECT 1 FROM RegistroEstudio r WHERE r.id = e.id)")
+    int insertFaltantes();
+
+    /**
+     * Reemplaza, con una sola sentencia y sin leerla antes, la fila del registro con los valores indicados.
+     *
+     * @return La cantidad de registros actualizados; 0 si el estudio todavía no tiene registro.
+     */
+    @Modifying
+    @Query("UPDATE RegistroEstudio r SET r.nombreEstudio = :#{#registro.nombreEstudio}, " +
+            "r.nombreCliente = :#{#registro.nombreCliente}, r.fechaRealizado = :#{#registro.fechaRealizado}, " +
+            "r.ubicacionEstudio = :#{#registro.ubicacionEstudio}, r.tiposEstudioMask = :#{#registro.tiposEstudioMask}, " +
+            "r.areasEstudioMask = :#{#registro.areasEstudioMask}, r.creadoPor = :#{#registro.creadoPor}, " +
+            "r.fechaHoraCreacion = :#{#registro.fechaHoraCreacion}, r.ultimaActualizacionPor = :#{#registro.ultimaActualizacionPor}, " +
+            "r.fechaModificacion = :#{#registro.fechaModificacion} WHERE r.id = :#{#registro.id}")
+    int actualizar(@Param("registro") RegistroEstudio registro);
+}
@@ -0,0 +1,68 @@
+package com.felipeguell.terraserv.api.rest.models.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+
+/**
+ * Consultas del listado de registros de estudios geofísicos, que se resuelven sobre la tabla plana
+ * registros_estudios e incluyen solo los predicados de los criterios presentes. Con más IDs candidatos que los
+ * que admite un IN, los candidatos se insertan en la tabla de IdCandidatoConsulta y cada consulta ordena y pagina
+ * el conjunto completo en la base de datos, por lo que requieren una transacción que no sea de solo lectura.
+ */
+public interface IRegistroEstudioDaoCustom {
+
+    /**
+     * Este método se utiliza para buscar registros de estudios geofísicos.
+     *
+     * @param criterios Criterios de filtrado.
+     * @param pageable  Es un objeto Pageable que proporciona información sobre la paginación y la clasificación.
+     *                  Solo se puede ordenar por las columnas del listado.
+     * @return Retorna un objeto Page que contiene los registros de estudios geofísicos.
+     * Cada registro contiene los siguientes campos:
+     * - id: El ID del estudio geofísico.
+     * - nombreEstudio: El nombre del estudio geofísico.
+     * - creadoPor: El nombre del usuario que creó el estudio geofísico.
+     * - fechaHoraCreacion: La fecha y hora de creación del estudio geofísico.
+     * - ultimaActualizacionPor: El nombre del usuario que realizó la última actualización del estudio geofísico.
+     * - fechaModificacion: La fecha de la última modificación del estudio geofísico.
+     * @throws IllegalArgumentException Si algún campo de ordenamiento no está permitido.
+     */
+    Page<EstudioGeofisicoProjection> findFilteredEstudios(CriteriosFiltroEstudio criterios, Pageable pageable);
+
+    /**
+     * Variante de findFilteredEstudios que devuelve un Slice. No ejecuta la consulta COUNT,
+     * por lo que sirve a los clientes con scroll infinito que solo necesitan saber si hay una página siguiente.
+     *
+     * @param criterios Criterios de filtrado.
+     * @param pageable  Es un objeto Pageable que proporciona información sobre la paginación y la clasificación.
+     * @return Retorna un objeto Slice con los registros de estudios geofísicos.
+     * @throws IllegalArgumentException Si algún campo de ordenamiento no está permitido.
+     */
+    Slice<EstudioGeofisicoProjection> findFilteredEstudiosSlice(CriteriosFiltroEstudio criterios, Pageable pageable);
+
+    /**
+     * Busca registros de estudios geofísicos con paginación por clave (keyset). En lugar de un OFFSET, la consulta
+     * continúa directamente después del último registro entregado, usando el valor del campo de ordenamiento y el ID.
+     *
+     * @param criterios   Criterios de filtrado.
+     * @param campoOrden  Campo por el cual se ordenan los registros. Debe ser uno de los campos permitidos.
+     * @param direccion   Dirección del ordenamiento.
+     * @param ultimoValor Valor del campo de ordenamiento del último registro entregado, o null en la primera página o si
+     *                    el campo es nulo en ese registro. Los nulos se ordenan como el menor valor.
+     * @param ultimoId    ID del último registro entregado, o null en la primera página.
+     * @param limite      Cantidad máxima de registros a devolver.
+     * @return Los registros de estudios geofísicos que siguen al último registro entregado.
+     */
+    List<EstudioGeofisicoProjection> findFilteredEstudiosKeyset(CriteriosFiltroEstudio criterios,
+                                                                String campoOrden,
+                                                                Sort.Direction direccion,
+                                                                Object ultimoValor,
+                                                                Long ultimoId,
+                                                                int limite);
+}
@@ -0,0 +1,217 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.springframework.data.domain.Sort;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+import com.felipeguell.terraserv.api.rest.models.dao.IRegistroEstudioDao;
+import com.felipeguell.terraserv.api.rest.models.entity.IdCandidatoConsulta;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Genera las consultas JPQL de filtrado de estudios geofísicos con solo los predicados informados en
+ * CriteriosFiltroEstudio. Con predicados del tipo ":x is null or ..." la base de datos prepara un único plan
+ * para todas las combinaciones, que no puede aprovechar los índices; con una consulta por forma, cada
+ * combinación de criterios obtiene su propio plan.
+ *
+ * El texto de cada consulta se guarda por forma, de modo que las solicitudes con los mismos criterios
+ * presentes reutilizan exactamente el mismo JPQL y, con él, la consulta ya interpretada por Hibernate
+ * y la sentencia preparada de la base de datos.
+ */
+final class ConsultaFiltroEstudios {
+
+	// Entidades sobre las que se filtra; ambas tienen los campos de los criterios
+	static final String ESTUDIOS = "EstudioGeofisico";
+	static final String REGISTROS = "RegistroEstudio";
+
+	// Cantidad máxima de IDs candidatos en el IN de una consulta; los conjuntos más grandes se consultan por tramos
+	// o, si la consulta ordena o pagina, desde la tabla de IdCandidatoConsulta
+	static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
+	private static final String INSERT_CANDIDATO = "INSERT INTO " + IdCandidatoConsulta.TABLA + " (" +
+			IdCandidatoConsulta.COLUMNA_CONSULTA + ", " + IdCandidatoConsulta.COLUMNA_ID_ESTUDIO + ") VALUES (?, ?)";
+
+	private static final Map<String, String> CONSULTAS = new ConcurrentHashMap<>();
+
+	private ConsultaFiltroEstudios() {
+	}
+
+	/**
+	 * Obtiene la consulta JPQL para la forma de los criterios.
+	 *
+	 * @param entidad   Entidad sobre la que se filtra: ESTUDIOS o REGISTROS.
+	 * @param select    Cláusula SELECT de la consulta.
+	 * @param criterios Criterios de filtrado; solo importa cuáles están presentes.
+	 * @param condicion Condición adicional que se agrega al WHERE (por ejemplo, la de paginación por clave), o null.
+	 * @param sufijo    GROUP BY u ORDER BY que sigue al WHERE, o una cadena vacía.
+	 * @return La consulta JPQL.
+	 */
+	static String jpql(String entidad, String select, CriteriosFiltroEstudio criterios, String condicion, String sufijo) {
+		return jpql(entidad, "", select, criterios, condicion, sufijo);
+	}
+
+	/**
+	 * Variante de jpql con uniones después de la entidad, por ejemplo " LEFT JOIN e.coordenadas c".
+	 */
+	static String jpql(String entidad, String join, String select, CriteriosFiltroEstudio criterios, String condicion, String sufijo) {
+		int forma = criterios.forma();
+		return CONSULTAS.computeIfAbsent(entidad + '|' + join + '|' + select + '|' + forma + '|' + condicion + '|' + sufijo,
+				clave -> select + "FROM " + entidad + " e" + join + where(forma, condicion) + sufijo);
+	}
+
+	/**
+	 * Asigna a la consulta los parámetros de los criterios presentes.
+	 */
+	static void asignarParametros(Query query, CriteriosFiltroEstudio criterios) {
+		int forma = criterios.forma();
+		if ((forma & CriteriosFiltroEstudio.FECHAS) != 0) {
+			query.setParameter("fechaInicio", criterios.getFechaInicio());
+			query.setParameter("fechaFin", criterios.getFechaFin());
+		}
+		if ((forma & CriteriosFiltroEstudio.TIPOS) != 0) {
+			query.setParameter("mascaraTipos", criterios.getMascaraTipos());
+			query.setParameter("minimoTipos", criterios.getMinimoTipos());
+		}
+		if ((forma & CriteriosFiltroEstudio.AREAS) != 0) {
+			query.setParameter("mascaraAreas", criterios.getMascaraAreas());
+			query.setParameter("minimoAreas", criterios.getMinimoAreas());
+		}
+		if ((forma & CriteriosFiltroEstudio.IDS) != 0) {
+			query.setParameter("ids", criterios.getIds());
+		}
+		if ((forma & CriteriosFiltroEstudio.CANDIDATOS) != 0) {
+			query.setParameter("consultaCandidatos", criterios.getConsultaCandidatos());
+		}
+	}
+
+	/**
+	 * Divide los criterios en tramos de hasta MAXIMO_IDS_POR_CONSULTA IDs candidatos, en orden ascendente, para
+	 * que ninguna consulta envíe un IN sin límite. Sin IDs candidatos, o con pocos, devuelve los mismos criterios.
+	 * Solo sirve a las consultas cuyos resultados se pueden concatenar o sumar; las que ordenan o paginan usan
+	 * conCandidatosEnTabla.
+	 */
+	static List<CriteriosFiltroEstudio> tramos(CriteriosFiltroEstudio criterios) {
+		if (criterios.getIds() == null || criterios.getIds().size() <= MAXIMO_IDS_POR_CONSULTA) {
+			return List.of(criterios);
+		}
+
+		List<Long> ids = criterios.getIds().stream().sorted().collect(Collectors.toList());
+		List<CriteriosFiltroEstudio> tramos = new ArrayList<>();
+		for (int desde = 0; desde < ids.size(); desde += MAXIMO_IDS_POR_CONSULTA) {
+			tramos.add(criterios.conIds(ids.subList(desde, Math.min(desde + MAXIMO_IDS_POR_CONSULTA, ids.size()))));
+		}
+		return tramos;
+	}
+
+	/**
+	 * Ejecuta una consulta que debe resolverse en una sola sentencia, como las que ordenan y paginan el listado.
+	 * Con más de MAXIMO_IDS_POR_CONSULTA IDs candidatos, los inserta por lotes JDBC en la tabla de
+	 * IdCandidatoConsulta, en la conexión de la transacción actual, y ejecuta la consulta con un subselect sobre
+	 * ellos; así la base de datos ordena y busca con su propia intercalación sobre el conjunto completo. Los
+	 * candidatos se eliminan al terminar, antes de que la transacción se confirme.
+	 *
+	 * @param entityManager EntityManager de la transacción actual, que no puede ser de solo lectura.
+	 * @param criterios     Criterios de filtrado.
+	 * @param consulta      Consulta que se ejecuta con los criterios resultantes.
+	 * @return El resultado de la consulta.
+	 */
+	static <T> T conCandidatosEnTabla(EntityManager entityManager, CriteriosFiltroEstudio criterios,
+									   Function<CriteriosFiltroEstudio, T> consulta) {
+		if (criterios.getIds() == null || criterios.getIds().size() <= MAXIMO_IDS_POR_CONSULTA) {
+			return consulta.apply(criterios);
+		}
+
+		String consultaCandidatos = UUID.randomUUID().toString();
+		entityManager.unwrap(Session.class).doWork(conexion -> {
+			try (PreparedStatement insert = conexion.prepareStatement(INSERT_CANDIDATO)) {
+				int enLote = 0;
+				for (Long id : criterios.getIds()) {
+					insert.setString(1, consultaCandidatos);
+					insert.setLong(2, id);
+					insert.addBatch();
+					if (++enLote == MAXIMO_IDS_POR_CONSULTA) {
+						insert.executeBatch();
+						enLote = 0;
+					}
+				}
+				if (enLote > 0) {
+					insert.executeBatch();
+				}
+			}
+		});
+		try {
+			return consulta.apply(criterios.conCandidatosDe(consultaCandidatos));
+		} finally {
+			entityManager.createQuery("DELETE FROM IdCandidatoConsulta c WHERE c.consulta = :consulta")
+					.setParameter("consulta", consultaCandidatos)
+					.executeUpdate();
+		}
+	}
+
+	/**
+	 * Convierte el ordenamiento de un Pageable en una cláusula ORDER BY. El ID se agrega al final para que
+	 * el orden sea estable entre páginas.
+	 *
+	 * @throws IllegalArgumentException Si algún campo de ordenamiento no está permitido.
+	 */
+	static String orderBy(Sort sort) {
+		StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+		boolean incluyeId = false;
+		for (Sort.Order orden : sort) {
+			if (!IRegistroEstudioDao.CAMPOS_ORDEN_REGISTROS.contains(orden.getProperty())) {
+				throw new IllegalArgumentException("No se puede ordenar por el campo: " + orden.getProperty());
+			}
+			incluyeId |= "id".equals(orden.getProperty());
+			orderBy.append("e.").append(orden.getProperty()).append(orden.isAscending() ? " ASC" : " DESC").append(", ");
+		}
+		if (incluyeId) {
+			return orderBy.substring(0, orderBy.length() - 2);
+		}
+		return orderBy.append("e.id ASC").toString();
+	}
+
+	/**
+	 * Cantidad de consultas distintas generadas hasta el momento.
+	 */
+	static int cantidadConsultas() {
+		return CONSULTAS.size();
+	}
+
+	/**
+	 * Arma la cláusula WHERE con los predicados de la forma. El cast explícito es necesario porque algunas
+	 * bases de datos no infieren el tipo de un parámetro dentro de bitand.
+	 */
+	private static String where(int forma, String condicion) {
+		StringBuilder where = new StringBuilder();
+		if ((forma & CriteriosFiltroEstudio.FECHAS) != 0) {
+			where.append(" AND e.fechaRealizado BETWEEN :fechaInicio AND :fechaFin");
+		}
+		if ((forma & CriteriosFiltroEstudio.TIPOS) != 0) {
+			where.append(" AND bitand(e.tiposEstudioMask, cast(:mascaraTipos as Integer)) >= :minimoTipos");
+		}
+		if ((forma & CriteriosFiltroEstudio.AREAS) != 0) {
+			where.append(" AND bitand(e.areasEstudioMask, cast(:mascaraAreas as Integer)) >= :minimoAreas");
+		}
+		if ((forma & CriteriosFiltroEstudio.IDS) != 0) {
+			where.append(" AND e.id IN :ids");
+		}
+		if ((forma & CriteriosFiltroEstudio.CANDIDATOS) != 0) {
+			where.append(" AND e.id IN (SELECT c.idEstudio FROM IdCandidatoConsulta c WHERE c.consulta = :consultaCandidatos)");
+		}
+		if (condicion != null) {
+			where.append(" AND ").append(condicion);
+		}
+		return where.length() == 0 ? "" : " WHERE" + where.substring(4);
+	}
+}
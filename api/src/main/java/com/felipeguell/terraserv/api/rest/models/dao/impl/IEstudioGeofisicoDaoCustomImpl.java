@@ -0,0 +1,248 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDaoCustom;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjectionImpl;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.FacetaAgrupadaProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.FacetaAgrupadaProjectionImpl;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioExportado;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+public class IEstudioGeofisicoDaoCustomImpl implements IEstudioGeofisicoDaoCustom {
+
+	// Cantidad máxima de IDs por cláusula IN
+	private static final int TAMANO_LOTE_IN = 1000;
+
+	// Filas que el driver trae por viaje al recorrer una exportación. Con MySQL se respeta solo si la URL de
+	// conexión incluye useCursorFetch=true; de lo contrario el driver carga el resultado completo.
+	private static final int TAMANO_FETCH_EXPORTACION = 500;
+
+	private static final String SELECT_EXPORTACION = "SELECT e.id, e.nombreEstudio, e.nombreCliente, e.descripcion, " +
+			"e.fechaRealizado, e.ubicacionEstudio, e.tiposEstudioMask, e.areasEstudioMask, c.latitudDecimal, c.longitudDecimal ";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<Long> findIdsFiltrados(CriteriosFiltroEstudio criterios) {
+		List<Long> ids = new ArrayList<>();
+		for (CriteriosFiltroEstudio tramo : ConsultaFiltroEstudios.tramos(criterios)) {
+			TypedQuery<Long> query = entityManager.createQuery(
+					ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT e.id ", tramo, null, ""), Long.class);
+			ConsultaFiltroEstudios.asignarParametros(query, tramo);
+			ids.addAll(query.getResultList());
+		}
+		return ids;
+	}
+
+	@Override
+	public List<Long> findIdsFiltradosDesde(CriteriosFiltroEstudio criterios, Long ultimoId, int limite) {
+		TypedQuery<Long> query = entityManager.createQuery(ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS,
+						"SELECT e.id ", criterios, "e.id > :ultimoId", " ORDER BY e.id"), Long.class)
+				.setParameter("ultimoId", ultimoId)
+				.setMaxResults(limite);
+		ConsultaFiltroEstudios.asignarParametros(query, criterios);
+		return query.getResultList();
+	}
+
+	@Override
+	public List<FacetaAgrupadaProjection> contarFacetas(CriteriosFiltroEstudio criterios) {
+		// Con varios tramos una misma combinación puede repetirse; las cantidades de los grupos se suman al expandirlos
+		List<FacetaAgrupadaProjection> grupos = new ArrayList<>();
+		for (CriteriosFiltroEstudio tramo : ConsultaFiltroEstudios.tramos(criterios)) {
+			TypedQuery<Tuple> query = entityManager.createQuery(ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS,
+					"SELECT e.tiposEstudioMask AS tiposEstudioMask, e.areasEstudioMask AS areasEstudioMask, " +
+							"year(e.fechaRealizado) AS anio, count(e) AS cantidad ",
+					tramo, null, " GROUP BY e.tiposEstudioMask, e.areasEstudioMask, year(e.fechaRealizado)"), Tuple.class);
+			ConsultaFiltroEstudios.asignarParametros(query, tramo);
+
+			query.getResultList().forEach(fila -> grupos.add(new FacetaAgrupadaProjectionImpl(
+					fila.get("tiposEstudioMask", Integer.class),
+					fila.get("areasEstudioMask", Integer.class),
+					fila.get("anio", Integer.class),
+					fila.get("cantidad", Long.class))));
+		}
+		return grupos;
+	}
+
+	@Override
+	public List<EstudioGeofisicoProjection> findProyeccionesByIds(Collection<Long> ids) {
+		List<EstudioGeofisicoProjection> proyecciones = new ArrayList<>(ids.size());
+		List<Long> idsOrdenados = ids.stream().sorted().collect(Collectors.toList());
+
+		for (int desde = 0; desde < idsOrdenados.size(); desde += TAMANO_LOTE_IN) {
+			List<Long> lote = idsOrdenados.subList(desde, Math.min(desde + TAMANO_LOTE_IN, idsOrdenados.size()));
+
+			Map<Long, List<Coordenada>> coordenadas = new HashMap<>();
+			entityManager.createQuery("SELECT e.id, c.id, c.latitudDecimal, c.longitudDecimal " +
+							"FROM EstudioGeofisico e JOIN e.coordenadas c WHERE e.id IN :ids", Object[].class)
+					.setParameter("ids", lote)
+					.getResultList()
+					.forEach(fila -> coordenadas.computeIfAbsent((Long) fila[0], id -> new ArrayList<>())
+							.add(new Coordenada((Long) fila[1], (Double) fila[2], (Double) fila[3])));
+
+			Map<Long, Set<EnumTipoEstudioGeofisico>> tipos = new HashMap<>();
+			entityManager.createQuery("SELECT e.id, t FROM EstudioGeofisico e JOIN e.tiposEstudio t WHERE e.id IN :ids", Object[].class)
+					.setParameter("ids", lote)
+					.getResultList()
+					.forEach(fila -> tipos.computeIfAbsent((Long) fila[0], id -> EnumSet.noneOf(EnumTipoEstudioGeofisico.class))
+							.add((EnumTipoEstudioGeofisico) fila[1]));
+
+			Map<Long, Set<EnumAreaAplicacionEstudioGeofisico>> areas = new HashMap<>();
+			entityManager.createQuery("SELECT e.id, a FROM EstudioGeofisico e JOIN e.areasEstudio a WHERE e.id IN :ids", Object[].class)
+					.setParameter("ids", lote)
+					.getResultList()
+					.forEach(fila -> areas.computeIfAbsent((Long) fila[0], id -> EnumSet.noneOf(EnumAreaAplicacionEstudioGeofisico.class))
+							.add((EnumAreaAplicacionEstudioGeofisico) fila[1]));
+
+			entityManager.createQuery("SELECT e.id AS id, e.nombreEstudio AS nombreEstudio, e.nombreCliente AS nombreCliente, " +
+							"e.descripcion AS descripcion, e.fechaRealizado AS fechaRealizado, e.ubicacionEstudio AS ubicacionEstudio, " +
+							"e.creadoPor AS creadoPor, e.fechaHoraCreacion AS fechaHoraCreacion, " +
+							"e.ultimaActualizacionPor AS ultimaActualizacionPor, e.fechaModificacion AS fechaModificacion " +
+							"FROM EstudioGeofisico e WHERE e.id IN :ids ORDER BY e.id", Tuple.class)
+					.setParameter("ids", lote)
+					.getResultList()
+					.forEach(fila -> {
+						Long id = fila.get("id", Long.class);
+						proyecciones.add(new EstudioGeofisicoProjectionImpl(
+								id,
+								fila.get("nombreEstudio", String.class),
+								fila.get("nombreCliente", String.class),
+								fila.get("descripcion", String.class),
+								fila.get("fechaRealizado", Date.class),
+								fila.get("ubicacionEstudio", String.class),
+								coordenadas.getOrDefault(id, new ArrayList<>()),
+								tipos.getOrDefault(id, EnumSet.noneOf(EnumTipoEstudioGeofisico.class)),
+								areas.getOrDefault(id, EnumSet.noneOf(EnumAreaAplicacionEstudioGeofisico.class)),
+								fila.get("creadoPor", String.class),
+								fila.get("fechaHoraCreacion", Date.class),
+								fila.get("ultimaActualizacionPor", String.class),
+								fila.get("fechaModificacion", Date.class)));
+					});
+		}
+
+		return proyecciones;
+	}
+
+	@Override
+	public List<EstudioGeofisico> findCompletosByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		// Cada consulta inicializa una colección sobre las mismas instancias del contexto de persistencia
+		List<EstudioGeofisico> estudios = entityManager.createQuery(
+						"SELECT e FROM EstudioGeofisico e WHERE e.id IN :ids ORDER BY e.id", EstudioGeofisico.class)
+				.setParameter("ids", ids)
+				.getResultList();
+		for (String coleccion : List.of("coordenadas", "tiposEstudio", "areasEstudio", "imagenes", "archivosAdjuntos")) {
+			entityManager.createQuery("SELECT DISTINCT e FROM EstudioGeofisico e LEFT JOIN FETCH e." + coleccion +
+							" WHERE e.id IN :ids", EstudioGeofisico.class)
+					.setParameter("ids", ids)
+					.getResultList();
+		}
+		return estudios;
+	}
+
+	@Override
+	public boolean alinearSecuenciaIds(String entidad, String tabla, String columnaId) {
+		// Los nombres de tabla y columna son constantes del código, nunca datos del usuario
+		long maximoId = ((Number) entityManager.createNativeQuery("SELECT COALESCE(MAX(" + columnaId + "), 0) FROM " + tabla)
+				.getSingleResult()).longValue();
+		if (maximoId == 0) {
+			return false;
+		}
+
+		// El optimizador pooled entrega los IDs (valor - TAMANO_BLOQUE, valor], por lo que el valor debe superar
+		// al mayor ID existente en al menos un bloque
+		long minimo = maximoId + SecuenciasIdsUtils.TAMANO_BLOQUE;
+		List<?> valores = entityManager.createNativeQuery("SELECT " + SecuenciasIdsUtils.COLUMNA_VALOR + " FROM " +
+						SecuenciasIdsUtils.TABLA + " WHERE " + SecuenciasIdsUtils.COLUMNA_ENTIDAD + " = :entidad")
+				.setParameter("entidad", entidad)
+				.getResultList();
+		if (valores.isEmpty()) {
+			entityManager.createNativeQuery("INSERT INTO " + SecuenciasIdsUtils.TABLA + " (" + SecuenciasIdsUtils.COLUMNA_ENTIDAD +
+							", " + SecuenciasIdsUtils.COLUMNA_VALOR + ") VALUES (:entidad, :valor)")
+					.setParameter("entidad", entidad)
+					.setParameter("valor", minimo)
+					.executeUpdate();
+			return true;
+		}
+		return entityManager.createNativeQuery("UPDATE " + SecuenciasIdsUtils.TABLA + " SET " + SecuenciasIdsUtils.COLUMNA_VALOR +
+						" = :valor WHERE " + SecuenciasIdsUtils.COLUMNA_ENTIDAD + " = :entidad AND " +
+						SecuenciasIdsUtils.COLUMNA_VALOR + " < :valor")
+				.setParameter("entidad", entidad)
+				.setParameter("valor", minimo)
+				.executeUpdate() > 0;
+	}
+
+	@Override
+	public void recorrerEstudiosExportados(CriteriosFiltroEstudio criterios, Consumer<EstudioExportado> consumidor) {
+		String jpql = ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, " LEFT JOIN e.coordenadas c",
+				SELECT_EXPORTACION, criterios, null, " ORDER BY e.id, c.id");
+
+		SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+		try (StatelessSession sesion = sessionFactory.openStatelessSession()) {
+			Query<Object[]> query = sesion.createQuery(jpql, Object[].class)
+					.setReadOnly(true)
+					.setFetchSize(TAMANO_FETCH_EXPORTACION);
+			ConsultaFiltroEstudios.asignarParametros(query, criterios);
+
+			// Las filas llegan agrupadas por estudio: uno por cada coordenada
+			try (ScrollableResults<Object[]> filas = query.scroll(ScrollMode.FORWARD_ONLY)) {
+				EstudioExportado estudio = null;
+				while (filas.next()) {
+					Object[] fila = filas.get();
+					if (estudio == null || !estudio.getId().equals(fila[0])) {
+						if (estudio != null) {
+							consumidor.accept(estudio);
+						}
+						estudio = new EstudioExportado((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3],
+								(Date) fila[4], (String) fila[5],
+								MascaraBitsUtils.desdeMascara(mascara(fila[6]), EnumTipoEstudioGeofisico.class),
+								MascaraBitsUtils.desdeMascara(mascara(fila[7]), EnumAreaAplicacionEstudioGeofisico.class),
+								new ArrayList<>());
+					}
+					if (fila[8] != null) {
+						estudio.getCoordenadas().add(new Coordenada(null, (Double) fila[8], (Double) fila[9]));
+					}
+				}
+				if (estudio != null) {
+					consumidor.accept(estudio);
+				}
+			}
+		}
+	}
+
+	private static int mascara(Object valor) {
+		return valor == null ? 0 : (Integer) valor;
+	}
+}
@@ -0,0 +1,160 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+import com.felipeguell.terraserv.api.rest.models.dao.IRegistroEstudioDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IRegistroEstudioDaoCustom;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjectionImpl;
+import com.felipeguell.terraserv.api.rest.util.CursorUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+public class IRegistroEstudioDaoCustomImpl implements IRegistroEstudioDaoCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Page<EstudioGeofisicoProjection> findFilteredEstudios(CriteriosFiltroEstudio criterios, Pageable pageable) {
+		return ConsultaFiltroEstudios.conCandidatosEnTabla(entityManager, criterios, filtro -> {
+			List<EstudioGeofisicoProjection> registros = findRegistros(filtro, pageable, pageable.getPageSize());
+
+			// Igual que en las consultas derivadas de Spring Data, el COUNT se omite si la página permite deducir el total.
+			// Se resuelve aquí, mientras los IDs candidatos siguen en la tabla
+			long total = PageableExecutionUtils.getPage(registros, pageable, () -> {
+				TypedQuery<Long> count = entityManager.createQuery(
+						ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.REGISTROS, "SELECT count(e) ", filtro, null, ""), Long.class);
+				ConsultaFiltroEstudios.asignarParametros(count, filtro);
+				return count.getSingleResult();
+			}).getTotalElements();
+			return new PageImpl<>(registros, pageable, total);
+		});
+	}
+
+	@Override
+	public Slice<EstudioGeofisicoProjection> findFilteredEstudiosSlice(CriteriosFiltroEstudio criterios, Pageable pageable) {
+		// Se pide un registro adicional para saber si existe una página siguiente
+		List<EstudioGeofisicoProjection> registros = ConsultaFiltroEstudios.conCandidatosEnTabla(entityManager, criterios,
+				filtro -> findRegistros(filtro, pageable, pageable.getPageSize() + 1));
+		boolean hayMas = registros.size() > pageable.getPageSize();
+		return new SliceImpl<>(hayMas ? registros.subList(0, pageable.getPageSize()) : registros, pageable, hayMas);
+	}
+
+	@Override
+	public List<EstudioGeofisicoProjection> findFilteredEstudiosKeyset(CriteriosFiltroEstudio criterios,
+																	   String campoOrden,
+																	   Sort.Direction direccion,
+																	   Object ultimoValor,
+																	   Long ultimoId,
+																	   int limite) {
+		// El campo se concatena en la consulta, por lo que solo se aceptan los campos permitidos
+		if (!CursorUtils.CAMPOS_ORDEN.contains(campoOrden)) {
+			throw new IllegalArgumentException("No se puede paginar por el campo: " + campoOrden);
+		}
+
+		String comparador = direccion.isAscending() ? ">" : "<";
+		String orden = direccion.isAscending() ? "ASC" : "DESC";
+		boolean ordenPorId = "id".equals(campoOrden);
+
+		// Condición de búsqueda (seek): continúa después del último registro entregado
+		String condicion = ultimoId == null ? null : ordenPorId
+				? "e.id " + comparador + " :ultimoId"
+				: condicionDespuesDe("e." + campoOrden, comparador, direccion.isAscending(), ultimoValor == null);
+		String orderBy = ordenPorId
+				? " ORDER BY e.id " + orden
+				: " ORDER BY e." + campoOrden + ' ' + orden + ", e.id " + orden;
+
+		// La búsqueda y el orden se resuelven en una sola consulta, con la intercalación de la base de datos
+		return ConsultaFiltroEstudios.conCandidatosEnTabla(entityManager, criterios, filtro -> {
+			TypedQuery<Tuple> query = entityManager.createQuery(
+							ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.REGISTROS, IRegistroEstudioDao.SELECT_REGISTROS, filtro, condicion, orderBy), Tuple.class)
+					.setMaxResults(limite);
+			ConsultaFiltroEstudios.asignarParametros(query, filtro);
+
+			if (ultimoId != null) {
+				query.setParameter("ultimoId", ultimoId);
+				if (!ordenPorId && ultimoValor != null) {
+					query.setParameter("ultimoValor", ultimoValor);
+				}
+			}
+
+			return query.getResultList().stream()
+					.map(IRegistroEstudioDaoCustomImpl::aRegistro)
+					.collect(Collectors.toList());
+		});
+	}
+
+	/**
+	 * Arma la condición que deja solo los registros posteriores al último entregado, según el orden
+	 * "campo, id". Los nulos se ordenan como el menor valor, igual que en MySQL: van al principio en orden
+	 * ascendente y al final en orden descendente. Como un null no se puede comparar con = ni con < o >,
+	 * cada caso se expresa con IS NULL o IS NOT NULL.
+	 *
+	 * @param campo        El campo de ordenamiento, con el alias de la entidad.
+	 * @param comparador   "&gt;" en orden ascendente o "&lt;" en orden descendente.
+	 * @param ascendente   Si el orden es ascendente.
+	 * @param ultimoEsNulo Si el valor del campo en el último registro entregado es null.
+	 */
+	private static String condicionDespuesDe(String campo, String comparador, boolean ascendente, boolean ultimoEsNulo) {
+		if (ultimoEsNulo) {
+			String mismoValor = "(" + campo + " IS NULL AND e.id " + comparador + " :ultimoId)";
+			// En orden ascendente siguen los valores no nulos; en descendente, solo quedan nulos
+			return ascendente ? "(" + campo + " IS NOT NULL OR " + mismoValor + ")" : mismoValor;
+		}
+
+		String despues = campo + ' ' + comparador + " :ultimoValor OR (" + campo + " = :ultimoValor AND e.id " + comparador + " :ultimoId)";
+		// En orden descendente, los nulos van después de todos los valores
+		return ascendente ? "(" + despues + ")" : "(" + despues + " OR " + campo + " IS NULL)";
+	}
+
+	/**
+	 * Obtiene una página de registros del listado, con el ordenamiento del Pageable.
+	 */
+	private List<EstudioGeofisicoProjection> findRegistros(CriteriosFiltroEstudio criterios, Pageable pageable, int limite) {
+		TypedQuery<Tuple> query = entityManager.createQuery(
+						ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.REGISTROS, IRegistroEstudioDao.SELECT_REGISTROS, criterios, null,
+								ConsultaFiltroEstudios.orderBy(pageable.getSort())), Tuple.class)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(limite);
+		ConsultaFiltroEstudios.asignarParametros(query, criterios);
+
+		return query.getResultList().stream()
+				.map(IRegistroEstudioDaoCustomImpl::aRegistro)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Convierte una fila con las columnas de SELECT_REGISTROS en una proyección.
+	 */
+	private static EstudioGeofisicoProjection aRegistro(Tuple fila) {
+		return new EstudioGeofisicoProjectionImpl(
+				fila.get("id", Long.class),
+				fila.get("nombreEstudio", String.class),
+				fila.get("nombreCliente", String.class),
+				null,
+				fila.get("fechaRealizado", Date.class),
+				fila.get("ubicacionEstudio", String.class),
+				null,
+				null,
+				null,
+				fila.get("creadoPor", String.class),
+				fila.get("fechaHoraCreacion", Date.class),
+				fila.get("ultimaActualizacionPor", String.class),
+				fila.get("fechaModificacion", Date.class));
+	}
+}
@@ -0,0 +1,7 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface CoordenadaEstudioProjection {
+	Long getIdEstudio();
+	Double getLatitudDecimal();
+	Double getLongitudDecimal();
+}
@@ -0,0 +1,5 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface CoordenadaTiposEstudioProjection extends CoordenadaEstudioProjection {
+	Integer getTiposEstudioMask();
+}
@@ -0,0 +1,8 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface EstudioTextoProjection {
+	Long getId();
+	String getNombreEstudio();
+	String getNombreCliente();
+	String getUbicacionEstudio();
+}
@@ -0,0 +1,8 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface FacetaAgrupadaProjection {
+	Integer getTiposEstudioMask();
+	Integer getAreasEstudioMask();
+	Integer getAnio();
+	Long getCantidad();
+}
@@ -0,0 +1,13 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FacetaAgrupadaProjectionImpl implements FacetaAgrupadaProjection {
+    private Integer tiposEstudioMask;
+    private Integer areasEstudioMask;
+    private Integer anio;
+    private Long cantidad;
+}
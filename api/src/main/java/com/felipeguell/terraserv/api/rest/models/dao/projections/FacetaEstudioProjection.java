@@ -0,0 +1,8 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface FacetaEstudioProjection {
+	Long getId();
+	Integer getTiposEstudioMask();
+	Integer getAreasEstudioMask();
+	Integer getAnio();
+}
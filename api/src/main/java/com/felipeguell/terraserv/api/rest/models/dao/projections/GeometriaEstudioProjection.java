@@ -0,0 +1,9 @@
+package com.felipeguell.terraserv.api.rest.models.dao.projections;
+
+public interface GeometriaEstudioProjection {
+	Long getIdEstudio();
+	String getNombreEstudio();
+	Integer getTiposEstudioMask();
+	Double getLatitudDecimal();
+	Double getLongitudDecimal();
+}
@@ -1,7 +1,10 @@
 package com.felipeguell.terraserv.api.rest.models.entity;
 
 
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,12 +16,17 @@ import lombok.ToString;
 @NoArgsConstructor
 @ToString
 @Entity
-@Table(name = "archivos_adjuntos")
+@Table(name = "archivos_adjuntos", indexes = @Index(name = "idx_archivos_adjuntos_archivo_key", columnList = "archivo_key"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ArchivoAdjunto{
 
 	@Id
 	@Column(name = "id_archivo")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "ids_archivos_adjuntos")
+	@TableGenerator(name = "ids_archivos_adjuntos", table = SecuenciasIdsUtils.TABLA, pkColumnName = SecuenciasIdsUtils.COLUMNA_ENTIDAD,
+			valueColumnName = SecuenciasIdsUtils.COLUMNA_VALOR, pkColumnValue = SecuenciasIdsUtils.ARCHIVOS_ADJUNTOS,
+			allocationSize = SecuenciasIdsUtils.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(name="archivo_key")
@@ -0,0 +1,19 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Agrupación de estudios geofísicos cercanos para mostrar en el mapa: cantidad de estudios, centroide
+ * de sus posiciones e IDs de algunos estudios representativos.
+ */
+@Data
+@AllArgsConstructor
+public class ClusterEstudios {
+    private int cantidad;
+    private double latitud;
+    private double longitud;
+    private List<Long> ids;
+}
@@ -1,6 +1,9 @@
 package com.felipeguell.terraserv.api.rest.models.entity;
 
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -15,11 +18,16 @@ import lombok.ToString;
 @ToString
 @Entity
 @Table(name = "coordenadas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Coordenada{
 
 	@Id
 	@Column(name = "id_coordenada")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "ids_coordenadas")
+	@TableGenerator(name = "ids_coordenadas", table = SecuenciasIdsUtils.TABLA, pkColumnName = SecuenciasIdsUtils.COLUMNA_ENTIDAD,
+			valueColumnName = SecuenciasIdsUtils.COLUMNA_VALOR, pkColumnValue = SecuenciasIdsUtils.COORDENADAS,
+			allocationSize = SecuenciasIdsUtils.TAMANO_BLOQUE)
 	private Long id;
 
 	@NotNull(message = "La latitud decimal no puede ser nula")
@@ -0,0 +1,17 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Registro rechazado en una importación masiva de estudios geofísicos, con su posición en el contenido
+ * recibido (desde 1, sin contar el encabezado CSV ni las líneas vacías) y los motivos del rechazo.
+ */
+@Data
+@AllArgsConstructor
+public class ErrorImportacion {
+    private long registro;
+    private List<String> mensajes;
+}
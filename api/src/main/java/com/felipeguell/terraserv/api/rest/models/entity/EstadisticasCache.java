@@ -0,0 +1,23 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Contadores de uso de una caché en memoria.
+ */
+@Data
+@AllArgsConstructor
+public class EstadisticasCache {
+    private long aciertos;
+    private long fallos;
+    // Entradas quitadas por superar el tamaño máximo
+    private long desalojos;
+    // Entradas quitadas por superar el tiempo de vida
+    private long expiraciones;
+    // Entradas quitadas porque un guardado o una eliminación cambió su resultado
+    private long invalidaciones;
+    private int entradas;
+    private int maximoEntradas;
+    private long ttlSegundos;
+}
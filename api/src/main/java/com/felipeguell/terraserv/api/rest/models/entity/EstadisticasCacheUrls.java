@@ -0,0 +1,24 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Contadores de uso de la caché de URLs firmadas de Amazon S3.
+ */
+@Data
+@AllArgsConstructor
+public class EstadisticasCacheUrls {
+    private long aciertos;
+    // URLs firmadas por primera vez o después de vencer; requieren verificar que el objeto existe
+    private long fallos;
+    // URLs vigentes firmadas de nuevo por estar cerca de vencer, sin verificar el objeto
+    private long renovaciones;
+    private double tasaAciertos;
+    private long firmas;
+    private double tiempoPromedioFirmaMs;
+    private int entradas;
+    private int maximoEntradas;
+    private long duracionSegundos;
+    private long margenRenovacionSegundos;
+}
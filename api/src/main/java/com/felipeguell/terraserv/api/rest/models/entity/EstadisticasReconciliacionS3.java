@@ -0,0 +1,26 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Contadores de la reconciliación de objetos huérfanos de Amazon S3: los de la última ejecución y los acumulados.
+ */
+@Data
+@AllArgsConstructor
+public class EstadisticasReconciliacionS3 {
+    private long ejecuciones;
+    private Date ultimaEjecucion;
+    private long duracionMs;
+    private long objetosRevisados;
+    // Objetos más nuevos que el período de gracia, que todavía pueden ser referenciados por un estudio en edición
+    private long objetosRecientes;
+    private long objetosReferenciados;
+    // Objetos que ya estaban pendientes de eliminación
+    private long objetosPendientes;
+    private long objetosHuerfanos;
+    private long objetosHuerfanosTotales;
+    private long periodoGraciaHoras;
+}
@@ -0,0 +1,18 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Contadores de una región de la caché de segundo nivel de Hibernate.
+ */
+@Data
+@AllArgsConstructor
+public class EstadisticasRegionCache {
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    // null si el proveedor de caché no informa la cantidad de elementos
+    private Long elementosEnMemoria;
+}
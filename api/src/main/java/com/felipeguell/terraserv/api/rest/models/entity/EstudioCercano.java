@@ -0,0 +1,17 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estudio geofísico encontrado en una búsqueda por cercanía, junto con la distancia de círculo máximo
+ * desde el punto consultado hasta la más cercana de sus coordenadas.
+ */
+@Data
+@AllArgsConstructor
+public class EstudioCercano {
+    private EstudioGeofisicoProjection estudio;
+    private double distanciaKm;
+}
@@ -0,0 +1,29 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estudio geofísico leído para una exportación CSV o GeoJSON. Se arma directamente con las columnas de la
+ * consulta, sin pasar por entidades administradas; los tipos y áreas salen de las máscaras de bits.
+ */
+@Data
+@AllArgsConstructor
+public class EstudioExportado {
+    private Long id;
+    private String nombreEstudio;
+    private String nombreCliente;
+    private String descripcion;
+    private Date fechaRealizado;
+    private String ubicacionEstudio;
+    private Set<EnumTipoEstudioGeofisico> tiposEstudio;
+    private Set<EnumAreaAplicacionEstudioGeofisico> areasEstudio;
+    private List<Coordenada> coordenadas;
+}
@@ -1,18 +1,32 @@
 package com.felipeguell.terraserv.api.rest.models.entity;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import com.felipeguell.terraserv.api.rest.util.ArchivosAdjuntosUtils;
 import com.felipeguell.terraserv.api.rest.util.CoordenadaUtils;
 import com.felipeguell.terraserv.api.rest.util.ImagenesUtils;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.*;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
@@ -32,14 +46,32 @@ import jakarta.validation.constraints.Size;
 @NoArgsConstructor
 @ToString
 @Entity
-@Table(name = "estudios_geofisicos")
+@Table(name = "estudios_geofisicos", indexes = {
+		@Index(name = "idx_estudios_fecha_realizado", columnList = "fecha_realizado"),
+		@Index(name = "idx_estudios_centro", columnList = "latitud_centro, longitud_centro"),
+		@Index(name = "idx_estudios_extension", columnList = "latitud_min, latitud_max, longitud_min, longitud_max")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class EstudioGeofisico extends Auditable implements Serializable  {
 
 	@Id
 	@Column(name = "id_estudio")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "ids_estudios")
+	@TableGenerator(name = "ids_estudios", table = SecuenciasIdsUtils.TABLA, pkColumnName = SecuenciasIdsUtils.COLUMNA_ENTIDAD,
+			valueColumnName = SecuenciasIdsUtils.COLUMNA_VALOR, pkColumnValue = SecuenciasIdsUtils.ESTUDIOS,
+			allocationSize = SecuenciasIdsUtils.TAMANO_BLOQUE)
 	private Long id;
 
+	/**
+	 * Versión para el bloqueo optimista: Hibernate la incrementa en cada UPDATE y rechaza el que parte de una
+	 * versión anterior. Se expone como ETag en lugar de en el cuerpo JSON.
+	 */
+	@JsonIgnore
+	@Version
+	@ColumnDefault("0")
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	@NotEmpty(message = "El nombre de estudio no puede estar vacío")
 	@Column(name = "nombre_estudio")
 	private String nombreEstudio;
@@ -68,30 +100,78 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	@Valid
 	@OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
 	@JoinColumn(name = "estudio_id")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private List<Coordenada> coordenadas;
 
 	@NotEmpty(message = "El tipo de estudio no puede estar vacío")
 	@Column(name = "tipos_estudio")
 	@Enumerated(EnumType.STRING)
 	@ElementCollection(targetClass = EnumTipoEstudioGeofisico.class)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private Set<EnumTipoEstudioGeofisico> tiposEstudio;
 
 	@NotNull(message = "El área de aplicación del estudio no puede ser nulo")
 	@Column(name = "areas_estudio")
 	@Enumerated(EnumType.STRING)
 	@ElementCollection(targetClass = EnumAreaAplicacionEstudioGeofisico.class)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private Set<EnumAreaAplicacionEstudioGeofisico> areasEstudio;
+
+	/**
+	 * Copia desnormalizada de tiposEstudio como máscara de bits, para filtrar con predicados bit a bit
+	 * en lugar de subconsultas sobre la tabla de la colección.
+	 */
+	@JsonIgnore
+	@Column(name = "tipos_estudio_mask")
+	private Integer tiposEstudioMask;
+
+	/**
+	 * Copia desnormalizada de areasEstudio como máscara de bits.
+	 */
+	@JsonIgnore
+	@Column(name = "areas_estudio_mask")
+	private Integer areasEstudioMask;
+
+	/**
+	 * Centroide (promedio de las coordenadas) y rectángulo que contiene las coordenadas, desnormalizados para
+	 * que las consultas geográficas sean recorridos de rango sobre índices, sin unir ni agregar la tabla coordenadas.
+	 */
+	@JsonIgnore
+	@Column(name = "latitud_centro")
+	private Double latitudCentro;
+
+	@JsonIgnore
+	@Column(name = "longitud_centro")
+	private Double longitudCentro;
+
+	@JsonIgnore
+	@Column(name = "latitud_min")
+	private Double latitudMin;
+
+	@JsonIgnore
+	@Column(name = "latitud_max")
+	private Double latitudMax;
+
+	@JsonIgnore
+	@Column(name = "longitud_min")
+	private Double longitudMin;
+
+	@JsonIgnore
+	@Column(name = "longitud_max")
+	private Double longitudMax;
 	
 	@Size(max = ImagenesUtils.MAX_IMAGENES)
 	@Valid
 	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
 	@JoinColumn(name = "estudio_id")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private List<Imagen> imagenes;
 
 	@Size(max = ArchivosAdjuntosUtils.MAX_ARCHIVOS_ADJUNTOS)
 	@Valid
 	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true )
 	@JoinColumn(name = "estudio_id")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private List<ArchivoAdjunto> archivosAdjuntos;
 
 	private static final long serialVersionUID = -4662316815439866046L;
@@ -120,6 +200,7 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 		}
 
 		this.coordenadas.addAll(coordenadasNew);
+		sincronizarExtension();
 	}
 
 	/**
@@ -127,6 +208,40 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	 */
 	public void clearCoordenadas(){
 		this.coordenadas.clear();
+		sincronizarExtension();
+	}
+
+	/**
+	 * Método para recalcular el centroide y el rectángulo a partir de la lista de coordenadas.
+	 * Sin coordenadas quedan en null.
+	 */
+	public void sincronizarExtension(){
+		if (this.coordenadas == null || this.coordenadas.isEmpty()) {
+			this.latitudCentro = this.longitudCentro = null;
+			this.latitudMin = this.latitudMax = this.longitudMin = this.longitudMax = null;
+			return;
+		}
+
+		double sumaLatitud = 0;
+		double sumaLongitud = 0;
+		double minLatitud = Double.MAX_VALUE;
+		double maxLatitud = -Double.MAX_VALUE;
+		double minLongitud = Double.MAX_VALUE;
+		double maxLongitud = -Double.MAX_VALUE;
+		for (Coordenada coordenada : this.coordenadas) {
+			sumaLatitud += coordenada.getLatitudDecimal();
+			sumaLongitud += coordenada.getLongitudDecimal();
+			minLatitud = Math.min(minLatitud, coordenada.getLatitudDecimal());
+			maxLatitud = Math.max(maxLatitud, coordenada.getLatitudDecimal());
+			minLongitud = Math.min(minLongitud, coordenada.getLongitudDecimal());
+			maxLongitud = Math.max(maxLongitud, coordenada.getLongitudDecimal());
+		}
+		this.latitudCentro = sumaLatitud / this.coordenadas.size();
+		this.longitudCentro = sumaLongitud / this.coordenadas.size();
+		this.latitudMin = minLatitud;
+		this.latitudMax = maxLatitud;
+		this.longitudMin = minLongitud;
+		this.longitudMax = maxLongitud;
 	}
 
 
@@ -135,6 +250,7 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	 */
 	public void clearTiposEstudio(){
 		this.tiposEstudio.clear();
+		sincronizarMascaras();
 	}
 
 
@@ -143,6 +259,7 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	 */
 	public void addTiposEstudio(Set<EnumTipoEstudioGeofisico> tiposEstudios){
 		this.tiposEstudio.addAll(tiposEstudios);
+		sincronizarMascaras();
 	}
 
 	/**
@@ -150,6 +267,7 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	 */
 	public void clearAreasEstudio(){
 		this.areasEstudio.clear();
+		sincronizarMascaras();
 	}
 
 
@@ -158,6 +276,31 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	 */
 	public void addAreasEstudio(Set<EnumAreaAplicacionEstudioGeofisico> areasEstudios){
 		this.areasEstudio.addAll(areasEstudios);
+		sincronizarMascaras();
+	}
+
+	/**
+	 * Método para recalcular las máscaras de bits a partir de los conjuntos de tipos y áreas de estudio.
+	 */
+	public void sincronizarMascaras(){
+		this.tiposEstudioMask = MascaraBitsUtils.aMascara(this.tiposEstudio);
+		this.areasEstudioMask = MascaraBitsUtils.aMascara(this.areasEstudio);
+	}
+
+	/**
+	 * Método para recalcular las máscaras, el centroide y el rectángulo antes de cada inserción y actualización,
+	 * por si los conjuntos o las coordenadas se asignaron directamente.
+	 */
+	@PrePersist
+	@PreUpdate
+	public void sincronizarDesnormalizados(){
+		// Una colección que no se cargó no cambió, y cargarla durante el flush no está permitido
+		if (Hibernate.isInitialized(this.tiposEstudio) && Hibernate.isInitialized(this.areasEstudio)) {
+			sincronizarMascaras();
+		}
+		if (Hibernate.isInitialized(this.coordenadas)) {
+			sincronizarExtension();
+		}
 	}
 
 	/**
@@ -195,4 +338,127 @@ public class EstudioGeofisico extends Auditable implements Serializable  {
 	public void clearArchivosAdjuntos(){
 		this.archivosAdjuntos.clear();
 	}
+
+	/**
+	 * Método para reemplazar la lista de coordenadas modificando solo las filas necesarias.
+	 * Las coordenadas se comparan por posición, porque el orden de la lista es el de los vértices del estudio:
+	 * las que cambiaron se actualizan en su lugar, las sobrantes se agregan al final y las que faltan se eliminan.
+	 * Valida lo mismo que addCoordenadas.
+	 * @param coordenadasNew
+	 */
+	public void actualizarCoordenadas(List<Coordenada> coordenadasNew) {
+		if (coordenadasNew.size() > CoordenadaUtils.MAX_COORDENADAS) {
+			throw new IllegalArgumentException("El número total de coordenadas no puede exceder " + CoordenadaUtils.MAX_COORDENADAS);
+		}
+		if (coordenadasNew.size() < CoordenadaUtils.MIN_COORDENADAS) {
+			throw new IllegalArgumentException("El número total de coordenadas no puede ser menor a " + CoordenadaUtils.MIN_COORDENADAS);
+		}
+		for (Coordenada coordenada : coordenadasNew) {
+			if (coordenada.getLatitudDecimal() < CoordenadaUtils.MIN_LATITUD
+					|| coordenada.getLatitudDecimal() > CoordenadaUtils.MAX_LATITUD
+					|| coordenada.getLongitudDecimal() < CoordenadaUtils.MIN_LONGITUD
+					|| coordenada.getLongitudDecimal() > CoordenadaUtils.MAX_LONGITUD) {
+				throw new IllegalArgumentException("Coordenada fuera de rango: " + coordenada);
+			}
+		}
+
+		for (int i = 0; i < coordenadasNew.size(); i++) {
+			Coordenada coordenadaNew = coordenadasNew.get(i);
+			if (i < this.coordenadas.size()) {
+				// Hibernate solo emite el UPDATE si alguno de los valores cambió
+				this.coordenadas.get(i).setLatitudDecimal(coordenadaNew.getLatitudDecimal());
+				this.coordenadas.get(i).setLongitudDecimal(coordenadaNew.getLongitudDecimal());
+			} else {
+				this.coordenadas.add(new Coordenada(null, coordenadaNew.getLatitudDecimal(), coordenadaNew.getLongitudDecimal()));
+			}
+		}
+		while (this.coordenadas.size() > coordenadasNew.size()) {
+			this.coordenadas.remove(this.coordenadas.size() - 1);
+		}
+		sincronizarExtension();
+	}
+
+	/**
+	 * Método para reemplazar el conjunto de tipos de estudio agregando y quitando solo los que cambiaron
+	 */
+	public void actualizarTiposEstudio(Set<EnumTipoEstudioGeofisico> tiposEstudios){
+		this.tiposEstudio.retainAll(tiposEstudios);
+		this.tiposEstudio.addAll(tiposEstudios);
+		sincronizarMascaras();
+	}
+
+	/**
+	 * Método para reemplazar el conjunto de áreas de aplicación agregando y quitando solo las que cambiaron
+	 */
+	public void actualizarAreasEstudio(Set<EnumAreaAplicacionEstudioGeofisico> areasEstudios){
+		this.areasEstudio.retainAll(areasEstudios);
+		this.areasEstudio.addAll(areasEstudios);
+		sincronizarMascaras();
+	}
+
+	/**
+	 * Método para reemplazar el listado de imágenes modificando solo las filas necesarias.
+	 * Las imágenes se comparan por su clave de Amazon S3 (o por su ID si no tienen clave): las que se mantienen
+	 * conservan su fila, las nuevas se agregan y las que faltan se eliminan.
+	 * @param imagenesNew
+	 */
+	public void actualizarImagenes(List<Imagen> imagenesNew) {
+		if (imagenesNew.size() > ImagenesUtils.MAX_IMAGENES) {
+			throw new IllegalStateException("No se pueden agregar más de " + ImagenesUtils.MAX_IMAGENES + " imágenes.");
+		}
+		fusionar(this.imagenes, imagenesNew, imagen -> imagen.getImagenKey() != null ? imagen.getImagenKey() : imagen.getId(),
+				(imagen, imagenNew) -> {
+					imagen.setImagenFileName(imagenNew.getImagenFileName());
+					imagen.setImagenSize(imagenNew.getImagenSize());
+				},
+				imagenNew -> new Imagen(null, imagenNew.getImagenKey(), imagenNew.getImagenFileName(), imagenNew.getImagenSize(), null));
+	}
+
+	/**
+	 * Método para reemplazar el listado de archivos adjuntos modificando solo las filas necesarias.
+	 * Los archivos se comparan por su clave de Amazon S3 (o por su ID si no tienen clave), igual que las imágenes.
+	 * @param archivosAdjuntosNew
+	 */
+	public void actualizarArchivosAdjuntos(List<ArchivoAdjunto> archivosAdjuntosNew) {
+		if (archivosAdjuntosNew.size() > ArchivosAdjuntosUtils.MAX_ARCHIVOS_ADJUNTOS) {
+			throw new IllegalStateException("No se pueden agregar más de " + ArchivosAdjuntosUtils.MAX_ARCHIVOS_ADJUNTOS + " archivos adjuntos.");
+		}
+		fusionar(this.archivosAdjuntos, archivosAdjuntosNew, archivo -> archivo.getArchivoKey() != null ? archivo.getArchivoKey() : archivo.getId(),
+				(archivo, archivoNew) -> {
+					archivo.setArchivoFileName(archivoNew.getArchivoFileName());
+					archivo.setArchivoSize(archivoNew.getArchivoSize());
+				},
+				archivoNew -> new ArchivoAdjunto(null, archivoNew.getArchivoKey(), archivoNew.getArchivoFileName(), archivoNew.getArchivoSize(), null));
+	}
+
+	/**
+	 * Reemplaza el contenido de una colección de entidades por el de otra, comparando los elementos por clave.
+	 * Los elementos recibidos nunca se agregan tal cual: los nuevos se copian sin ID, para que se inserten.
+	 */
+	private static <T> void fusionar(List<T> actuales, List<T> nuevos, Function<T, Object> clave,
+									 BiConsumer<T, T> copiar, UnaryOperator<T> copiaNueva) {
+		Map<Object, T> nuevosPorClave = new LinkedHashMap<>();
+		List<T> sinClave = new ArrayList<>();
+		for (T nuevo : nuevos) {
+			Object claveNuevo = clave.apply(nuevo);
+			if (claveNuevo == null) {
+				sinClave.add(nuevo);
+			} else {
+				nuevosPorClave.putIfAbsent(claveNuevo, nuevo);
+			}
+		}
+
+		Iterator<T> iterador = actuales.iterator();
+		while (iterador.hasNext()) {
+			T actual = iterador.next();
+			T nuevo = nuevosPorClave.remove(clave.apply(actual));
+			if (nuevo == null) {
+				iterador.remove();
+			} else {
+				copiar.accept(actual, nuevo);
+			}
+		}
+		nuevosPorClave.values().forEach(nuevo -> actuales.add(copiaNueva.apply(nuevo)));
+		sinClave.forEach(nuevo -> actuales.add(copiaNueva.apply(nuevo)));
+	}
 }
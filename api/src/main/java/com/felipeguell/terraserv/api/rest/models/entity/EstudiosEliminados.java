@@ -0,0 +1,17 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de eliminar un lote de estudios geofísicos: los IDs que existían y se eliminaron, y la cantidad de
+ * objetos de Amazon S3 de sus imágenes y archivos adjuntos que quedaron pendientes de eliminación.
+ */
+@Data
+@AllArgsConstructor
+public class EstudiosEliminados {
+    private List<Long> ids;
+    private long objetosPendientes;
+}
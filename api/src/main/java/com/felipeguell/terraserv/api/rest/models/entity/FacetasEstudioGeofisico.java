@@ -0,0 +1,68 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import lombok.Data;
+
+/**
+ * Cantidad de estudios geofísicos por tipo de estudio, por área de aplicación y por año de fechaRealizado.
+ * Todos los tipos y áreas aparecen en la respuesta, aunque su cantidad sea 0; los años solo aparecen si tienen estudios.
+ */
+@Data
+public class FacetasEstudioGeofisico {
+    private long total;
+    private Map<EnumTipoEstudioGeofisico, Long> tiposEstudio = new EnumMap<>(EnumTipoEstudioGeofisico.class);
+    private Map<EnumAreaAplicacionEstudioGeofisico, Long> areasEstudio = new EnumMap<>(EnumAreaAplicacionEstudioGeofisico.class);
+    private Map<Integer, Long> anios = new TreeMap<>();
+
+    public FacetasEstudioGeofisico() {
+        for (EnumTipoEstudioGeofisico tipo : EnumTipoEstudioGeofisico.values()) {
+            tiposEstudio.put(tipo, 0L);
+        }
+        for (EnumAreaAplicacionEstudioGeofisico area : EnumAreaAplicacionEstudioGeofisico.values()) {
+            areasEstudio.put(area, 0L);
+        }
+    }
+
+    /**
+     * Suma una cantidad de estudios que comparten las mismas máscaras y el mismo año.
+     * Una cantidad negativa descuenta estudios; los años que quedan en 0 se quitan.
+     *
+     * @param mascaraTipos Máscara de bits de los tipos de estudio (null equivale a ninguno).
+     * @param mascaraAreas Máscara de bits de las áreas de aplicación (null equivale a ninguna).
+     * @param anio         Año de fechaRealizado, o null si el estudio no tiene fecha.
+     * @param cantidad     Cantidad de estudios a sumar.
+     */
+    public void sumar(Integer mascaraTipos, Integer mascaraAreas, Integer anio, long cantidad) {
+        total += cantidad;
+        if (mascaraTipos != null) {
+            MascaraBitsUtils.desdeMascara(mascaraTipos, EnumTipoEstudioGeofisico.class)
+                    .forEach(tipo -> tiposEstudio.merge(tipo, cantidad, Long::sum));
+        }
+        if (mascaraAreas != null) {
+            MascaraBitsUtils.desdeMascara(mascaraAreas, EnumAreaAplicacionEstudioGeofisico.class)
+                    .forEach(area -> areasEstudio.merge(area, cantidad, Long::sum));
+        }
+        if (anio != null) {
+            anios.merge(anio, cantidad, (actual, suma) -> actual + suma == 0 ? null : actual + suma);
+        }
+    }
+
+    /**
+     * @return Una copia independiente de las cantidades.
+     */
+    public FacetasEstudioGeofisico copiar() {
+        FacetasEstudioGeofisico copia = new FacetasEstudioGeofisico();
+        copia.setTotal(total);
+        copia.getTiposEstudio().putAll(tiposEstudio);
+        copia.getAreasEstudio().putAll(areasEstudio);
+        copia.getAnios().putAll(anios);
+        return copia;
+    }
+}
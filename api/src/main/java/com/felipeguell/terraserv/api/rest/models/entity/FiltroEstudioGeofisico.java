@@ -1,11 +1,7 @@
 package com.felipeguell.terraserv.api.rest.models.entity;
-import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
-import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
 import lombok.Data;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Data
 public class FiltroEstudioGeofisico {
@@ -14,4 +10,21 @@ public class FiltroEstudioGeofisico {
 	  private String fechaFin;
 	  private String tipoEstudio;
 	  private String areaEstudio;
+
+	  // Varios tipos o áreas a la vez, combinados con el modo "any" (alguno, predeterminado) o "all" (todos)
+	  private List<String> tiposEstudio;
+	  private String modoTiposEstudio;
+	  private List<String> areasEstudio;
+	  private String modoAreasEstudio;
+
+	  // Rectángulo geográfico (por ejemplo, la vista actual del mapa)
+	  private Double latitudMin;
+	  private Double latitudMax;
+	  private Double longitudMin;
+	  private Double longitudMax;
+
+	  // Búsqueda por radio en kilómetros alrededor de un punto
+	  private Double latitudCentro;
+	  private Double longitudCentro;
+	  private Double radioKm;
 }
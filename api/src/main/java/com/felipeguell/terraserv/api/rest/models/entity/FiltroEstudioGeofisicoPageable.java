@@ -1,16 +1,17 @@
 package com.felipeguell.terraserv.api.rest.models.entity;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Data
-public class FiltroEstudioGeofisicoPageable {
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class FiltroEstudioGeofisicoPageable extends FiltroEstudioGeofisico {
     private int page = 0;
     private int size = 10;
     private String sort = "id";
     private String direction = "asc";
-    private String consultaMultiple;
-    private String fechaInicio;
-    private String fechaFin;
-    private String tipoEstudio;
-    private String areaEstudio;
+    // Cursor devuelto por la página anterior en la paginación por clave (keyset)
+    private String cursor;
 }
@@ -0,0 +1,51 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ID candidato de una consulta del listado, obtenido de los índices en memoria. Cuando los candidatos son
+ * demasiados para una cláusula IN, se insertan en esta tabla dentro de la transacción de la consulta, que los
+ * une con un subselect y los elimina antes de terminar; ninguna fila llega a confirmarse.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(IdCandidatoConsulta.Clave.class)
+@Table(name = IdCandidatoConsulta.TABLA)
+public class IdCandidatoConsulta {
+
+	public static final String TABLA = "ids_candidatos_consultas";
+	public static final String COLUMNA_CONSULTA = "consulta";
+	public static final String COLUMNA_ID_ESTUDIO = "id_estudio";
+
+	// Identificador de la consulta; primero en la clave para que los candidatos de una consulta queden contiguos
+	@Id
+	@Column(name = COLUMNA_CONSULTA, length = 36)
+	private String consulta;
+
+	@Id
+	@Column(name = COLUMNA_ID_ESTUDIO)
+	private Long idEstudio;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Clave implements Serializable {
+
+		private String consulta;
+
+		private Long idEstudio;
+
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -2,7 +2,10 @@ package com.felipeguell.terraserv.api.rest.models.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,12 +16,17 @@ import lombok.ToString;
 @NoArgsConstructor
 @ToString
 @Entity
-@Table(name = "imagenes")
+@Table(name = "imagenes", indexes = @Index(name = "idx_imagenes_imagen_key", columnList = "imagen_key"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Imagen{
 	
 	@Id
 	@Column(name = "id_imagen")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "ids_imagenes")
+	@TableGenerator(name = "ids_imagenes", table = SecuenciasIdsUtils.TABLA, pkColumnName = SecuenciasIdsUtils.COLUMNA_ENTIDAD,
+			valueColumnName = SecuenciasIdsUtils.COLUMNA_VALOR, pkColumnValue = SecuenciasIdsUtils.IMAGENES,
+			allocationSize = SecuenciasIdsUtils.TAMANO_BLOQUE)
 	private Long id;
 	
 	@Column(name ="imagen_key")
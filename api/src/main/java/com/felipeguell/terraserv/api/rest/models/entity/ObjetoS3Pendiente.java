@@ -0,0 +1,54 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.Date;
+
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Objeto de Amazon S3 pendiente de eliminación. Las filas se insertan en la misma transacción en la que se
+ * elimina el estudio geofísico dueño del objeto, de modo que la eliminación en Amazon S3 no se pierde si el
+ * proceso se detiene antes de completarla. Un proceso periódico las elimina por lotes (ver IEliminacionObjetosS3Service).
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "objetos_s3_pendientes", indexes = @Index(name = "idx_objetos_s3_pendientes_proximo_intento", columnList = "proximo_intento"))
+public class ObjetoS3Pendiente {
+
+	@Id
+	@Column(name = "id_objeto_pendiente")
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "ids_objetos_s3_pendientes")
+	@TableGenerator(name = "ids_objetos_s3_pendientes", table = SecuenciasIdsUtils.TABLA, pkColumnName = SecuenciasIdsUtils.COLUMNA_ENTIDAD,
+			valueColumnName = SecuenciasIdsUtils.COLUMNA_VALOR, pkColumnValue = SecuenciasIdsUtils.OBJETOS_S3_PENDIENTES,
+			allocationSize = SecuenciasIdsUtils.TAMANO_BLOQUE)
+	private Long id;
+
+	@Column(name = "clave", nullable = false)
+	private String clave;
+
+	// Intentos fallidos de eliminación; determina la espera antes del siguiente
+	@Column(name = "intentos", nullable = false)
+	private int intentos;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "proximo_intento", nullable = false)
+	private Date proximoIntento;
+
+	public ObjetoS3Pendiente(String clave, Date proximoIntento) {
+		this.clave = clave;
+		this.proximoIntento = proximoIntento;
+	}
+}
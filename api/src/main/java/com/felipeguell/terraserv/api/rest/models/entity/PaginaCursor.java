@@ -0,0 +1,22 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Página de resultados de la paginación por clave (keyset).
+ * Los nombres de las propiedades siguen los de Page y Slice de Spring Data, que ya consume el cliente.
+ *
+ * @param <T> Tipo de los registros de la página.
+ */
+@Data
+@AllArgsConstructor
+public class PaginaCursor<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    // Cursor opaco que se envía en la siguiente solicitud para obtener la página siguiente; null si no hay más registros
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Avance de una eliminación masiva de estudios geofísicos, informado después de cada lote. En el último
+ * avance terminado es true. objetosPendientes es la cantidad de objetos de Amazon S3 que quedaron pendientes
+ * de eliminación; se eliminan en segundo plano después de la respuesta.
+ */
+@Data
+@AllArgsConstructor
+public class ProgresoEliminacion {
+    private long solicitados;
+    private long procesados;
+    private long eliminados;
+    private long noEncontrados;
+    private long objetosPendientes;
+    private boolean terminado;
+    private long duracionMs;
+}
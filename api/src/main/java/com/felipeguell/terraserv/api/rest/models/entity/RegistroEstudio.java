@@ -0,0 +1,83 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del listado de registros de estudios geofísicos (/registros). Es una copia plana de las columnas del listado
+ * y de las máscaras de tipos y áreas, sin la descripción ni las colecciones, que se actualiza en la misma transacción
+ * en la que se guarda o elimina el EstudioGeofisico. El listado paginado se resuelve solo con esta tabla.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "registros_estudios", indexes = @Index(name = "idx_registros_fecha_realizado", columnList = "fecha_realizado"))
+public class RegistroEstudio implements Serializable {
+
+	// Mismo ID que el EstudioGeofisico
+	@Id
+	@Column(name = "id_estudio")
+	private Long id;
+
+	@Column(name = "nombre_estudio")
+	private String nombreEstudio;
+
+	@Column(name = "nombre_cliente")
+	private String nombreCliente;
+
+	@Temporal(TemporalType.DATE)
+	@Column(name = "fecha_realizado")
+	private Date fechaRealizado;
+
+	@Column(name = "ubicacion_estudio")
+	private String ubicacionEstudio;
+
+	@Column(name = "tipos_estudio_mask")
+	private Integer tiposEstudioMask;
+
+	@Column(name = "areas_estudio_mask")
+	private Integer areasEstudioMask;
+
+	@Column(name = "creado_por")
+	private String creadoPor;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "fecha_hora_creacion")
+	private Date fechaHoraCreacion;
+
+	@Column(name = "ultima_actualizacion_por")
+	private String ultimaActualizacionPor;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "fecha_modificacion")
+	private Date fechaModificacion;
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Crea el registro a partir de un EstudioGeofisico ya guardado, con sus máscaras y campos de auditoría asignados.
+	 */
+	public RegistroEstudio(EstudioGeofisico estudio) {
+		this.id = estudio.getId();
+		this.nombreEstudio = estudio.getNombreEstudio();
+		this.nombreCliente = estudio.getNombreCliente();
+		this.fechaRealizado = estudio.getFechaRealizado();
+		this.ubicacionEstudio = estudio.getUbicacionEstudio();
+		this.tiposEstudioMask = estudio.getTiposEstudioMask();
+		this.areasEstudioMask = estudio.getAreasEstudioMask();
+		this.creadoPor = estudio.getCreadoPor();
+		this.fechaHoraCreacion = estudio.getFechaHoraCreacion();
+		this.ultimaActualizacionPor = estudio.getUltimaActualizacionPor();
+		this.fechaModificacion = estudio.getFechaModificacion();
+	}
+}
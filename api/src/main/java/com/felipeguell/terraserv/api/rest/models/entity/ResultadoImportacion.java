@@ -0,0 +1,21 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de una importación masiva de estudios geofísicos: cantidades de registros leídos, importados y
+ * rechazados, los errores de los registros rechazados (hasta un máximo) y el rendimiento obtenido.
+ */
+@Data
+@AllArgsConstructor
+public class ResultadoImportacion {
+    private long registros;
+    private long importados;
+    private long rechazados;
+    private List<ErrorImportacion> errores;
+    private long duracionMs;
+    private double estudiosPorSegundo;
+}
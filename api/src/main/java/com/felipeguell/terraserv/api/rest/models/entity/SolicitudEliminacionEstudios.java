@@ -0,0 +1,15 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Estudios geofísicos a eliminar de forma masiva: una lista de IDs o un filtro con los mismos criterios que la
+ * búsqueda, pero no ambos.
+ */
+@Data
+public class SolicitudEliminacionEstudios {
+    private List<Long> ids;
+    private FiltroEstudioGeofisico filtro;
+}
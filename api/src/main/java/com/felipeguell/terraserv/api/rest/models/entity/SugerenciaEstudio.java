@@ -0,0 +1,17 @@
+package com.felipeguell.terraserv.api.rest.models.entity;
+
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumCampoSugerencia;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Valor sugerido para completar la búsqueda, junto con el campo al que pertenece y la cantidad de estudios que lo usan.
+ */
+@Data
+@AllArgsConstructor
+public class SugerenciaEstudio {
+    private EnumCampoSugerencia campo;
+    private String valor;
+    private int cantidad;
+}
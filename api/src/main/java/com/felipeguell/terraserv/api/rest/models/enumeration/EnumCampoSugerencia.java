@@ -0,0 +1,10 @@
+package com.felipeguell.terraserv.api.rest.models.enumeration;
+
+/**
+ * Campos de texto de los estudios geofísicos sobre los que se ofrecen sugerencias de autocompletado.
+ */
+public enum EnumCampoSugerencia {
+	NOMBRE_CLIENTE,
+	NOMBRE_ESTUDIO,
+	UBICACION_ESTUDIO
+}
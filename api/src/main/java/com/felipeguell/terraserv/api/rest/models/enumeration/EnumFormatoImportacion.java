@@ -0,0 +1,35 @@
+package com.felipeguell.terraserv.api.rest.models.enumeration;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos aceptados por la importación masiva de estudios geofísicos, según el encabezado Content-Type.
+ */
+public enum EnumFormatoImportacion {
+	NDJSON(MediaType.APPLICATION_NDJSON_VALUE),
+	CSV("text/csv"),
+	GEOJSON("application/geo+json");
+
+	private final String tipoContenido;
+
+	EnumFormatoImportacion(String tipoContenido) {
+		this.tipoContenido = tipoContenido;
+	}
+
+	public String getTipoContenido() {
+		return tipoContenido;
+	}
+
+	/**
+	 * @return El formato que corresponde al tipo de contenido, sin considerar sus parámetros.
+	 * @throws IllegalArgumentException Si el tipo de contenido no corresponde a ningún formato.
+	 */
+	public static EnumFormatoImportacion desdeTipoContenido(MediaType tipoContenido) {
+		for (EnumFormatoImportacion formato : values()) {
+			if (MediaType.parseMediaType(formato.tipoContenido).equalsTypeAndSubtype(tipoContenido)) {
+				return formato;
+			}
+		}
+		throw new IllegalArgumentException("Tipo de contenido no soportado para la importación: " + tipoContenido);
+	}
+}
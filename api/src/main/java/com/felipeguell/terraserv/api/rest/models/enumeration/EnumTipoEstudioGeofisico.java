@@ -1,5 +1,9 @@
 package com.felipeguell.terraserv.api.rest.models.enumeration;
 
+/**
+ * El orden de declaración define el bit de cada valor en las máscaras persistidas (ver MascaraBitsUtils).
+ * Los valores nuevos se deben agregar al final.
+ */
 public enum EnumTipoEstudioGeofisico {
 	GPR,
 	MASW,
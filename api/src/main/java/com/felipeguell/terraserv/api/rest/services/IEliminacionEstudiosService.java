@@ -0,0 +1,13 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.felipeguell.terraserv.api.rest.models.entity.ProgresoEliminacion;
+import com.felipeguell.terraserv.api.rest.models.entity.SolicitudEliminacionEstudios;
+
+public interface IEliminacionEstudiosService {
+	public List<Long> resolverIds(SolicitudEliminacionEstudios solicitud) throws ParseException;
+	public ProgresoEliminacion eliminar(List<Long> ids, Consumer<ProgresoEliminacion> consumidorProgreso);
+}
@@ -0,0 +1,5 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+public interface IEliminacionObjetosS3Service {
+	public int eliminarPendientes();
+}
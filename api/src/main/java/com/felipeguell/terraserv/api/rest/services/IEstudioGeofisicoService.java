@@ -1,22 +1,54 @@
 package com.felipeguell.terraserv.api.rest.services;
 
 import java.text.ParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.ClusterEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioCercano;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioExportado;
 import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudiosEliminados;
+import com.felipeguell.terraserv.api.rest.models.entity.FacetasEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisicoPageable;
+import com.felipeguell.terraserv.api.rest.models.entity.PaginaCursor;
+import com.felipeguell.terraserv.api.rest.models.entity.SugerenciaEstudio;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface IEstudioGeofisicoService {
 	public List<EstudioGeofisico> findAll();
 	public Optional<EstudioGeofisico> findById(Long id);
 	public EstudioGeofisico save(EstudioGeofisico estudioGeofisico);
-	public void deleteById(Long id);
+	public Optional<EstudioGeofisico> update(Long id, EstudioGeofisico estudioGeofisico, Set<Long> versionesAceptadas);
+	public Optional<EstudioGeofisico> patch(Long id, EstudioGeofisico valores, Set<String> campos, Set<Long> versionesAceptadas);
+	public boolean deleteById(Long id);
+	public EstudiosEliminados deleteAllById(Collection<Long> ids);
+	public List<EstudioGeofisico> saveAll(List<EstudioGeofisico> estudiosGeofisicos);
+	public int alinearSecuenciasIds();
+	public int completarMascarasEstudio();
+	public int completarExtensionEstudios();
+	public int completarRegistrosEstudio();
 	public Set<EstudioGeofisicoProjection> filterEstudios(FiltroEstudioGeofisico filtro) throws ParseException;
+	public List<Long> findIdsFiltrados(FiltroEstudioGeofisico filtro) throws ParseException;
+	public Set<EstudioGeofisicoProjection> filterEstudiosPorPoligono(JsonNode geoJson);
+	public FacetasEstudioGeofisico obtenerFacetas(FiltroEstudioGeofisico filtro) throws ParseException;
+	public List<SugerenciaEstudio> sugerir(String consulta, String campo, Integer limite);
+	public List<EstudioCercano> buscarCercanos(Double latitud, Double longitud, Integer cantidad, List<String> tiposEstudio, String modoTipos);
+	public List<ClusterEstudios> obtenerClusters(Double latitudMin, Double latitudMax, Double longitudMin, Double longitudMax, Integer zoom);
+	public byte[] obtenerTesela(int z, int x, int y);
+	public void validarFiltro(FiltroEstudioGeofisico filtro) throws ParseException;
+	public void recorrerEstudios(Consumer<List<EstudioGeofisico>> consumidorLote);
+	public void recorrerEstudiosExportados(FiltroEstudioGeofisico filtro, Consumer<EstudioExportado> consumidor) throws ParseException;
+	public void recorrerEstudiosFiltrados(FiltroEstudioGeofisico filtro, Consumer<List<EstudioGeofisicoProjection>> consumidorLote) throws ParseException;
 	public Page<EstudioGeofisicoProjection> obtenerRegistrosEstudio(FiltroEstudioGeofisicoPageable filtro) throws ParseException;
+	public PaginaCursor<EstudioGeofisicoProjection> obtenerRegistrosEstudioCursor(FiltroEstudioGeofisicoPageable filtro) throws ParseException;
+	public Slice<EstudioGeofisicoProjection> obtenerRegistrosEstudioSlice(FiltroEstudioGeofisicoPageable filtro) throws ParseException;
 }
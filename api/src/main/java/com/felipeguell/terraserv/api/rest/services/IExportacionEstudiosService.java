@@ -0,0 +1,12 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.ParseException;
+
+import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
+
+public interface IExportacionEstudiosService {
+	public void exportarCsv(FiltroEstudioGeofisico filtro, OutputStream salida) throws ParseException, IOException;
+	public void exportarGeoJson(FiltroEstudioGeofisico filtro, OutputStream salida) throws ParseException, IOException;
+}
@@ -0,0 +1,12 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import com.felipeguell.terraserv.api.rest.models.entity.ResultadoImportacion;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumFormatoImportacion;
+
+public interface IImportacionEstudiosService {
+	public ResultadoImportacion importar(InputStream contenido, EnumFormatoImportacion formato, Charset charset) throws IOException;
+}
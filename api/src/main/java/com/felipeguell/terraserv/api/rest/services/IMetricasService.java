@@ -0,0 +1,15 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import java.util.List;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCache;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCacheUrls;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasRegionCache;
+
+public interface IMetricasService {
+	public EstadisticasCache obtenerEstadisticasCacheFiltros();
+	public List<EstadisticasRegionCache> obtenerEstadisticasCacheSegundoNivel();
+	public EstadisticasReconciliacionS3 obtenerEstadisticasReconciliacionS3();
+	public EstadisticasCacheUrls obtenerEstadisticasCacheUrls();
+}
@@ -0,0 +1,8 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+
+public interface IReconciliacionObjetosS3Service {
+	public EstadisticasReconciliacionS3 reconciliar();
+	public EstadisticasReconciliacionS3 estadisticas();
+}
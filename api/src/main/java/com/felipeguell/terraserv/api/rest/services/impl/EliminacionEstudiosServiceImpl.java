@@ -0,0 +1,101 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstudiosEliminados;
+import com.felipeguell.terraserv.api.rest.models.entity.ProgresoEliminacion;
+import com.felipeguell.terraserv.api.rest.models.entity.SolicitudEliminacionEstudios;
+import com.felipeguell.terraserv.api.rest.services.IEliminacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class EliminacionEstudiosServiceImpl implements IEliminacionEstudiosService {
+
+	private final IEstudioGeofisicoService estudioGeofisicoService;
+
+	// Cantidad de estudios por transacción; cada una envía sus DELETE en varios lotes JDBC
+	private static final int TAMANO_LOTE_ELIMINACION = 100;
+
+	/**
+	 * Obtiene los IDs de los estudios a eliminar: los de la lista recibida, sin repetir, o los que cumplen con el filtro.
+	 *
+	 * @param solicitud La lista de IDs o el filtro de los estudios a eliminar.
+	 * @return Los IDs a eliminar, en el orden en que se procesarán.
+	 * @throws ParseException Si ocurre un error al analizar las fechas del filtro.
+	 * @throws IllegalArgumentException Si la solicitud no trae IDs ni filtro, trae ambos o el filtro no tiene criterios.
+	 */
+	@Override
+	public List<Long> resolverIds(SolicitudEliminacionEstudios solicitud) throws ParseException {
+		boolean conIds = solicitud != null && !CollectionUtils.isEmpty(solicitud.getIds());
+		boolean conFiltro = solicitud != null && solicitud.getFiltro() != null;
+		if (conIds == conFiltro) {
+			throw new IllegalArgumentException("Se debe indicar una lista de ids o un filtro, pero no ambos.");
+		}
+
+		if (conIds) {
+			if (solicitud.getIds().stream().anyMatch(Objects::isNull)) {
+				throw new IllegalArgumentException("La lista de ids no puede contener valores nulos.");
+			}
+			return new ArrayList<>(new LinkedHashSet<>(solicitud.getIds()));
+		}
+
+		// Un filtro sin criterios eliminaría todos los estudios
+		if (EstudioGeofisicoServiceImpl.esFiltroVacio(solicitud.getFiltro())) {
+			throw new IllegalArgumentException("El filtro de eliminación debe tener al menos un criterio.");
+		}
+		return estudioGeofisicoService.findIdsFiltrados(solicitud.getFiltro());
+	}
+
+	/**
+	 * Elimina los estudios geofísicos por lotes, cada lote en su propia transacción (ver deleteAllById de
+	 * IEstudioGeofisicoService). Los objetos de Amazon S3 de cada lote quedan pendientes de eliminación en la
+	 * misma transacción y se eliminan en segundo plano, por lo que la duración no depende de la cantidad de archivos.
+	 *
+	 * Si un lote falla, los lotes ya confirmados se mantienen eliminados y se propaga la excepción.
+	 *
+	 * @param ids                Los IDs de los estudios a eliminar. Los que no existen se cuentan como no encontrados.
+	 * @param consumidorProgreso Recibe el avance después de cada lote y al terminar.
+	 * @return El avance final, con terminado en true.
+	 */
+	@Override
+	public ProgresoEliminacion eliminar(List<Long> ids, Consumer<ProgresoEliminacion> consumidorProgreso) {
+		long inicio = System.nanoTime();
+		long procesados = 0;
+		long eliminados = 0;
+		long objetosPendientes = 0;
+
+		for (int desde = 0; desde < ids.size(); desde += TAMANO_LOTE_ELIMINACION) {
+			List<Long> lote = ids.subList(desde, Math.min(desde + TAMANO_LOTE_ELIMINACION, ids.size()));
+			EstudiosEliminados estudiosEliminados = estudioGeofisicoService.deleteAllById(lote);
+
+			procesados += lote.size();
+			eliminados += estudiosEliminados.getIds().size();
+			objetosPendientes += estudiosEliminados.getObjetosPendientes();
+
+			if (procesados < ids.size()) {
+				consumidorProgreso.accept(progreso(ids.size(), procesados, eliminados, objetosPendientes, false, inicio));
+			}
+		}
+
+		ProgresoEliminacion progresoFinal = progreso(ids.size(), procesados, eliminados, objetosPendientes, true, inicio);
+		consumidorProgreso.accept(progresoFinal);
+		return progresoFinal;
+	}
+
+	private static ProgresoEliminacion progreso(long solicitados, long procesados, long eliminados, long objetosPendientes,
+			boolean terminado, long inicio) {
+		return new ProgresoEliminacion(solicitados, procesados, eliminados, procesados - eliminados, objetosPendientes,
+				terminado, (System.nanoTime() - inicio) / 1_000_000);
+	}
+}
@@ -0,0 +1,111 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.felipeguell.terraserv.api.rest.amazon.S3Service;
+import com.felipeguell.terraserv.api.rest.models.dao.IArchivoAdjuntoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IImagenDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IObjetoS3PendienteDao;
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+import com.felipeguell.terraserv.api.rest.services.IEliminacionObjetosS3Service;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class EliminacionObjetosS3ServiceImpl implements IEliminacionObjetosS3Service {
+
+	private final IObjetoS3PendienteDao objetoS3PendienteDao;
+	private final IImagenDao imagenDao;
+	private final IArchivoAdjuntoDao archivoAdjuntoDao;
+	private final S3Service s3Service;
+
+	// Espera antes del primer reintento; se duplica con cada intento fallido hasta la espera máxima
+	@Value("${estudios.eliminacion-s3.espera-base-segundos:30}")
+	private long esperaBaseSegundos;
+
+	@Value("${estudios.eliminacion-s3.espera-maxima-segundos:3600}")
+	private long esperaMaximaSegundos;
+
+	/**
+	 * Elimina de Amazon S3 los objetos pendientes cuyo próximo intento ya llegó, con la API de eliminación
+	 * múltiple, en lotes de hasta {@link S3Service#MAXIMO_CLAVES_POR_ELIMINACION} claves. Se ejecuta
+	 * periódicamente, sin superponerse consigo mismo, hasta que no quedan objetos pendientes para este momento.
+	 *
+	 * Antes de eliminar cada lote se descartan, sin eliminarlos, los objetos que una imagen o un archivo adjunto
+	 * vuelve a referenciar, por ejemplo un objeto que la reconciliación consideró huérfano y que luego se asoció
+	 * a un estudio. Eliminarlos dejaría al estudio apuntando a un objeto que no existe.
+	 *
+	 * Los objetos eliminados se quitan de la tabla de pendientes. Los que fallan se reintentan más tarde, con una
+	 * espera que se duplica en cada intento. Si el proceso se detiene entre la eliminación en Amazon S3 y la de la
+	 * fila, el objeto se vuelve a eliminar en la siguiente ejecución; Amazon S3 considera eliminada una clave que
+	 * no existe, por lo que el reintento no falla.
+	 *
+	 * @return La cantidad de objetos eliminados.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${estudios.eliminacion-s3.intervalo-segundos:30}", initialDelayString = "${estudios.eliminacion-s3.intervalo-segundos:30}",
+			timeUnit = TimeUnit.SECONDS)
+	public int eliminarPendientes() {
+		int eliminados = 0;
+		List<ObjetoS3Pendiente> lote;
+
+		do {
+			Date ahora = new Date();
+			lote = objetoS3PendienteDao.findByProximoIntentoLessThanEqualOrderByProximoIntentoAsc(ahora,
+					Limit.of(S3Service.MAXIMO_CLAVES_POR_ELIMINACION));
+			if (lote.isEmpty()) {
+				break;
+			}
+
+			List<String> claves = lote.stream().map(ObjetoS3Pendiente::getClave).distinct().toList();
+			Set<String> referenciadas = new HashSet<>(imagenDao.findImagenKeysIn(claves));
+			referenciadas.addAll(archivoAdjuntoDao.findArchivoKeysIn(claves));
+			List<ObjetoS3Pendiente> aEliminar = lote;
+			if (!referenciadas.isEmpty()) {
+				objetoS3PendienteDao.deleteAllByIdInBatch(lote.stream()
+						.filter(objeto -> referenciadas.contains(objeto.getClave())).map(ObjetoS3Pendiente::getId).toList());
+				aEliminar = lote.stream().filter(objeto -> !referenciadas.contains(objeto.getClave())).toList();
+			}
+
+			Set<String> clavesFallidas = aEliminar.isEmpty() ? Set.of() : new HashSet<>(s3Service.deleteObjects(
+					aEliminar.stream().map(ObjetoS3Pendiente::getClave).distinct().toList()));
+			Map<Boolean, List<ObjetoS3Pendiente>> porResultado = aEliminar.stream()
+					.collect(Collectors.partitioningBy(objeto -> clavesFallidas.contains(objeto.getClave())));
+
+			List<Long> idsEliminados = porResultado.get(false).stream().map(ObjetoS3Pendiente::getId).toList();
+			if (!idsEliminados.isEmpty()) {
+				objetoS3PendienteDao.deleteAllByIdInBatch(idsEliminados);
+			}
+			eliminados += idsEliminados.size();
+
+			// Una actualización por cantidad de intentos, ya que de ella depende la espera
+			porResultado.get(true).stream()
+					.collect(Collectors.groupingBy(ObjetoS3Pendiente::getIntentos,
+							Collectors.mapping(ObjetoS3Pendiente::getId, Collectors.toList())))
+					.forEach((intentos, ids) -> objetoS3PendienteDao.registrarIntentoFallido(ids,
+							new Date(ahora.getTime() + espera(intentos) * 1000)));
+		} while (lote.size() == S3Service.MAXIMO_CLAVES_POR_ELIMINACION);
+
+		return eliminados;
+	}
+
+	/**
+	 * Espera, en segundos, antes del siguiente intento de un objeto que ya falló la cantidad de veces indicada.
+	 */
+	private long espera(int intentos) {
+		// Con más de 30 duplicaciones la espera ya supera cualquier máximo razonable
+		return Math.min(esperaMaximaSegundos, esperaBaseSegundos << Math.min(intentos, 30));
+	}
+}
@@ -3,26 +3,69 @@ package com.felipeguell.terraserv.api.rest.services.impl;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.cache.FiltroNormalizado;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.EstudioPreconditionFailedException;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.PoligonoIndexado;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
 import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjectionImpl;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.ClusterEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioCercano;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioExportado;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudiosEliminados;
+import com.felipeguell.terraserv.api.rest.models.entity.FacetasEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisicoPageable;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+import com.felipeguell.terraserv.api.rest.models.entity.PaginaCursor;
+import com.felipeguell.terraserv.api.rest.models.entity.RegistroEstudio;
+import com.felipeguell.terraserv.api.rest.models.entity.SugerenciaEstudio;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
 import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IRegistroEstudioDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.CoordenadaEstudioProjection;
 import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
 import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumCampoSugerencia;
 import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
 import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import com.felipeguell.terraserv.api.rest.util.CoordenadaUtils;
+import com.felipeguell.terraserv.api.rest.util.CursorUtils;
+import com.felipeguell.terraserv.api.rest.util.GeoJsonUtils;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+import com.felipeguell.terraserv.api.rest.util.SecuenciasIdsUtils;
 
+import org.hibernate.Session;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 @Service
@@ -30,16 +73,87 @@ import org.springframework.util.StringUtils;
 public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 
 	private final IEstudioGeofisicoDao estudioGeofisicoDao;
+	private final IRegistroEstudioDao registroEstudioDao;
+	private final IndiceEspacialEstudios indiceEspacialEstudios;
+	private final IndiceTextoEstudios indiceTextoEstudios;
+	private final ContadoresFacetasEstudios contadoresFacetasEstudios;
+	private final SugerenciasEstudios sugerenciasEstudios;
+	private final ClustersMapaEstudios clustersMapaEstudios;
+	private final TeselasVectorialesEstudios teselasVectorialesEstudios;
+	private final CacheFiltrosEstudios cacheFiltrosEstudios;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// Cantidad de estudios por lote al transmitir los resultados
+	private static final int TAMANO_LOTE_STREAMING = 500;
+
+	// Cantidad de IDs candidatos por consulta al exportar
+	private static final int TAMANO_LOTE_EXPORTACION = 1000;
+
+	// Cantidad de sugerencias de autocompletado por defecto
+	private static final int LIMITE_SUGERENCIAS = 10;
+
+	// Zoom máximo de los mapas del cliente
+	private static final int ZOOM_MAXIMO_MAPA = 22;
+
+	// Cantidad de estudios por defecto y máxima de la búsqueda por cercanía
+	private static final int CANTIDAD_CERCANOS = 10;
+	private static final int MAXIMO_CERCANOS = 100;
 
 	/**
-	 * Elimina un EstudioGeofisico de la base de datos utilizando su ID.
+	 * Elimina un EstudioGeofisico de la base de datos utilizando su ID, junto con su fila del listado de registros.
+	 * Las claves de Amazon S3 de sus imágenes y archivos adjuntos quedan pendientes de eliminación (ver deleteAllById).
 	 *
 	 * @param id El ID del EstudioGeofisico a eliminar.
+	 * @return true si el estudio existía y se eliminó.
 	 */
 	@Override
 	@Transactional
-	public void deleteById(Long id) {
-		estudioGeofisicoDao.deleteById(id);
+	public boolean deleteById(Long id) {
+		return !deleteAllById(List.of(id)).getIds().isEmpty();
+	}
+
+	/**
+	 * Elimina un lote de EstudioGeofisico en una sola transacción, junto con sus coordenadas, imágenes, archivos
+	 * adjuntos y filas del listado de registros. Los estudios se eliminan como entidades, de modo que Hibernate
+	 * quita también sus entradas de la caché de segundo nivel, y los DELETE se envían en lotes JDBC.
+	 * Publica un EstudioGeofisicoEliminadoEvent por estudio para que los índices en memoria se actualicen tras el commit.
+	 *
+	 * Los objetos de Amazon S3 no se eliminan aquí: sus claves se insertan como ObjetoS3Pendiente en la misma
+	 * transacción, y un proceso periódico los elimina por lotes (ver IEliminacionObjetosS3Service). Así la duración
+	 * de la eliminación no depende de la cantidad de archivos, y las claves no se pierden si el proceso se detiene.
+	 *
+	 * @param ids Los IDs de los EstudioGeofisico a eliminar. Los que no existen se ignoran.
+	 * @return Los IDs eliminados y la cantidad de objetos de Amazon S3 que quedaron pendientes de eliminación.
+	 */
+	@Override
+	@Transactional
+	public EstudiosEliminados deleteAllById(Collection<Long> ids) {
+		List<EstudioGeofisico> estudios = estudioGeofisicoDao.findAllById(ids);
+		List<Long> idsEliminados = new ArrayList<>(estudios.size());
+		List<ObjetoS3Pendiente> objetosPendientes = new ArrayList<>();
+		Date ahora = new Date();
+
+		for (EstudioGeofisico estudio : estudios) {
+			idsEliminados.add(estudio.getId());
+			Optional.ofNullable(estudio.getImagenes()).orElse(Collections.emptyList()).stream()
+					.map(Imagen::getImagenKey).filter(Objects::nonNull)
+					.forEach(clave -> objetosPendientes.add(new ObjetoS3Pendiente(clave, ahora)));
+			Optional.ofNullable(estudio.getArchivosAdjuntos()).orElse(Collections.emptyList()).stream()
+					.map(ArchivoAdjunto::getArchivoKey).filter(Objects::nonNull)
+					.forEach(clave -> objetosPendientes.add(new ObjetoS3Pendiente(clave, ahora)));
+			entityManager.remove(estudio);
+		}
+		if (!idsEliminados.isEmpty()) {
+			registroEstudioDao.deleteAllByIdInBatch(idsEliminados);
+		}
+		// IDs reservados por bloques: los INSERT se envían en lotes JDBC junto con los DELETE del flush
+		objetosPendientes.forEach(entityManager::persist);
+
+		idsEliminados.forEach(id -> eventPublisher.publishEvent(new EstudioGeofisicoEliminadoEvent(id)));
+		return new EstudiosEliminados(idsEliminados, objetosPendientes.size());
 	}
 
 	/**
@@ -66,7 +180,8 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 	}
 
 	/**
-	 * Guarda un EstudioGeofisico en la base de datos.
+	 * Guarda un EstudioGeofisico en la base de datos y actualiza su fila del listado de registros en la misma transacción.
+	 * Publica un EstudioGeofisicoGuardadoEvent para que los índices en memoria se actualicen tras el commit.
 	 *
 	 * @param estudioGeofisico El EstudioGeofisico a guardar.
 	 * @return El EstudioGeofisico guardado.
@@ -74,11 +189,265 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 	@Override
 	@Transactional
 	public EstudioGeofisico save(EstudioGeofisico estudioGeofisico) {
-		return estudioGeofisicoDao.save(estudioGeofisico);
+		// Las máscaras y los campos de auditoría se asignan al sincronizar con la base de datos
+		EstudioGeofisico estudioGuardado = estudioGeofisicoDao.saveAndFlush(estudioGeofisico);
+		// El registro usa el ID del estudio; con persist no se consulta si ya existe antes del INSERT, como haría save
+		entityManager.persist(new RegistroEstudio(estudioGuardado));
+		eventPublisher.publishEvent(new EstudioGeofisicoGuardadoEvent(estudioGuardado));
+		return estudioGuardado;
+	}
+
+	/**
+	 * Actualiza un EstudioGeofisico con los valores recibidos, enviando solo las sentencias necesarias.
+	 * Los campos simples se asignan sobre la entidad cargada, por lo que Hibernate emite el UPDATE solo si alguno
+	 * cambió; las colecciones se comparan con las existentes (coordenadas por posición, imágenes y archivos
+	 * adjuntos por clave, tipos y áreas por valor) y solo se insertan, actualizan o eliminan las filas que difieren.
+	 * Los campos de auditoría se asignan al sincronizar con la base de datos, solo si hubo cambios.
+	 * Si hubo cambios, publica un EstudioGeofisicoGuardadoEvent para que los índices en memoria se actualicen tras el commit.
+	 *
+	 * Si se indican versiones aceptadas, la versión del estudio se compara antes de cargarlo, como en patch.
+	 *
+	 * @param id                 El ID del EstudioGeofisico a actualizar.
+	 * @param estudioGeofisico   El EstudioGeofisico con los valores nuevos.
+	 * @param versionesAceptadas Las versiones sobre las que se acepta aplicar los cambios, o null para cualquiera.
+	 * @return Un Optional con el EstudioGeofisico actualizado, o vacío si no existe.
+	 * @throws EstudioPreconditionFailedException Si la versión del estudio no es una de las aceptadas.
+	 */
+	@Override
+	@Transactional
+	public Optional<EstudioGeofisico> update(Long id, EstudioGeofisico estudioGeofisico, Set<Long> versionesAceptadas) {
+		if (versionesAceptadas != null) {
+			Optional<Long> version = estudioGeofisicoDao.findVersionById(id);
+			if (version.isEmpty()) {
+				return Optional.empty();
+			}
+			verificarVersion(id, version.get(), versionesAceptadas);
+		}
+
+		Optional<EstudioGeofisico> estudioGeofisicoOptional = estudioGeofisicoDao.findById(id);
+		if (estudioGeofisicoOptional.isEmpty()) {
+			return estudioGeofisicoOptional;
+		}
+
+		EstudioGeofisico estudioGeofisicoActual = estudioGeofisicoOptional.get();
+		verificarVersion(id, estudioGeofisicoActual.getVersion(), versionesAceptadas);
+		RegistroEstudio registroAnterior = new RegistroEstudio(estudioGeofisicoActual);
+		estudioGeofisicoActual.setNombreEstudio(estudioGeofisico.getNombreEstudio());
+		estudioGeofisicoActual.setFechaRealizado(estudioGeofisico.getFechaRealizado());
+		estudioGeofisicoActual.setDescripcion(estudioGeofisico.getDescripcion());
+		estudioGeofisicoActual.setNombreCliente(estudioGeofisico.getNombreCliente());
+		estudioGeofisicoActual.actualizarAreasEstudio(estudioGeofisico.getAreasEstudio());
+		estudioGeofisicoActual.actualizarTiposEstudio(estudioGeofisico.getTiposEstudio());
+		estudioGeofisicoActual.actualizarCoordenadas(estudioGeofisico.getCoordenadas());
+		estudioGeofisicoActual.actualizarImagenes(Optional.ofNullable(estudioGeofisico.getImagenes()).orElse(Collections.emptyList()));
+		estudioGeofisicoActual.actualizarArchivosAdjuntos(Optional.ofNullable(estudioGeofisico.getArchivosAdjuntos()).orElse(Collections.emptyList()));
+
+		guardarCambios(estudioGeofisicoActual, registroAnterior);
+		return estudioGeofisicoOptional;
+	}
+
+	/**
+	 * Aplica a un EstudioGeofisico solo los campos indicados, como en JSON Merge Patch (RFC 7396): los campos
+	 * simples se reemplazan y las listas se reemplazan completas, comparándolas con las existentes como en update.
+	 * Las colecciones que no se modifican no se cargan.
+	 *
+	 * Si se indican versiones aceptadas, la versión del estudio se compara con una consulta de una sola columna
+	 * antes de cargar la entidad; el UPDATE además incluye la versión leída, por lo que una escritura concurrente
+	 * entre la comparación y el flush también se rechaza.
+	 * Si hubo cambios, publica un EstudioGeofisicoGuardadoEvent para que los índices en memoria se actualicen tras el commit.
+	 *
+	 * @param id                 El ID del EstudioGeofisico a modificar.
+	 * @param valores            Un EstudioGeofisico con los valores nuevos de los campos indicados.
+	 * @param campos             Los nombres de los campos a modificar.
+	 * @param versionesAceptadas Las versiones sobre las que se acepta aplicar los cambios, o null para cualquiera.
+	 * @return Un Optional con el EstudioGeofisico modificado y su nueva versión, o vacío si no existe.
+	 * @throws EstudioPreconditionFailedException Si la versión del estudio no es una de las aceptadas.
+	 * @throws IllegalArgumentException Si algún campo no se puede modificar o las coordenadas no son válidas.
+	 */
+	@Override
+	@Transactional
+	public Optional<EstudioGeofisico> patch(Long id, EstudioGeofisico valores, Set<String> campos, Set<Long> versionesAceptadas) {
+		Optional<Long> version = estudioGeofisicoDao.findVersionById(id);
+		if (version.isEmpty()) {
+			return Optional.empty();
+		}
+		verificarVersion(id, version.get(), versionesAceptadas);
+
+		Optional<EstudioGeofisico> estudioGeofisicoOptional = estudioGeofisicoDao.findById(id);
+		if (estudioGeofisicoOptional.isEmpty()) {
+			return estudioGeofisicoOptional;
+		}
+		EstudioGeofisico estudioGeofisicoActual = estudioGeofisicoOptional.get();
+		verificarVersion(id, estudioGeofisicoActual.getVersion(), versionesAceptadas);
+		RegistroEstudio registroAnterior = new RegistroEstudio(estudioGeofisicoActual);
+
+		for (String campo : campos) {
+			switch (campo) {
+				case "nombreEstudio" -> estudioGeofisicoActual.setNombreEstudio(valores.getNombreEstudio());
+				case "nombreCliente" -> estudioGeofisicoActual.setNombreCliente(valores.getNombreCliente());
+				case "descripcion" -> estudioGeofisicoActual.setDescripcion(valores.getDescripcion());
+				case "fechaRealizado" -> estudioGeofisicoActual.setFechaRealizado(valores.getFechaRealizado());
+				case "ubicacionEstudio" -> estudioGeofisicoActual.setUbicacionEstudio(valores.getUbicacionEstudio());
+				case "coordenadas" -> estudioGeofisicoActual.actualizarCoordenadas(
+						Optional.ofNullable(valores.getCoordenadas()).orElse(Collections.emptyList()));
+				case "tiposEstudio" -> estudioGeofisicoActual.actualizarTiposEstudio(
+						Optional.ofNullable(valores.getTiposEstudio()).orElse(Collections.emptySet()));
+				case "areasEstudio" -> estudioGeofisicoActual.actualizarAreasEstudio(
+						Optional.ofNullable(valores.getAreasEstudio()).orElse(Collections.emptySet()));
+				case "imagenes" -> estudioGeofisicoActual.actualizarImagenes(
+						Optional.ofNullable(valores.getImagenes()).orElse(Collections.emptyList()));
+				case "archivosAdjuntos" -> estudioGeofisicoActual.actualizarArchivosAdjuntos(
+						Optional.ofNullable(valores.getArchivosAdjuntos()).orElse(Collections.emptyList()));
+				default -> throw new IllegalArgumentException("El campo '" + campo + "' no se puede modificar.");
+			}
+		}
+
+		guardarCambios(estudioGeofisicoActual, registroAnterior);
+		return estudioGeofisicoOptional;
+	}
+
+	/**
+	 * Envía los cambios de un estudio ya cargado, actualiza su registro solo si cambió alguna columna copiada en él
+	 * y publica el EstudioGeofisicoGuardadoEvent. Si el estudio y sus colecciones no tienen cambios no se envía
+	 * ninguna sentencia ni se publica el evento.
+	 *
+	 * @param estudio          El EstudioGeofisico administrado, con los valores nuevos asignados.
+	 * @param registroAnterior El registro armado con los valores del estudio antes de asignar los nuevos.
+	 */
+	private void guardarCambios(EstudioGeofisico estudio, RegistroEstudio registroAnterior) {
+		if (!entityManager.unwrap(Session.class).isDirty()) {
+			return;
+		}
+
+		// El flush incrementa la versión y asigna las máscaras y los campos de auditoría antes de copiarlos al registro
+		entityManager.flush();
+		RegistroEstudio registro = new RegistroEstudio(estudio);
+		// El registro se reemplaza con un UPDATE directo, sin el SELECT previo de save
+		if (!registro.equals(registroAnterior) && registroEstudioDao.actualizar(registro) == 0) {
+			entityManager.persist(registro);
+		}
+		eventPublisher.publishEvent(new EstudioGeofisicoGuardadoEvent(estudio));
+	}
+
+	/**
+	 * @throws EstudioPreconditionFailedException Si hay versiones aceptadas y la versión no es una de ellas.
+	 */
+	private static void verificarVersion(Long id, Long version, Set<Long> versionesAceptadas) {
+		if (versionesAceptadas != null && !versionesAceptadas.contains(version)) {
+			throw new EstudioPreconditionFailedException(id);
+		}
+	}
+
+	/**
+	 * Inserta un lote de EstudioGeofisico nuevos, con sus filas del listado de registros, en una sola transacción.
+	 * Los IDs se toman de bloques reservados, por lo que los INSERT de estudios, coordenadas, imágenes, archivos
+	 * adjuntos, colecciones y registros se envían en lotes JDBC al hacer flush, en lugar de uno por fila.
+	 * Publica un EstudioGeofisicoGuardadoEvent por estudio para que los índices en memoria se actualicen tras el commit.
+	 *
+	 * @param estudiosGeofisicos Los EstudioGeofisico a insertar, sin ID.
+	 * @return Los EstudioGeofisico insertados.
+	 */
+	@Override
+	@Transactional
+	public List<EstudioGeofisico> saveAll(List<EstudioGeofisico> estudiosGeofisicos) {
+		// persist asigna el ID y ejecuta los callbacks de máscaras y auditoría sin enviar el INSERT
+		estudiosGeofisicos.forEach(entityManager::persist);
+		// Los registros se persisten directamente: con su ID asignado, save haría un SELECT por cada uno
+		estudiosGeofisicos.forEach(estudio -> entityManager.persist(new RegistroEstudio(estudio)));
+		entityManager.flush();
+
+		estudiosGeofisicos.forEach(estudio -> eventPublisher.publishEvent(new EstudioGeofisicoGuardadoEvent(estudio)));
+		return estudiosGeofisicos;
+	}
+
+	/**
+	 * Adelanta las secuencias de IDs de los estudios y sus colecciones más allá de los IDs ya existentes.
+	 *
+	 * @return La cantidad de secuencias creadas o adelantadas.
+	 */
+	@Override
+	@Transactional
+	public int alinearSecuenciasIds() {
+		int alineadas = 0;
+		for (String[] secuencia : new String[][]{
+				{SecuenciasIdsUtils.ESTUDIOS, "id_estudio"},
+				{SecuenciasIdsUtils.COORDENADAS, "id_coordenada"},
+				{SecuenciasIdsUtils.IMAGENES, "id_imagen"},
+				{SecuenciasIdsUtils.ARCHIVOS_ADJUNTOS, "id_archivo"}}) {
+			// La fila de cada entidad en la tabla de secuencias lleva el nombre de su tabla
+			if (estudioGeofisicoDao.alinearSecuenciaIds(secuencia[0], secuencia[0], secuencia[1])) {
+				alineadas++;
+			}
+		}
+		return alineadas;
+	}
+
+	/**
+	 * Calcula las máscaras de bits de tipos y áreas de los estudios guardados antes de que existieran esas columnas.
+	 * Los estudios se procesan por lotes, como en completarExtensionEstudios.
+	 *
+	 * @return La cantidad de estudios procesados.
+	 */
+	@Override
+	@Transactional
+	public int completarMascarasEstudio() {
+		return completarPorLotes(estudioGeofisicoDao::findIdsSinMascarasDesde, EstudioGeofisico::sincronizarMascaras);
+	}
+
+	/**
+	 * Calcula el centroide y el rectángulo de las coordenadas de los estudios guardados antes de que existieran esas columnas.
+	 * Los estudios se procesan por lotes, de modo que la memoria usada no depende de la cantidad de estudios pendientes.
+	 *
+	 * @return La cantidad de estudios procesados.
+	 */
+	@Override
+	@Transactional
+	public int completarExtensionEstudios() {
+		return completarPorLotes(estudioGeofisicoDao::findIdsSinExtensionDesde, EstudioGeofisico::sincronizarExtension);
+	}
+
+	/**
+	 * Carga por lotes ordenados por ID los estudios que entrega la consulta de IDs, aplica el cálculo a cada uno y
+	 * sincroniza y limpia el contexto de persistencia antes del lote siguiente.
+	 *
+	 * @param siguientes Obtiene los IDs del lote que sigue al ID indicado.
+	 * @param completar  Cálculo que se aplica a cada estudio.
+	 * @return La cantidad de estudios procesados.
+	 */
+	private int completarPorLotes(BiFunction<Long, Pageable, List<Long>> siguientes, Consumer<EstudioGeofisico> completar) {
+		Pageable lote = PageRequest.of(0, TAMANO_LOTE_STREAMING);
+		int procesados = 0;
+		List<Long> ids = siguientes.apply(0L, lote);
+
+		while (!ids.isEmpty()) {
+			List<EstudioGeofisico> estudios = estudioGeofisicoDao.findAllById(ids);
+			estudios.forEach(completar);
+			procesados += estudios.size();
+			entityManager.flush();
+			entityManager.clear();
+			ids = ids.size() < TAMANO_LOTE_STREAMING ? Collections.emptyList()
+					: siguientes.apply(ids.get(ids.size() - 1), lote);
+		}
+		return procesados;
+	}
+
+	/**
+	 * Crea las filas del listado de registros que faltan y reemplaza las que quedaron desactualizadas, por ejemplo
+	 * las de estudios guardados antes de que existiera la tabla registros_estudios.
+	 *
+	 * @return La cantidad de filas creadas.
+	 */
+	@Override
+	@Transactional
+	public int completarRegistrosEstudio() {
+		registroEstudioDao.deleteDesactualizados();
+		return registroEstudioDao.insertFaltantes();
 	}
 
 	/**
 	 * Filtra los EstudioGeofisico en la base de datos según los criterios especificados.
+	 * Los IDs resultantes se guardan en CacheFiltrosEstudios bajo el filtro normalizado, de modo que las
+	 * combinaciones repetidas solo cargan las proyecciones.
 	 *
 	 * @param filtro Los criterios de filtrado.
 	 * @return Un conjunto de proyecciones de EstudioGeofisico que cumplen con los criterios de filtrado.
@@ -87,37 +456,398 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 	@Override
 	@Transactional(readOnly = true)
 	public Set<EstudioGeofisicoProjection> filterEstudios(FiltroEstudioGeofisico filtro) throws ParseException {
-		Set<EstudioGeofisico> entities = estudioGeofisicoDao.filterEstudios(
-				filtro.getConsultaMultiple(),
-				parseDate(filtro.getFechaInicio()),
-				parseDate(filtro.getFechaFin()),
-				parseTipoEstudio(filtro.getTipoEstudio()),
-				parseAreaEstudio(filtro.getAreaEstudio()));
+		Date fechaInicio = parseDate(filtro.getFechaInicio());
+		Date fechaFin = parseDate(filtro.getFechaFin());
+		Integer mascaraTipos = parseMascaraTipos(filtro);
+		Integer minimoTipos = minimoCoincidencia(mascaraTipos, filtro.getModoTiposEstudio());
+		Integer mascaraAreas = parseMascaraAreas(filtro);
+		Integer minimoAreas = minimoCoincidencia(mascaraAreas, filtro.getModoAreasEstudio());
+		validarFiltroGeografico(filtro);
+
+		FiltroNormalizado clave = FiltroNormalizado.builder()
+				.consulta(StringUtils.hasText(filtro.getConsultaMultiple()) ? IndiceTextoEstudios.normalizar(filtro.getConsultaMultiple()) : null)
+				.fechaInicio(fechaFin == null ? null : FiltroNormalizado.aDia(fechaInicio))
+				.fechaFin(fechaInicio == null ? null : FiltroNormalizado.aDia(fechaFin))
+				.mascaraTipos(mascaraTipos).minimoTipos(minimoTipos)
+				.mascaraAreas(mascaraAreas).minimoAreas(minimoAreas)
+				.latitudMin(filtro.getLatitudMin()).latitudMax(filtro.getLatitudMax())
+				.longitudMin(filtro.getLongitudMin()).longitudMax(filtro.getLongitudMax())
+				.latitudCentro(filtro.getLatitudCentro()).longitudCentro(filtro.getLongitudCentro()).radioKm(filtro.getRadioKm())
+				.build();
+
+		List<Long> ids = cacheFiltrosEstudios.obtener(clave, () -> {
+			Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+			if (idsCandidatos != null && idsCandidatos.isEmpty()) {
+				return Collections.emptyList();
+			}
+			return estudioGeofisicoDao.findIdsFiltrados(CriteriosFiltroEstudio.builder()
+					.fechaInicio(fechaInicio).fechaFin(fechaFin)
+					.mascaraTipos(mascaraTipos).minimoTipos(minimoTipos)
+					.mascaraAreas(mascaraAreas).minimoAreas(minimoAreas)
+					.ids(idsCandidatos)
+					.build());
+		});
+		if (ids.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		// Las proyecciones se arman con una consulta por colección en lugar de recorrer cada entidad
+		return new LinkedHashSet<>(estudioGeofisicoDao.findProyeccionesByIds(ids));
+	}
+
+	/**
+	 * Obtiene, en orden ascendente, los IDs de todos los EstudioGeofisico que cumplen con los criterios de filtrado.
+	 * A diferencia de filterEstudios no usa la caché de filtros, para no operar sobre un resultado desactualizado.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @return Los IDs de los estudios que cumplen con los criterios de filtrado.
+	 * @throws ParseException Si ocurre un error al analizar las fechas o los enumerations
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> findIdsFiltrados(FiltroEstudioGeofisico filtro) throws ParseException {
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		CriteriosFiltroEstudio criterios = criteriosFiltro(filtro, null);
+		if (idsCandidatos == null) {
+			List<Long> ids = new ArrayList<>(estudioGeofisicoDao.findIdsFiltrados(criterios));
+			Collections.sort(ids);
+			return ids;
+		}
+
+		// Los candidatos se consultan por tramos ordenados para acotar el tamaño de cada IN
+		List<Long> candidatos = idsCandidatos.stream().sorted().collect(Collectors.toList());
+		List<Long> ids = new ArrayList<>();
+		for (int desde = 0; desde < candidatos.size(); desde += TAMANO_LOTE_EXPORTACION) {
+			List<Long> tramo = candidatos.subList(desde, Math.min(desde + TAMANO_LOTE_EXPORTACION, candidatos.size()));
+			List<Long> idsTramo = new ArrayList<>(estudioGeofisicoDao.findIdsFiltrados(criterios.conIds(tramo)));
+			Collections.sort(idsTramo);
+			ids.addAll(idsTramo);
+		}
+		return ids;
+	}
+
+	/**
+	 * Obtiene la cantidad de EstudioGeofisico por tipo de estudio, por área de aplicación y por año de fechaRealizado.
+	 * Sin criterios de filtrado se responde con los contadores en memoria; con criterios se ejecuta una
+	 * sola consulta agrupada por máscaras y año.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @return Las cantidades de estudios que cumplen con los criterios de filtrado.
+	 * @throws ParseException Si ocurre un error al analizar las fechas o los enumerations
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public FacetasEstudioGeofisico obtenerFacetas(FiltroEstudioGeofisico filtro) throws ParseException {
+		if (esFiltroVacio(filtro)) {
+			return contadoresFacetasEstudios.obtener();
+		}
+
+		FacetasEstudioGeofisico facetas = new FacetasEstudioGeofisico();
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		if (idsCandidatos != null && idsCandidatos.isEmpty()) {
+			return facetas;
+		}
+
+		estudioGeofisicoDao.contarFacetas(criteriosFiltro(filtro, idsCandidatos))
+				.forEach(grupo -> facetas.sumar(grupo.getTiposEstudioMask(), grupo.getAreasEstudioMask(), grupo.getAnio(), grupo.getCantidad()));
+		return facetas;
+	}
+
+	/**
+	 * Sugiere valores de nombreCliente, nombreEstudio y ubicacionEstudio que comienzan con el texto escrito.
+	 * Se resuelve en el índice de sugerencias en memoria, sin consultar la base de datos.
+	 *
+	 * @param consulta Texto escrito por el usuario. Si está vacío no se sugiere nada.
+	 * @param campo    Nombre de un EnumCampoSugerencia para sugerir solo valores de ese campo, o null para todos.
+	 * @param limite   Cantidad máxima de sugerencias, o null para usar la cantidad por defecto.
+	 * @return Las sugerencias, de la más usada a la menos usada.
+	 * @throws IllegalArgumentException Si el campo o el límite no son válidos.
+	 */
+	@Override
+	public List<SugerenciaEstudio> sugerir(String consulta, String campo, Integer limite) {
+		int cantidad = limite != null ? limite : LIMITE_SUGERENCIAS;
+		if (cantidad < 1 || cantidad > SugerenciasEstudios.MAXIMO_SUGERENCIAS) {
+			throw new IllegalArgumentException("El límite de sugerencias debe estar entre 1 y " + SugerenciasEstudios.MAXIMO_SUGERENCIAS);
+		}
+
+		Set<EnumCampoSugerencia> campos = EnumSet.allOf(EnumCampoSugerencia.class);
+		if (StringUtils.hasText(campo)) {
+			try {
+				campos = EnumSet.of(EnumCampoSugerencia.valueOf(campo.trim().toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Campo de sugerencia no válido: " + campo);
+			}
+		}
+
+		if (!StringUtils.hasText(consulta)) {
+			return Collections.emptyList();
+		}
+		return sugerenciasEstudios.sugerir(consulta, campos, cantidad);
+	}
+
+	/**
+	 * Obtiene los EstudioGeofisico cuya huella (el punto, segmento o polígono que forman sus coordenadas) intersecta
+	 * alguno de los polígonos de un documento GeoJSON, por ejemplo el límite de una concesión.
+	 * Para cada polígono, la base de datos descarta primero los estudios cuyo rectángulo envolvente persistido no
+	 * se superpone con el del polígono; sobre los restantes se hace la prueba exacta con el polígono indexado.
+	 *
+	 * @param geoJson Un Polygon, MultiPolygon, Feature o FeatureCollection con coordenadas [longitud, latitud].
+	 * @return Un conjunto de proyecciones de los estudios que intersectan el área.
+	 * @throws IllegalArgumentException Si el GeoJSON no es válido o no contiene polígonos.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Set<EstudioGeofisicoProjection> filterEstudiosPorPoligono(JsonNode geoJson) {
+		List<PoligonoIndexado> poligonos = GeoJsonUtils.leerPoligonos(geoJson).stream()
+				.map(PoligonoIndexado::new)
+				.toList();
+
+		Set<Long> ids = new HashSet<>();
+		for (PoligonoIndexado poligono : poligonos) {
+			List<CoordenadaEstudioProjection> coordenadas = estudioGeofisicoDao.findCoordenadasEnExtension(
+					poligono.getLatitudMin(), poligono.getLatitudMax(), poligono.getLongitudMin(), poligono.getLongitudMax());
+
+			// Las coordenadas vienen agrupadas por estudio; cada grupo forma la huella de un estudio
+			for (int desde = 0; desde < coordenadas.size(); ) {
+				Long id = coordenadas.get(desde).getIdEstudio();
+				int hasta = desde;
+				while (hasta < coordenadas.size() && coordenadas.get(hasta).getIdEstudio().equals(id)) {
+					hasta++;
+				}
+				if (!ids.contains(id)) {
+					double[] longitudes = new double[hasta - desde];
+					double[] latitudes = new double[hasta - desde];
+					for (int i = desde; i < hasta; i++) {
+						longitudes[i - desde] = coordenadas.get(i).getLongitudDecimal();
+						latitudes[i - desde] = coordenadas.get(i).getLatitudDecimal();
+					}
+					if (poligono.interseca(longitudes, latitudes)) {
+						ids.add(id);
+					}
+				}
+				desde = hasta;
+			}
+		}
+
+		if (ids.isEmpty()) {
+			return Collections.emptySet();
+		}
+		return new LinkedHashSet<>(estudioGeofisicoDao.findProyeccionesByIds(ids));
+	}
+
+	/**
+	 * Busca los estudios geofísicos más cercanos a un punto, según la distancia de círculo máximo a la más cercana
+	 * de sus coordenadas. La búsqueda recorre el índice espacial de mejor a peor, sin calcular la distancia a todos
+	 * los estudios, y el filtro por tipos se evalúa con la máscara guardada en el mismo índice antes de calcular
+	 * cada distancia.
+	 *
+	 * @param latitud      Latitud del punto.
+	 * @param longitud     Longitud del punto.
+	 * @param cantidad     Cantidad de estudios, o null para usar la cantidad por defecto.
+	 * @param tiposEstudio Tipos de estudio que deben tener los estudios, o null para no filtrar por tipo.
+	 * @param modoTipos    "any" (alguno de los tipos, predeterminado) o "all" (todos los tipos).
+	 * @return Los estudios encontrados con su distancia, del más cercano al más lejano.
+	 * @throws IllegalArgumentException Si falta el punto o algún parámetro no es válido.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<EstudioCercano> buscarCercanos(Double latitud, Double longitud, Integer cantidad, List<String> tiposEstudio, String modoTipos) {
+		if (!tieneTodos(latitud, longitud)) {
+			throw new IllegalArgumentException("La búsqueda por cercanía requiere latitud y longitud");
+		}
+		validarLatitud(latitud);
+		validarLongitud(longitud);
+		int limite = cantidad != null ? cantidad : CANTIDAD_CERCANOS;
+		if (limite < 1 || limite > MAXIMO_CERCANOS) {
+			throw new IllegalArgumentException("La cantidad de estudios debe estar entre 1 y " + MAXIMO_CERCANOS);
+		}
 
+		Set<EnumTipoEstudioGeofisico> tipos = EnumSet.noneOf(EnumTipoEstudioGeofisico.class);
+		Optional.ofNullable(tiposEstudio).orElse(Collections.emptyList()).stream()
+				.map(this::parseTipoEstudio)
+				.filter(Objects::nonNull)
+				.forEach(tipos::add);
+		int mascaraTipos = MascaraBitsUtils.aMascara(tipos);
+		// Sin tipos solicitados, una máscara y un mínimo en 0 no descartan ningún estudio
+		int minimoTipos = tipos.isEmpty() ? 0 : MascaraBitsUtils.minimoCoincidencia(mascaraTipos, modoTipos);
 
+		Map<Long, Double> distancias = indiceEspacialEstudios.buscarMasCercanos(latitud, longitud, limite, mascaraTipos, minimoTipos);
+		if (distancias.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Map<Long, EstudioGeofisicoProjection> proyecciones = estudioGeofisicoDao.findProyeccionesByIds(distancias.keySet()).stream()
+				.collect(Collectors.toMap(EstudioGeofisicoProjection::getId, proyeccion -> proyeccion));
+		List<EstudioCercano> cercanos = new ArrayList<>(distancias.size());
+		distancias.forEach((id, distanciaKm) -> {
+			EstudioGeofisicoProjection proyeccion = proyecciones.get(id);
+			if (proyeccion != null) {
+				cercanos.add(new EstudioCercano(proyeccion, distanciaKm));
+			}
+		});
+		return cercanos;
+	}
+
+	/**
+	 * Obtiene las agrupaciones de estudios geofísicos visibles en un rectángulo del mapa para un nivel de zoom.
+	 * Se resuelve en la grilla jerárquica en memoria, sin consultar la base de datos.
+	 *
+	 * @param latitudMin  Latitud del borde sur del rectángulo.
+	 * @param latitudMax  Latitud del borde norte del rectángulo.
+	 * @param longitudMin Longitud del borde oeste; si es mayor que longitudMax, el rectángulo cruza el antimeridiano.
+	 * @param longitudMax Longitud del borde este.
+	 * @param zoom        Nivel de zoom del mapa.
+	 * @return Las agrupaciones con su cantidad de estudios, centroide e IDs representativos.
+	 * @throws IllegalArgumentException Si falta algún parámetro o alguno no es válido.
+	 */
+	@Override
+	public List<ClusterEstudios> obtenerClusters(Double latitudMin, Double latitudMax, Double longitudMin, Double longitudMax, Integer zoom) {
+		if (!tieneTodos(latitudMin, latitudMax, longitudMin, longitudMax) || zoom == null) {
+			throw new IllegalArgumentException("Las agrupaciones requieren latitudMin, latitudMax, longitudMin, longitudMax y zoom");
+		}
+		validarLatitud(latitudMin);
+		validarLatitud(latitudMax);
+		validarLongitud(longitudMin);
+		validarLongitud(longitudMax);
+		if (latitudMin > latitudMax) {
+			throw new IllegalArgumentException("La latitudMin no puede ser mayor que la latitudMax");
+		}
+		if (zoom < 0 || zoom > ZOOM_MAXIMO_MAPA) {
+			throw new IllegalArgumentException("El zoom debe estar entre 0 y " + ZOOM_MAXIMO_MAPA);
+		}
+		return clustersMapaEstudios.agrupar(latitudMin, latitudMax, longitudMin, longitudMax, zoom);
+	}
+
+	/**
+	 * Obtiene una tesela vectorial (Mapbox Vector Tile) con las ubicaciones de los estudios geofísicos.
+	 * Las teselas se generan desde las geometrías en memoria y se guardan en caché hasta que un cambio las afecta.
+	 *
+	 * @param z Nivel de zoom.
+	 * @param x Columna de la tesela.
+	 * @param y Fila de la tesela, desde el norte.
+	 * @return La tesela codificada; un arreglo vacío si no tiene estudios.
+	 * @throws IllegalArgumentException Si el zoom o la posición de la tesela no son válidos.
+	 */
+	@Override
+	public byte[] obtenerTesela(int z, int x, int y) {
+		if (z < 0 || z > ZOOM_MAXIMO_MAPA) {
+			throw new IllegalArgumentException("El zoom debe estar entre 0 y " + ZOOM_MAXIMO_MAPA);
+		}
+		int teselasPorLado = 1 << z;
+		if (x < 0 || x >= teselasPorLado || y < 0 || y >= teselasPorLado) {
+			throw new IllegalArgumentException("Para el zoom " + z + " la columna y la fila deben estar entre 0 y " + (teselasPorLado - 1));
+		}
+		return teselasVectorialesEstudios.obtener(z, x, y);
+	}
+
+	/**
+	 * Valida los criterios de filtrado sin ejecutar la búsqueda. Se usa antes de iniciar una respuesta en streaming,
+	 * cuando todavía es posible responder con un error.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @throws ParseException Si ocurre un error al analizar las fechas.
+	 * @throws IllegalArgumentException Si algún enumeration o filtro geográfico no es válido.
+	 */
+	@Override
+	public void validarFiltro(FiltroEstudioGeofisico filtro) throws ParseException {
+		parseDate(filtro.getFechaInicio());
+		parseDate(filtro.getFechaFin());
+		parseMascaraTipos(filtro);
+		parseMascaraAreas(filtro);
+		validarFiltroGeografico(filtro);
+	}
+
+	/**
+	 * Recorre todos los EstudioGeofisico por lotes ordenados por ID, con sus colecciones inicializadas.
+	 * Después de entregar cada lote se limpia el contexto de persistencia, por lo que la memoria usada
+	 * no depende de la cantidad total de estudios.
+	 *
+	 * @param consumidorLote Recibe cada lote de estudios geofísicos.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void recorrerEstudios(Consumer<List<EstudioGeofisico>> consumidorLote) {
+		Pageable lote = PageRequest.of(0, TAMANO_LOTE_STREAMING);
+		List<Long> ids = estudioGeofisicoDao.findIdsDesde(0L, lote);
+
+		while (!ids.isEmpty()) {
+			consumidorLote.accept(estudioGeofisicoDao.findCompletosByIds(ids));
+			entityManager.clear();
+			ids = ids.size() < TAMANO_LOTE_STREAMING ? Collections.emptyList()
+					: estudioGeofisicoDao.findIdsDesde(ids.get(ids.size() - 1), lote);
+		}
+	}
+
+	/**
+	 * Recorre por lotes ordenados por ID las proyecciones de los EstudioGeofisico que cumplen con los criterios
+	 * de filtrado. Cada lote se arma con findProyeccionesByIds, igual que en filterEstudios.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @param consumidorLote Recibe cada lote de proyecciones.
+	 * @throws ParseException Si ocurre un error al analizar las fechas o los enumerations
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void recorrerEstudiosFiltrados(FiltroEstudioGeofisico filtro,
+										  Consumer<List<EstudioGeofisicoProjection>> consumidorLote) throws ParseException {
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		CriteriosFiltroEstudio criterios = criteriosFiltro(filtro, null);
+
+		if (idsCandidatos != null) {
+			// Los candidatos de los índices ya están en memoria: se recorren por tramos en lugar de repetir el IN completo
+			List<Long> candidatos = idsCandidatos.stream().sorted().collect(Collectors.toList());
+			for (int desde = 0; desde < candidatos.size(); desde += TAMANO_LOTE_STREAMING) {
+				Set<Long> tramo = new HashSet<>(candidatos.subList(desde, Math.min(desde + TAMANO_LOTE_STREAMING, candidatos.size())));
+				List<Long> ids = estudioGeofisicoDao.findIdsFiltrados(criterios.conIds(tramo));
+				if (!ids.isEmpty()) {
+					consumidorLote.accept(estudioGeofisicoDao.findProyeccionesByIds(ids));
+				}
+			}
+			return;
+		}
+
+		List<Long> ids = estudioGeofisicoDao.findIdsFiltradosDesde(criterios, 0L, TAMANO_LOTE_STREAMING);
 
-		return entities.stream()
-				.map(entity -> new EstudioGeofisicoProjectionImpl(
-						entity.getId(),
-						entity.getNombreEstudio(),
-						entity.getNombreCliente(),
-						entity.getDescripcion(),
-						entity.getFechaRealizado(),
-						entity.getUbicacionEstudio(),
-						entity.getCoordenadas(),
-						entity.getTiposEstudio(),
-						entity.getAreasEstudio(),
-						entity.getCreadoPor(),
-						entity.getFechaHoraCreacion(),
-						entity.getUltimaActualizacionPor(),
-						entity.getFechaModificacion()))
-				.collect(Collectors.toSet());
+		while (!ids.isEmpty()) {
+			consumidorLote.accept(estudioGeofisicoDao.findProyeccionesByIds(ids));
+			ids = ids.size() < TAMANO_LOTE_STREAMING ? Collections.emptyList()
+					: estudioGeofisicoDao.findIdsFiltradosDesde(criterios, ids.get(ids.size() - 1), TAMANO_LOTE_STREAMING);
+		}
+	}
+
+
+	/**
+	 * Recorre en orden de ID los estudios que cumplen con los criterios de filtrado, para exportarlos.
+	 * Los estudios se leen con un cursor de solo avance en una sesión sin estado (ver recorrerEstudiosExportados
+	 * de IEstudioGeofisicoDaoCustom), por lo que el método no abre una transacción JPA ni mantiene entidades.
+	 *
+	 * @param filtro     Los criterios de filtrado.
+	 * @param consumidor Recibe cada estudio con sus coordenadas.
+	 * @throws ParseException Si ocurre un error al analizar las fechas.
+	 */
+	@Override
+	public void recorrerEstudiosExportados(FiltroEstudioGeofisico filtro, Consumer<EstudioExportado> consumidor) throws ParseException {
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		CriteriosFiltroEstudio criterios = criteriosFiltro(filtro, null);
+
+		if (idsCandidatos == null) {
+			estudioGeofisicoDao.recorrerEstudiosExportados(criterios, consumidor);
+			return;
+		}
+
+		// Los tramos ordenados de candidatos mantienen el orden por ID de la exportación completa
+		List<Long> candidatos = idsCandidatos.stream().sorted().collect(Collectors.toList());
+		for (int desde = 0; desde < candidatos.size(); desde += TAMANO_LOTE_EXPORTACION) {
+			List<Long> tramo = candidatos.subList(desde, Math.min(desde + TAMANO_LOTE_EXPORTACION, candidatos.size()));
+			estudioGeofisicoDao.recorrerEstudiosExportados(criterios.conIds(tramo), consumidor);
+		}
 	}
 
 
 	/**
 	 * Obtiene registros de estudios geofísicos utilizando los criterios de filtrado, paginación y ordenamiento especificados.
-	 * Este método se basa en el método `findFilteredEstudios` del DAO para realizar la consulta.
+	 * Este método se basa en el método `findFilteredEstudios` de IRegistroEstudioDao, que consulta solo la tabla plana del listado.
+	 * La consultaMultiple y los criterios geográficos se resuelven antes en los índices en memoria.
 	 *
 	 * @param filtro Objeto que contiene los parámetros de filtrado, paginación y ordenamiento:
 	 *               - page: Número de página que se desea obtener (predeterminado: 0).
@@ -129,6 +859,10 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 	 *               - fechaFin: Fecha de fin del rango de fechas en el que se realizó el estudio geofísico.
 	 *               - tipoEstudio: Enumerador del tipo de estudio geofísico.
 	 *               - areaEstudio: Enumerador del área de aplicación del estudio geofísico.
+	 *               - tiposEstudio, modoTiposEstudio: Varios tipos de estudio, combinados con "any" (alguno) o "all" (todos).
+	 *               - areasEstudio, modoAreasEstudio: Varias áreas de aplicación, combinadas con "any" (alguna) o "all" (todas).
+	 *               - latitudMin, latitudMax, longitudMin, longitudMax: Rectángulo geográfico.
+	 *               - latitudCentro, longitudCentro, radioKm: Búsqueda por radio alrededor de un punto.
 	 *
 	 * @return Page<EstudioGeofisicoProjection> que contiene los registros de estudios geofísicos. Cada registro incluye:
 	 *         - id: El ID del estudio geofísico.
@@ -141,17 +875,217 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 	 * @throws ParseException Si hay un error al parsear las fechas proporcionadas en el filtro.
 	 */
 	@Override
-	@Transactional(readOnly = true)
+	// Sin readOnly: con muchos IDs candidatos, el DAO los inserta en la tabla de IdCandidatoConsulta durante la consulta
+	@Transactional
 	public Page<EstudioGeofisicoProjection> obtenerRegistrosEstudio(FiltroEstudioGeofisicoPageable filtro) throws ParseException {
+		Pageable pageable = paginaSolicitada(filtro);
+
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		if (idsCandidatos != null && idsCandidatos.isEmpty()) {
+			return Page.empty(pageable);
+		}
+
+		return registroEstudioDao.findFilteredEstudios(criteriosFiltro(filtro, idsCandidatos), pageable);
+	}
+
+	/**
+	 * Obtiene registros de estudios geofísicos con paginación por clave (keyset).
+	 * En lugar de saltar registros con un OFFSET y contar el total, cada página continúa directamente después
+	 * del último registro de la página anterior, cuyo valor de ordenamiento e ID viajan en un cursor opaco.
+	 * El costo de cada página no depende de su posición.
+	 *
+	 * @param filtro Objeto que contiene los mismos parámetros de filtrado que obtenerRegistrosEstudio, además de:
+	 *               - cursor: Cursor devuelto en la página anterior (nextCursor), o null para la primera página.
+	 *               El campo page se ignora. El campo sort debe ser uno de los campos permitidos en CursorUtils.CAMPOS_ORDEN.
+	 *
+	 * @return PaginaCursor con los registros, si hay más registros y el cursor para la página siguiente.
+	 *
+	 * @throws ParseException Si hay un error al parsear las fechas proporcionadas en el filtro.
+	 * @throws IllegalArgumentException Si el campo de ordenamiento no está permitido o el cursor no es válido.
+	 */
+	@Override
+	@Transactional
+	public PaginaCursor<EstudioGeofisicoProjection> obtenerRegistrosEstudioCursor(FiltroEstudioGeofisicoPageable filtro) throws ParseException {
 		Sort.Direction dir = filtro.getDirection().equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-		Sort sortParam = Sort.by(dir, filtro.getSort() != null ? filtro.getSort() : "id");
-		Pageable pageable = PageRequest.of(filtro.getPage(), filtro.getSize(), sortParam);
-		return estudioGeofisicoDao.findFilteredEstudios(
-				filtro.getConsultaMultiple(),
-				parseDate(filtro.getFechaInicio()),
-				parseDate(filtro.getFechaFin()),
-				parseTipoEstudio(filtro.getTipoEstudio()),
-				parseAreaEstudio(filtro.getAreaEstudio()), pageable);
+		String campoOrden = filtro.getSort() != null ? filtro.getSort() : "id";
+		if (!CursorUtils.CAMPOS_ORDEN.contains(campoOrden)) {
+			throw new IllegalArgumentException("No se puede paginar por cursor con el campo: " + campoOrden);
+		}
+
+		Object ultimoValor = null;
+		Long ultimoId = null;
+		if (StringUtils.hasText(filtro.getCursor())) {
+			CursorUtils.Cursor cursor = CursorUtils.decodificar(filtro.getCursor());
+			if (!cursor.getCampo().equals(campoOrden) || cursor.getDireccion() != dir) {
+				throw new IllegalArgumentException("El cursor no corresponde al ordenamiento solicitado");
+			}
+			ultimoValor = cursor.getValor();
+			ultimoId = cursor.getId();
+		}
+
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		if (idsCandidatos != null && idsCandidatos.isEmpty()) {
+			return new PaginaCursor<>(Collections.emptyList(), filtro.getSize(), false, null);
+		}
+
+		// Se pide un registro adicional para saber si existe una página siguiente sin ejecutar un COUNT
+		List<EstudioGeofisicoProjection> registros = registroEstudioDao.findFilteredEstudiosKeyset(
+				criteriosFiltro(filtro, idsCandidatos), campoOrden, dir, ultimoValor, ultimoId, filtro.getSize() + 1);
+
+		boolean hayMas = registros.size() > filtro.getSize();
+		if (hayMas) {
+			registros = registros.subList(0, filtro.getSize());
+		}
+
+		String siguienteCursor = null;
+		if (hayMas) {
+			EstudioGeofisicoProjection ultimo = registros.get(registros.size() - 1);
+			siguienteCursor = CursorUtils.codificar(campoOrden, dir, valorDeOrden(ultimo, campoOrden), ultimo.getId());
+		}
+
+		return new PaginaCursor<>(registros, filtro.getSize(), hayMas, siguienteCursor);
+	}
+
+	/**
+	 * Obtiene registros de estudios geofísicos como un Slice, sin calcular el total de registros ni de páginas.
+	 * Está pensado para clientes con scroll infinito, que solo necesitan saber si existe una página siguiente.
+	 *
+	 * @param filtro Objeto que contiene los mismos parámetros de filtrado, paginación y ordenamiento que obtenerRegistrosEstudio.
+	 * @return Slice con los registros de estudios geofísicos.
+	 * @throws ParseException Si hay un error al parsear las fechas proporcionadas en el filtro.
+	 */
+	@Override
+	@Transactional
+	public Slice<EstudioGeofisicoProjection> obtenerRegistrosEstudioSlice(FiltroEstudioGeofisicoPageable filtro) throws ParseException {
+		Pageable pageable = paginaSolicitada(filtro);
+
+		Set<Long> idsCandidatos = resolverIdsCandidatos(filtro);
+		if (idsCandidatos != null && idsCandidatos.isEmpty()) {
+			return new SliceImpl<>(Collections.emptyList(), pageable, false);
+		}
+
+		return registroEstudioDao.findFilteredEstudiosSlice(criteriosFiltro(filtro, idsCandidatos), pageable);
+	}
+
+	/**
+	 * Obtiene el valor del campo de ordenamiento de un registro, para guardarlo en el cursor.
+	 */
+	private static Object valorDeOrden(EstudioGeofisicoProjection registro, String campoOrden) throws ParseException {
+		return switch (campoOrden) {
+			case "nombreEstudio" -> registro.getNombreEstudio();
+			case "nombreCliente" -> registro.getNombreCliente();
+			case "fechaRealizado" -> registro.getFechaRealizado();
+			case "ubicacionEstudio" -> registro.getUbicacionEstudio();
+			case "fechaHoraCreacion" -> registro.getFechaHoraCreacion();
+			case "fechaModificacion" -> registro.getFechaModificacion();
+			default -> registro.getId();
+		};
+	}
+
+	/**
+	 * Obtiene desde los índices en memoria los IDs de los estudios que cumplen la consultaMultiple
+	 * y los criterios geográficos del filtro.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @return Los IDs candidatos, o null si el filtro no contiene criterios de texto ni geográficos.
+	 * @throws IllegalArgumentException Si el rectángulo o el radio están incompletos o fuera de rango.
+	 */
+	private Set<Long> resolverIdsCandidatos(FiltroEstudioGeofisico filtro) {
+		validarFiltroGeografico(filtro);
+		Set<Long> idsCandidatos = null;
+
+		if (StringUtils.hasText(filtro.getConsultaMultiple())) {
+			idsCandidatos = indiceTextoEstudios.buscar(filtro.getConsultaMultiple());
+		}
+
+		if (tieneAlguno(filtro.getLatitudMin(), filtro.getLatitudMax(), filtro.getLongitudMin(), filtro.getLongitudMax())) {
+			Set<Long> idsEnRectangulo = indiceEspacialEstudios.buscarEnRectangulo(
+					filtro.getLatitudMin(), filtro.getLatitudMax(), filtro.getLongitudMin(), filtro.getLongitudMax());
+			idsCandidatos = intersectar(idsCandidatos, idsEnRectangulo);
+		}
+
+		if (tieneAlguno(filtro.getLatitudCentro(), filtro.getLongitudCentro(), filtro.getRadioKm())) {
+			Set<Long> idsEnRadio = indiceEspacialEstudios.buscarEnRadio(
+					filtro.getLatitudCentro(), filtro.getLongitudCentro(), filtro.getRadioKm());
+			idsCandidatos = intersectar(idsCandidatos, idsEnRadio);
+		}
+
+		return idsCandidatos;
+	}
+
+	/**
+	 * Valida que los filtros geográficos (rectángulo y radio) estén completos y dentro de rango.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @throws IllegalArgumentException Si algún filtro geográfico está incompleto o fuera de rango.
+	 */
+	private static void validarFiltroGeografico(FiltroEstudioGeofisico filtro) {
+		if (tieneAlguno(filtro.getLatitudMin(), filtro.getLatitudMax(), filtro.getLongitudMin(), filtro.getLongitudMax())) {
+			if (!tieneTodos(filtro.getLatitudMin(), filtro.getLatitudMax(), filtro.getLongitudMin(), filtro.getLongitudMax())) {
+				throw new IllegalArgumentException("El rectángulo geográfico requiere latitudMin, latitudMax, longitudMin y longitudMax");
+			}
+			validarLatitud(filtro.getLatitudMin());
+			validarLatitud(filtro.getLatitudMax());
+			validarLongitud(filtro.getLongitudMin());
+			validarLongitud(filtro.getLongitudMax());
+			if (filtro.getLatitudMin() > filtro.getLatitudMax()) {
+				throw new IllegalArgumentException("La latitudMin no puede ser mayor que la latitudMax");
+			}
+		}
+
+		if (tieneAlguno(filtro.getLatitudCentro(), filtro.getLongitudCentro(), filtro.getRadioKm())) {
+			if (!tieneTodos(filtro.getLatitudCentro(), filtro.getLongitudCentro(), filtro.getRadioKm())) {
+				throw new IllegalArgumentException("La búsqueda por radio requiere latitudCentro, longitudCentro y radioKm");
+			}
+			validarLatitud(filtro.getLatitudCentro());
+			validarLongitud(filtro.getLongitudCentro());
+			if (filtro.getRadioKm() <= 0) {
+				throw new IllegalArgumentException("El radioKm debe ser mayor que 0");
+			}
+		}
+	}
+
+	/**
+	 * @return true si el filtro es null o no tiene ningún criterio que restrinja los resultados.
+	 */
+	static boolean esFiltroVacio(FiltroEstudioGeofisico filtro) {
+		return filtro == null || (!StringUtils.hasText(filtro.getConsultaMultiple())
+				&& !StringUtils.hasText(filtro.getFechaInicio())
+				&& !StringUtils.hasText(filtro.getFechaFin())
+				&& !StringUtils.hasText(filtro.getTipoEstudio())
+				&& !StringUtils.hasText(filtro.getAreaEstudio())
+				&& CollectionUtils.isEmpty(filtro.getTiposEstudio())
+				&& CollectionUtils.isEmpty(filtro.getAreasEstudio())
+				&& !tieneAlguno(filtro.getLatitudMin(), filtro.getLatitudMax(), filtro.getLongitudMin(), filtro.getLongitudMax())
+				&& !tieneAlguno(filtro.getLatitudCentro(), filtro.getLongitudCentro(), filtro.getRadioKm()));
+	}
+
+	private static Set<Long> intersectar(Set<Long> actuales, Set<Long> nuevos) {
+		if (actuales == null) {
+			return nuevos;
+		}
+		actuales.retainAll(nuevos);
+		return actuales;
+	}
+
+	private static boolean tieneAlguno(Object... valores) {
+		return Arrays.stream(valores).anyMatch(Objects::nonNull);
+	}
+
+	private static boolean tieneTodos(Object... valores) {
+		return Arrays.stream(valores).allMatch(Objects::nonNull);
+	}
+
+	private static void validarLatitud(Double latitud) {
+		if (latitud < CoordenadaUtils.MIN_LATITUD || latitud > CoordenadaUtils.MAX_LATITUD) {
+			throw new IllegalArgumentException("La latitud debe estar entre -90 y 90 grados.");
+		}
+	}
+
+	private static void validarLongitud(Double longitud) {
+		if (longitud < CoordenadaUtils.MIN_LONGITUD || longitud > CoordenadaUtils.MAX_LONGITUD) {
+			throw new IllegalArgumentException("La longitud debe estar entre -180 y 180 grados.");
+		}
 	}
 
 	/**
@@ -184,6 +1118,72 @@ public class EstudioGeofisicoServiceImpl implements IEstudioGeofisicoService{
 		return EnumTipoEstudioGeofisico.valueOf(tipoEstudioString.trim());
 	}
 
+	/**
+	 * Calcula la máscara de bits de los tipos de estudio solicitados en tipoEstudio y tiposEstudio.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @return La máscara de bits, o null si el filtro no incluye tipos de estudio.
+	 */
+	private Integer parseMascaraTipos(FiltroEstudioGeofisico filtro) {
+		Set<EnumTipoEstudioGeofisico> tipos = EnumSet.noneOf(EnumTipoEstudioGeofisico.class);
+		Optional.ofNullable(parseTipoEstudio(filtro.getTipoEstudio())).ifPresent(tipos::add);
+		Optional.ofNullable(filtro.getTiposEstudio()).orElse(Collections.emptyList()).stream()
+				.map(this::parseTipoEstudio)
+				.filter(Objects::nonNull)
+				.forEach(tipos::add);
+		return tipos.isEmpty() ? null : MascaraBitsUtils.aMascara(tipos);
+	}
+
+	/**
+	 * Calcula la máscara de bits de las áreas de aplicación solicitadas en areaEstudio y areasEstudio.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @return La máscara de bits, o null si el filtro no incluye áreas de aplicación.
+	 */
+	private Integer parseMascaraAreas(FiltroEstudioGeofisico filtro) {
+		Set<EnumAreaAplicacionEstudioGeofisico> areas = EnumSet.noneOf(EnumAreaAplicacionEstudioGeofisico.class);
+		Optional.ofNullable(parseAreaEstudio(filtro.getAreaEstudio())).ifPresent(areas::add);
+		Optional.ofNullable(filtro.getAreasEstudio()).orElse(Collections.emptyList()).stream()
+				.map(this::parseAreaEstudio)
+				.filter(Objects::nonNull)
+				.forEach(areas::add);
+		return areas.isEmpty() ? null : MascaraBitsUtils.aMascara(areas);
+	}
+
+	/**
+	 * Arma el Pageable de un listado de registros.
+	 *
+	 * @throws IllegalArgumentException Si el campo de ordenamiento no es una columna del listado.
+	 */
+	private static Pageable paginaSolicitada(FiltroEstudioGeofisicoPageable filtro) {
+		Sort.Direction dir = filtro.getDirection().equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+		String campoOrden = filtro.getSort() != null ? filtro.getSort() : "id";
+		if (!IRegistroEstudioDao.CAMPOS_ORDEN_REGISTROS.contains(campoOrden)) {
+			throw new IllegalArgumentException("No se puede ordenar por el campo: " + campoOrden);
+		}
+		return PageRequest.of(filtro.getPage(), filtro.getSize(), Sort.by(dir, campoOrden));
+	}
+
+	/**
+	 * Arma los criterios que se resuelven en la base de datos a partir del filtro y de los IDs candidatos
+	 * obtenidos de los índices en memoria.
+	 */
+	private CriteriosFiltroEstudio criteriosFiltro(FiltroEstudioGeofisico filtro, Set<Long> idsCandidatos) throws ParseException {
+		Integer mascaraTipos = parseMascaraTipos(filtro);
+		Integer mascaraAreas = parseMascaraAreas(filtro);
+		return CriteriosFiltroEstudio.builder()
+				.fechaInicio(parseDate(filtro.getFechaInicio()))
+				.fechaFin(parseDate(filtro.getFechaFin()))
+				.mascaraTipos(mascaraTipos).minimoTipos(minimoCoincidencia(mascaraTipos, filtro.getModoTiposEstudio()))
+				.mascaraAreas(mascaraAreas).minimoAreas(minimoCoincidencia(mascaraAreas, filtro.getModoAreasEstudio()))
+				.ids(idsCandidatos)
+				.build();
+	}
+
+	private static Integer minimoCoincidencia(Integer mascara, String modo) {
+		return mascara == null ? null : MascaraBitsUtils.minimoCoincidencia(mascara, modo);
+	}
+
 	/**
 	 * Convierte una cadena de texto en un EnumAreaAplicacionEstudioGeofisico.
 	 *
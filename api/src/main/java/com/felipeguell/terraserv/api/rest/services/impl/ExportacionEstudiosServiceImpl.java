@@ -0,0 +1,189 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioExportado;
+import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import com.felipeguell.terraserv.api.rest.services.IExportacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.util.CsvUtils;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ExportacionEstudiosServiceImpl implements IExportacionEstudiosService {
+
+	private final IEstudioGeofisicoService estudioGeofisicoService;
+	private final ObjectMapper objectMapper;
+
+	// Columnas del CSV; son las mismas que acepta la importación masiva, por lo que el archivo se puede volver a importar
+	private static final List<String> COLUMNAS_CSV = List.of("id", "nombreEstudio", "nombreCliente", "descripcion",
+			"fechaRealizado", "ubicacionEstudio", "coordenadas", "tiposEstudio", "areasEstudio");
+
+	private static final String FORMATO_FECHA = "yyyy-MM-dd";
+
+	/**
+	 * Escribe en CSV los estudios que cumplen con el filtro, a medida que se leen de la base de datos.
+	 * El archivo empieza con la marca de orden de bytes de UTF-8 para que las planillas de cálculo reconozcan
+	 * la codificación. Por lo mismo, los textos ingresados por los usuarios que empiezan como una fórmula se
+	 * escriben con un apóstrofo adelante (ver CsvUtils.neutralizarFormula), que la importación quita. Las
+	 * coordenadas son pares "latitud longitud" y los tipos y áreas nombres de enumeración, separados por punto y coma.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @param salida El flujo donde se escribe el CSV; no se cierra.
+	 * @throws ParseException Si ocurre un error al analizar las fechas del filtro.
+	 * @throws IOException Si falla la escritura.
+	 */
+	@Override
+	public void exportarCsv(FiltroEstudioGeofisico filtro, OutputStream salida) throws ParseException, IOException {
+		Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+		SimpleDateFormat formatoFecha = new SimpleDateFormat(FORMATO_FECHA);
+
+		escritor.write('\uFEFF');
+		CsvUtils.escribirFila(escritor, COLUMNAS_CSV);
+		recorrer(filtro, estudio -> CsvUtils.escribirFila(escritor, Arrays.asList(
+				String.valueOf(estudio.getId()),
+				CsvUtils.neutralizarFormula(estudio.getNombreEstudio()),
+				CsvUtils.neutralizarFormula(estudio.getNombreCliente()),
+				CsvUtils.neutralizarFormula(estudio.getDescripcion()),
+				estudio.getFechaRealizado() == null ? null : formatoFecha.format(estudio.getFechaRealizado()),
+				CsvUtils.neutralizarFormula(estudio.getUbicacionEstudio()),
+				estudio.getCoordenadas().stream()
+						.map(coordenada -> coordenada.getLatitudDecimal() + " " + coordenada.getLongitudDecimal())
+						.collect(Collectors.joining(";")),
+				estudio.getTiposEstudio().stream().map(Enum::name).collect(Collectors.joining(";")),
+				estudio.getAreasEstudio().stream().map(Enum::name).collect(Collectors.joining(";")))));
+		escritor.flush();
+	}
+
+	/**
+	 * Escribe como FeatureCollection GeoJSON los estudios que cumplen con el filtro, a medida que se leen de la
+	 * base de datos. La geometría de cada Feature es un Point, un LineString o un Polygon según el estudio tenga
+	 * una, dos o más coordenadas, y los demás campos van en properties.
+	 *
+	 * @param filtro Los criterios de filtrado.
+	 * @param salida El flujo donde se escribe el GeoJSON; no se cierra.
+	 * @throws ParseException Si ocurre un error al analizar las fechas del filtro.
+	 * @throws IOException Si falla la escritura.
+	 */
+	@Override
+	public void exportarGeoJson(FiltroEstudioGeofisico filtro, OutputStream salida) throws ParseException, IOException {
+		JsonGenerator json = objectMapper.getFactory().createGenerator(salida);
+		json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		SimpleDateFormat formatoFecha = new SimpleDateFormat(FORMATO_FECHA);
+
+		json.writeStartObject();
+		json.writeStringField("type", "FeatureCollection");
+		json.writeArrayFieldStart("features");
+		recorrer(filtro, estudio -> {
+			json.writeStartObject();
+			json.writeStringField("type", "Feature");
+			json.writeNumberField("id", estudio.getId());
+			json.writeFieldName("geometry");
+			escribirGeometria(json, estudio.getCoordenadas());
+
+			json.writeObjectFieldStart("properties");
+			json.writeStringField("nombreEstudio", estudio.getNombreEstudio());
+			json.writeStringField("nombreCliente", estudio.getNombreCliente());
+			json.writeStringField("descripcion", estudio.getDescripcion());
+			json.writeStringField("fechaRealizado", estudio.getFechaRealizado() == null ? null : formatoFecha.format(estudio.getFechaRealizado()));
+			json.writeStringField("ubicacionEstudio", estudio.getUbicacionEstudio());
+			json.writeArrayFieldStart("tiposEstudio");
+			for (Enum<?> tipo : estudio.getTiposEstudio()) {
+				json.writeString(tipo.name());
+			}
+			json.writeEndArray();
+			json.writeArrayFieldStart("areasEstudio");
+			for (Enum<?> area : estudio.getAreasEstudio()) {
+				json.writeString(area.name());
+			}
+			json.writeEndArray();
+			json.writeEndObject();
+
+			json.writeEndObject();
+		});
+		json.writeEndArray();
+		json.writeEndObject();
+		json.flush();
+	}
+
+	private static void escribirGeometria(JsonGenerator json, List<Coordenada> coordenadas) throws IOException {
+		if (coordenadas.isEmpty()) {
+			json.writeNull();
+			return;
+		}
+
+		json.writeStartObject();
+		if (coordenadas.size() == 1) {
+			json.writeStringField("type", "Point");
+			json.writeFieldName("coordinates");
+			escribirPosicion(json, coordenadas.get(0));
+		} else if (coordenadas.size() == 2) {
+			json.writeStringField("type", "LineString");
+			json.writeArrayFieldStart("coordinates");
+			for (Coordenada coordenada : coordenadas) {
+				escribirPosicion(json, coordenada);
+			}
+			json.writeEndArray();
+		} else {
+			// Un anillo GeoJSON termina repitiendo su primera posición
+			json.writeStringField("type", "Polygon");
+			json.writeArrayFieldStart("coordinates");
+			json.writeStartArray();
+			for (Coordenada coordenada : coordenadas) {
+				escribirPosicion(json, coordenada);
+			}
+			escribirPosicion(json, coordenadas.get(0));
+			json.writeEndArray();
+			json.writeEndArray();
+		}
+		json.writeEndObject();
+	}
+
+	private static void escribirPosicion(JsonGenerator json, Coordenada coordenada) throws IOException {
+		json.writeStartArray();
+		json.writeNumber(coordenada.getLongitudDecimal());
+		json.writeNumber(coordenada.getLatitudDecimal());
+		json.writeEndArray();
+	}
+
+	/**
+	 * Recorre los estudios filtrados entregando cada uno a la escritura; los errores de escritura interrumpen
+	 * el recorrido y se propagan como IOException.
+	 */
+	private void recorrer(FiltroEstudioGeofisico filtro, EscrituraEstudio escritura) throws ParseException, IOException {
+		try {
+			estudioGeofisicoService.recorrerEstudiosExportados(filtro, estudio -> {
+				try {
+					escritura.escribir(estudio);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@FunctionalInterface
+	private interface EscrituraEstudio {
+		void escribir(EstudioExportado estudio) throws IOException;
+	}
+}
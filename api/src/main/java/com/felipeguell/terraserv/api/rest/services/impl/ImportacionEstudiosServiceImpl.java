@@ -0,0 +1,360 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.felipeguell.terraserv.api.rest.models.entity.ErrorImportacion;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.ResultadoImportacion;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumFormatoImportacion;
+import com.felipeguell.terraserv.api.rest.services.IEstudioGeofisicoService;
+import com.felipeguell.terraserv.api.rest.services.IImportacionEstudiosService;
+import com.felipeguell.terraserv.api.rest.util.CsvUtils;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ImportacionEstudiosServiceImpl implements IImportacionEstudiosService {
+
+	private final IEstudioGeofisicoService estudioGeofisicoService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+
+	// Cantidad de estudios por transacción; cada una se envía en varios lotes JDBC
+	private static final int TAMANO_LOTE_IMPORTACION = 500;
+
+	// Cantidad máxima de registros rechazados que se detallan en el resultado
+	private static final int MAXIMO_ERRORES_REPORTADOS = 1000;
+
+	// Separador de los valores múltiples de una celda CSV (coordenadas, tipos y áreas)
+	private static final String SEPARADOR_VALORES_CSV = ";";
+
+	/**
+	 * Importa estudios geofísicos leyendo el contenido registro a registro, sin cargarlo completo en memoria.
+	 * Cada registro se valida con las mismas reglas que /form; los válidos se insertan por lotes, cada lote en
+	 * su propia transacción, y los inválidos se informan con su posición y los motivos del rechazo.
+	 *
+	 * Formatos:
+	 * - NDJSON: un estudio por línea, con los mismos campos JSON que /form.
+	 * - CSV: una fila de encabezado con los nombres de los campos (nombreEstudio, nombreCliente, descripcion,
+	 *   fechaRealizado, ubicacionEstudio, coordenadas, tiposEstudio y areasEstudio). Las coordenadas son pares
+	 *   "latitud longitud" y los tipos y áreas nombres de enumeración, separados por punto y coma.
+	 * - GeoJSON: un FeatureCollection cuyos Feature tienen los campos del estudio en properties y como geometría
+	 *   un Point, MultiPoint, LineString o Polygon (solo el anillo exterior) con los vértices del estudio.
+	 *
+	 * Si un lote no se puede guardar, sus registros se vuelven a guardar de a uno y solo se rechazan los que fallan.
+	 *
+	 * @param contenido El contenido a importar.
+	 * @param formato   El formato del contenido.
+	 * @param charset   La codificación del contenido.
+	 * @return Las cantidades de registros leídos, importados y rechazados, los errores y el rendimiento.
+	 * @throws IOException Si falla la lectura del contenido.
+	 * @throws IllegalArgumentException Si el contenido no tiene la estructura del formato (encabezado CSV o FeatureCollection).
+	 */
+	@Override
+	public ResultadoImportacion importar(InputStream contenido, EnumFormatoImportacion formato, Charset charset) throws IOException {
+		long inicio = System.nanoTime();
+		Importacion importacion = new Importacion();
+
+		BufferedReader lector = new BufferedReader(new InputStreamReader(contenido, charset));
+		switch (formato) {
+			case NDJSON -> leerNdjson(lector, importacion);
+			case CSV -> leerCsv(lector, importacion);
+			case GEOJSON -> leerGeoJson(lector, importacion);
+		}
+		guardarPendientes(importacion);
+
+		long duracionNs = Math.max(1, System.nanoTime() - inicio);
+		return new ResultadoImportacion(importacion.registros, importacion.importados, importacion.rechazados,
+				importacion.errores, duracionNs / 1_000_000, importacion.importados * 1e9 / duracionNs);
+	}
+
+	private void leerNdjson(BufferedReader lector, Importacion importacion) throws IOException {
+		String linea;
+		while ((linea = lector.readLine()) != null) {
+			if (!StringUtils.hasText(linea)) {
+				continue;
+			}
+			long registro = ++importacion.registros;
+			JsonNode datos;
+			try {
+				datos = objectMapper.readTree(linea);
+			} catch (JsonProcessingException e) {
+				rechazar(importacion, registro, List.of("JSON mal formado: " + e.getOriginalMessage()));
+				continue;
+			}
+			agregar(importacion, registro, datos);
+		}
+	}
+
+	private void leerCsv(BufferedReader lector, Importacion importacion) throws IOException {
+		List<String> encabezado = CsvUtils.leerFila(lector);
+		if (encabezado == null) {
+			return;
+		}
+		// El encabezado puede empezar con la marca de orden de bytes de UTF-8
+		encabezado.set(0, encabezado.get(0).replace("\uFEFF", ""));
+
+		List<String> fila;
+		while ((fila = CsvUtils.leerFila(lector)) != null) {
+			if (fila.size() == 1 && fila.get(0).isBlank()) {
+				continue;
+			}
+			long registro = ++importacion.registros;
+			if (fila.size() != encabezado.size()) {
+				rechazar(importacion, registro, List.of("La fila tiene " + fila.size() + " columnas y el encabezado " + encabezado.size() + "."));
+				continue;
+			}
+
+			ObjectNode datos = objectMapper.createObjectNode();
+			try {
+				for (int i = 0; i < encabezado.size(); i++) {
+					agregarCampoCsv(datos, encabezado.get(i).trim(), fila.get(i).trim());
+				}
+			} catch (IllegalArgumentException e) {
+				rechazar(importacion, registro, List.of(e.getMessage()));
+				continue;
+			}
+			agregar(importacion, registro, datos);
+		}
+	}
+
+	private void agregarCampoCsv(ObjectNode datos, String campo, String valor) {
+		if (valor.isEmpty()) {
+			return;
+		}
+		switch (campo) {
+			case "coordenadas" -> {
+				ArrayNode coordenadas = datos.putArray(campo);
+				for (String par : valor.split(SEPARADOR_VALORES_CSV)) {
+					String[] partes = par.trim().split("\\s+");
+					try {
+						if (partes.length != 2) {
+							throw new NumberFormatException();
+						}
+						coordenadas.add(coordenada(Double.parseDouble(partes[0]), Double.parseDouble(partes[1])));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Coordenada inválida: '" + par.trim() + "'. Se espera 'latitud longitud'.");
+					}
+				}
+			}
+			case "tiposEstudio", "areasEstudio" -> {
+				ArrayNode valores = datos.putArray(campo);
+				for (String nombre : valor.split(SEPARADOR_VALORES_CSV)) {
+					valores.add(nombre.trim());
+				}
+			}
+			// Los textos exportados que empiezan como una fórmula traen un apóstrofo adelante
+			default -> datos.put(campo, CsvUtils.restaurarFormula(valor));
+		}
+	}
+
+	private void leerGeoJson(BufferedReader lector, Importacion importacion) throws IOException {
+		try (JsonParser parser = objectMapper.getFactory().createParser(lector)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IllegalArgumentException("Se esperaba un FeatureCollection GeoJSON.");
+			}
+
+			boolean conFeatures = false;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String miembro = parser.currentName();
+				JsonToken valor = parser.nextToken();
+				if (!"features".equals(miembro)) {
+					parser.skipChildren();
+					continue;
+				}
+				if (valor != JsonToken.START_ARRAY) {
+					throw new IllegalArgumentException("El miembro 'features' del GeoJSON debe ser un arreglo.");
+				}
+				conFeatures = true;
+
+				// Cada Feature se lee por separado, sin cargar el arreglo completo
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					long registro = ++importacion.registros;
+					JsonNode feature;
+					try {
+						feature = parser.readValueAsTree();
+					} catch (JsonProcessingException e) {
+						// Tras un error de sintaxis no es posible seguir leyendo el arreglo
+						rechazar(importacion, registro, List.of("GeoJSON mal formado: " + e.getOriginalMessage()));
+						return;
+					}
+					try {
+						agregar(importacion, registro, desdeFeature(feature));
+					} catch (IllegalArgumentException e) {
+						rechazar(importacion, registro, List.of(e.getMessage()));
+					}
+				}
+			}
+			if (!conFeatures) {
+				throw new IllegalArgumentException("Se esperaba un FeatureCollection GeoJSON con el miembro 'features'.");
+			}
+		}
+	}
+
+	private ObjectNode desdeFeature(JsonNode feature) {
+		if (!feature.isObject() || !"Feature".equals(feature.path("type").asText())) {
+			throw new IllegalArgumentException("Cada elemento de 'features' debe ser un Feature GeoJSON.");
+		}
+
+		ObjectNode datos = objectMapper.createObjectNode();
+		if (feature.path("properties").isObject()) {
+			datos.setAll((ObjectNode) feature.get("properties"));
+		}
+
+		JsonNode geometria = feature.path("geometry");
+		JsonNode posiciones = geometria.path("coordinates");
+		List<JsonNode> vertices = new ArrayList<>();
+		switch (geometria.path("type").asText()) {
+			case "Point" -> vertices.add(posiciones);
+			case "MultiPoint", "LineString" -> posiciones.forEach(vertices::add);
+			case "Polygon" -> {
+				posiciones.path(0).forEach(vertices::add);
+				// El anillo cerrado repite el primer vértice al final
+				if (vertices.size() > 1 && vertices.get(0).equals(vertices.get(vertices.size() - 1))) {
+					vertices.remove(vertices.size() - 1);
+				}
+			}
+			default -> throw new IllegalArgumentException(
+					"La geometría del Feature debe ser un Point, MultiPoint, LineString o Polygon.");
+		}
+
+		ArrayNode coordenadas = datos.putArray("coordenadas");
+		for (JsonNode posicion : vertices) {
+			if (!posicion.isArray() || posicion.size() < 2 || !posicion.get(0).isNumber() || !posicion.get(1).isNumber()) {
+				throw new IllegalArgumentException("Cada posición debe ser un arreglo [longitud, latitud].");
+			}
+			coordenadas.add(coordenada(posicion.get(1).asDouble(), posicion.get(0).asDouble()));
+		}
+		return datos;
+	}
+
+	private ObjectNode coordenada(double latitud, double longitud) {
+		ObjectNode coordenada = objectMapper.createObjectNode();
+		coordenada.put("latitudDecimal", latitud);
+		coordenada.put("longitudDecimal", longitud);
+		return coordenada;
+	}
+
+	/**
+	 * Convierte y valida un registro; si es válido lo deja pendiente y guarda el lote cuando se completa.
+	 */
+	private void agregar(Importacion importacion, long registro, JsonNode datos) {
+		if (!datos.isObject()) {
+			rechazar(importacion, registro, List.of("Cada registro debe ser un objeto JSON."));
+			return;
+		}
+
+		EstudioGeofisico estudio;
+		try {
+			estudio = objectMapper.treeToValue(datos, EstudioGeofisico.class);
+		} catch (JsonProcessingException e) {
+			rechazar(importacion, registro, List.of("Valor inválido: " + e.getOriginalMessage()));
+			return;
+		}
+		prepararEstudioNuevo(estudio);
+
+		List<String> errores = validator.validate(estudio).stream()
+				.map(error -> "El campo '" + error.getPropertyPath() + "' " + error.getMessage())
+				.sorted()
+				.toList();
+		if (!errores.isEmpty()) {
+			rechazar(importacion, registro, errores);
+			return;
+		}
+
+		importacion.pendientes.add(estudio);
+		importacion.registrosPendientes.add(registro);
+		if (importacion.pendientes.size() >= TAMANO_LOTE_IMPORTACION) {
+			guardarPendientes(importacion);
+		}
+	}
+
+	/**
+	 * Descarta los IDs y la versión recibidos, o asignados en un intento anterior, para que todos los registros se
+	 * inserten como estudios nuevos, y reemplaza las colecciones ausentes por colecciones vacías. Las coordenadas
+	 * y los tipos ausentes se rechazan al validar.
+	 */
+	private static void prepararEstudioNuevo(EstudioGeofisico estudio) {
+		estudio.setId(null);
+		estudio.setVersion(null);
+		estudio.setCoordenadas(new ArrayList<>(Objects.requireNonNullElse(estudio.getCoordenadas(), Collections.emptyList())));
+		estudio.setImagenes(new ArrayList<>(Objects.requireNonNullElse(estudio.getImagenes(), Collections.emptyList())));
+		estudio.setArchivosAdjuntos(new ArrayList<>(Objects.requireNonNullElse(estudio.getArchivosAdjuntos(), Collections.emptyList())));
+		estudio.getCoordenadas().forEach(coordenada -> coordenada.setId(null));
+		estudio.getImagenes().forEach(imagen -> imagen.setId(null));
+		estudio.getArchivosAdjuntos().forEach(archivo -> archivo.setId(null));
+	}
+
+	private void guardarPendientes(Importacion importacion) {
+		if (importacion.pendientes.isEmpty()) {
+			return;
+		}
+
+		try {
+			estudioGeofisicoService.saveAll(importacion.pendientes);
+			importacion.importados += importacion.pendientes.size();
+		} catch (RuntimeException e) {
+			// Un solo registro que la base de datos rechaza hace fallar el lote completo; se reintenta cada uno por separado
+			for (int i = 0; i < importacion.pendientes.size(); i++) {
+				guardarRegistro(importacion, importacion.registrosPendientes.get(i), importacion.pendientes.get(i));
+			}
+		} finally {
+			importacion.pendientes.clear();
+			importacion.registrosPendientes.clear();
+		}
+	}
+
+	/**
+	 * Guarda un registro de un lote que falló, en su propia transacción, y lo rechaza si tampoco se puede guardar solo.
+	 */
+	private void guardarRegistro(Importacion importacion, long registro, EstudioGeofisico estudio) {
+		// El intento del lote dejó asignados los IDs que se descartaron con su transacción
+		prepararEstudioNuevo(estudio);
+		try {
+			estudioGeofisicoService.saveAll(List.of(estudio));
+			importacion.importados++;
+		} catch (RuntimeException e) {
+			rechazar(importacion, registro, List.of("No se pudo guardar el registro: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+		}
+	}
+
+	private static void rechazar(Importacion importacion, long registro, List<String> mensajes) {
+		importacion.rechazados++;
+		if (importacion.errores.size() < MAXIMO_ERRORES_REPORTADOS) {
+			importacion.errores.add(new ErrorImportacion(registro, mensajes));
+		}
+	}
+
+	/**
+	 * Estado de una importación en curso: contadores, errores y el lote pendiente de guardar.
+	 */
+	private static final class Importacion {
+		private long registros;
+		private long importados;
+		private long rechazados;
+		private final List<ErrorImportacion> errores = new ArrayList<>();
+		private final List<EstudioGeofisico> pendientes = new ArrayList<>(TAMANO_LOTE_IMPORTACION);
+		private final List<Long> registrosPendientes = new ArrayList<>(TAMANO_LOTE_IMPORTACION);
+	}
+}
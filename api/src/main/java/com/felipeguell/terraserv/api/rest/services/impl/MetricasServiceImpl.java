@@ -0,0 +1,85 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.cache.CacheUrlsFirmadas;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCache;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCacheUrls;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasRegionCache;
+import com.felipeguell.terraserv.api.rest.services.IMetricasService;
+import com.felipeguell.terraserv.api.rest.services.IReconciliacionObjetosS3Service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class MetricasServiceImpl implements IMetricasService {
+
+	private final CacheFiltrosEstudios cacheFiltrosEstudios;
+	private final CacheUrlsFirmadas cacheUrlsFirmadas;
+	private final EntityManagerFactory entityManagerFactory;
+	private final IReconciliacionObjetosS3Service reconciliacionObjetosS3Service;
+
+	/**
+	 * Obtiene los contadores de la caché de IDs por filtro de estudios geofísicos.
+	 *
+	 * @return Los aciertos, fallos, desalojos, expiraciones, invalidaciones y tamaño de la caché.
+	 */
+	@Override
+	public EstadisticasCache obtenerEstadisticasCacheFiltros() {
+		return cacheFiltrosEstudios.estadisticas();
+	}
+
+	/**
+	 * Obtiene los contadores de cada región de la caché de segundo nivel de Hibernate.
+	 *
+	 * @return Una lista con los aciertos, fallos, escrituras y elementos en memoria de cada región, ordenada por nombre.
+	 */
+	@Override
+	public List<EstadisticasRegionCache> obtenerEstadisticasCacheSegundoNivel() {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		return Arrays.stream(estadisticas.getSecondLevelCacheRegionNames())
+				.sorted()
+				.map(region -> {
+					CacheRegionStatistics contadores = estadisticas.getDomainDataRegionStatistics(region);
+					// Las regiones internas de Hibernate no tienen estadísticas de datos de dominio
+					return contadores == null ? null : new EstadisticasRegionCache(region, contadores.getHitCount(),
+							contadores.getMissCount(), contadores.getPutCount(),
+							contadores.getElementCountInMemory() < 0 ? null : contadores.getElementCountInMemory());
+				})
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Obtiene los contadores de la reconciliación de objetos huérfanos de Amazon S3.
+	 *
+	 * @return Los objetos revisados, recientes, referenciados, pendientes y huérfanos de la última ejecución.
+	 */
+	@Override
+	public EstadisticasReconciliacionS3 obtenerEstadisticasReconciliacionS3() {
+		return reconciliacionObjetosS3Service.estadisticas();
+	}
+
+	/**
+	 * Obtiene los contadores de la caché de URLs firmadas de Amazon S3.
+	 *
+	 * @return Los aciertos, fallos, renovaciones, tasa de aciertos y tiempo promedio de firma.
+	 */
+	@Override
+	public EstadisticasCacheUrls obtenerEstadisticasCacheUrls() {
+		return cacheUrlsFirmadas.estadisticas();
+	}
+}
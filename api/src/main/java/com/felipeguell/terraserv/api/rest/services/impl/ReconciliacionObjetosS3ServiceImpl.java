@@ -0,0 +1,143 @@
+package com.felipeguell.terraserv.api.rest.services.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.felipeguell.terraserv.api.rest.amazon.S3Service;
+import com.felipeguell.terraserv.api.rest.models.dao.IArchivoAdjuntoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IImagenDao;
+import com.felipeguell.terraserv.api.rest.models.dao.IObjetoS3PendienteDao;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+import com.felipeguell.terraserv.api.rest.services.IReconciliacionObjetosS3Service;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ReconciliacionObjetosS3ServiceImpl implements IReconciliacionObjetosS3Service {
+
+	private final S3Service s3Service;
+	private final IImagenDao imagenDao;
+	private final IArchivoAdjuntoDao archivoAdjuntoDao;
+	private final IObjetoS3PendienteDao objetoS3PendienteDao;
+
+	// Antigüedad mínima de un objeto sin referencias para considerarlo huérfano: un formulario en edición
+	// puede haber subido el archivo sin haber guardado todavía el estudio
+	@Value("${estudios.reconciliacion-s3.periodo-gracia-horas:24}")
+	private long periodoGraciaHoras;
+
+	private long ejecuciones;
+	private long objetosHuerfanosTotales;
+	private volatile EstadisticasReconciliacionS3 ultimaReconciliacion;
+
+	/**
+	 * Busca los objetos del BUCKET que ninguna imagen ni archivo adjunto referencia y los deja pendientes de
+	 * eliminación (ver IEliminacionObjetosS3Service), que los elimina por lotes con reintentos.
+	 *
+	 * El listado del BUCKET se recorre de a una página de hasta 1000 claves, y las claves de cada página se buscan
+	 * con una consulta por tabla sobre las columnas indexadas imagen_key y archivo_key, de modo que la memoria usada
+	 * no depende de la cantidad de objetos del BUCKET ni de filas en la base de datos. Solo se consideran los
+	 * objetos modificados antes del período de gracia, y se omiten los que ya están pendientes de eliminación.
+	 *
+	 * Los huérfanos quedan pendientes con su primer intento postergado por otro período de gracia, y antes de
+	 * eliminarlos se verifica de nuevo que nada los referencia; un estudio guardado en ese intervalo con una de
+	 * estas claves la conserva.
+	 *
+	 * @return Los contadores de esta ejecución.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${estudios.reconciliacion-s3.intervalo-horas:24}", initialDelayString = "${estudios.reconciliacion-s3.intervalo-horas:24}",
+			timeUnit = TimeUnit.HOURS)
+	public synchronized EstadisticasReconciliacionS3 reconciliar() {
+		Reconciliacion reconciliacion = new Reconciliacion(new Date(), System.nanoTime());
+		Date limiteGracia = new Date(reconciliacion.fechaInicio.getTime() - TimeUnit.HOURS.toMillis(periodoGraciaHoras));
+
+		s3Service.recorrerObjetos(pagina -> {
+			List<String> candidatas = new ArrayList<>(pagina.size());
+			for (S3ObjectSummary objeto : pagina) {
+				if (objeto.getLastModified() != null && objeto.getLastModified().before(limiteGracia)) {
+					candidatas.add(objeto.getKey());
+				}
+			}
+			reconciliacion.revisados += pagina.size();
+			reconciliacion.recientes += pagina.size() - candidatas.size();
+			if (!candidatas.isEmpty()) {
+				reconciliarPagina(candidatas, reconciliacion);
+			}
+		});
+
+		ejecuciones++;
+		objetosHuerfanosTotales += reconciliacion.huerfanos;
+		ultimaReconciliacion = reconciliacion.estadisticas(ejecuciones, objetosHuerfanosTotales, periodoGraciaHoras);
+		return ultimaReconciliacion;
+	}
+
+	private void reconciliarPagina(List<String> candidatas, Reconciliacion reconciliacion) {
+		Set<String> referenciadas = new HashSet<>(imagenDao.findImagenKeysIn(candidatas));
+		referenciadas.addAll(archivoAdjuntoDao.findArchivoKeysIn(candidatas));
+		Set<String> pendientes = new HashSet<>(objetoS3PendienteDao.findClavesIn(candidatas));
+
+		Date primerIntento = new Date(reconciliacion.fechaInicio.getTime() + TimeUnit.HOURS.toMillis(periodoGraciaHoras));
+		List<ObjetoS3Pendiente> huerfanos = new ArrayList<>();
+		for (String clave : candidatas) {
+			if (referenciadas.contains(clave)) {
+				reconciliacion.referenciados++;
+			} else if (pendientes.contains(clave)) {
+				reconciliacion.pendientes++;
+			} else {
+				huerfanos.add(new ObjetoS3Pendiente(clave, primerIntento));
+			}
+		}
+		if (!huerfanos.isEmpty()) {
+			objetoS3PendienteDao.saveAll(huerfanos);
+			reconciliacion.huerfanos += huerfanos.size();
+		}
+	}
+
+	/**
+	 * Obtiene los contadores de la última reconciliación, sin esperar a que termine una en curso.
+	 *
+	 * @return Los contadores de la última ejecución y los acumulados; en cero si todavía no se ejecutó.
+	 */
+	@Override
+	public EstadisticasReconciliacionS3 estadisticas() {
+		EstadisticasReconciliacionS3 estadisticas = ultimaReconciliacion;
+		if (estadisticas == null) {
+			return new EstadisticasReconciliacionS3(0, null, 0, 0, 0, 0, 0, 0, 0, periodoGraciaHoras);
+		}
+		return estadisticas;
+	}
+
+	/**
+	 * Contadores de una reconciliación en curso.
+	 */
+	private static final class Reconciliacion {
+		private final Date fechaInicio;
+		private final long inicio;
+		private long revisados;
+		private long recientes;
+		private long referenciados;
+		private long pendientes;
+		private long huerfanos;
+
+		private Reconciliacion(Date fechaInicio, long inicio) {
+			this.fechaInicio = fechaInicio;
+			this.inicio = inicio;
+		}
+
+		private EstadisticasReconciliacionS3 estadisticas(long ejecuciones, long huerfanosTotales, long periodoGraciaHoras) {
+			return new EstadisticasReconciliacionS3(ejecuciones, fechaInicio, (System.nanoTime() - inicio) / 1_000_000,
+					revisados, recientes, referenciados, pendientes, huerfanos, huerfanosTotales, periodoGraciaHoras);
+		}
+	}
+}
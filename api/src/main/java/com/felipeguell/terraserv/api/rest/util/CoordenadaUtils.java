@@ -10,4 +10,22 @@ public class CoordenadaUtils {
     // Define la cantidad de coordenadas por estudio
     public static final int MAX_COORDENADAS = 6;
     public static final int MIN_COORDENADAS = 1;
+
+    // Radio medio de la Tierra y longitud aproximada de un grado de latitud, en kilómetros
+    public static final double RADIO_TIERRA_KM = 6371.0088;
+    public static final double KM_POR_GRADO_LATITUD = 111.32;
+
+    /**
+     * Calcula la distancia de círculo máximo (fórmula del semiverseno) entre dos puntos.
+     *
+     * @return La distancia en kilómetros.
+     */
+    public static double distanciaKm(double latitud1, double longitud1, double latitud2, double longitud2) {
+        double dLat = Math.toRadians(latitud2 - latitud1);
+        double dLon = Math.toRadians(longitud2 - longitud1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitud1)) * Math.cos(Math.toRadians(latitud2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
 }
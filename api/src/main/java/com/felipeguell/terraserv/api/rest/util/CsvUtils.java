@@ -0,0 +1,125 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura de archivos CSV según RFC 4180: campos separados por coma, opcionalmente entre comillas dobles,
+ * con las comillas internas duplicadas. Un campo entre comillas puede contener comas y saltos de línea.
+ */
+public class CsvUtils {
+
+    public static final char SEPARADOR = ',';
+    private static final char COMILLA = '"';
+    private static final String FIN_LINEA = "\r\n";
+
+    // Caracteres con los que una planilla de cálculo interpreta una celda como fórmula
+    private static final String INICIO_FORMULA = "=+-@\t\r";
+    private static final char PREFIJO_TEXTO = '\'';
+
+    /**
+     * Lee la siguiente fila. Se aceptan finales de línea \n y \r\n.
+     *
+     * @param lector El lector posicionado al comienzo de una fila.
+     * @return Los campos de la fila, o null si no quedan filas.
+     */
+    public static List<String> leerFila(BufferedReader lector) throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+
+        int caracter;
+        while ((caracter = lector.read()) != -1) {
+            leyoAlgo = true;
+            char c = (char) caracter;
+            if (entreComillas) {
+                if (c != COMILLA) {
+                    campo.append(c);
+                    continue;
+                }
+                lector.mark(1);
+                if (lector.read() == COMILLA) {
+                    campo.append(COMILLA);
+                } else {
+                    lector.reset();
+                    entreComillas = false;
+                }
+            } else if (c == COMILLA) {
+                entreComillas = true;
+            } else if (c == SEPARADOR) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                campo.append(c);
+            }
+        }
+
+        if (!leyoAlgo) {
+            return null;
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * Escribe una fila terminada en \r\n. Los campos con comas, comillas o saltos de línea se escriben entre
+     * comillas; los campos null se escriben vacíos.
+     */
+    public static void escribirFila(Writer escritor, List<String> campos) throws IOException {
+        for (int i = 0; i < campos.size(); i++) {
+            if (i > 0) {
+                escritor.write(SEPARADOR);
+            }
+            String campo = campos.get(i);
+            if (campo == null) {
+                continue;
+            }
+            if (campo.indexOf(SEPARADOR) < 0 && campo.indexOf(COMILLA) < 0 && campo.indexOf('\n') < 0 && campo.indexOf('\r') < 0) {
+                escritor.write(campo);
+            } else {
+                escritor.write(COMILLA);
+                escritor.write(campo.replace("\"", "\"\""));
+                escritor.write(COMILLA);
+            }
+        }
+        escritor.write(FIN_LINEA);
+    }
+
+    /**
+     * Antepone un apóstrofo a los textos que una planilla de cálculo interpretaría como fórmula, es decir, los que
+     * empiezan con =, +, -, @, tabulación o retorno de carro. También se antepone a los que ya empiezan con un
+     * apóstrofo seguido de uno de esos caracteres, para que {@link #restaurarFormula} recupere el texto original.
+     *
+     * @param campo Texto ingresado por un usuario, o null.
+     * @return El texto que se puede escribir en el CSV sin que se ejecute como fórmula.
+     */
+    public static String neutralizarFormula(String campo) {
+        if (campo == null || campo.isEmpty()) {
+            return campo;
+        }
+        boolean formula = INICIO_FORMULA.indexOf(campo.charAt(0)) >= 0;
+        boolean prefijado = campo.charAt(0) == PREFIJO_TEXTO && campo.length() > 1
+                && (INICIO_FORMULA.indexOf(campo.charAt(1)) >= 0 || campo.charAt(1) == PREFIJO_TEXTO);
+        return formula || prefijado ? PREFIJO_TEXTO + campo : campo;
+    }
+
+    /**
+     * Quita el apóstrofo que {@link #neutralizarFormula} antepuso a un texto.
+     *
+     * @param campo Texto leído del CSV, o null.
+     * @return El texto original.
+     */
+    public static String restaurarFormula(String campo) {
+        if (campo == null || campo.length() < 2 || campo.charAt(0) != PREFIJO_TEXTO) {
+            return campo;
+        }
+        char siguiente = campo.charAt(1);
+        return INICIO_FORMULA.indexOf(siguiente) >= 0 || siguiente == PREFIJO_TEXTO ? campo.substring(1) : campo;
+    }
+}
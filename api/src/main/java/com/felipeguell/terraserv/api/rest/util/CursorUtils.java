@@ -0,0 +1,102 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Codifica y decodifica los cursores opacos de la paginación por clave (keyset) de los registros de estudios.
+ * Un cursor contiene el campo y la dirección de ordenamiento, el ID y el valor del campo del último registro entregado.
+ * El valor lleva un prefijo con su tipo: 'd' para fechas, 'l' para números, 's' para textos y 'n' para null.
+ */
+public class CursorUtils {
+
+    // Campos por los que se permite paginar por clave. Salvo el ID, pueden ser nulos en los registros.
+    public static final Set<String> CAMPOS_ORDEN = Set.of("id", "nombreEstudio", "nombreCliente", "fechaRealizado",
+            "ubicacionEstudio", "fechaHoraCreacion", "fechaModificacion");
+
+    // Campos de ordenamiento cuyo valor es una fecha
+    private static final Set<String> CAMPOS_FECHA = Set.of("fechaRealizado", "fechaHoraCreacion", "fechaModificacion");
+
+    private static final String VALOR_NULO = "n";
+
+    private static final String SEPARADOR = "\u001F";
+
+    /**
+     * Genera un cursor a partir del último registro entregado.
+     *
+     * @return El cursor codificado en Base64 URL-safe.
+     */
+    public static String codificar(String campo, Sort.Direction direccion, Object valor, Long id) {
+        String valorCodificado;
+        if (valor == null) {
+            valorCodificado = VALOR_NULO;
+        } else if (valor instanceof Date fecha) {
+            valorCodificado = "d" + fecha.getTime();
+        } else if (valor instanceof Long numero) {
+            valorCodificado = "l" + numero;
+        } else {
+            valorCodificado = "s" + valor;
+        }
+
+        String contenido = String.join(SEPARADOR, campo, direccion.name(), String.valueOf(id), valorCodificado);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por {@link #codificar}.
+     *
+     * @param cursor El cursor recibido del cliente.
+     * @return El contenido del cursor.
+     * @throws IllegalArgumentException Si el cursor no es válido, o si su valor no es del tipo del campo.
+     */
+    public static Cursor decodificar(String cursor) {
+        try {
+            String contenido = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = contenido.split(SEPARADOR, 4);
+            if (partes.length != 4 || !CAMPOS_ORDEN.contains(partes[0])) {
+                throw new IllegalArgumentException("El cursor no es válido");
+            }
+
+            String campo = partes[0];
+            String valorCodificado = partes[3];
+            Object valor = switch (valorCodificado.charAt(0)) {
+                case 'd' -> new Date(Long.parseLong(valorCodificado.substring(1)));
+                case 'l' -> Long.parseLong(valorCodificado.substring(1));
+                case 's' -> valorCodificado.substring(1);
+                case 'n' -> {
+                    if (!VALOR_NULO.equals(valorCodificado)) {
+                        throw new IllegalArgumentException("El cursor no es válido");
+                    }
+                    yield null;
+                }
+                default -> throw new IllegalArgumentException("El cursor no es válido");
+            };
+
+            // El valor se usa como parámetro de la consulta, por lo que debe ser del tipo del campo
+            Class<?> tipo = "id".equals(campo) ? Long.class : CAMPOS_FECHA.contains(campo) ? Date.class : String.class;
+            if (valor != null && !tipo.isInstance(valor)) {
+                throw new IllegalArgumentException("El cursor no es válido");
+            }
+
+            return new Cursor(campo, Sort.Direction.valueOf(partes[1]), valor, Long.parseLong(partes[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("El cursor no es válido");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Cursor {
+        private final String campo;
+        private final Sort.Direction direccion;
+        private final Object valor;
+        private final Long id;
+    }
+}
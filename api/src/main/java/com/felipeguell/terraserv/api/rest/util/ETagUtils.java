@@ -0,0 +1,47 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Convierte la versión de bloqueo optimista de un estudio en un ETag fuerte y lee las versiones aceptadas
+ * en un encabezado If-Match (RFC 9110).
+ */
+public class ETagUtils {
+
+    /**
+     * @return El ETag fuerte de la versión, por ejemplo "3" con las comillas.
+     */
+    public static String aETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Obtiene las versiones que acepta un encabezado If-Match. If-Match compara en forma fuerte, por lo que los
+     * ETag débiles (W/) y los que no corresponden a una versión nunca coinciden.
+     *
+     * @param ifMatch El valor del encabezado, o null si no se envió.
+     * @return Las versiones aceptadas, o null si se acepta cualquiera (sin encabezado o con *).
+     */
+    public static Set<Long> versionesAceptadas(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        Set<Long> versiones = new HashSet<>();
+        for (String etag : ifMatch.split(",")) {
+            String valor = etag.trim();
+            if (valor.length() < 3 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versiones.add(Long.parseLong(valor.substring(1, valor.length() - 1)));
+            } catch (NumberFormatException e) {
+                // Un ETag ajeno no coincide con ninguna versión
+            }
+        }
+        return versiones;
+    }
+}
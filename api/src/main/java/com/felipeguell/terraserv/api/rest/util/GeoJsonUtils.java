@@ -0,0 +1,104 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Lee los polígonos de un documento GeoJSON (RFC 7946): un Polygon, un MultiPolygon, un Feature con alguno de
+ * ellos como geometría o un FeatureCollection de esos Feature.
+ */
+public class GeoJsonUtils {
+
+    // Cantidad máxima de posiciones entre todos los anillos del documento
+    public static final int MAX_POSICIONES = 10000;
+
+    /**
+     * Obtiene los polígonos del documento. Cada polígono es una lista de anillos (el exterior primero y luego los
+     * agujeros) y cada anillo un arreglo de posiciones [longitud, latitud].
+     *
+     * @return Los polígonos del documento, al menos uno.
+     * @throws IllegalArgumentException Si el documento no es GeoJSON válido, no contiene polígonos, supera
+     *                                  {@link #MAX_POSICIONES} posiciones o alguna posición está fuera de rango.
+     */
+    public static List<List<double[][]>> leerPoligonos(JsonNode geoJson) {
+        List<List<double[][]>> poligonos = new ArrayList<>();
+        leer(geoJson, poligonos);
+        if (poligonos.isEmpty()) {
+            throw new IllegalArgumentException("El GeoJSON no contiene polígonos.");
+        }
+
+        int posiciones = poligonos.stream().flatMap(List::stream).mapToInt(anillo -> anillo.length).sum();
+        if (posiciones > MAX_POSICIONES) {
+            throw new IllegalArgumentException("El GeoJSON no puede tener más de " + MAX_POSICIONES + " posiciones.");
+        }
+        return poligonos;
+    }
+
+    private static void leer(JsonNode nodo, List<List<double[][]>> poligonos) {
+        if (nodo == null || !nodo.isObject()) {
+            throw new IllegalArgumentException("Se esperaba un objeto GeoJSON.");
+        }
+
+        String tipo = nodo.path("type").asText();
+        switch (tipo) {
+            case "FeatureCollection" -> {
+                for (JsonNode feature : arreglo(nodo.get("features"), "features")) {
+                    leer(feature, poligonos);
+                }
+            }
+            case "Feature" -> leer(nodo.get("geometry"), poligonos);
+            case "Polygon" -> poligonos.add(leerPoligono(nodo.get("coordinates")));
+            case "MultiPolygon" -> {
+                for (JsonNode poligono : arreglo(nodo.get("coordinates"), "coordinates")) {
+                    poligonos.add(leerPoligono(poligono));
+                }
+            }
+            default -> throw new IllegalArgumentException(
+                    "Tipo GeoJSON no soportado: '" + tipo + "'. Se aceptan Polygon, MultiPolygon, Feature y FeatureCollection.");
+        }
+    }
+
+    private static List<double[][]> leerPoligono(JsonNode coordenadas) {
+        JsonNode anillos = arreglo(coordenadas, "coordinates");
+        if (anillos.isEmpty()) {
+            throw new IllegalArgumentException("El polígono debe tener al menos un anillo.");
+        }
+
+        List<double[][]> poligono = new ArrayList<>(anillos.size());
+        for (JsonNode anillo : anillos) {
+            JsonNode posiciones = arreglo(anillo, "anillo");
+            double[][] vertices = new double[posiciones.size()][];
+            for (int i = 0; i < posiciones.size(); i++) {
+                vertices[i] = leerPosicion(posiciones.get(i));
+            }
+            poligono.add(vertices);
+        }
+        return poligono;
+    }
+
+    private static double[] leerPosicion(JsonNode posicion) {
+        if (posicion == null || !posicion.isArray() || posicion.size() < 2
+                || !posicion.get(0).isNumber() || !posicion.get(1).isNumber()) {
+            throw new IllegalArgumentException("Cada posición debe ser un arreglo [longitud, latitud].");
+        }
+
+        double longitud = posicion.get(0).asDouble();
+        double latitud = posicion.get(1).asDouble();
+        if (longitud < CoordenadaUtils.MIN_LONGITUD || longitud > CoordenadaUtils.MAX_LONGITUD) {
+            throw new IllegalArgumentException("La longitud debe estar entre -180 y 180 grados.");
+        }
+        if (latitud < CoordenadaUtils.MIN_LATITUD || latitud > CoordenadaUtils.MAX_LATITUD) {
+            throw new IllegalArgumentException("La latitud debe estar entre -90 y 90 grados.");
+        }
+        return new double[]{longitud, latitud};
+    }
+
+    private static JsonNode arreglo(JsonNode nodo, String nombre) {
+        if (nodo == null || !nodo.isArray()) {
+            throw new IllegalArgumentException("El miembro '" + nombre + "' del GeoJSON debe ser un arreglo.");
+        }
+        return nodo;
+    }
+}
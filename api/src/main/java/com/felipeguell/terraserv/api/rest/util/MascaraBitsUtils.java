@@ -0,0 +1,63 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Convierte conjuntos de enumeradores en máscaras de bits y viceversa.
+ * Cada valor ocupa el bit correspondiente a su ordinal, por lo que el orden de declaración de los
+ * enumeradores persistidos como máscara no se debe modificar; los valores nuevos se agregan al final.
+ */
+public class MascaraBitsUtils {
+
+    // Modos de combinación de los valores de un filtro
+    public static final String MODO_ALGUNO = "any";
+    public static final String MODO_TODOS = "all";
+
+    /**
+     * @return La máscara con un bit encendido por cada valor del conjunto, 0 si el conjunto es null o vacío.
+     */
+    public static <E extends Enum<E>> int aMascara(Collection<E> valores) {
+        int mascara = 0;
+        if (valores != null) {
+            for (E valor : valores) {
+                mascara |= 1 << valor.ordinal();
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * @return El conjunto de valores cuyos bits están encendidos en la máscara.
+     */
+    public static <E extends Enum<E>> EnumSet<E> desdeMascara(int mascara, Class<E> tipo) {
+        EnumSet<E> valores = EnumSet.noneOf(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            if ((mascara & (1 << valor.ordinal())) != 0) {
+                valores.add(valor);
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Calcula el mínimo que debe alcanzar bitand(mascaraEstudio, mascaraFiltro) para que un estudio cumpla el filtro.
+     * Con el modo "any" basta un bit en común (resultado mayor o igual a 1). Con el modo "all" deben estar
+     * todos los bits del filtro, y como el resultado nunca supera a la máscara del filtro, basta con exigir
+     * que sea mayor o igual a ella.
+     *
+     * @param mascaraFiltro La máscara de los valores solicitados en el filtro.
+     * @param modo          "any" o "all"; si es null se usa "any".
+     * @return El mínimo para la comparación.
+     * @throws IllegalArgumentException Si el modo no es válido.
+     */
+    public static int minimoCoincidencia(int mascaraFiltro, String modo) {
+        if (modo == null || modo.isBlank() || MODO_ALGUNO.equalsIgnoreCase(modo.trim())) {
+            return 1;
+        }
+        if (MODO_TODOS.equalsIgnoreCase(modo.trim())) {
+            return mascaraFiltro;
+        }
+        throw new IllegalArgumentException("El modo de filtrado debe ser '" + MODO_ALGUNO + "' o '" + MODO_TODOS + "': " + modo);
+    }
+}
@@ -0,0 +1,25 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+/**
+ * Generación de IDs por bloques de los estudios geofísicos y sus colecciones.
+ *
+ * Los IDs se reservan de a {@link #TAMANO_BLOQUE} en la tabla {@link #TABLA}, una fila por entidad, con el
+ * optimizador pooled de Hibernate. A diferencia de IDENTITY, el ID se conoce antes del INSERT, lo que permite
+ * que Hibernate agrupe los INSERT en lotes JDBC.
+ */
+public class SecuenciasIdsUtils {
+
+    public static final String TABLA = "secuencias_ids";
+    public static final String COLUMNA_ENTIDAD = "entidad";
+    public static final String COLUMNA_VALOR = "siguiente_valor";
+
+    // Cantidad de IDs reservados por cada lectura de la tabla; coincide con el tamaño de los lotes JDBC
+    public static final int TAMANO_BLOQUE = 50;
+
+    // Fila de cada entidad en la tabla de secuencias; coincide con el nombre de su tabla
+    public static final String ESTUDIOS = "estudios_geofisicos";
+    public static final String COORDENADAS = "coordenadas";
+    public static final String IMAGENES = "imagenes";
+    public static final String ARCHIVOS_ADJUNTOS = "archivos_adjuntos";
+    public static final String OBJETOS_S3_PENDIENTES = "objetos_s3_pendientes";
+}
@@ -0,0 +1,77 @@
+package com.felipeguell.terraserv.api.rest.amazon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.felipeguell.terraserv.api.rest.cache.CacheUrlsFirmadas;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.AssetNotFoundException;
+
+/**
+ * Verifica que getObjectsUrl entrega las URLs vigentes de la caché sin consultar Amazon S3, verifica y firma
+ * las demás fuera del hilo de la solicitud y propaga el error de un objeto que no existe.
+ */
+class S3ServiceTests {
+
+	private final AmazonS3 s3Client = mock(AmazonS3.class);
+	private final CacheUrlsFirmadas cacheUrlsFirmadas = new CacheUrlsFirmadas(3600, 900, 100);
+	private final S3Service s3Service = new S3Service(s3Client, cacheUrlsFirmadas);
+
+	private final Set<String> hilosVerificacion = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		when(s3Client.doesObjectExist(anyString(), anyString())).thenAnswer(invocacion -> {
+			hilosVerificacion.add(Thread.currentThread().getName());
+			return !invocacion.getArgument(1, String.class).startsWith("falta");
+		});
+		when(s3Client.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenAnswer(invocacion ->
+				new URL("https://bucket/" + invocacion.getArgument(0, GeneratePresignedUrlRequest.class).getKey()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		s3Service.detener();
+	}
+
+	@Test
+	void lasUrlsVigentesNoSeVerificanDeNuevo() {
+		s3Service.getObjectUrl("img-1");
+
+		Map<String, String> urls = s3Service.getObjectsUrl(List.of("img-1", "img-2", "img-2", "img-3"));
+
+		assertEquals(Map.of("img-1", "https://bucket/img-1", "img-2", "https://bucket/img-2", "img-3", "https://bucket/img-3"), urls);
+		verify(s3Client, times(1)).doesObjectExist(anyString(), eq("img-1"));
+		verify(s3Client, times(1)).doesObjectExist(anyString(), eq("img-2"));
+		// Las verificaciones de las claves que no estaban en la caché usan los hilos propios del servicio
+		hilosVerificacion.remove(Thread.currentThread().getName());
+		assertEquals(Set.of("s3-firma-urls"), hilosVerificacion);
+	}
+
+	@Test
+	void unObjetoQueNoExisteLanzaAssetNotFoundException() {
+		AssetNotFoundException error = assertThrows(AssetNotFoundException.class,
+				() -> s3Service.getObjectsUrl(List.of("img-1", "falta-1")));
+
+		assertTrue(error.getMessage().contains("falta-1"));
+	}
+}
@@ -0,0 +1,122 @@
+package com.felipeguell.terraserv.api.rest.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+/**
+ * Verifica que al guardar un estudio solo se invalidan los filtros en los que entra o de los que sale, que al
+ * eliminarlo se invalidan los que lo contenían, y que no se almacena un resultado calculado durante un cambio.
+ */
+class CacheFiltrosEstudiosTests {
+
+	private static final FiltroNormalizado GPR = porTipo(EnumTipoEstudioGeofisico.GPR);
+	private static final FiltroNormalizado MASW = porTipo(EnumTipoEstudioGeofisico.MASW);
+
+	private final CacheFiltrosEstudios cache = new CacheFiltrosEstudios(10, 300);
+	private final AtomicInteger calculos = new AtomicInteger();
+
+	@Test
+	void unEstudioQueEntraAlFiltroLoInvalida() {
+		obtener(GPR, List.of(1L, 2L));
+		obtener(MASW, List.of(5L));
+
+		cache.onEstudioGuardado(guardado(3L, EnumTipoEstudioGeofisico.GPR));
+
+		assertEquals(List.of(1L, 2L, 3L), obtener(GPR, List.of(1L, 2L, 3L)));
+		// El filtro de MASW no cambia y sigue en la caché
+		assertEquals(List.of(5L), obtener(MASW, List.of()));
+		assertEquals(3, calculos.get());
+		assertEquals(1, cache.estadisticas().getInvalidaciones());
+	}
+
+	@Test
+	void unEstudioQueSaleDelFiltroLoInvalida() {
+		obtener(GPR, List.of(1L, 2L));
+		obtener(MASW, List.of(5L));
+
+		cache.onEstudioGuardado(guardado(1L, EnumTipoEstudioGeofisico.MASW));
+
+		assertEquals(List.of(2L), obtener(GPR, List.of(2L)));
+		assertEquals(List.of(1L, 5L), obtener(MASW, List.of(1L, 5L)));
+		assertEquals(4, calculos.get());
+		assertEquals(2, cache.estadisticas().getInvalidaciones());
+	}
+
+	@Test
+	void unEstudioQueSigueEnElFiltroNoLoInvalida() {
+		obtener(GPR, List.of(1L, 2L));
+
+		// Editar otro campo de un estudio que sigue cumpliendo el filtro no cambia el resultado
+		cache.onEstudioGuardado(guardado(1L, EnumTipoEstudioGeofisico.GPR));
+
+		assertEquals(List.of(1L, 2L), obtener(GPR, List.of()));
+		assertEquals(1, calculos.get());
+		assertEquals(0, cache.estadisticas().getInvalidaciones());
+	}
+
+	@Test
+	void eliminarUnEstudioInvalidaSoloLosFiltrosQueLoContienen() {
+		obtener(GPR, List.of(1L, 2L));
+		obtener(MASW, List.of(5L));
+
+		cache.onEstudioEliminado(new EstudioGeofisicoEliminadoEvent(2L));
+
+		assertEquals(List.of(1L), obtener(GPR, List.of(1L)));
+		assertEquals(List.of(5L), obtener(MASW, List.of()));
+		assertEquals(3, calculos.get());
+		assertEquals(1, cache.estadisticas().getInvalidaciones());
+	}
+
+	@Test
+	void noAlmacenaUnResultadoCalculadoDuranteUnCambio() {
+		// El guardado se confirma mientras se calcula el filtro, que pudo leer los datos anteriores
+		List<Long> calculado = cache.obtener(GPR, () -> {
+			calculos.incrementAndGet();
+			cache.onEstudioGuardado(guardado(3L, EnumTipoEstudioGeofisico.GPR));
+			return List.of(1L, 2L);
+		});
+
+		assertEquals(List.of(1L, 2L), calculado);
+		assertEquals(0, cache.estadisticas().getEntradas());
+		assertEquals(List.of(1L, 2L, 3L), obtener(GPR, List.of(1L, 2L, 3L)));
+		assertEquals(2, calculos.get());
+		assertEquals(1, cache.estadisticas().getEntradas());
+	}
+
+	private List<Long> obtener(FiltroNormalizado filtro, List<Long> ids) {
+		return cache.obtener(filtro, () -> {
+			calculos.incrementAndGet();
+			return ids;
+		});
+	}
+
+	private static FiltroNormalizado porTipo(EnumTipoEstudioGeofisico tipo) {
+		int mascara = MascaraBitsUtils.aMascara(Set.of(tipo));
+		return FiltroNormalizado.builder()
+				.mascaraTipos(mascara)
+				.minimoTipos(MascaraBitsUtils.minimoCoincidencia(mascara, MascaraBitsUtils.MODO_ALGUNO))
+				.build();
+	}
+
+	private static EstudioGeofisicoGuardadoEvent guardado(Long id, EnumTipoEstudioGeofisico tipo) {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setId(id);
+		estudio.setNombreEstudio("Estudio " + id);
+		estudio.setFechaRealizado(new Date());
+		estudio.setTiposEstudio(new HashSet<>(Set.of(tipo)));
+		return new EstudioGeofisicoGuardadoEvent(estudio);
+	}
+}
@@ -0,0 +1,96 @@
+package com.felipeguell.terraserv.api.rest.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasCacheUrls;
+
+/**
+ * Verifica que la caché reutiliza las URLs vigentes, las vuelve a firmar antes de que venzan sin verificar
+ * de nuevo el objeto, y verifica el objeto otra vez después de invalidarlo.
+ */
+class CacheUrlsFirmadasTests {
+
+	private final List<String> verificadas = new ArrayList<>();
+	private final AtomicInteger firmas = new AtomicInteger();
+
+	@Test
+	void reutilizaLaUrlVigenteSinVolverAFirmar() {
+		CacheUrlsFirmadas cache = new CacheUrlsFirmadas(3600, 900, 100);
+
+		String primera = obtener(cache, "img-1");
+		String segunda = obtener(cache, "img-1");
+
+		assertEquals(primera, segunda);
+		assertEquals(List.of("img-1"), verificadas);
+		assertEquals(1, firmas.get());
+
+		EstadisticasCacheUrls estadisticas = cache.estadisticas();
+		assertEquals(1, estadisticas.getAciertos());
+		assertEquals(1, estadisticas.getFallos());
+		assertEquals(0.5, estadisticas.getTasaAciertos());
+		assertEquals(1, estadisticas.getFirmas());
+	}
+
+	@Test
+	void renuevaAntesDelVencimientoSinVerificarElObjeto() throws InterruptedException {
+		CacheUrlsFirmadas cache = new CacheUrlsFirmadas(2, 1, 100);
+
+		String primera = obtener(cache, "img-1");
+		Thread.sleep(1100);
+		String renovada = obtener(cache, "img-1");
+
+		assertNotEquals(primera, renovada);
+		assertEquals(List.of("img-1"), verificadas);
+		assertEquals(1, cache.estadisticas().getRenovaciones());
+	}
+
+	@Test
+	void verificaDeNuevoDespuesDeInvalidar() {
+		CacheUrlsFirmadas cache = new CacheUrlsFirmadas(3600, 900, 100);
+
+		obtener(cache, "img-1");
+		cache.invalidar(List.of("img-1"));
+		obtener(cache, "img-1");
+
+		assertEquals(List.of("img-1", "img-1"), verificadas);
+		assertEquals(2, cache.estadisticas().getFallos());
+	}
+
+	@Test
+	void obtenerVigenteNoFirmaLasClavesQueNoEstanOPorVencer() throws InterruptedException {
+		CacheUrlsFirmadas cache = new CacheUrlsFirmadas(2, 1, 100);
+
+		assertNull(cache.obtenerVigente("img-1"));
+		String url = obtener(cache, "img-1");
+		assertEquals(url, cache.obtenerVigente("img-1"));
+
+		Thread.sleep(1100);
+		assertNull(cache.obtenerVigente("img-1"));
+		assertEquals(1, firmas.get());
+		assertEquals(1, cache.estadisticas().getAciertos());
+	}
+
+	@Test
+	void noSuperaElMaximoDeEntradas() {
+		CacheUrlsFirmadas cache = new CacheUrlsFirmadas(3600, 900, 10);
+
+		for (int i = 0; i < 25; i++) {
+			obtener(cache, "img-" + i);
+		}
+
+		assertEquals(10, cache.estadisticas().getEntradas());
+	}
+
+	private String obtener(CacheUrlsFirmadas cache, String clave) {
+		return cache.obtener(clave, verificadas::add,
+				(key, expiracion) -> "https://bucket/" + key + "?n=" + firmas.incrementAndGet() + "&expira=" + expiracion.getTime());
+	}
+}
@@ -0,0 +1,241 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Decodifica las teselas generadas por CapaMvt y verifica el flujo de comandos de las geometrías (varint,
+ * zigzag, MoveTo, LineTo y ClosePath), la orientación de los anillos y que los valores de los atributos
+ * se escriben una sola vez.
+ */
+class CapaMvtTests {
+
+	@Test
+	void poligonoSeEscribeEnSentidoHorarioConDesplazamientosZigzag() {
+		CapaMvt capa = new CapaMvt("estudios");
+		// Anillo antihorario en coordenadas de tesela, cerrado con el primer vértice repetido
+		capa.agregar(300, "Estudio", 5, new int[] {0, 0, 100, 100, 0}, new int[] {0, 100, 100, 0, 0});
+
+		Capa decodificada = Capa.decodificar(capa.codificar());
+		assertEquals("estudios", decodificada.nombre);
+		assertEquals(2, decodificada.version);
+		assertEquals(CapaMvt.EXTENSION, decodificada.extension);
+		assertEquals(List.of("id", "nombre", "tipos"), decodificada.claves);
+
+		Feature feature = decodificada.features.get(0);
+		assertEquals(300, feature.id);
+		assertEquals(3, feature.tipo);
+		// MoveTo(1) (100,0); LineTo(3) (0,+100) (-100,0) (0,-100); ClosePath(1)
+		assertEquals(List.of(9L, 200L, 0L, 26L, 0L, 200L, 199L, 0L, 0L, 199L, 15L), feature.geometria);
+
+		List<long[]> vertices = vertices(feature.geometria);
+		assertEquals(4, vertices.size());
+		assertTrue(areaDoble(vertices) > 0, "El anillo exterior debe quedar en sentido horario");
+	}
+
+	@Test
+	void puntoConCoordenadasNegativasUsaZigzag() {
+		CapaMvt capa = new CapaMvt("estudios");
+		capa.agregar(1, null, 0, new int[] {-3, -3}, new int[] {4, 4});
+
+		Feature feature = Capa.decodificar(capa.codificar()).features.get(0);
+		assertEquals(1, feature.tipo);
+		assertEquals(List.of(9L, 5L, 8L), feature.geometria);
+		long[] punto = vertices(feature.geometria).get(0);
+		assertEquals(-3, punto[0]);
+		assertEquals(4, punto[1]);
+	}
+
+	@Test
+	void dosVerticesDistintosSeEscribenComoLinea() {
+		CapaMvt capa = new CapaMvt("estudios");
+		capa.agregar(1, null, 0, new int[] {10, 20}, new int[] {10, 10});
+
+		Feature feature = Capa.decodificar(capa.codificar()).features.get(0);
+		assertEquals(2, feature.tipo);
+		assertEquals(List.of(9L, 20L, 20L, 10L, 20L, 0L), feature.geometria);
+	}
+
+	@Test
+	void losValoresRepetidosSeEscribenUnaSolaVez() {
+		CapaMvt capa = new CapaMvt("estudios");
+		capa.agregar(1, "Compartido", 5, new int[] {1}, new int[] {1});
+		capa.agregar(2, "Compartido", 5, new int[] {2}, new int[] {2});
+
+		Capa decodificada = Capa.decodificar(capa.codificar());
+		assertEquals(List.of(1L, "Compartido", 5L, 2L), decodificada.valores);
+		assertEquals(List.of(0L, 0L, 1L, 1L, 2L, 2L), decodificada.features.get(0).etiquetas);
+		assertEquals(List.of(0L, 3L, 1L, 1L, 2L, 2L), decodificada.features.get(1).etiquetas);
+	}
+
+	@Test
+	void capaSinFeaturesNoGeneraBytes() {
+		assertEquals(0, new CapaMvt("estudios").codificar().length);
+	}
+
+	/**
+	 * Recorre los comandos de una geometría y devuelve sus vértices en coordenadas absolutas de la tesela.
+	 */
+	private static List<long[]> vertices(List<Long> geometria) {
+		List<long[]> vertices = new ArrayList<>();
+		long x = 0;
+		long y = 0;
+		int i = 0;
+		while (i < geometria.size()) {
+			long comando = geometria.get(i++);
+			long id = comando & 0x7;
+			long cantidad = comando >>> 3;
+			if (id == 7) {
+				continue;
+			}
+			for (long j = 0; j < cantidad; j++) {
+				x += deszigzag(geometria.get(i++));
+				y += deszigzag(geometria.get(i++));
+				vertices.add(new long[] {x, y});
+			}
+		}
+		return vertices;
+	}
+
+	private static long areaDoble(List<long[]> vertices) {
+		long area = 0;
+		for (int i = 0; i < vertices.size(); i++) {
+			long[] actual = vertices.get(i);
+			long[] siguiente = vertices.get((i + 1) % vertices.size());
+			area += actual[0] * siguiente[1] - siguiente[0] * actual[1];
+		}
+		return area;
+	}
+
+	private static long deszigzag(long valor) {
+		return (valor >>> 1) ^ -(valor & 1);
+	}
+
+	private static final class Capa {
+		String nombre;
+		long version;
+		long extension;
+		final List<String> claves = new ArrayList<>();
+		final List<Object> valores = new ArrayList<>();
+		final List<Feature> features = new ArrayList<>();
+
+		static Capa decodificar(byte[] tesela) {
+			Lector lectorTesela = new Lector(tesela);
+			assertEquals(3, lectorTesela.campo());
+			Lector lector = lectorTesela.mensaje();
+			assertTrue(lectorTesela.terminado());
+
+			Capa capa = new Capa();
+			while (!lector.terminado()) {
+				switch (lector.campo()) {
+					case 1 -> capa.nombre = lector.texto();
+					case 2 -> capa.features.add(Feature.decodificar(lector.mensaje()));
+					case 3 -> capa.claves.add(lector.texto());
+					case 4 -> capa.valores.add(valor(lector.mensaje()));
+					case 5 -> capa.extension = lector.varint();
+					case 15 -> capa.version = lector.varint();
+					default -> throw new AssertionError("Campo inesperado en la capa");
+				}
+			}
+			return capa;
+		}
+
+		private static Object valor(Lector lector) {
+			Object valor = switch (lector.campo()) {
+				case 1 -> lector.texto();
+				case 5 -> lector.varint();
+				default -> throw new AssertionError("Tipo de valor inesperado");
+			};
+			assertTrue(lector.terminado());
+			return valor;
+		}
+	}
+
+	private static final class Feature {
+		long id;
+		long tipo;
+		List<Long> etiquetas;
+		List<Long> geometria;
+
+		static Feature decodificar(Lector lector) {
+			Feature feature = new Feature();
+			while (!lector.terminado()) {
+				switch (lector.campo()) {
+					case 1 -> feature.id = lector.varint();
+					case 2 -> feature.etiquetas = lector.mensaje().varints();
+					case 3 -> feature.tipo = lector.varint();
+					case 4 -> feature.geometria = lector.mensaje().varints();
+					default -> throw new AssertionError("Campo inesperado en la feature");
+				}
+			}
+			return feature;
+		}
+	}
+
+	/**
+	 * Lectura mínima de mensajes Protocol Buffers con campos varint y delimitados por longitud.
+	 */
+	private static final class Lector {
+		private final byte[] datos;
+		private int posicion;
+		private final int fin;
+
+		Lector(byte[] datos) {
+			this(datos, 0, datos.length);
+		}
+
+		private Lector(byte[] datos, int inicio, int fin) {
+			this.datos = datos;
+			this.posicion = inicio;
+			this.fin = fin;
+		}
+
+		boolean terminado() {
+			return posicion >= fin;
+		}
+
+		int campo() {
+			return (int) (varint() >>> 3);
+		}
+
+		long varint() {
+			long valor = 0;
+			int desplazamiento = 0;
+			byte actual;
+			do {
+				actual = datos[posicion++];
+				valor |= (long) (actual & 0x7F) << desplazamiento;
+				desplazamiento += 7;
+			} while ((actual & 0x80) != 0);
+			return valor;
+		}
+
+		Lector mensaje() {
+			int largo = (int) varint();
+			Lector mensaje = new Lector(datos, posicion, posicion + largo);
+			posicion += largo;
+			return mensaje;
+		}
+
+		String texto() {
+			int largo = (int) varint();
+			String texto = new String(datos, posicion, largo, StandardCharsets.UTF_8);
+			posicion += largo;
+			return texto;
+		}
+
+		List<Long> varints() {
+			List<Long> valores = new ArrayList<>();
+			while (!terminado()) {
+				valores.add(varint());
+			}
+			return valores;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.IndiceNoDisponibleException;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+/**
+ * Compara las búsquedas del índice espacial con un recorrido de todos los estudios: por rectángulo, incluido uno
+ * que cruza el antimeridiano, por radio, y de los más cercanos según la distancia de semiverseno a su coordenada
+ * más cercana, con y sin filtro por las máscaras de tipos guardadas en el índice, y con más estudios pedidos que
+ * los que cumplen el filtro.
+ */
+class IndiceEspacialEstudiosTests {
+
+	private static final double RADIO_TIERRA_KM = 6371.0088;
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao = mock(IEstudioGeofisicoDao.class);
+	private final IndiceEspacialEstudios indiceEspacialEstudios = new IndiceEspacialEstudios(estudioGeofisicoDao);
+
+	private static final int GPR = MascaraBitsUtils.aMascara(List.of(EnumTipoEstudioGeofisico.GPR));
+	private static final int MASW = MascaraBitsUtils.aMascara(List.of(EnumTipoEstudioGeofisico.MASW));
+	private static final int POZO = MascaraBitsUtils.aMascara(List.of(EnumTipoEstudioGeofisico.PERFILAJE_POZO));
+
+	// Únicos estudios con el tipo PERFILAJE_POZO, además de GPR
+	private static final Set<Long> POCOS = Set.of(14L, 700L, 1400L, 1995L);
+
+	private final Map<Long, List<Coordenada>> estudios = new LinkedHashMap<>();
+	// Estudios de tipo GPR; el resto es de tipo MASW
+	private final Set<Long> conTipo = new HashSet<>();
+
+	@BeforeEach
+	void setUp() {
+		when(estudioGeofisicoDao.findAllCoordenadasEstudio()).thenReturn(List.of());
+		indiceEspacialEstudios.cargar();
+
+		Random random = new Random(42);
+		for (long id = 1; id <= 2000; id++) {
+			List<Coordenada> coordenadas = new ArrayList<>();
+			int cantidad = 1 + random.nextInt(4);
+			// La mitad de los estudios se concentra en Chile central; el resto se reparte en todo el planeta
+			boolean cercano = id % 2 == 0;
+			double latitud = cercano ? -33 + random.nextDouble() * 4 : -89 + random.nextDouble() * 178;
+			double longitud = cercano ? -72 + random.nextDouble() * 4 : -179.9 + random.nextDouble() * 359.8;
+			for (int i = 0; i < cantidad; i++) {
+				coordenadas.add(new Coordenada(null,
+						Math.max(-90, Math.min(90, latitud + random.nextDouble() * 0.5)),
+						Math.max(-180, Math.min(180, longitud + random.nextDouble() * 0.5))));
+			}
+			estudios.put(id, coordenadas);
+			if (id % 7 == 0) {
+				conTipo.add(id);
+			}
+			int mascara = conTipo.contains(id) ? GPR | (POCOS.contains(id) ? POZO : 0) : MASW;
+			indiceEspacialEstudios.actualizar(id, coordenadas, mascara);
+		}
+	}
+
+	@Test
+	void elRectanguloCoincideConElRecorridoCompleto() {
+		compararRectangulo(-34, -30, -72, -69);
+		compararRectangulo(-90, 90, -180, 180);
+		compararRectangulo(10.3, 10.4, 20.3, 20.4);
+		// Con longitudMin mayor que longitudMax, el rectángulo cruza el antimeridiano
+		compararRectangulo(-60, 60, 150, -150);
+	}
+
+	@Test
+	void elRadioCoincideConElRecorridoCompleto() {
+		compararRadio(-33.45, -70.66, 50);
+		compararRadio(-31, -70, 300);
+		compararRadio(0, 0, 2000);
+		// Cerca del polo, el radio cubre todas las longitudes
+		compararRadio(88, 0, 500);
+		compararRadio(-15, 179.9, 1500);
+	}
+
+	@Test
+	void losMasCercanosCoincidenConElRecorridoCompleto() {
+		comparar(-33.45, -70.66, 25, 0, 0, id -> true);
+		comparar(10, 20, 50, 0, 0, id -> true);
+		// Cerca del antimeridiano, los más cercanos pueden estar al otro lado
+		comparar(-15, 179.9, 10, 0, 0, id -> true);
+	}
+
+	@Test
+	void conFiltroDeTiposSoloEntregaLosQueLoCumplen() {
+		comparar(-33.45, -70.66, 25, GPR, 1, conTipo::contains);
+		comparar(60, -150, 10, GPR, 1, conTipo::contains);
+		// Con modo "all" se exigen todos los tipos solicitados
+		comparar(-33.45, -70.66, 25, GPR | POZO, GPR | POZO, POCOS::contains);
+		comparar(-33.45, -70.66, 25, GPR | MASW, GPR | MASW, id -> false);
+	}
+
+	@Test
+	void pedirMasQueLosQueCumplenElFiltroEntregaTodosEnOrden() {
+		LinkedHashMap<Long, Double> resultado = comparar(0, 0, 50, POZO, 1, POCOS::contains);
+
+		assertEquals(4, resultado.size());
+	}
+
+	@Test
+	void actualizarReemplazaLaMascaraDeTipos() {
+		indiceEspacialEstudios.actualizar(1L, estudios.get(1L), POZO);
+
+		assertEquals(Set.of(1L, 14L, 700L, 1400L, 1995L), indiceEspacialEstudios.buscarMasCercanos(0, 0, 50, POZO, 1).keySet());
+	}
+
+	@Test
+	void antesDeCargarseRechazaLasBusquedas() {
+		IndiceEspacialEstudios sinCargar = new IndiceEspacialEstudios(estudioGeofisicoDao);
+
+		assertThrows(IndiceNoDisponibleException.class, () -> sinCargar.buscarMasCercanos(0, 0, 5, 0, 0));
+	}
+
+	private void compararRectangulo(double latitudMin, double latitudMax, double longitudMin, double longitudMax) {
+		Set<Long> esperados = estudios.entrySet().stream()
+				.filter(estudio -> estudio.getValue().stream().anyMatch(coordenada -> {
+					double latitud = coordenada.getLatitudDecimal();
+					double longitud = coordenada.getLongitudDecimal();
+					boolean enLongitud = longitudMin > longitudMax
+							? longitud >= longitudMin || longitud <= longitudMax
+							: longitud >= longitudMin && longitud <= longitudMax;
+					return latitud >= latitudMin && latitud <= latitudMax && enLongitud;
+				}))
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toSet());
+
+		assertEquals(esperados, indiceEspacialEstudios.buscarEnRectangulo(latitudMin, latitudMax, longitudMin, longitudMax));
+	}
+
+	private void compararRadio(double latitud, double longitud, double radioKm) {
+		Set<Long> esperados = estudios.entrySet().stream()
+				.filter(estudio -> distanciaMinimaKm(latitud, longitud, estudio.getValue()) <= radioKm)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toSet());
+
+		Set<Long> resultado = indiceEspacialEstudios.buscarEnRadio(latitud, longitud, radioKm);
+
+		assertEquals(esperados, resultado);
+	}
+
+	/**
+	 * Verifica que el índice entrega los mismos estudios, en el mismo orden y con la misma distancia que el
+	 * recorrido completo.
+	 */
+	private LinkedHashMap<Long, Double> comparar(double latitud, double longitud, int cantidad, int mascaraTipos, int minimoTipos,
+			LongPredicate filtro) {
+		List<Map.Entry<Long, Double>> esperados = estudios.entrySet().stream()
+				.filter(estudio -> filtro.test(estudio.getKey()))
+				.map(estudio -> Map.entry(estudio.getKey(), distanciaMinimaKm(latitud, longitud, estudio.getValue())))
+				.sorted(Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+				.limit(cantidad)
+				.toList();
+
+		LinkedHashMap<Long, Double> resultado = indiceEspacialEstudios.buscarMasCercanos(latitud, longitud, cantidad, mascaraTipos, minimoTipos);
+
+		assertEquals(esperados.stream().map(Map.Entry::getKey).toList(), new ArrayList<>(resultado.keySet()));
+		for (Map.Entry<Long, Double> esperado : esperados) {
+			assertEquals(esperado.getValue(), resultado.get(esperado.getKey()), 1e-6);
+		}
+		return resultado;
+	}
+
+	private static double distanciaMinimaKm(double latitud, double longitud, List<Coordenada> coordenadas) {
+		return coordenadas.stream()
+				.mapToDouble(coordenada -> semiverseno(latitud, longitud, coordenada.getLatitudDecimal(), coordenada.getLongitudDecimal()))
+				.min()
+				.orElseThrow();
+	}
+
+	private static double semiverseno(double latitud1, double longitud1, double latitud2, double longitud2) {
+		double fi1 = Math.toRadians(latitud1);
+		double fi2 = Math.toRadians(latitud2);
+		double h = Math.pow(Math.sin((fi2 - fi1) / 2), 2)
+				+ Math.cos(fi1) * Math.cos(fi2) * Math.pow(Math.sin(Math.toRadians(longitud2 - longitud1) / 2), 2);
+		return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+	}
+}
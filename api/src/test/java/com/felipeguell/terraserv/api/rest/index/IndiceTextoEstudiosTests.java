@@ -0,0 +1,175 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoEliminadoEvent;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.IndiceNoDisponibleException;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioTextoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+
+/**
+ * Verifica que el índice de texto entrega los mismos estudios que LIKE '%consulta%' sobre nombreEstudio,
+ * nombreCliente y ubicacionEstudio sin distinguir mayúsculas ni tildes: con consultas más cortas que un trigrama,
+ * con varias palabras, que deben aparecer juntas y en orden en un mismo campo, y después de guardar o eliminar
+ * estudios.
+ */
+class IndiceTextoEstudiosTests {
+
+	private final IEstudioGeofisicoDao estudioGeofisicoDao = mock(IEstudioGeofisicoDao.class);
+	private final IndiceTextoEstudios indiceTextoEstudios = new IndiceTextoEstudios(estudioGeofisicoDao);
+
+	@BeforeEach
+	void setUp() {
+		when(estudioGeofisicoDao.findAllTextosEstudio()).thenReturn(List.of(
+				texto(1L, "Exploración Minera Ñuñoa", "CODELCO", "Región de Valparaíso"),
+				texto(2L, "Prospección de aguas", "Aguas Andinas", "Maipú"),
+				texto(3L, "GPR en túnel", null, "Antofagasta"),
+				texto(4L, "Minera Norte", "Cliente Ñandú", "Región de Atacama")));
+		indiceTextoEstudios.cargar();
+	}
+
+	@Test
+	void normalizarQuitaTildesMayusculasYEspaciosExternos() {
+		assertEquals("arbol nandu pinguino", IndiceTextoEstudios.normalizar("  Árbol ÑANDÚ Pingüino \t"));
+		assertEquals("", IndiceTextoEstudios.normalizar(null));
+		assertEquals("", IndiceTextoEstudios.normalizar("   "));
+	}
+
+	@Test
+	void lasConsultasNoDistinguenMayusculasNiTildes() {
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("EXPLORACION"));
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("ñuñoa"));
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("nUnOa"));
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("codelco"));
+		assertEquals(Set.of(2L), indiceTextoEstudios.buscar("maipu"));
+		assertEquals(Set.of(1L, 4L), indiceTextoEstudios.buscar("región"));
+		assertEquals(Set.of(3L), indiceTextoEstudios.buscar("Tunel"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("Iquique"));
+	}
+
+	@Test
+	void lasConsultasCortasSeVerificanSobreCadaTexto() {
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("ÑU"));
+		assertEquals(Set.of(1L, 2L, 4L), indiceTextoEstudios.buscar("io"));
+		assertEquals(Set.of(3L), indiceTextoEstudios.buscar("gp"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("qz"));
+		// Sin texto, igual que LIKE '%%', todos los estudios coinciden
+		assertEquals(Set.of(1L, 2L, 3L, 4L), indiceTextoEstudios.buscar(" "));
+	}
+
+	@Test
+	void lasConsultasDeVariasPalabrasExigenTodasJuntasEnUnMismoCampo() {
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("minera ñuñoa"));
+		assertEquals(Set.of(1L, 4L), indiceTextoEstudios.buscar("Minera"));
+		assertEquals(Set.of(4L), indiceTextoEstudios.buscar("minera norte"));
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("region de valparaiso"));
+		// Palabras en otro orden o repartidas entre campos no coinciden, igual que con LIKE
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("ñuñoa minera"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("minera codelco"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("minera atacama"));
+	}
+
+	@Test
+	void losEventosDeGuardadoYEliminacionActualizanElIndice() {
+		indiceTextoEstudios.onEstudioGuardado(new EstudioGeofisicoGuardadoEvent(estudio(5L, "Sísmica en Calama", "Minera Escondida", "Calama")));
+		assertEquals(Set.of(5L), indiceTextoEstudios.buscar("sismica"));
+		assertEquals(Set.of(1L, 4L, 5L), indiceTextoEstudios.buscar("minera"));
+
+		// Al actualizar un estudio, sus textos anteriores dejan de coincidir
+		indiceTextoEstudios.onEstudioGuardado(new EstudioGeofisicoGuardadoEvent(estudio(1L, "Tomografía eléctrica", "CODELCO", "Rancagua")));
+		assertEquals(Set.of(1L), indiceTextoEstudios.buscar("tomografia"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("ñuñoa"));
+		assertEquals(Set.of(4L), indiceTextoEstudios.buscar("region"));
+		assertEquals(Set.of(4L, 5L), indiceTextoEstudios.buscar("minera"));
+
+		indiceTextoEstudios.onEstudioEliminado(new EstudioGeofisicoEliminadoEvent(5L));
+		indiceTextoEstudios.onEstudioEliminado(new EstudioGeofisicoEliminadoEvent(99L));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("sismica"));
+		assertEquals(Set.of(), indiceTextoEstudios.buscar("sm"));
+		assertEquals(Set.of(4L), indiceTextoEstudios.buscar("minera"));
+	}
+
+	@Test
+	void coincideConElRecorridoCompleto() {
+		Random random = new Random(7);
+		List<String> palabras = List.of("Área", "area", "Norte", "sur", "Ñuble", "nuble", "pozo", "Pozos", "agua", "túnel");
+		List<EstudioTextoProjection> filas = new ArrayList<>();
+		for (long id = 1; id <= 500; id++) {
+			filas.add(texto(id, frase(random, palabras), frase(random, palabras), frase(random, palabras)));
+		}
+		when(estudioGeofisicoDao.findAllTextosEstudio()).thenReturn(filas);
+		indiceTextoEstudios.cargar();
+
+		for (String consulta : List.of("AREA", "area nor", "pozos", "ñu", "NUBLE AGUA", "sur sur", "tunel area", "z", "xyz")) {
+			String normalizada = IndiceTextoEstudios.normalizar(consulta);
+			Set<Long> esperados = filas.stream()
+					.filter(fila -> Stream.of(fila.getNombreEstudio(), fila.getNombreCliente(), fila.getUbicacionEstudio())
+							.anyMatch(campo -> IndiceTextoEstudios.normalizar(campo).contains(normalizada)))
+					.map(EstudioTextoProjection::getId)
+					.collect(Collectors.toSet());
+
+			assertEquals(esperados, indiceTextoEstudios.buscar(consulta), consulta);
+		}
+	}
+
+	@Test
+	void antesDeCargarseRechazaLasBusquedas() {
+		IndiceTextoEstudios sinCargar = new IndiceTextoEstudios(estudioGeofisicoDao);
+
+		assertThrows(IndiceNoDisponibleException.class, () -> sinCargar.buscar("minera"));
+	}
+
+	private static String frase(Random random, List<String> palabras) {
+		return Stream.generate(() -> palabras.get(random.nextInt(palabras.size())))
+				.limit(1 + random.nextInt(3))
+				.collect(Collectors.joining(" "));
+	}
+
+	private static EstudioGeofisico estudio(Long id, String nombreEstudio, String nombreCliente, String ubicacionEstudio) {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setId(id);
+		estudio.setNombreEstudio(nombreEstudio);
+		estudio.setNombreCliente(nombreCliente);
+		estudio.setUbicacionEstudio(ubicacionEstudio);
+		return estudio;
+	}
+
+	private static EstudioTextoProjection texto(Long id, String nombreEstudio, String nombreCliente, String ubicacionEstudio) {
+		return new EstudioTextoProjection() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getNombreEstudio() {
+				return nombreEstudio;
+			}
+
+			@Override
+			public String getNombreCliente() {
+				return nombreCliente;
+			}
+
+			@Override
+			public String getUbicacionEstudio() {
+				return ubicacionEstudio;
+			}
+		};
+	}
+}
@@ -0,0 +1,87 @@
+package com.felipeguell.terraserv.api.rest.index;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica la prueba de intersección de PoligonoIndexado en los casos de borde: puntos en un agujero o sobre
+ * una arista, huellas que contienen al polígono completo o que quedan completas dentro de él, y un polígono
+ * con suficientes vértices para repartir sus aristas en varias franjas.
+ */
+class PoligonoIndexadoTests {
+
+	// Cuadrado de 10 x 10 con un agujero de 4 x 4 en el centro
+	private final PoligonoIndexado conAgujero = new PoligonoIndexado(List.of(
+			new double[][] {{0, 0}, {10, 0}, {10, 10}, {0, 10}, {0, 0}},
+			new double[][] {{3, 3}, {7, 3}, {7, 7}, {3, 7}}));
+
+	@Test
+	void unPuntoEnElAgujeroNoEstaDentro() {
+		assertFalse(conAgujero.contiene(5, 5));
+		assertFalse(conAgujero.interseca(new double[] {5}, new double[] {5}));
+		assertTrue(conAgujero.contiene(1, 1));
+		assertTrue(conAgujero.contiene(8, 5));
+	}
+
+	@Test
+	void losPuntosSobreUnaAristaEstanDentro() {
+		assertTrue(conAgujero.contiene(10, 5));
+		assertTrue(conAgujero.contiene(0, 0));
+		// Arista del agujero
+		assertTrue(conAgujero.contiene(5, 3));
+		assertFalse(conAgujero.contiene(10.001, 5));
+	}
+
+	@Test
+	void unaHuellaQueSoloTocaUnaAristaInterseca() {
+		// Segmento apoyado desde afuera sobre la arista derecha
+		assertTrue(conAgujero.interseca(new double[] {10, 12}, new double[] {5, 5}));
+		// Triángulo que solo comparte un vértice con el polígono
+		assertTrue(conAgujero.interseca(new double[] {10, 12, 12}, new double[] {10, 10, 12}));
+		assertFalse(conAgujero.interseca(new double[] {10.5, 12, 12}, new double[] {10, 10, 12}));
+	}
+
+	@Test
+	void unaHuellaQueContieneAlPoligonoInterseca() {
+		// Rectángulo que envuelve al polígono sin cruzar ninguna de sus aristas
+		assertTrue(conAgujero.interseca(new double[] {-5, 15, 15, -5}, new double[] {-5, -5, 15, 15}));
+	}
+
+	@Test
+	void unaHuellaDentroDelPoligonoInterseca() {
+		assertTrue(conAgujero.interseca(new double[] {1, 2, 2, 1}, new double[] {1, 1, 2, 2}));
+		// Huella que rodea al agujero sin tocarlo, dentro del anillo exterior
+		assertTrue(conAgujero.interseca(new double[] {2, 8, 8, 2}, new double[] {2, 2, 8, 8}));
+		// Huella completa dentro del agujero
+		assertFalse(conAgujero.interseca(new double[] {4, 6, 6, 4}, new double[] {4, 4, 6, 6}));
+	}
+
+	@Test
+	void unPoligonoConMuchosVerticesUsaVariasFranjas() {
+		// Círculo de radio 1 con 200 vértices
+		double[][] anillo = new double[200][];
+		for (int i = 0; i < anillo.length; i++) {
+			double angulo = 2 * Math.PI * i / anillo.length;
+			anillo[i] = new double[] {Math.cos(angulo), Math.sin(angulo)};
+		}
+		PoligonoIndexado circulo = new PoligonoIndexado(List.<double[][]>of(anillo));
+
+		assertTrue(circulo.contiene(0, 0));
+		assertTrue(circulo.contiene(0, 0.99));
+		assertFalse(circulo.contiene(0.8, 0.8));
+		assertTrue(circulo.cruzaSegmento(0, 0, 0, 2));
+		assertFalse(circulo.cruzaSegmento(-0.5, -0.5, 0.5, 0.5));
+	}
+
+	@Test
+	void rechazaAnillosConMenosDeTresVertices() {
+		assertThrows(IllegalArgumentException.class, () -> new PoligonoIndexado(List.of()));
+		assertThrows(IllegalArgumentException.class,
+				() -> new PoligonoIndexado(List.<double[][]>of(new double[][] {{0, 0}, {1, 1}, {0, 0}})));
+	}
+}
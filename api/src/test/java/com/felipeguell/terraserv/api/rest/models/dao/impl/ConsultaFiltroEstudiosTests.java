@@ -0,0 +1,137 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+
+/**
+ * Verifica que las consultas de filtrado solo contienen los predicados de los criterios presentes
+ * y que los criterios con la misma forma reutilizan la misma consulta. También verifica la división de los IDs
+ * candidatos en tramos y la consulta de los candidatos insertados en la tabla de trabajo.
+ */
+class ConsultaFiltroEstudiosTests {
+
+	@Test
+	void sinCriteriosNoGeneraWhere() {
+		String jpql = ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT e.id ", CriteriosFiltroEstudio.vacios(), null, "");
+
+		assertEquals("SELECT e.id FROM EstudioGeofisico e", jpql);
+	}
+
+	@Test
+	void soloIncluyeLosPredicadosPresentes() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder()
+				.fechaInicio(new Date(0)).fechaFin(new Date())
+				.mascaraAreas(3).minimoAreas(1)
+				.build();
+
+		String jpql = ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT e.id ", criterios, null, "");
+
+		assertEquals("SELECT e.id FROM EstudioGeofisico e WHERE e.fechaRealizado BETWEEN :fechaInicio AND :fechaFin" +
+				" AND bitand(e.areasEstudioMask, cast(:mascaraAreas as Integer)) >= :minimoAreas", jpql);
+		assertFalse(jpql.contains("is null"));
+		assertFalse(jpql.contains(":mascaraTipos"));
+	}
+
+	@Test
+	void unaSolaFechaNoFiltraPorFecha() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().fechaInicio(new Date()).build();
+
+		assertEquals(0, criterios.forma());
+	}
+
+	@Test
+	void laCondicionAdicionalSeAgregaAlWhere() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().ids(Set.of(1L, 2L)).build();
+
+		assertEquals("SELECT e.id FROM EstudioGeofisico e WHERE e.id IN :ids AND e.id > :ultimoId ORDER BY e.id",
+				ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT e.id ", criterios, "e.id > :ultimoId", " ORDER BY e.id"));
+		assertEquals("SELECT e.id FROM EstudioGeofisico e WHERE e.id > :ultimoId ORDER BY e.id",
+				ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT e.id ", CriteriosFiltroEstudio.vacios(), "e.id > :ultimoId", " ORDER BY e.id"));
+	}
+
+	@Test
+	void losCandidatosEnTablaSeUnenConUnSubselect() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().ids(Set.of(1L)).build().conCandidatosDe("consulta-1");
+
+		assertEquals(CriteriosFiltroEstudio.CANDIDATOS, criterios.forma());
+		assertEquals("SELECT e.id FROM RegistroEstudio e WHERE e.id IN (SELECT c.idEstudio FROM IdCandidatoConsulta c " +
+						"WHERE c.consulta = :consultaCandidatos) ORDER BY e.id ASC",
+				ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.REGISTROS, "SELECT e.id ", criterios, null, " ORDER BY e.id ASC"));
+	}
+
+	@Test
+	void elListadoSeFiltraSobreLaTablaDeRegistros() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().mascaraTipos(1).minimoTipos(1).build();
+
+		assertEquals("SELECT count(e) FROM RegistroEstudio e WHERE bitand(e.tiposEstudioMask, cast(:mascaraTipos as Integer)) >= :minimoTipos",
+				ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.REGISTROS, "SELECT count(e) ", criterios, null, ""));
+	}
+
+	@Test
+	void losCriteriosConLaMismaFormaReutilizanLaConsulta() {
+		CriteriosFiltroEstudio gpr = CriteriosFiltroEstudio.builder().mascaraTipos(1).minimoTipos(1).build();
+		CriteriosFiltroEstudio todos = CriteriosFiltroEstudio.builder().mascaraTipos(7).minimoTipos(7).build();
+
+		String primera = ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT count(e) ", gpr, null, "");
+		int cantidad = ConsultaFiltroEstudios.cantidadConsultas();
+		String segunda = ConsultaFiltroEstudios.jpql(ConsultaFiltroEstudios.ESTUDIOS, "SELECT count(e) ", todos, null, "");
+
+		assertSame(primera, segunda);
+		assertEquals(cantidad, ConsultaFiltroEstudios.cantidadConsultas());
+	}
+
+	@Test
+	void elOrdenamientoTerminaPorId() {
+		assertEquals(" ORDER BY e.nombreEstudio DESC, e.id ASC",
+				ConsultaFiltroEstudios.orderBy(Sort.by(Sort.Direction.DESC, "nombreEstudio")));
+		assertEquals(" ORDER BY e.id DESC", ConsultaFiltroEstudios.orderBy(Sort.by(Sort.Direction.DESC, "id")));
+		assertEquals(" ORDER BY e.id ASC", ConsultaFiltroEstudios.orderBy(Sort.unsorted()));
+	}
+
+	@Test
+	void rechazaCamposDeOrdenamientoNoPermitidos() {
+		IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+				() -> ConsultaFiltroEstudios.orderBy(Sort.by("descripcion; DROP TABLE usuarios")));
+
+		assertTrue(error.getMessage().contains("descripcion"));
+	}
+
+	@Test
+	void pocosIdsCandidatosNoSeDividen() {
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().ids(Set.of(1L, 2L)).build();
+
+		assertSame(criterios, ConsultaFiltroEstudios.tramos(criterios).get(0));
+		assertEquals(1, ConsultaFiltroEstudios.tramos(CriteriosFiltroEstudio.vacios()).size());
+	}
+
+	@Test
+	void muchosIdsCandidatosSeDividenEnTramosOrdenados() {
+		Set<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toSet());
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().ids(ids).mascaraTipos(1).minimoTipos(1).build();
+
+		List<CriteriosFiltroEstudio> tramos = ConsultaFiltroEstudios.tramos(criterios);
+
+		assertEquals(3, tramos.size());
+		assertEquals(ConsultaFiltroEstudios.MAXIMO_IDS_POR_CONSULTA, tramos.get(0).getIds().size());
+		assertEquals(500, tramos.get(2).getIds().size());
+		assertTrue(tramos.get(0).getIds().contains(1000L));
+		assertTrue(tramos.get(1).getIds().contains(1001L));
+		// Los demás criterios se conservan en cada tramo
+		tramos.forEach(tramo -> assertEquals(criterios.forma(), tramo.forma()));
+		assertEquals(ids, tramos.stream().flatMap(tramo -> tramo.getIds().stream()).collect(Collectors.toSet()));
+	}
+}
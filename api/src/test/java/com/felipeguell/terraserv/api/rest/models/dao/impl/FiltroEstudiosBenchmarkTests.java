@@ -0,0 +1,131 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+import com.felipeguell.terraserv.api.rest.models.dao.IEstudioGeofisicoDao;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compara, sobre un volumen grande de estudios, la consulta de filtrado con predicados ":x is null or ..."
+ * contra la consulta generada por forma. Con un rango de fechas, la consulta por forma puede usar el índice
+ * de fecha_realizado, mientras que la consulta con todos los predicados recorre la tabla completa.
+ *
+ * Solo se ejecuta con -Dbenchmark=true. La cantidad de estudios se configura con -Dbenchmark.estudios.
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FiltroEstudiosBenchmarkTests {
+
+	private static final int CANTIDAD_ESTUDIOS = Integer.getInteger("benchmark.estudios", 200_000);
+	private static final int REPETICIONES = 20;
+
+	// Consulta anterior, con un único plan para todas las combinaciones de criterios
+	private static final String JPQL_TODOS_LOS_PREDICADOS = "SELECT e.id FROM EstudioGeofisico e " +
+			"WHERE (:fechaInicio is null or :fechaFin is null or (e.fechaRealizado BETWEEN :fechaInicio AND :fechaFin)) " +
+			"AND (:mascaraTipos is null or bitand(e.tiposEstudioMask, cast(:mascaraTipos as Integer)) >= :minimoTipos) " +
+			"AND (:mascaraAreas is null or bitand(e.areasEstudioMask, cast(:mascaraAreas as Integer)) >= :minimoAreas) " +
+			"AND (:ids is null or e.id IN :ids)";
+
+	// SQL equivalente a cada consulta JPQL, para obtener el plan con EXPLAIN
+	private static final String SQL_TODOS_LOS_PREDICADOS = "SELECT id_estudio FROM estudios_geofisicos " +
+			"WHERE (CAST(? AS DATE) IS NULL OR CAST(? AS DATE) IS NULL OR fecha_realizado BETWEEN ? AND ?) " +
+			"AND (CAST(? AS INTEGER) IS NULL OR BITAND(tipos_estudio_mask, CAST(? AS INTEGER)) >= CAST(? AS INTEGER)) " +
+			"AND (CAST(? AS INTEGER) IS NULL OR BITAND(areas_estudio_mask, CAST(? AS INTEGER)) >= CAST(? AS INTEGER))";
+
+	private static final String SQL_POR_FORMA = "SELECT id_estudio FROM estudios_geofisicos " +
+			"WHERE fecha_realizado BETWEEN ? AND ?";
+
+	@Autowired
+	private IEstudioGeofisicoDao estudioGeofisicoDao;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final Date fechaInicio = Date.valueOf(LocalDate.of(2020, 3, 1));
+	private final Date fechaFin = Date.valueOf(LocalDate.of(2020, 3, 31));
+
+	@BeforeEach
+	void setUp() {
+		// Un estudio por día durante los años necesarios, con tipos y áreas variados
+		LocalDate primerDia = LocalDate.of(2000, 1, 1);
+		List<Object[]> filas = new ArrayList<>(CANTIDAD_ESTUDIOS);
+		for (int i = 0; i < CANTIDAD_ESTUDIOS; i++) {
+			filas.add(new Object[]{"Estudio " + i, "Cliente " + i, "Descripción " + i,
+					Date.valueOf(primerDia.plusDays(i % 9000)), "Ubicación " + i, 1 + i % 7, 1 + i % 3});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO estudios_geofisicos (nombre_estudio, nombre_cliente, descripcion, " +
+				"fecha_realizado, ubicacion_estudio, tipos_estudio_mask, areas_estudio_mask) VALUES (?, ?, ?, ?, ?, ?, ?)", filas);
+	}
+
+	@Test
+	void laConsultaPorFormaUsaElIndiceDeFechas() {
+		String planTodos = explicar(SQL_TODOS_LOS_PREDICADOS,
+				fechaInicio, fechaFin, fechaInicio, fechaFin, null, null, null, null, null, null);
+		String planPorForma = explicar(SQL_POR_FORMA, fechaInicio, fechaFin);
+
+		CriteriosFiltroEstudio criterios = CriteriosFiltroEstudio.builder().fechaInicio(fechaInicio).fechaFin(fechaFin).build();
+		List<Long> idsTodos = entityManager.createQuery(JPQL_TODOS_LOS_PREDICADOS, Long.class)
+				.setParameter("fechaInicio", fechaInicio)
+				.setParameter("fechaFin", fechaFin)
+				.setParameter("mascaraTipos", null)
+				.setParameter("minimoTipos", null)
+				.setParameter("mascaraAreas", null)
+				.setParameter("minimoAreas", null)
+				.setParameter("ids", null)
+				.getResultList();
+		List<Long> idsPorForma = estudioGeofisicoDao.findIdsFiltrados(criterios);
+
+		long nanosTodos = medir(() -> entityManager.createQuery(JPQL_TODOS_LOS_PREDICADOS, Long.class)
+				.setParameter("fechaInicio", fechaInicio)
+				.setParameter("fechaFin", fechaFin)
+				.setParameter("mascaraTipos", null)
+				.setParameter("minimoTipos", null)
+				.setParameter("mascaraAreas", null)
+				.setParameter("minimoAreas", null)
+				.setParameter("ids", null)
+				.getResultList());
+		long nanosPorForma = medir(() -> estudioGeofisicoDao.findIdsFiltrados(criterios));
+
+		System.out.printf("%n%d estudios, %d repeticiones%n", CANTIDAD_ESTUDIOS, REPETICIONES);
+		System.out.printf("Todos los predicados: %.2f ms por consulta%n%s%n", nanosTodos / 1e6 / REPETICIONES, planTodos);
+		System.out.printf("Por forma:            %.2f ms por consulta%n%s%n", nanosPorForma / 1e6 / REPETICIONES, planPorForma);
+
+		assertEquals(idsTodos.size(), idsPorForma.size());
+		assertTrue(planPorForma.toUpperCase().contains("IDX_ESTUDIOS_FECHA_REALIZADO"));
+		assertFalse(planTodos.toUpperCase().contains("IDX_ESTUDIOS_FECHA_REALIZADO"));
+	}
+
+	private String explicar(String sql, Object... parametros) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+	}
+
+	private static long medir(Supplier<List<Long>> consulta) {
+		// Calentamiento: interpretación de la consulta y preparación de la sentencia
+		consulta.get();
+		long inicio = System.nanoTime();
+		for (int i = 0; i < REPETICIONES; i++) {
+			consulta.get();
+		}
+		return System.nanoTime() - inicio;
+	}
+}
@@ -0,0 +1,136 @@
+package com.felipeguell.terraserv.api.rest.models.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.felipeguell.terraserv.api.rest.models.dao.CriteriosFiltroEstudio;
+import com.felipeguell.terraserv.api.rest.models.dao.IRegistroEstudioDao;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que, con más IDs candidatos que los que admite un IN, el listado se ordena y pagina en una sola
+ * consulta sobre el conjunto completo: recorrer todas las páginas por clave en ambas direcciones, con nombres que
+ * solo difieren en mayúsculas o acentos, entrega cada registro una vez y en el orden de la base de datos, igual
+ * que la paginación por número de página.
+ */
+@DataJpaTest
+class RegistrosConMuchosCandidatosTests {
+
+	private static final int CANTIDAD_REGISTROS = 1500;
+	private static final int TAMANO_PAGINA = 70;
+
+	// Nombres repetidos que solo difieren en mayúsculas o acentos, cuyo orden depende de la intercalación
+	private static final List<String> NOMBRES = List.of("árbol", "Arbol", "arbol", "Árbol", "Éxito", "eco", "Eco",
+			"zeta", "Zeta", "ñandú", "Nandu", "Ola");
+
+	@Autowired
+	private IRegistroEstudioDao registroEstudioDao;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Set<Long> candidatos;
+
+	@BeforeEach
+	void setUp() {
+		List<Object[]> filas = new ArrayList<>(CANTIDAD_REGISTROS);
+		for (long id = 1; id <= CANTIDAD_REGISTROS; id++) {
+			filas.add(new Object[]{id, NOMBRES.get((int) (id % NOMBRES.size())), Date.valueOf(LocalDate.of(2020, 1, 1)), 1, 1});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO registros_estudios (id_estudio, nombre_estudio, fecha_realizado, " +
+				"tipos_estudio_mask, areas_estudio_mask) VALUES (?, ?, ?, ?, ?)", filas);
+
+		// 1200 candidatos, más que ConsultaFiltroEstudios.MAXIMO_IDS_POR_CONSULTA
+		candidatos = filas.stream().map(fila -> (Long) fila[0]).filter(id -> id % 5 != 0).collect(Collectors.toSet());
+		assertTrue(candidatos.size() > ConsultaFiltroEstudios.MAXIMO_IDS_POR_CONSULTA);
+	}
+
+	@Test
+	void recorrerPorClaveEntregaCadaRegistroUnaVezEnElOrdenDeLaBaseDeDatos() {
+		for (Sort.Direction direccion : Sort.Direction.values()) {
+			List<Long> recorridos = new ArrayList<>();
+			String ultimoValor = null;
+			Long ultimoId = null;
+			List<EstudioGeofisicoProjection> pagina;
+			do {
+				pagina = registroEstudioDao.findFilteredEstudiosKeyset(criterios(), "nombreEstudio", direccion,
+						ultimoValor, ultimoId, TAMANO_PAGINA);
+				pagina.forEach(registro -> recorridos.add(registro.getId()));
+				if (!pagina.isEmpty()) {
+					ultimoValor = pagina.get(pagina.size() - 1).getNombreEstudio();
+					ultimoId = pagina.get(pagina.size() - 1).getId();
+				}
+			} while (pagina.size() == TAMANO_PAGINA);
+
+			assertEquals(ordenEsperado(direccion), recorridos, direccion.name());
+			assertTrue(candidatosPendientes().isEmpty());
+		}
+	}
+
+	@Test
+	void laPaginaPorNumeroCoincideConElOrdenDeLaBaseDeDatos() {
+		PageRequest pageable = PageRequest.of(9, TAMANO_PAGINA, Sort.by(Sort.Direction.ASC, "nombreEstudio"));
+		List<Long> esperados = ordenEsperado(Sort.Direction.ASC).subList(9 * TAMANO_PAGINA, 10 * TAMANO_PAGINA);
+
+		Page<EstudioGeofisicoProjection> pagina = registroEstudioDao.findFilteredEstudios(criterios(), pageable);
+		Slice<EstudioGeofisicoProjection> slice = registroEstudioDao.findFilteredEstudiosSlice(criterios(), pageable);
+
+		assertEquals(esperados, pagina.getContent().stream().map(EstudioGeofisicoProjection::getId).collect(Collectors.toList()));
+		assertEquals(candidatos.size(), pagina.getTotalElements());
+		assertEquals(esperados, slice.getContent().stream().map(EstudioGeofisicoProjection::getId).collect(Collectors.toList()));
+		assertTrue(slice.hasNext());
+		assertTrue(candidatosPendientes().isEmpty());
+	}
+
+	@Test
+	void laUltimaPaginaNoTieneSiguiente() {
+		int ultima = (candidatos.size() - 1) / TAMANO_PAGINA;
+		Slice<EstudioGeofisicoProjection> slice = registroEstudioDao.findFilteredEstudiosSlice(criterios(),
+				PageRequest.of(ultima, TAMANO_PAGINA, Sort.by(Sort.Direction.DESC, "nombreEstudio")));
+
+		assertEquals(candidatos.size() - ultima * TAMANO_PAGINA, slice.getNumberOfElements());
+		assertFalse(slice.hasNext());
+	}
+
+	private CriteriosFiltroEstudio criterios() {
+		return CriteriosFiltroEstudio.builder().ids(candidatos).mascaraTipos(1).minimoTipos(1).build();
+	}
+
+	/**
+	 * Orden de los candidatos según la base de datos, obtenido sin IDs candidatos en la consulta.
+	 */
+	private List<Long> ordenEsperado(Sort.Direction direccion) {
+		return entityManager.createQuery("SELECT r.id FROM RegistroEstudio r ORDER BY r.nombreEstudio " + direccion.name() +
+						", r.id " + direccion.name(), Long.class)
+				.getResultList().stream()
+				.filter(candidatos::contains)
+				.collect(Collectors.toList());
+	}
+
+	private List<Long> candidatosPendientes() {
+		return entityManager.createQuery("SELECT c.idEstudio FROM IdCandidatoConsulta c", Long.class).getResultList();
+	}
+}
@@ -0,0 +1,138 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.felipeguell.terraserv.api.rest.amazon.S3Service;
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.dao.IObjetoS3PendienteDao;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+import com.felipeguell.terraserv.api.rest.models.entity.RegistroEstudio;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EliminacionObjetosS3ServiceImpl;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que eliminar un estudio deja sus objetos de Amazon S3 pendientes en la misma transacción, sin llamar
+ * a Amazon S3, y que el proceso en segundo plano quita los eliminados, posterga los que fallan y descarta los
+ * que volvieron a ser referenciados.
+ */
+@DataJpaTest
+@Import({EstudioGeofisicoServiceImpl.class, EliminacionObjetosS3ServiceImpl.class, IndiceEspacialEstudios.class,
+		IndiceTextoEstudios.class, ContadoresFacetasEstudios.class, SugerenciasEstudios.class, ClustersMapaEstudios.class,
+		TeselasVectorialesEstudios.class, CacheFiltrosEstudios.class})
+class EliminacionObjetosS3ServiceTests {
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private IEliminacionObjetosS3Service eliminacionObjetosS3Service;
+
+	@Autowired
+	private IObjetoS3PendienteDao objetoS3PendienteDao;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@MockBean
+	private S3Service s3Service;
+
+	private Long id;
+
+	@BeforeEach
+	void setUp() {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setNombreEstudio("Estudio");
+		estudio.setNombreCliente("Cliente");
+		estudio.setDescripcion("Descripción");
+		estudio.setFechaRealizado(new Date());
+		estudio.setUbicacionEstudio("Ubicación");
+		estudio.setCoordenadas(new ArrayList<>(List.of(
+				new Coordenada(null, -33.0, -70.0),
+				new Coordenada(null, -33.1, -70.1))));
+		estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR)));
+		estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+		estudio.setImagenes(new ArrayList<>(List.of(
+				new Imagen(null, "img-1", "img-1.png", 10L, null),
+				new Imagen(null, "img-2", "img-2.png", 10L, null))));
+		estudio.setArchivosAdjuntos(new ArrayList<>(List.of(new ArchivoAdjunto(null, "doc-1", "doc-1.pdf", 10L, null))));
+		entityManager.persist(estudio);
+		entityManager.persist(new RegistroEstudio(estudio));
+		entityManager.flush();
+		entityManager.clear();
+		id = estudio.getId();
+	}
+
+	@Test
+	void eliminarEstudioDejaSusObjetosPendientesSinLlamarAAmazonS3() {
+		assertTrue(estudioGeofisicoService.deleteById(id));
+		entityManager.flush();
+
+		assertEquals(Set.of("img-1", "img-2", "doc-1"),
+				Set.copyOf(objetoS3PendienteDao.findAll().stream().map(ObjetoS3Pendiente::getClave).toList()));
+		verifyNoInteractions(s3Service);
+	}
+
+	@Test
+	void eliminarPendientesQuitaLosEliminadosYPostergaLosFallidos() {
+		estudioGeofisicoService.deleteById(id);
+		entityManager.flush();
+		when(s3Service.deleteObjects(anyList())).thenReturn(List.of("img-1"));
+
+		assertEquals(2, eliminacionObjetosS3Service.eliminarPendientes());
+		verify(s3Service).deleteObjects(anyList());
+		entityManager.clear();
+
+		List<ObjetoS3Pendiente> pendientes = objetoS3PendienteDao.findAll();
+		assertEquals(1, pendientes.size());
+		assertEquals("img-1", pendientes.get(0).getClave());
+		assertEquals(1, pendientes.get(0).getIntentos());
+		assertTrue(pendientes.get(0).getProximoIntento().after(new Date()));
+
+		// El objeto postergado no se reintenta antes de su próximo intento
+		assertEquals(0, eliminacionObjetosS3Service.eliminarPendientes());
+		verify(s3Service).deleteObjects(anyList());
+	}
+
+	@Test
+	void eliminarPendientesDescartaLosObjetosReferenciadosDespuesDeEncolarlos() {
+		// Un huérfano de la reconciliación que luego se asoció al estudio del setUp
+		entityManager.persist(new ObjetoS3Pendiente("img-1", new Date()));
+		entityManager.flush();
+
+		assertEquals(0, eliminacionObjetosS3Service.eliminarPendientes());
+		verifyNoInteractions(s3Service);
+		assertTrue(objetoS3PendienteDao.findAll().isEmpty());
+	}
+}
@@ -0,0 +1,177 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.config.CacheSegundoNivelConfig;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.entity.RegistroEstudio;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que las colecciones del estudio se leen desde la caché de segundo nivel en una nueva sesión y que,
+ * al modificarlas con el servicio, la siguiente sesión obtiene su contenido actual desde la base de datos en
+ * lugar de las entradas anteriores. Cada paso se ejecuta en su propia transacción confirmada, ya que la caché
+ * READ_WRITE solo se actualiza al confirmar.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EstudioGeofisicoServiceImpl.class, IndiceEspacialEstudios.class, IndiceTextoEstudios.class, ContadoresFacetasEstudios.class,
+		SugerenciasEstudios.class, ClustersMapaEstudios.class, TeselasVectorialesEstudios.class,
+		CacheFiltrosEstudios.class, CacheSegundoNivelConfig.class})
+class EstudioGeofisicoCacheSegundoNivelTests {
+
+	private static final String COORDENADAS = EstudioGeofisico.class.getName() + ".coordenadas";
+	private static final String TIPOS_ESTUDIO = EstudioGeofisico.class.getName() + ".tiposEstudio";
+	private static final String AREAS_ESTUDIO = EstudioGeofisico.class.getName() + ".areasEstudio";
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	private SessionFactory sessionFactory;
+
+	private Statistics statistics;
+
+	private Long id;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+		statistics = sessionFactory.getStatistics();
+
+		id = transactionTemplate.execute(estado -> {
+			EstudioGeofisico estudio = estudioRecibido();
+			entityManager.persist(estudio);
+			entityManager.persist(new RegistroEstudio(estudio));
+			return estudio.getId();
+		});
+		sessionFactory.getCache().evictAllRegions();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		transactionTemplate.executeWithoutResult(estado -> {
+			entityManager.remove(entityManager.find(RegistroEstudio.class, id));
+			entityManager.remove(entityManager.find(EstudioGeofisico.class, id));
+		});
+		sessionFactory.getCache().evictAllRegions();
+	}
+
+	@Test
+	void lasColeccionesModificadasSeLeenActualizadasEnUnaNuevaSesion() {
+		// Primera lectura: las colecciones no están en la caché y se almacenan
+		cargar();
+		assertEquals(1, statistics.getCollectionStatistics(COORDENADAS).getCacheMissCount());
+		assertEquals(1, statistics.getCollectionStatistics(COORDENADAS).getCachePutCount());
+		assertEquals(1, statistics.getCollectionStatistics(TIPOS_ESTUDIO).getCachePutCount());
+
+		// Segunda lectura en otra sesión: el estudio y sus colecciones se obtienen desde la caché
+		statistics.clear();
+		cargar();
+		assertEquals(1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getCacheHitCount());
+		assertEquals(1, statistics.getCollectionStatistics(COORDENADAS).getCacheHitCount());
+		assertEquals(1, statistics.getCollectionStatistics(TIPOS_ESTUDIO).getCacheHitCount());
+		assertEquals(1, statistics.getCollectionStatistics(AREAS_ESTUDIO).getCacheHitCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+		assertEquals(0, statistics.getEntityStatistics(Coordenada.class.getName()).getLoadCount());
+
+		EstudioGeofisico recibido = estudioRecibido();
+		recibido.getCoordenadas().add(new Coordenada(null, -33.3, -70.2));
+		recibido.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.SEV_WENNER)));
+		estudioGeofisicoService.update(id, recibido, null);
+
+		// Después de la edición, las colecciones modificadas se vuelven a leer; la que no cambió sigue en la caché
+		statistics.clear();
+		EstudioGeofisico actualizado = cargar();
+		assertEquals(4, actualizado.getCoordenadas().size());
+		assertEquals(-33.3, actualizado.getCoordenadas().get(3).getLatitudDecimal());
+		assertEquals(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.SEV_WENNER), actualizado.getTiposEstudio());
+		assertTrue(actualizado.getAreasEstudio().contains(EnumAreaAplicacionEstudioGeofisico.MINERIA));
+
+		assertEquals(0, statistics.getCollectionStatistics(COORDENADAS).getCacheHitCount());
+		assertEquals(1, statistics.getCollectionStatistics(COORDENADAS).getCacheMissCount());
+		assertEquals(0, statistics.getCollectionStatistics(TIPOS_ESTUDIO).getCacheHitCount());
+		assertEquals(1, statistics.getCollectionStatistics(TIPOS_ESTUDIO).getCacheMissCount());
+		assertEquals(1, statistics.getCollectionStatistics(AREAS_ESTUDIO).getCacheHitCount());
+		assertEquals(2, statistics.getCollectionFetchCount());
+
+		CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(COORDENADAS);
+		assertEquals(1, region.getPutCount());
+	}
+
+	/**
+	 * Carga el estudio en una nueva sesión e inicializa sus colecciones de coordenadas, tipos y áreas.
+	 */
+	private EstudioGeofisico cargar() {
+		return transactionTemplate.execute(estado -> {
+			EstudioGeofisico estudio = entityManager.find(EstudioGeofisico.class, id);
+			Hibernate.initialize(estudio.getCoordenadas());
+			Hibernate.initialize(estudio.getTiposEstudio());
+			Hibernate.initialize(estudio.getAreasEstudio());
+			return estudio;
+		});
+	}
+
+	private static EstudioGeofisico estudioRecibido() {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setNombreEstudio("Estudio");
+		estudio.setNombreCliente("Cliente");
+		estudio.setDescripcion("Descripción");
+		estudio.setFechaRealizado(new Date(1_600_000_000_000L));
+		estudio.setUbicacionEstudio("Ubicación");
+		estudio.setCoordenadas(new ArrayList<>(List.of(
+				new Coordenada(null, -33.0, -70.0),
+				new Coordenada(null, -33.1, -70.1),
+				new Coordenada(null, -33.2, -70.0))));
+		estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.MASW)));
+		estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+		estudio.setImagenes(new ArrayList<>(List.of(new Imagen(null, "img-1", "img-1.png", 10L, null))));
+		estudio.setArchivosAdjuntos(new ArrayList<>(List.of(new ArchivoAdjunto(null, "doc-1", "doc-1.pdf", 10L, null))));
+		return estudio;
+	}
+}
@@ -0,0 +1,229 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.events.EstudioGeofisicoGuardadoEvent;
+import com.felipeguell.terraserv.api.rest.exceptionHandler.customExceptions.EstudioPreconditionFailedException;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.entity.RegistroEstudio;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que update compara las colecciones con las existentes y envía solo las sentencias necesarias,
+ * en lugar de eliminar y volver a insertar todas las filas hijas en cada edición, que una edición sin cambios
+ * no actualiza el registro ni publica el evento, que patch modifica solo los campos indicados, y que update y
+ * patch rechazan una versión anterior antes de cargar el estudio. También verifica que save inserta el registro
+ * del listado sin consultarlo antes.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RecordApplicationEvents
+@Import({EstudioGeofisicoServiceImpl.class, IndiceEspacialEstudios.class, IndiceTextoEstudios.class, ContadoresFacetasEstudios.class,
+		SugerenciasEstudios.class, ClustersMapaEstudios.class, TeselasVectorialesEstudios.class,
+		CacheFiltrosEstudios.class})
+class EstudioGeofisicoServiceActualizacionTests {
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ApplicationEvents eventos;
+
+	private Statistics statistics;
+
+	private Long id;
+
+	@BeforeEach
+	void setUp() {
+		EstudioGeofisico estudio = estudioRecibido("Descripción");
+		entityManager.persist(estudio);
+		entityManager.persist(new RegistroEstudio(estudio));
+		entityManager.flush();
+		entityManager.clear();
+		id = estudio.getId();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void editarSoloElNombreActualizaElEstudioYSuRegistroSinLeerElRegistro() {
+		EstudioGeofisico recibido = estudioRecibido("Descripción");
+		recibido.setNombreEstudio("Estudio corregido");
+
+		estudioGeofisicoService.update(id, recibido, null);
+		entityManager.flush();
+
+		// SELECT del estudio y de sus cinco colecciones, UPDATE del estudio y UPDATE directo del registro
+		assertEquals(8, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getEntityUpdateCount());
+		assertEquals(1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getUpdateCount());
+		assertEquals(0, statistics.getEntityStatistics(RegistroEstudio.class.getName()).getLoadCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityDeleteCount());
+		assertEquals(0, statistics.getCollectionUpdateCount());
+		assertEquals(0, statistics.getCollectionRecreateCount());
+		assertEquals(0, statistics.getCollectionRemoveCount());
+		assertEquals(1, eventos.stream(EstudioGeofisicoGuardadoEvent.class).count());
+
+		entityManager.clear();
+		assertEquals("Estudio corregido", entityManager.find(EstudioGeofisico.class, id).getNombreEstudio());
+		assertEquals("Estudio corregido", entityManager.find(RegistroEstudio.class, id).getNombreEstudio());
+	}
+
+	@Test
+	void editarSinCambiosNoEmiteSentenciasNiPublicaElEvento() {
+		estudioGeofisicoService.update(id, estudioRecibido("Descripción"), null);
+		entityManager.flush();
+
+		assertEquals(0, statistics.getEntityUpdateCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityDeleteCount());
+		assertEquals(0, statistics.getCollectionRecreateCount());
+		assertEquals(0, eventos.stream(EstudioGeofisicoGuardadoEvent.class).count());
+	}
+
+	@Test
+	void editarColeccionesModificaSoloLasFilasQueCambiaron() {
+		EstudioGeofisico recibido = estudioRecibido("Descripción");
+		recibido.getCoordenadas().get(1).setLatitudDecimal(-33.5);
+		recibido.getImagenes().remove(0);
+		recibido.getArchivosAdjuntos().add(new ArchivoAdjunto(null, "doc-2", "doc-2.pdf", 10L, null));
+		recibido.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.SEV_WENNER)));
+
+		estudioGeofisicoService.update(id, recibido, null);
+		entityManager.flush();
+
+		// Coordenada modificada en su lugar, máscara de tipos y centroide del estudio
+		assertEquals(1, statistics.getEntityStatistics(Coordenada.class.getName()).getUpdateCount());
+		assertEquals(0, statistics.getEntityStatistics(Coordenada.class.getName()).getInsertCount());
+		assertEquals(0, statistics.getEntityStatistics(Coordenada.class.getName()).getDeleteCount());
+		assertEquals(1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getUpdateCount());
+		assertEquals(1, statistics.getEntityStatistics(Imagen.class.getName()).getDeleteCount());
+		assertEquals(0, statistics.getEntityStatistics(Imagen.class.getName()).getInsertCount());
+		assertEquals(1, statistics.getEntityStatistics(ArchivoAdjunto.class.getName()).getInsertCount());
+		assertEquals(0, statistics.getEntityStatistics(ArchivoAdjunto.class.getName()).getDeleteCount());
+		assertEquals(0, statistics.getCollectionRecreateCount());
+
+		entityManager.clear();
+		EstudioGeofisico actualizado = entityManager.find(EstudioGeofisico.class, id);
+		assertEquals(-33.5, actualizado.getCoordenadas().get(1).getLatitudDecimal());
+		assertEquals(List.of("img-2"), actualizado.getImagenes().stream().map(Imagen::getImagenKey).toList());
+		assertEquals(2, actualizado.getArchivosAdjuntos().size());
+		assertTrue(actualizado.getTiposEstudio().contains(EnumTipoEstudioGeofisico.SEV_WENNER));
+		assertEquals(MascaraBitsUtils.aMascara(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.SEV_WENNER)),
+				entityManager.find(RegistroEstudio.class, id).getTiposEstudioMask());
+	}
+
+	@Test
+	void patchDeUnCampoNoModificaLasColecciones() {
+		EstudioGeofisico valores = new EstudioGeofisico();
+		valores.setDescripcion("Descripción corregida");
+
+		EstudioGeofisico modificado = estudioGeofisicoService.patch(id, valores, Set.of("descripcion"), Set.of(0L)).orElseThrow();
+		entityManager.flush();
+
+		assertEquals(1, modificado.getVersion());
+		assertEquals(1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getUpdateCount());
+		assertEquals(1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getLoadCount());
+		assertEquals(0, statistics.getCollectionUpdateCount());
+		assertEquals(0, statistics.getCollectionRecreateCount());
+		assertEquals(0, statistics.getCollectionRemoveCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityDeleteCount());
+	}
+
+	@Test
+	void patchConVersionAnteriorSeRechazaSinCargarElEstudio() {
+		EstudioGeofisico valores = new EstudioGeofisico();
+		valores.setDescripcion("Descripción corregida");
+
+		assertThrows(EstudioPreconditionFailedException.class,
+				() -> estudioGeofisicoService.patch(id, valores, Set.of("descripcion"), Set.of(7L)));
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getEntityUpdateCount());
+	}
+
+	@Test
+	void updateConVersionAnteriorSeRechazaSinCargarElEstudio() {
+		EstudioGeofisico recibido = estudioRecibido("Descripción corregida");
+
+		assertThrows(EstudioPreconditionFailedException.class,
+				() -> estudioGeofisicoService.update(id, recibido, Set.of(7L)));
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getEntityUpdateCount());
+	}
+
+	@Test
+	void guardarUnEstudioNuevoInsertaSuRegistroSinConsultarlo() {
+		EstudioGeofisico guardado = estudioGeofisicoService.save(estudioRecibido("Descripción"));
+		entityManager.flush();
+
+		assertEquals(1, statistics.getEntityStatistics(RegistroEstudio.class.getName()).getInsertCount());
+		assertEquals(0, statistics.getEntityStatistics(RegistroEstudio.class.getName()).getLoadCount());
+		// Secuencias e INSERT del estudio, sus filas hijas y el registro; con save se sumaba un SELECT del registro
+		assertEquals(17, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+
+		entityManager.clear();
+		assertEquals("Estudio", entityManager.find(RegistroEstudio.class, guardado.getId()).getNombreEstudio());
+	}
+
+	/**
+	 * Arma el estudio tal como lo envía el cliente al editar: todos los campos, con las mismas colecciones.
+	 */
+	private static EstudioGeofisico estudioRecibido(String descripcion) {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setNombreEstudio("Estudio");
+		estudio.setNombreCliente("Cliente");
+		estudio.setDescripcion(descripcion);
+		estudio.setFechaRealizado(new Date(1_600_000_000_000L));
+		estudio.setUbicacionEstudio("Ubicación");
+		estudio.setCoordenadas(new ArrayList<>(List.of(
+				new Coordenada(null, -33.0, -70.0),
+				new Coordenada(null, -33.1, -70.1),
+				new Coordenada(null, -33.2, -70.0))));
+		estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.MASW)));
+		estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+		estudio.setImagenes(new ArrayList<>(List.of(
+				new Imagen(null, "img-1", "img-1.png", 10L, null),
+				new Imagen(null, "img-2", "img-2.png", 10L, null))));
+		estudio.setArchivosAdjuntos(new ArrayList<>(List.of(new ArchivoAdjunto(null, "doc-1", "doc-1.pdf", 10L, null))));
+		return estudio;
+	}
+}
@@ -0,0 +1,131 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+import com.felipeguell.terraserv.api.rest.util.MascaraBitsUtils;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que las tareas de inicio que completan columnas calculadas recorren los estudios pendientes por
+ * lotes, sin quedar en un ciclo con los estudios que siguen sin valor, como los que no tienen coordenadas.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({EstudioGeofisicoServiceImpl.class, IndiceEspacialEstudios.class, IndiceTextoEstudios.class, ContadoresFacetasEstudios.class,
+		SugerenciasEstudios.class, ClustersMapaEstudios.class, TeselasVectorialesEstudios.class,
+		CacheFiltrosEstudios.class})
+class EstudioGeofisicoServiceCompletarTests {
+
+	// Más estudios que el tamaño de un lote, para recorrer al menos dos
+	private static final int CANTIDAD_ESTUDIOS = 600;
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+
+	private Long idSinCoordenadas;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < CANTIDAD_ESTUDIOS; i++) {
+			EstudioGeofisico estudio = new EstudioGeofisico();
+			estudio.setNombreEstudio("Estudio " + i);
+			estudio.setNombreCliente("Cliente " + i);
+			estudio.setDescripcion("Descripción " + i);
+			estudio.setFechaRealizado(new Date());
+			estudio.setUbicacionEstudio("Ubicación " + i);
+			estudio.setCoordenadas(new ArrayList<>(List.of(
+					new Coordenada(null, -33.0, -70.0 - i * 0.001),
+					new Coordenada(null, -34.0, -71.0))));
+			estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR)));
+			estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+			estudio.setImagenes(new ArrayList<>());
+			estudio.setArchivosAdjuntos(new ArrayList<>());
+			entityManager.persist(estudio);
+			if (i == 0) {
+				idSinCoordenadas = estudio.getId();
+			}
+		}
+		entityManager.flush();
+
+		// Simula los estudios guardados antes de que existieran las columnas calculadas
+		entityManager.createQuery("UPDATE EstudioGeofisico e SET e.latitudCentro = null, e.longitudCentro = null, " +
+				"e.latitudMin = null, e.latitudMax = null, e.longitudMin = null, e.longitudMax = null, " +
+				"e.tiposEstudioMask = null, e.areasEstudioMask = null").executeUpdate();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void completarExtensionRecorreLosEstudiosPorLotes() {
+		entityManager.createNativeQuery("DELETE FROM coordenadas WHERE estudio_id = :id")
+				.setParameter("id", idSinCoordenadas).executeUpdate();
+
+		assertEquals(CANTIDAD_ESTUDIOS, estudioGeofisicoService.completarExtensionEstudios());
+
+		// Un estudio sin coordenadas se procesa una sola vez y sigue sin centroide
+		assertEquals(CANTIDAD_ESTUDIOS, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getLoadCount());
+		assertEquals(CANTIDAD_ESTUDIOS - 1, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getUpdateCount());
+		// Ningún estudio queda en el contexto de persistencia al terminar
+		assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+
+		List<Long> pendientes = entityManager.createQuery(
+				"SELECT e.id FROM EstudioGeofisico e WHERE e.latitudCentro IS NULL", Long.class).getResultList();
+		assertEquals(List.of(idSinCoordenadas), pendientes);
+		EstudioGeofisico estudio = entityManager.createQuery(
+				"SELECT e FROM EstudioGeofisico e WHERE e.id <> :id ORDER BY e.id", EstudioGeofisico.class)
+				.setParameter("id", idSinCoordenadas).setMaxResults(1).getSingleResult();
+		assertEquals(-33.5, estudio.getLatitudCentro());
+		assertEquals(-34.0, estudio.getLatitudMin());
+		assertNull(entityManager.find(EstudioGeofisico.class, idSinCoordenadas).getLongitudCentro());
+	}
+
+	@Test
+	void completarMascarasRecorreLosEstudiosPorLotes() {
+		assertEquals(CANTIDAD_ESTUDIOS, estudioGeofisicoService.completarMascarasEstudio());
+
+		assertEquals(CANTIDAD_ESTUDIOS, statistics.getEntityStatistics(EstudioGeofisico.class.getName()).getLoadCount());
+		assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+		assertEquals(0L, entityManager.createQuery("SELECT count(e) FROM EstudioGeofisico e " +
+				"WHERE e.tiposEstudioMask IS NULL OR e.areasEstudioMask IS NULL", Long.class).getSingleResult());
+		assertEquals((long) CANTIDAD_ESTUDIOS, entityManager.createQuery("SELECT count(e) FROM EstudioGeofisico e " +
+				"WHERE e.tiposEstudioMask = :tipos AND e.areasEstudioMask = :areas", Long.class)
+				.setParameter("tipos", MascaraBitsUtils.aMascara(Set.of(EnumTipoEstudioGeofisico.GPR)))
+				.setParameter("areas", MascaraBitsUtils.aMascara(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)))
+				.getSingleResult());
+	}
+}
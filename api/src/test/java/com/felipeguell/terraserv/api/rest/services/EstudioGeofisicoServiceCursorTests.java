@@ -0,0 +1,130 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisicoPageable;
+import com.felipeguell.terraserv.api.rest.models.entity.PaginaCursor;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+import com.felipeguell.terraserv.api.rest.util.CursorUtils;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que recorrer todas las páginas por cursor, por cada campo permitido y en ambas direcciones, entrega
+ * cada registro una sola vez y en el orden de la base de datos, con valores de ordenamiento repetidos y nulos,
+ * incluso cuando una página termina en un registro con el campo nulo.
+ */
+@DataJpaTest
+@Import({EstudioGeofisicoServiceImpl.class, IndiceEspacialEstudios.class, IndiceTextoEstudios.class, ContadoresFacetasEstudios.class,
+		SugerenciasEstudios.class, ClustersMapaEstudios.class, TeselasVectorialesEstudios.class,
+		CacheFiltrosEstudios.class})
+class EstudioGeofisicoServiceCursorTests {
+
+	private static final int CANTIDAD_REGISTROS = 45;
+	private static final int TAMANO_PAGINA = 4;
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		List<Object[]> filas = new ArrayList<>(CANTIDAD_REGISTROS);
+		// Los IDs no siguen el orden de inserción, para que el desempate por ID no coincida con el orden físico
+		for (int i = 0; i < CANTIDAD_REGISTROS; i++) {
+			long id = (i * 17L) % CANTIDAD_REGISTROS + 1;
+			LocalDateTime creacion = LocalDateTime.of(2024, 3, 1, 12, 0).plusHours(id % 4);
+			filas.add(new Object[]{
+					id,
+					"Estudio " + (char) ('a' + id % 5),
+					id % 4 == 0 ? null : "Cliente " + id % 3,
+					Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(id % 2)),
+					id % 5 == 0 ? null : "Ubicación " + id % 2,
+					Timestamp.valueOf(creacion),
+					id % 3 == 0 ? null : Timestamp.valueOf(creacion.plusDays(id % 3))});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO registros_estudios (id_estudio, nombre_estudio, nombre_cliente, fecha_realizado, " +
+				"ubicacion_estudio, fecha_hora_creacion, fecha_modificacion, tipos_estudio_mask, areas_estudio_mask) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?, 1, 1)", filas);
+	}
+
+	@Test
+	void recorrerTodasLasPaginasEntregaCadaRegistroUnaVezEnOrden() throws Exception {
+		for (String campo : CursorUtils.CAMPOS_ORDEN) {
+			for (Sort.Direction direccion : Sort.Direction.values()) {
+				List<Long> recorridos = new ArrayList<>();
+				String cursor = null;
+				do {
+					PaginaCursor<EstudioGeofisicoProjection> pagina = estudioGeofisicoService.obtenerRegistrosEstudioCursor(
+							filtro(campo, direccion, cursor));
+					assertTrue(pagina.getContent().size() <= TAMANO_PAGINA);
+					pagina.getContent().forEach(registro -> recorridos.add(registro.getId()));
+					assertEquals(pagina.getNextCursor() != null, pagina.isHasNext());
+					cursor = pagina.getNextCursor();
+				} while (cursor != null);
+
+				assertEquals(ordenEsperado(campo, direccion), recorridos, campo + ' ' + direccion);
+			}
+		}
+	}
+
+	@Test
+	void unCursorDeOtroOrdenamientoSeRechaza() throws Exception {
+		String cursor = estudioGeofisicoService.obtenerRegistrosEstudioCursor(filtro("nombreCliente", Sort.Direction.ASC, null))
+				.getNextCursor();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> estudioGeofisicoService.obtenerRegistrosEstudioCursor(filtro("nombreCliente", Sort.Direction.DESC, cursor)));
+		assertThrows(IllegalArgumentException.class,
+				() -> estudioGeofisicoService.obtenerRegistrosEstudioCursor(filtro("fechaModificacion", Sort.Direction.ASC, cursor)));
+	}
+
+	private static FiltroEstudioGeofisicoPageable filtro(String campo, Sort.Direction direccion, String cursor) {
+		FiltroEstudioGeofisicoPageable filtro = new FiltroEstudioGeofisicoPageable();
+		filtro.setSort(campo);
+		filtro.setDirection(direccion.name().toLowerCase());
+		filtro.setSize(TAMANO_PAGINA);
+		filtro.setCursor(cursor);
+		return filtro;
+	}
+
+	/**
+	 * Orden de todos los registros según la base de datos, con el ID como desempate.
+	 */
+	private List<Long> ordenEsperado(String campo, Sort.Direction direccion) {
+		String orderBy = "id".equals(campo)
+				? "r.id " + direccion.name()
+				: "r." + campo + ' ' + direccion.name() + ", r.id " + direccion.name();
+		return entityManager.createQuery("SELECT r.id FROM RegistroEstudio r ORDER BY " + orderBy, Long.class).getResultList();
+	}
+}
@@ -0,0 +1,100 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que filterEstudios arma las proyecciones con un número constante de consultas SQL,
+ * sin importar la cantidad de estudios, y sin cargar imágenes ni archivos adjuntos.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({EstudioGeofisicoServiceImpl.class, IndiceEspacialEstudios.class, IndiceTextoEstudios.class, ContadoresFacetasEstudios.class,
+		SugerenciasEstudios.class, ClustersMapaEstudios.class, TeselasVectorialesEstudios.class,
+		CacheFiltrosEstudios.class})
+class EstudioGeofisicoServiceFiltroTests {
+
+	private static final int CANTIDAD_ESTUDIOS = 500;
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < CANTIDAD_ESTUDIOS; i++) {
+			EstudioGeofisico estudio = new EstudioGeofisico();
+			estudio.setNombreEstudio("Estudio " + i);
+			estudio.setNombreCliente("Cliente " + i);
+			estudio.setDescripcion("Descripción " + i);
+			estudio.setFechaRealizado(new Date());
+			estudio.setUbicacionEstudio("Ubicación " + i);
+			estudio.setCoordenadas(new ArrayList<>(List.of(
+					new Coordenada(null, -33.0 + i * 0.001, -70.0),
+					new Coordenada(null, -33.1 + i * 0.001, -70.1))));
+			estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR, EnumTipoEstudioGeofisico.MASW)));
+			estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+			estudio.setImagenes(new ArrayList<>(List.of(new Imagen(null, "img-" + i, "img-" + i + ".png", 10L, null))));
+			estudio.setArchivosAdjuntos(new ArrayList<>(List.of(new ArchivoAdjunto(null, "doc-" + i, "doc-" + i + ".pdf", 10L, null))));
+			entityManager.persist(estudio);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void filterEstudiosUsaUnNumeroConstanteDeConsultas() throws Exception {
+		Set<EstudioGeofisicoProjection> proyecciones = estudioGeofisicoService.filterEstudios(new FiltroEstudioGeofisico());
+
+		assertEquals(CANTIDAD_ESTUDIOS, proyecciones.size());
+		// IDs filtrados + campos del estudio + coordenadas + tipos + áreas
+		assertEquals(5, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+
+		EstudioGeofisicoProjection proyeccion = proyecciones.iterator().next();
+		assertEquals(2, proyeccion.getCoordenadas().size());
+		assertEquals(2, proyeccion.getTiposEstudio().size());
+		assertTrue(proyeccion.getAreasEstudio().contains(EnumAreaAplicacionEstudioGeofisico.MINERIA));
+	}
+
+}
@@ -0,0 +1,189 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipeguell.terraserv.api.rest.cache.CacheFiltrosEstudios;
+import com.felipeguell.terraserv.api.rest.index.ClustersMapaEstudios;
+import com.felipeguell.terraserv.api.rest.index.ContadoresFacetasEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceEspacialEstudios;
+import com.felipeguell.terraserv.api.rest.index.IndiceTextoEstudios;
+import com.felipeguell.terraserv.api.rest.index.SugerenciasEstudios;
+import com.felipeguell.terraserv.api.rest.index.TeselasVectorialesEstudios;
+import com.felipeguell.terraserv.api.rest.models.dao.projections.EstudioGeofisicoProjection;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.FiltroEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.EstudioGeofisicoServiceImpl;
+import com.felipeguell.terraserv.api.rest.services.impl.ExportacionEstudiosServiceImpl;
+import com.felipeguell.terraserv.api.rest.util.CsvUtils;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que las exportaciones CSV y GeoJSON, que leen con una sesión sin estado, y el recorrido por lotes de
+ * las respuestas NDJSON entregan cada estudio filtrado una sola vez, con más estudios que los que el driver trae
+ * por viaje. En el CSV, los textos con comas, comillas y saltos de línea se leen iguales y los que empiezan
+ * como una fórmula se escriben con un apóstrofo adelante. Los estudios se guardan en transacciones confirmadas,
+ * ya que la sesión sin estado usa su propia conexión.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EstudioGeofisicoServiceImpl.class, ExportacionEstudiosServiceImpl.class, ObjectMapper.class, IndiceEspacialEstudios.class,
+		IndiceTextoEstudios.class, ContadoresFacetasEstudios.class, SugerenciasEstudios.class, ClustersMapaEstudios.class,
+		TeselasVectorialesEstudios.class, CacheFiltrosEstudios.class})
+class ExportacionEstudiosServiceTests {
+
+	// 600 estudios filtrados, más que TAMANO_FETCH_EXPORTACION y que TAMANO_LOTE_STREAMING
+	private static final int CANTIDAD_ESTUDIOS = 900;
+
+	// Textos ingresados por usuarios, asignados a los primeros estudios
+	private static final List<String> NOMBRES = List.of("=HYPERLINK(\"http://ejemplo.com\",\"clic\")", "+56 9 1234 5678",
+			"-2+3", "@SUM(A1:A9)", "Con, coma y \"comillas\"", "Línea 1\r\nLínea 2");
+
+	@Autowired
+	private IExportacionEstudiosService exportacionEstudiosService;
+
+	@Autowired
+	private IEstudioGeofisicoService estudioGeofisicoService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private TransactionTemplate transactionTemplate;
+
+	// Nombre de cada estudio GPR, los únicos que cumplen el filtro
+	private final Map<Long, String> filtrados = new HashMap<>();
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(estado -> {
+			for (int i = 0; i < CANTIDAD_ESTUDIOS; i++) {
+				boolean gpr = i % 3 != 2;
+				EstudioGeofisico estudio = new EstudioGeofisico();
+				estudio.setNombreEstudio(i < NOMBRES.size() ? NOMBRES.get(i) : "Estudio " + i);
+				estudio.setNombreCliente("Cliente " + i);
+				estudio.setDescripcion("Descripción " + i);
+				estudio.setFechaRealizado(new Date());
+				estudio.setUbicacionEstudio("Ubicación " + i);
+				estudio.setCoordenadas(new ArrayList<>(List.of(
+						new Coordenada(null, -33.0, -70.0 - i * 0.001),
+						new Coordenada(null, -34.0, -71.0))));
+				estudio.setTiposEstudio(new HashSet<>(Set.of(gpr ? EnumTipoEstudioGeofisico.GPR : EnumTipoEstudioGeofisico.MASW)));
+				estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+				estudio.setImagenes(new ArrayList<>());
+				estudio.setArchivosAdjuntos(new ArrayList<>());
+				entityManager.persist(estudio);
+				if (gpr) {
+					filtrados.put(estudio.getId(), estudio.getNombreEstudio());
+				}
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		transactionTemplate.executeWithoutResult(estado -> entityManager
+				.createQuery("SELECT e FROM EstudioGeofisico e", EstudioGeofisico.class)
+				.getResultList()
+				.forEach(entityManager::remove));
+	}
+
+	@Test
+	void elCsvContieneCadaEstudioFiltradoConSusTextosEscapados() throws ParseException, IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		exportacionEstudiosService.exportarCsv(filtroGpr(), salida);
+
+		BufferedReader lector = new BufferedReader(new StringReader(salida.toString(StandardCharsets.UTF_8)));
+		List<String> encabezado = CsvUtils.leerFila(lector);
+		assertEquals("\uFEFFid", encabezado.get(0));
+		int columnaNombre = encabezado.indexOf("nombreEstudio");
+
+		List<Long> ids = new ArrayList<>();
+		List<String> fila;
+		while ((fila = CsvUtils.leerFila(lector)) != null) {
+			Long id = Long.valueOf(fila.get(0));
+			ids.add(id);
+			String nombre = fila.get(columnaNombre);
+			// Ninguna celda de texto empieza como una fórmula y la importación recupera el texto original
+			assertTrue("=+-@".indexOf(nombre.charAt(0)) < 0, nombre);
+			assertEquals(filtrados.get(id), CsvUtils.restaurarFormula(nombre));
+			assertTrue(fila.get(6).startsWith("-33.0 ") && fila.get(6).endsWith(";-34.0 -71.0"), fila.get(6));
+		}
+
+		assertEquals(filtrados.keySet().stream().sorted().toList(), ids);
+	}
+
+	@Test
+	void elGeoJsonContieneCadaEstudioFiltrado() throws ParseException, IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		exportacionEstudiosService.exportarGeoJson(filtroGpr(), salida);
+
+		JsonNode coleccion = objectMapper.readTree(salida.toByteArray());
+		assertEquals("FeatureCollection", coleccion.get("type").asText());
+		List<Long> ids = new ArrayList<>();
+		for (JsonNode feature : coleccion.get("features")) {
+			long id = feature.get("id").asLong();
+			ids.add(id);
+			assertEquals(filtrados.get(id), feature.get("properties").get("nombreEstudio").asText());
+			assertEquals("LineString", feature.get("geometry").get("type").asText());
+			assertEquals(-34.0, feature.get("geometry").get("coordinates").get(1).get(1).asDouble());
+		}
+
+		assertEquals(filtrados.keySet().stream().sorted().toList(), ids);
+	}
+
+	@Test
+	void elRecorridoPorLotesEntregaCadaEstudioFiltradoUnaVez() throws ParseException {
+		List<Long> ids = new ArrayList<>();
+		List<Integer> lotes = new ArrayList<>();
+		estudioGeofisicoService.recorrerEstudiosFiltrados(filtroGpr(), lote -> {
+			lotes.add(lote.size());
+			lote.stream().map(EstudioGeofisicoProjection::getId).forEach(ids::add);
+		});
+
+		assertTrue(lotes.size() > 1);
+		assertEquals(filtrados.keySet().stream().sorted().toList(), ids);
+	}
+
+	private static FiltroEstudioGeofisico filtroGpr() {
+		FiltroEstudioGeofisico filtro = new FiltroEstudioGeofisico();
+		filtro.setTipoEstudio(EnumTipoEstudioGeofisico.GPR.name());
+		return filtro;
+	}
+}
@@ -0,0 +1,183 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.ResultadoImportacion;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumFormatoImportacion;
+import com.felipeguell.terraserv.api.rest.services.impl.ImportacionEstudiosServiceImpl;
+
+import jakarta.validation.Validation;
+
+/**
+ * Verifica la lectura de los formatos de importación (campos CSV con saltos de línea, encabezado con marca de
+ * orden de bytes, textos exportados con un apóstrofo ante una fórmula, geometrías GeoJSON), el rechazo de
+ * registros mal formados, el máximo de errores detallados y que un lote que la base de datos rechaza se vuelve
+ * a guardar de a un registro, rechazando solo los que fallan.
+ */
+class ImportacionEstudiosServiceTests {
+
+	private final IEstudioGeofisicoService estudioGeofisicoService = mock(IEstudioGeofisicoService.class);
+	private final IImportacionEstudiosService importacionEstudiosService = new ImportacionEstudiosServiceImpl(
+			estudioGeofisicoService, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+
+	private final List<EstudioGeofisico> guardados = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(estudioGeofisicoService.saveAll(anyList())).thenAnswer(invocacion -> {
+			List<EstudioGeofisico> estudios = invocacion.getArgument(0);
+			guardados.addAll(estudios);
+			return estudios;
+		});
+	}
+
+	@Test
+	void csvConEncabezadoConMarcaDeOrdenDeBytesYCampoConSaltoDeLinea() throws IOException {
+		String contenido = "\uFEFFnombreEstudio,nombreCliente,descripcion,fechaRealizado,ubicacionEstudio,coordenadas,tiposEstudio,areasEstudio\r\n"
+				+ "Estudio,Cliente,\"Primera línea\r\nsegunda, con \"\"comillas\"\"\",2023-05-10,Ubicación,-33.0 -70.0;-33.1 -70.1,GPR,MINERIA\r\n";
+
+		ResultadoImportacion resultado = importar(EnumFormatoImportacion.CSV, contenido);
+
+		assertEquals(1, resultado.getRegistros());
+		assertEquals(1, resultado.getImportados());
+		assertEquals(0, resultado.getRechazados());
+		EstudioGeofisico estudio = guardados.get(0);
+		assertEquals("Estudio", estudio.getNombreEstudio());
+		assertEquals("Primera línea\r\nsegunda, con \"comillas\"", estudio.getDescripcion());
+		assertEquals(2, estudio.getCoordenadas().size());
+		assertEquals(-33.1, estudio.getCoordenadas().get(1).getLatitudDecimal());
+		assertEquals(-70.1, estudio.getCoordenadas().get(1).getLongitudDecimal());
+	}
+
+	@Test
+	void csvExportadoRecuperaLosTextosQueEmpiezanComoFormula() throws IOException {
+		String contenido = "nombreEstudio,nombreCliente,descripcion,fechaRealizado,ubicacionEstudio,coordenadas,tiposEstudio,areasEstudio\r\n"
+				+ "'=SUM(A1:A9),'+56 9 1234,'apóstrofo,2023-05-10,Ubicación,-33.0 -70.0,GPR,MINERIA\r\n";
+
+		importar(EnumFormatoImportacion.CSV, contenido);
+
+		EstudioGeofisico estudio = guardados.get(0);
+		assertEquals("=SUM(A1:A9)", estudio.getNombreEstudio());
+		assertEquals("+56 9 1234", estudio.getNombreCliente());
+		// Un apóstrofo que no antecede a una fórmula es parte del texto
+		assertEquals("'apóstrofo", estudio.getDescripcion());
+	}
+
+	@Test
+	void geoJsonConPoligonoYMultiPunto() throws IOException {
+		String contenido = "{\"type\":\"FeatureCollection\",\"features\":["
+				+ feature("Polígono", "{\"type\":\"Polygon\",\"coordinates\":[[[-70.0,-33.0],[-70.1,-33.0],[-70.1,-33.1],[-70.0,-33.0]]]}") + ","
+				+ feature("Multipunto", "{\"type\":\"MultiPoint\",\"coordinates\":[[-71.0,-34.0],[-71.5,-34.5]]}")
+				+ "]}";
+
+		ResultadoImportacion resultado = importar(EnumFormatoImportacion.GEOJSON, contenido);
+
+		assertEquals(2, resultado.getImportados());
+		EstudioGeofisico poligono = guardados.get(0);
+		// El anillo cerrado no repite el primer vértice y las posiciones GeoJSON son [longitud, latitud]
+		assertEquals(3, poligono.getCoordenadas().size());
+		assertEquals(-33.0, poligono.getCoordenadas().get(0).getLatitudDecimal());
+		assertEquals(-70.0, poligono.getCoordenadas().get(0).getLongitudDecimal());
+		EstudioGeofisico multipunto = guardados.get(1);
+		assertEquals(2, multipunto.getCoordenadas().size());
+		assertEquals(-34.5, multipunto.getCoordenadas().get(1).getLatitudDecimal());
+		assertEquals(-71.5, multipunto.getCoordenadas().get(1).getLongitudDecimal());
+	}
+
+	@Test
+	void lineaMalFormadaSeRechazaSinDetenerLaImportacion() throws IOException {
+		ResultadoImportacion resultado = importar(EnumFormatoImportacion.NDJSON,
+				ndjson("Estudio 1") + "\n{\"nombreEstudio\": \n\n" + ndjson("Estudio 3") + "\n");
+
+		assertEquals(3, resultado.getRegistros());
+		assertEquals(2, resultado.getImportados());
+		assertEquals(1, resultado.getRechazados());
+		assertEquals(2, resultado.getErrores().get(0).getRegistro());
+		assertTrue(resultado.getErrores().get(0).getMensajes().get(0).startsWith("JSON mal formado"));
+	}
+
+	@Test
+	void seDetallanHastaElMaximoDeErrores() throws IOException {
+		StringBuilder contenido = new StringBuilder();
+		for (int i = 0; i < 1005; i++) {
+			contenido.append("{}\n");
+		}
+
+		ResultadoImportacion resultado = importar(EnumFormatoImportacion.NDJSON, contenido.toString());
+
+		assertEquals(1005, resultado.getRegistros());
+		assertEquals(1005, resultado.getRechazados());
+		assertEquals(1000, resultado.getErrores().size());
+		assertEquals(1000, resultado.getErrores().get(999).getRegistro());
+		assertFalse(resultado.getErrores().get(0).getMensajes().isEmpty());
+		assertTrue(guardados.isEmpty());
+	}
+
+	@Test
+	void loteRechazadoSeReintentaDeAUnRegistro() throws IOException {
+		List<Long> idsAlReintentar = new ArrayList<>();
+		when(estudioGeofisicoService.saveAll(anyList())).thenAnswer(invocacion -> {
+			List<EstudioGeofisico> estudios = invocacion.getArgument(0);
+			// Como persist, el intento asigna IDs antes de que falle el INSERT
+			estudios.forEach(estudio -> {
+				idsAlReintentar.add(estudio.getId());
+				estudio.setId(99L);
+			});
+			if (estudios.stream().anyMatch(estudio -> estudio.getNombreEstudio().equals("Duplicado"))) {
+				throw new DataIntegrityViolationException("Valor duplicado");
+			}
+			return estudios;
+		});
+
+		ResultadoImportacion resultado = importar(EnumFormatoImportacion.NDJSON,
+				ndjson("Estudio 1") + "\n" + ndjson("Duplicado") + "\n" + ndjson("Estudio 3"));
+
+		assertEquals(3, resultado.getRegistros());
+		assertEquals(2, resultado.getImportados());
+		assertEquals(1, resultado.getRechazados());
+		assertEquals(1, resultado.getErrores().size());
+		assertEquals(2, resultado.getErrores().get(0).getRegistro());
+		assertTrue(resultado.getErrores().get(0).getMensajes().get(0).contains("Valor duplicado"));
+		// Un intento del lote completo y uno por cada registro, sin los IDs asignados por el intento anterior
+		verify(estudioGeofisicoService, times(4)).saveAll(anyList());
+		idsAlReintentar.forEach(id -> assertNull(id));
+	}
+
+	private ResultadoImportacion importar(EnumFormatoImportacion formato, String contenido) throws IOException {
+		return importacionEstudiosService.importar(
+				new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), formato, StandardCharsets.UTF_8);
+	}
+
+	private static String feature(String nombreEstudio, String geometria) {
+		return "{\"type\":\"Feature\",\"geometry\":" + geometria + ",\"properties\":{\"nombreEstudio\":\"" + nombreEstudio + "\","
+				+ "\"nombreCliente\":\"Cliente\",\"descripcion\":\"Descripción\",\"fechaRealizado\":\"2023-05-10\","
+				+ "\"ubicacionEstudio\":\"Ubicación\",\"tiposEstudio\":[\"GPR\"],\"areasEstudio\":[\"MINERIA\"]}}";
+	}
+
+	private static String ndjson(String nombreEstudio) {
+		return "{\"nombreEstudio\":\"" + nombreEstudio + "\",\"nombreCliente\":\"Cliente\",\"descripcion\":\"Descripción\","
+				+ "\"fechaRealizado\":\"2023-05-10\",\"ubicacionEstudio\":\"Ubicación\","
+				+ "\"coordenadas\":[{\"latitudDecimal\":-33.0,\"longitudDecimal\":-70.0}],"
+				+ "\"tiposEstudio\":[\"GPR\"],\"areasEstudio\":[\"MINERIA\"]}";
+	}
+}
@@ -0,0 +1,112 @@
+package com.felipeguell.terraserv.api.rest.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.felipeguell.terraserv.api.rest.amazon.S3Service;
+import com.felipeguell.terraserv.api.rest.models.dao.IObjetoS3PendienteDao;
+import com.felipeguell.terraserv.api.rest.models.entity.ArchivoAdjunto;
+import com.felipeguell.terraserv.api.rest.models.entity.Coordenada;
+import com.felipeguell.terraserv.api.rest.models.entity.EstadisticasReconciliacionS3;
+import com.felipeguell.terraserv.api.rest.models.entity.EstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.entity.Imagen;
+import com.felipeguell.terraserv.api.rest.models.entity.ObjetoS3Pendiente;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumAreaAplicacionEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.models.enumeration.EnumTipoEstudioGeofisico;
+import com.felipeguell.terraserv.api.rest.services.impl.ReconciliacionObjetosS3ServiceImpl;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica que la reconciliación deja pendientes de eliminación solo los objetos del BUCKET sin referencias,
+ * más antiguos que el período de gracia y que no estaban ya pendientes.
+ */
+@DataJpaTest
+@Import(ReconciliacionObjetosS3ServiceImpl.class)
+class ReconciliacionObjetosS3ServiceTests {
+
+	@Autowired
+	private IReconciliacionObjetosS3Service reconciliacionObjetosS3Service;
+
+	@Autowired
+	private IObjetoS3PendienteDao objetoS3PendienteDao;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@BeforeEach
+	void setUp() {
+		EstudioGeofisico estudio = new EstudioGeofisico();
+		estudio.setNombreEstudio("Estudio");
+		estudio.setNombreCliente("Cliente");
+		estudio.setDescripcion("Descripción");
+		estudio.setFechaRealizado(new Date());
+		estudio.setUbicacionEstudio("Ubicación");
+		estudio.setCoordenadas(new ArrayList<>(List.of(
+				new Coordenada(null, -33.0, -70.0),
+				new Coordenada(null, -33.1, -70.1))));
+		estudio.setTiposEstudio(new HashSet<>(Set.of(EnumTipoEstudioGeofisico.GPR)));
+		estudio.setAreasEstudio(new HashSet<>(Set.of(EnumAreaAplicacionEstudioGeofisico.MINERIA)));
+		estudio.setImagenes(new ArrayList<>(List.of(new Imagen(null, "img-1", "img-1.png", 10L, null))));
+		estudio.setArchivosAdjuntos(new ArrayList<>(List.of(new ArchivoAdjunto(null, "doc-1", "doc-1.pdf", 10L, null))));
+		entityManager.persist(estudio);
+		entityManager.persist(new ObjetoS3Pendiente("pendiente", new Date()));
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void reconciliarDejaPendientesSoloLosHuerfanosAntiguos() {
+		Date antiguo = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+		doAnswer(invocacion -> {
+			Consumer<List<S3ObjectSummary>> consumidorPagina = invocacion.getArgument(0);
+			consumidorPagina.accept(List.of(objeto("img-1", antiguo), objeto("doc-1", antiguo), objeto("pendiente", antiguo)));
+			consumidorPagina.accept(List.of(objeto("huerfano", antiguo), objeto("reciente", new Date())));
+			return null;
+		}).when(s3Service).recorrerObjetos(any());
+
+		EstadisticasReconciliacionS3 estadisticas = reconciliacionObjetosS3Service.reconciliar();
+		entityManager.flush();
+
+		assertEquals(5, estadisticas.getObjetosRevisados());
+		assertEquals(1, estadisticas.getObjetosRecientes());
+		assertEquals(2, estadisticas.getObjetosReferenciados());
+		assertEquals(1, estadisticas.getObjetosPendientes());
+		assertEquals(1, estadisticas.getObjetosHuerfanos());
+		assertEquals(Set.of("pendiente", "huerfano"),
+				Set.copyOf(objetoS3PendienteDao.findAll().stream().map(ObjetoS3Pendiente::getClave).toList()));
+
+		// El primer intento se posterga por otro período de gracia
+		ObjetoS3Pendiente huerfano = objetoS3PendienteDao.findAll().stream()
+				.filter(objeto -> objeto.getClave().equals("huerfano")).findFirst().orElseThrow();
+		assertTrue(huerfano.getProximoIntento().after(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(23))));
+	}
+
+	private static S3ObjectSummary objeto(String clave, Date ultimaModificacion) {
+		S3ObjectSummary objeto = new S3ObjectSummary();
+		objeto.setKey(clave);
+		objeto.setLastModified(ultimaModificacion);
+		return objeto;
+	}
+}
@@ -0,0 +1,73 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica que los campos escritos con escribirFila se leen iguales con leerFila, incluidos los que tienen
+ * comas, comillas y saltos de línea, y que los textos que empiezan como una fórmula se escriben con un
+ * apóstrofo adelante que restaurarFormula quita.
+ */
+class CsvUtilsTests {
+
+	@Test
+	void losCamposConComasComillasYSaltosDeLineaSeLeenIguales() throws IOException {
+		List<List<String>> filas = List.of(
+				List.of("simple", "con, coma", "con \"comillas\"", "línea 1\r\nlínea 2", "solo\nsalto", "\"", ""),
+				List.of("ñandú", "  espacios  ", "fin\r"));
+
+		assertEquals(filas, leer(escribir(filas)));
+	}
+
+	@Test
+	void losCamposNulosSeEscribenVacios() throws IOException {
+		String csv = escribir(List.of(Arrays.asList("a", null, "c")));
+
+		assertEquals("a,,c\r\n", csv);
+		assertEquals(List.of(List.of("a", "", "c")), leer(csv));
+	}
+
+	@Test
+	void losTextosQueEmpiezanComoFormulaSeEscribenConUnApostrofo() throws IOException {
+		List<String> textos = List.of("=HYPERLINK(\"http://ejemplo.com\",\"clic\")", "+56 9 1234 5678", "-2+3", "@SUM(A1:A9)",
+				"\tcon tabulación", "\rcon retorno", "'=ya prefijado", "''doble", "'apóstrofo común", "normal = 1", "'", "");
+
+		List<String> neutralizados = textos.stream().map(CsvUtils::neutralizarFormula).collect(Collectors.toList());
+		List<String> leidos = leer(escribir(List.of(neutralizados))).get(0);
+
+		assertEquals(List.of("'=HYPERLINK(\"http://ejemplo.com\",\"clic\")", "'+56 9 1234 5678", "'-2+3", "'@SUM(A1:A9)",
+				"'\tcon tabulación", "'\rcon retorno", "''=ya prefijado", "'''doble", "'apóstrofo común", "normal = 1", "'", ""), leidos);
+		assertEquals(textos, leidos.stream().map(CsvUtils::restaurarFormula).collect(Collectors.toList()));
+		assertNull(CsvUtils.neutralizarFormula(null));
+		assertNull(CsvUtils.restaurarFormula(null));
+	}
+
+	private static String escribir(List<List<String>> filas) throws IOException {
+		StringWriter escritor = new StringWriter();
+		for (List<String> fila : filas) {
+			CsvUtils.escribirFila(escritor, fila);
+		}
+		return escritor.toString();
+	}
+
+	private static List<List<String>> leer(String csv) throws IOException {
+		BufferedReader lector = new BufferedReader(new StringReader(csv));
+		List<List<String>> filas = new ArrayList<>();
+		List<String> fila;
+		while ((fila = CsvUtils.leerFila(lector)) != null) {
+			filas.add(fila);
+		}
+		return filas;
+	}
+}
@@ -0,0 +1,81 @@
+package com.felipeguell.terraserv.api.rest.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Verifica que los cursores de la paginación por clave se decodifican con el mismo campo, dirección, ID y valor
+ * con que se codificaron, incluidos los valores nulos, las fechas y los textos con el separador, y que se
+ * rechazan los cursores alterados o que no son Base64.
+ */
+class CursorUtilsTests {
+
+	@Test
+	void losCursoresSeDecodificanIgualesAComoSeCodificaron() {
+		Date fecha = new Date(1_700_000_000_123L);
+
+		assertCursor("fechaModificacion", Sort.Direction.DESC, fecha, 42L);
+		assertCursor("id", Sort.Direction.ASC, 42L, 42L);
+		assertCursor("nombreEstudio", Sort.Direction.ASC, "Estudio ñandú, \"con\" comillas\n", 7L);
+		assertCursor("nombreCliente", Sort.Direction.DESC, "", 8L);
+		// El separador y los prefijos de tipo dentro del texto no alteran el cursor
+		assertCursor("ubicacionEstudio", Sort.Direction.ASC, "n\u001Fd12\u001Fl", 9L);
+	}
+
+	@Test
+	void losValoresNulosSeDistinguenDelTextoNull() {
+		CursorUtils.Cursor nulo = CursorUtils.decodificar(CursorUtils.codificar("fechaModificacion", Sort.Direction.ASC, null, 5L));
+		CursorUtils.Cursor texto = CursorUtils.decodificar(CursorUtils.codificar("nombreCliente", Sort.Direction.ASC, "null", 5L));
+
+		assertNull(nulo.getValor());
+		assertEquals(5L, nulo.getId());
+		assertEquals("null", texto.getValor());
+	}
+
+	@Test
+	void losCursoresAlteradosSeRechazan() {
+		String valido = CursorUtils.codificar("nombreEstudio", Sort.Direction.ASC, "Estudio", 3L);
+		String contenido = new String(Base64.getUrlDecoder().decode(valido), StandardCharsets.UTF_8);
+
+		assertInvalido("no es base64!");
+		assertInvalido("");
+		assertInvalido(valido.substring(0, valido.length() - 3) + "***");
+		assertInvalido(base64(contenido.replace("nombreEstudio", "descripcion")));
+		assertInvalido(base64(contenido.replace("ASC", "ARRIBA")));
+		assertInvalido(base64(contenido.replace("\u001F3\u001F", "\u001Ftres\u001F")));
+		assertInvalido(base64(contenido.replace("sEstudio", "xEstudio")));
+		assertInvalido(base64(contenido.replace("sEstudio", "nEstudio")));
+		assertInvalido(base64(contenido.replace("sEstudio", "")));
+		assertInvalido(base64("nombreEstudio\u001FASC\u001F3"));
+		// El tipo del valor debe corresponder al del campo
+		assertInvalido(base64("fechaRealizado\u001FASC\u001F3\u001Fs2024-01-01"));
+		assertInvalido(base64("nombreEstudio\u001FASC\u001F3\u001Fd1700000000000"));
+		assertInvalido(base64("fechaRealizado\u001FASC\u001F3\u001Fdmañana"));
+	}
+
+	private static void assertCursor(String campo, Sort.Direction direccion, Object valor, Long id) {
+		CursorUtils.Cursor cursor = CursorUtils.decodificar(CursorUtils.codificar(campo, direccion, valor, id));
+
+		assertEquals(campo, cursor.getCampo());
+		assertEquals(direccion, cursor.getDireccion());
+		assertEquals(valor, cursor.getValor());
+		assertEquals(id, cursor.getId());
+	}
+
+	private static void assertInvalido(String cursor) {
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CursorUtils.decodificar(cursor), cursor);
+		assertEquals("El cursor no es válido", ex.getMessage());
+	}
+
+	private static String base64(String contenido) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+	}
+}